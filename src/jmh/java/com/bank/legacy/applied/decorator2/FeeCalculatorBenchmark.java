@@ -0,0 +1,78 @@
+package com.bank.legacy.applied.decorator2;
+
+import com.bank.legacy.applied.money.Money;
+import com.bank.legacy.old.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pile de décorateurs FeeCalculator (Weekend(Usd(Base))) contre le calcul en un bloc
+ * de TransferFeeService. Placé dans le paquet decorator2 : les décorateurs sont package-private.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeeCalculatorBenchmark {
+
+    private static final int POOL_SIZE = 1 << 12;
+
+    private FeeCalculator decorators;
+    private TransferFeeService service;
+    private Transaction[] pool;
+    private int cursor;
+    private PrintStream originalOut;
+
+    @Setup
+    public void setUp() {
+        // Les décorateurs tracent chaque appel sur la console
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        decorators = new WeekendDecorator(new UsdDecorator(new BaseInternationalFee()));
+        service = new TransferFeeService();
+        Random random = new Random(42);
+        FeeCalculator.Currency[] currencies = FeeCalculator.Currency.values();
+        pool = new Transaction[POOL_SIZE];
+        for (int i = 0; i < POOL_SIZE; i++) {
+            pool[i] = new Transaction("TX" + i, "VIREMENT_INTERNATIONAL",
+                Money.of(100 + random.nextInt(10_000_000), currencies[i % currencies.length]), "A", "B");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public long decoratorStack() {
+        return decorators.feeMinor(pool[cursor++ & (POOL_SIZE - 1)]);
+    }
+
+    @Benchmark
+    public Money decoratorStackMoney() {
+        return decorators.fee(pool[cursor++ & (POOL_SIZE - 1)]);
+    }
+
+    @Benchmark
+    public Money transferFeeService() {
+        return service.calculateFee(pool[cursor++ & (POOL_SIZE - 1)]);
+    }
+}
@@ -0,0 +1,103 @@
+package com.bank.legacy.bench;
+
+import com.bank.legacy.applied.batch.BatchResult;
+import com.bank.legacy.applied.batch.TransactionRequest;
+import com.bank.legacy.old.BankAccount;
+import com.bank.legacy.old.BankingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recherche de comptes : ConcurrentHashMap par numéro (ancien stockage) contre handle entier,
+ * et lot de virements (résolution des numéros une fois par tranche, puis tout en handles).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = BenchmarkData.FORK_HEAP)
+public class AccountLookupBenchmark {
+
+    private static final int POOL_SIZE = 1 << 16;
+    private static final int BATCH = 4096;
+
+    @Param({"1000000"})
+    public int accounts;
+
+    private BankingService service;
+    private ConcurrentHashMap<String, BankAccount> byNumber;
+    private String[] numbers;
+    private int[] handles;
+    private List<TransactionRequest> batch;
+    private int cursor;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        originalOut = BenchmarkData.silenceConsole();
+        service = new BankingService();
+        String[] accountNumbers = BenchmarkData.populate(service, accounts, 0, 42);
+        byNumber = new ConcurrentHashMap<>();
+        for (String number : accountNumbers) {
+            byNumber.put(number, service.getAccount(number));
+        }
+
+        Random random = new Random(7);
+        numbers = new String[POOL_SIZE];
+        handles = new int[POOL_SIZE];
+        for (int i = 0; i < POOL_SIZE; i++) {
+            // Copie : le numéro reçu d'un appelant n'est pas l'instance enregistrée
+            numbers[i] = new String(accountNumbers[random.nextInt(accountNumbers.length)]);
+            handles[i] = service.getAccountHandle(numbers[i]);
+        }
+        batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            batch.add(new TransactionRequest("VIREMENT", numbers[i], numbers[POOL_SIZE - 1 - i], 0.01));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public BankAccount lookupConcurrentHashMap() {
+        return byNumber.get(numbers[cursor++ & (POOL_SIZE - 1)]);
+    }
+
+    @Benchmark
+    public BankAccount lookupByNumber() {
+        return service.getAccount(numbers[cursor++ & (POOL_SIZE - 1)]);
+    }
+
+    @Benchmark
+    public BankAccount lookupByHandle() {
+        return service.getAccount(handles[cursor++ & (POOL_SIZE - 1)]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public BatchResult transferBatch() {
+        return service.processBatch(batch);
+    }
+}
@@ -0,0 +1,149 @@
+package com.bank.legacy.bench;
+
+import com.bank.legacy.applied.batch.BatchResult;
+import com.bank.legacy.applied.batch.InterestRunSummary;
+import com.bank.legacy.applied.batch.TransactionRequest;
+import com.bank.legacy.old.BankingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chemins critiques de BankingService sur un service déjà chargé :
+ * processTransaction pour chaque type, processBatch, generateStatement, applyInterest
+ * et applyInterestParallel.
+ * processBatch est ramené au coût par transaction (OperationsPerInvocation) pour être
+ * comparable à processTransaction.
+ *
+ * Lancer avec : java -jar target/benchmarks.jar BankingServiceBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = BenchmarkData.FORK_HEAP)
+public class BankingServiceBenchmark {
+
+    private static final int BATCH_SIZE = 10_000;
+
+    @Param({"1000000"})
+    public int accounts;
+
+    @Param({"10000000"})
+    public int transactions;
+
+    private BankingService service;
+    private String[] accountNumbers;
+    private List<TransactionRequest> batch;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        originalOut = BenchmarkData.silenceConsole();
+        service = new BankingService();
+        accountNumbers = BenchmarkData.populate(service, accounts, transactions, 42);
+
+        // Même mélange que populate : un tiers de dépôts, de retraits et de virements
+        Random random = new Random(7);
+        batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            String source = accountNumbers[random.nextInt(accountNumbers.length)];
+            String destination = accountNumbers[random.nextInt(accountNumbers.length)];
+            switch (i % 3) {
+                case 0 -> batch.add(TransactionRequest.depot(destination, 50.0));
+                case 1 -> batch.add(TransactionRequest.retrait(source, 50.0));
+                default -> batch.add(TransactionRequest.virement(source, destination, 50.0));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    private String randomAccount() {
+        return accountNumbers[ThreadLocalRandom.current().nextInt(accountNumbers.length)];
+    }
+
+    @Benchmark
+    public boolean depot() {
+        return service.processTransaction("DEPOT", null, randomAccount(), 50.0);
+    }
+
+    @Benchmark
+    public boolean retrait() {
+        return service.processTransaction("RETRAIT", randomAccount(), null, 50.0);
+    }
+
+    @Benchmark
+    public boolean virement() {
+        return service.processTransaction("VIREMENT", randomAccount(), randomAccount(), 50.0);
+    }
+
+    @Benchmark
+    public boolean rejected() {
+        // Retrait au-delà du découvert : rejeté mais quand même enregistré
+        return service.processTransaction("RETRAIT", randomAccount(), null, 1_000_000.0);
+    }
+
+    @Benchmark
+    public boolean mixedSequential() {
+        // Référence pour processBatch : le même mélange, une transaction par appel
+        String source = randomAccount();
+        String destination = randomAccount();
+        return switch (ThreadLocalRandom.current().nextInt(3)) {
+            case 0 -> service.processTransaction("DEPOT", null, destination, 50.0);
+            case 1 -> service.processTransaction("RETRAIT", source, null, 50.0);
+            default -> service.processTransaction("VIREMENT", source, destination, 50.0);
+        };
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public BatchResult processBatch() {
+        return service.processBatch(batch);
+    }
+
+    @Benchmark
+    public String generateStatement() {
+        return service.generateStatement(randomAccount());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public void applyInterest() {
+        service.applyInterest();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public InterestRunSummary applyInterestParallel() {
+        return service.applyInterestParallel();
+    }
+}
@@ -0,0 +1,63 @@
+package com.bank.legacy.bench;
+
+import com.bank.legacy.old.BankAccount;
+import com.bank.legacy.old.BankingService;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+
+/**
+ * Jeux de données communs aux benchmarks.
+ *
+ * Les tailles par défaut (1M comptes, 10M transactions) demandent un tas d'environ 8 Go :
+ * les benchmarks qui les utilisent forkent avec -Xmx8g. Pour un essai rapide, réduire avec
+ * -p accounts=10000 -p transactions=100000.
+ */
+final class BenchmarkData {
+
+    static final String FORK_HEAP = "-Xmx8g";
+
+    private static final String[] ACCOUNT_TYPES = {"COURANT", "EPARGNE", "PROFESSIONNEL"};
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Le code legacy écrit sur la console à chaque opération : on mesure le traitement, pas le terminal
+     */
+    static PrintStream silenceConsole() {
+        PrintStream original = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        return original;
+    }
+
+    /**
+     * Crée un service avec {@code accountCount} comptes de types mélangés puis y passe
+     * {@code transactionCount} transactions (dépôts, retraits et virements) tirées au hasard.
+     *
+     * @return les numéros de compte créés, dans l'ordre de création
+     */
+    static String[] populate(BankingService service, int accountCount, int transactionCount, long seed) {
+        Random random = new Random(seed);
+        String[] accountNumbers = new String[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            String type = ACCOUNT_TYPES[i % ACCOUNT_TYPES.length];
+            BankAccount account = service.createAccount(type, "Client " + i, "client" + i + "@email.fr",
+                "06" + (10_000_000 + i), 5000.0);
+            accountNumbers[i] = account.getAccountNumber();
+        }
+
+        for (int i = 0; i < transactionCount; i++) {
+            String source = accountNumbers[random.nextInt(accountCount)];
+            String destination = accountNumbers[random.nextInt(accountCount)];
+            double amount = 1 + random.nextInt(200);
+            switch (i % 3) {
+                case 0 -> service.processTransaction("DEPOT", null, destination, amount);
+                case 1 -> service.processTransaction("RETRAIT", source, null, amount);
+                default -> service.processTransaction("VIREMENT", source, destination, amount);
+            }
+        }
+        return accountNumbers;
+    }
+}
@@ -0,0 +1,102 @@
+package com.bank.legacy.bench;
+
+import com.bank.legacy.applied.store.AccountDirectory;
+import com.bank.legacy.applied.store.ColumnarTransactionStore;
+import com.bank.legacy.old.Transaction;
+import com.bank.legacy.old.TransactionType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parcours analytiques du grand livre : liste d'objets Transaction contre ColumnarTransactionStore.
+ * Les transactions sont mélangées en mémoire comme dans un grand livre alimenté au fil de l'eau.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = BenchmarkData.FORK_HEAP)
+public class ColumnarBenchmark {
+
+    private static final String[] TYPES = {"DEPOT", "RETRAIT", "VIREMENT"};
+
+    @Param({"1000000"})
+    public int accounts;
+
+    @Param({"10000000"})
+    public int transactions;
+
+    private List<Transaction> ledger;
+    private ColumnarTransactionStore store;
+    private String account;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        ledger = new ArrayList<>(transactions);
+        AccountDirectory directory = new AccountDirectory();
+        for (int i = 0; i < accounts; i++) {
+            directory.intern("ACC" + (1000 + i));
+        }
+        store = new ColumnarTransactionStore(directory);
+        for (int i = 0; i < transactions; i++) {
+            String type = TYPES[random.nextInt(TYPES.length)];
+            String source = "DEPOT".equals(type) ? null : "ACC" + (1000 + random.nextInt(accounts));
+            String destination = "RETRAIT".equals(type) ? null : "ACC" + (1000 + random.nextInt(accounts));
+            Transaction tx = new Transaction("TX" + i, type, 1 + random.nextInt(5000), source, destination);
+            tx.setStatus(random.nextInt(10) == 0 ? "REJECTED" : "COMPLETED");
+            ledger.add(tx);
+            store.append(tx, 0, directory.handleOf(source), directory.handleOf(destination));
+        }
+        account = "ACC" + (1000 + accounts / 2);
+    }
+
+    @Benchmark
+    public Map<TransactionType, Double> sumByTypeObjects() {
+        Map<TransactionType, Double> sums = new EnumMap<>(TransactionType.class);
+        for (Transaction tx : ledger) {
+            if ("COMPLETED".equals(tx.getStatus()) && tx.getTransactionType() != null) {
+                sums.merge(tx.getTransactionType(), tx.getAmount(), Double::sum);
+            }
+        }
+        return sums;
+    }
+
+    @Benchmark
+    public Map<TransactionType, Long> sumByTypeColumnar() {
+        return store.query().completed().sumByType();
+    }
+
+    @Benchmark
+    public double accountTotalObjects() {
+        double total = 0;
+        for (Transaction tx : ledger) {
+            if (account.equals(tx.getSourceAccount()) || account.equals(tx.getDestinationAccount())) {
+                total += tx.getAmount();
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long accountTotalColumnar() {
+        return store.query().forAccount(account).sumAmountMinor();
+    }
+}
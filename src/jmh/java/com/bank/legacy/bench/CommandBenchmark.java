@@ -0,0 +1,83 @@
+package com.bank.legacy.bench;
+
+import com.bank.legacy.applied.command.DepositCommand;
+import com.bank.legacy.applied.command.TransactionExecutor;
+import com.bank.legacy.applied.command.TransferCommand;
+import com.bank.legacy.applied.command.WithdrawCommand;
+import com.bank.legacy.old.BankAccount;
+import com.bank.legacy.old.BankingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintStream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exécution puis annulation d'une commande par TransactionExecutor.
+ * Chaque opération fait un execute suivi d'un undo : l'historique reste de taille constante.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = BenchmarkData.FORK_HEAP)
+public class CommandBenchmark {
+
+    @Param({"1000000"})
+    public int accounts;
+
+    private BankAccount[] pool;
+    private TransactionExecutor executor;
+    private PrintStream originalOut;
+
+    @Setup
+    public void setUp() {
+        originalOut = BenchmarkData.silenceConsole();
+        BankingService service = new BankingService();
+        String[] accountNumbers = BenchmarkData.populate(service, accounts, 0, 42);
+        pool = new BankAccount[accountNumbers.length];
+        for (int i = 0; i < accountNumbers.length; i++) {
+            pool[i] = service.getAccount(accountNumbers[i]);
+        }
+        executor = new TransactionExecutor();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    private BankAccount randomAccount() {
+        return pool[ThreadLocalRandom.current().nextInt(pool.length)];
+    }
+
+    @Benchmark
+    public boolean depositExecuteUndo() {
+        executor.execute(new DepositCommand(randomAccount(), 25.0));
+        return executor.undo();
+    }
+
+    @Benchmark
+    public boolean withdrawExecuteUndo() {
+        executor.execute(new WithdrawCommand(randomAccount(), 25.0));
+        return executor.undo();
+    }
+
+    @Benchmark
+    public boolean transferExecuteUndo() {
+        executor.execute(new TransferCommand(randomAccount(), randomAccount(), 25.0));
+        return executor.undo();
+    }
+}
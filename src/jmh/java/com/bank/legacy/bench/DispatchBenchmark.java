@@ -0,0 +1,119 @@
+package com.bank.legacy.bench;
+
+import com.bank.legacy.old.AccountType;
+import com.bank.legacy.old.TransactionType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût du dispatch des frais : chaînes de String.equals (code d'origine du BankingService)
+ * contre types énumérés résolus une fois (TransactionType / AccountType).
+ * Les chaînes sont recréées pour ne pas profiter du raccourci d'égalité par référence.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+
+    private static final int POOL_SIZE = 1 << 12;
+    private static final String[] TRANSACTION_TYPES = {"DEPOT", "RETRAIT", "VIREMENT"};
+    private static final String[] ACCOUNT_TYPES = {"COURANT", "EPARGNE", "PROFESSIONNEL"};
+
+    private String[] transactionCodes;
+    private String[] accountCodes;
+    private TransactionType[] transactionTypes;
+    private AccountType[] accountTypes;
+    private long[] amounts;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        transactionCodes = new String[POOL_SIZE];
+        accountCodes = new String[POOL_SIZE];
+        transactionTypes = new TransactionType[POOL_SIZE];
+        accountTypes = new AccountType[POOL_SIZE];
+        amounts = new long[POOL_SIZE];
+        for (int i = 0; i < POOL_SIZE; i++) {
+            transactionCodes[i] = new String(TRANSACTION_TYPES[random.nextInt(3)]);
+            accountCodes[i] = new String(ACCOUNT_TYPES[random.nextInt(3)]);
+            transactionTypes[i] = TransactionType.fromCode(transactionCodes[i]);
+            accountTypes[i] = AccountType.fromCode(accountCodes[i]);
+            amounts[i] = 100 + random.nextInt(1_000_000);
+        }
+    }
+
+    @Benchmark
+    public long stringEquals() {
+        long total = 0;
+        for (int i = 0; i < POOL_SIZE; i++) {
+            total += legacyFees(transactionCodes[i], accountCodes[i], amounts[i]);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long enumSwitch() {
+        long total = 0;
+        for (int i = 0; i < POOL_SIZE; i++) {
+            total += enumFees(transactionTypes[i], accountTypes[i], amounts[i]);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long enumFromCode() {
+        // Adaptateur texte : conversion à chaque appel puis dispatch typé
+        long total = 0;
+        for (int i = 0; i < POOL_SIZE; i++) {
+            total += enumFees(TransactionType.fromCode(transactionCodes[i]), AccountType.fromCode(accountCodes[i]),
+                              amounts[i]);
+        }
+        return total;
+    }
+
+    private static long enumFees(TransactionType type, AccountType accountType, long amountMinor) {
+        switch (type) {
+            case RETRAIT: return accountType.withdrawalFees(amountMinor);
+            case VIREMENT: return accountType.transferFees();
+            default: return 0;
+        }
+    }
+
+    // Copie des branches du BankingService d'origine
+    private static long legacyFees(String type, String accountType, long amountMinor) {
+        if (type.equals("DEPOT")) {
+            return 0;
+        } else if (type.equals("RETRAIT")) {
+            if (accountType.equals("COURANT")) {
+                return amountMinor > 100_000 ? 250 : 0;
+            } else if (accountType.equals("EPARGNE")) {
+                return 100;
+            } else if (accountType.equals("PROFESSIONNEL")) {
+                return amountMinor > 500_000 ? 500 : 200;
+            }
+        } else if (type.equals("VIREMENT")) {
+            if (accountType.equals("COURANT")) {
+                return 100;
+            } else if (accountType.equals("EPARGNE")) {
+                return 250;
+            } else if (accountType.equals("PROFESSIONNEL")) {
+                return 50;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,86 @@
+package com.bank.legacy.bench;
+
+import com.bank.legacy.applied.store.TransactionHistory;
+import com.bank.legacy.old.Transaction;
+import com.bank.legacy.old.TransactionType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requêtes sur l'historique d'un compte : copie + tri à chaque appel (ancien code des afficher*)
+ * contre TransactionHistory tenu trié à l'insertion.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HistoryBenchmark {
+
+    private static final String[] TYPES = {"DEPOT", "RETRAIT", "VIREMENT"};
+    private static final int PAGE = 20;
+
+    @Param({"10000"})
+    public int transactions;
+
+    private List<Transaction> list;
+    private TransactionHistory history;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        list = new ArrayList<>(transactions);
+        history = new TransactionHistory();
+        for (int i = 0; i < transactions; i++) {
+            Transaction tx = new Transaction("TX" + i, TYPES[random.nextInt(TYPES.length)],
+                                             1 + random.nextInt(5000), "ACC1000", null);
+            list.add(tx);
+            history.add(tx);
+        }
+    }
+
+    @Benchmark
+    public List<Transaction> topByAmountCopySort() {
+        List<Transaction> copy = new ArrayList<>(list);
+        copy.sort(Comparator.comparingDouble(Transaction::getAmount).reversed());
+        return copy.subList(0, PAGE);
+    }
+
+    @Benchmark
+    public List<Transaction> topByAmountHistory() {
+        return history.topByAmount(PAGE);
+    }
+
+    @Benchmark
+    public List<Transaction> typePageCopySort() {
+        List<Transaction> filtered = new ArrayList<>();
+        for (Transaction tx : new ArrayList<>(list)) {
+            if (tx.getType().equals("RETRAIT")) {
+                filtered.add(tx);
+            }
+        }
+        filtered.sort(Comparator.comparing(Transaction::getTransactionDate));
+        return filtered.subList(PAGE, 2 * PAGE);
+    }
+
+    @Benchmark
+    public List<Transaction> typePageHistory() {
+        return history.ofType(TransactionType.RETRAIT, 1, PAGE);
+    }
+}
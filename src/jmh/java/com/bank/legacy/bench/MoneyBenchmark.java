@@ -0,0 +1,134 @@
+package com.bank.legacy.bench;
+
+import com.bank.legacy.applied.decorator2.FeeCalculator;
+import com.bank.legacy.applied.money.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Comparaison des trois représentations monétaires sur le calcul de frais de virement
+ * international et sur le versement d'intérêts :
+ * - double (ancien BankingService)
+ * - BigDecimal (ancien TransferFeeService, une allocation par opération)
+ * - long en centimes (Money)
+ *
+ * Lancer avec : java -jar target/benchmarks.jar MoneyBenchmark -prof gc
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final BigDecimal BASE_FEE = new BigDecimal("2.00");
+    private static final BigDecimal FEE_RATE = new BigDecimal("0.001");
+    private static final BigDecimal USD_FEE = new BigDecimal("0.50");
+    private static final BigDecimal WEEKEND_FACTOR = new BigDecimal("1.10");
+    private static final BigDecimal HUNDRED = new BigDecimal(100);
+
+    @Param({"1024"})
+    public int size;
+
+    private double[] amounts;
+    private long[] amountsMinor;
+    private double interestRate = 2.5;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        amounts = new double[size];
+        amountsMinor = new long[size];
+        for (int i = 0; i < size; i++) {
+            long cents = 100 + random.nextInt(10_000_000);
+            amountsMinor[i] = cents;
+            amounts[i] = cents / 100.0;
+        }
+    }
+
+    @Benchmark
+    public double feeDouble() {
+        double total = 0;
+        for (double amount : amounts) {
+            double fee = (2.00 + amount * 0.001 + 0.50) * 1.10;
+            total += Math.round(fee * 100) / 100.0;
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal feeBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (double amount : amounts) {
+            BigDecimal fee = BASE_FEE.add(new BigDecimal(amount).multiply(FEE_RATE))
+                .add(USD_FEE)
+                .multiply(WEEKEND_FACTOR);
+            total = total.add(fee.setScale(2, RoundingMode.HALF_UP));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long feeMinor() {
+        long total = 0;
+        for (long amount : amountsMinor) {
+            long feeMilli = 200_000 + amount + 50_000;
+            total += Money.divideHalfUp(feeMilli * 110, 100_000);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Money feeMoney() {
+        Money total = Money.of(0, FeeCalculator.Currency.EUR);
+        for (long amount : amountsMinor) {
+            long feeMilli = 200_000 + amount + 50_000;
+            total = total.plus(Money.of(Money.divideHalfUp(feeMilli * 110, 100_000), FeeCalculator.Currency.EUR));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double interestDouble() {
+        double total = 0;
+        for (double balance : amounts) {
+            total += balance * interestRate / 100;
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal interestBigDecimal() {
+        BigDecimal rate = BigDecimal.valueOf(interestRate);
+        BigDecimal total = BigDecimal.ZERO;
+        for (double balance : amounts) {
+            total = total.add(BigDecimal.valueOf(balance).multiply(rate)
+                .divide(HUNDRED, 2, RoundingMode.HALF_UP));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long interestMinor() {
+        long total = 0;
+        for (long balance : amountsMinor) {
+            total += Money.percentOf(balance, interestRate);
+        }
+        return total;
+    }
+}
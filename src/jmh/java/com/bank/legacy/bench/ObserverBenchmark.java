@@ -0,0 +1,87 @@
+package com.bank.legacy.bench;
+
+import com.bank.legacy.applied.observer.AuditLogObserver;
+import com.bank.legacy.applied.observer.EmailNotificationObserver;
+import com.bank.legacy.applied.observer.FraudDetectionObserver;
+import com.bank.legacy.applied.observer.SMSNotificationObserver;
+import com.bank.legacy.applied.observer.StatisticsObserver;
+import com.bank.legacy.applied.observer.TransactionSubject;
+import com.bank.legacy.old.BankingService;
+import com.bank.legacy.old.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Diffusion d'une transaction complétée aux cinq observateurs de TransactionObserverDemo.
+ * Les observateurs accumulent un historique : ils sont recréés à chaque itération.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = BenchmarkData.FORK_HEAP)
+public class ObserverBenchmark {
+
+    private static final int POOL_SIZE = 1 << 16;
+
+    @Param({"1000000"})
+    public int accounts;
+
+    private BankingService service;
+    private Transaction[] pool;
+    private TransactionSubject subject;
+    private int cursor;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        originalOut = BenchmarkData.silenceConsole();
+        service = new BankingService();
+        String[] accountNumbers = BenchmarkData.populate(service, accounts, 0, 42);
+
+        Random random = new Random(7);
+        pool = new Transaction[POOL_SIZE];
+        for (int i = 0; i < POOL_SIZE; i++) {
+            pool[i] = new Transaction("TXB" + i, "VIREMENT", 1 + random.nextInt(5000),
+                accountNumbers[random.nextInt(accountNumbers.length)],
+                accountNumbers[random.nextInt(accountNumbers.length)]);
+            pool[i].setStatus("COMPLETED");
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void attachObservers() {
+        subject = new TransactionSubject();
+        subject.attach(new EmailNotificationObserver());
+        subject.attach(new SMSNotificationObserver());
+        subject.attach(new AuditLogObserver());
+        subject.attach(new FraudDetectionObserver());
+        subject.attach(new StatisticsObserver());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public void notifyObservers() {
+        subject.notifyObservers(pool[cursor++ & (POOL_SIZE - 1)], service);
+    }
+}
@@ -0,0 +1,84 @@
+package com.bank.legacy.bench;
+
+import com.bank.legacy.applied.batch.BatchResult;
+import com.bank.legacy.applied.batch.InterestRunSummary;
+import com.bank.legacy.applied.batch.TransactionRequest;
+import com.bank.legacy.applied.store.OffHeapAccountLedger;
+import com.bank.legacy.old.BankingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Comptes sur le tas (BankAccount) contre état hors tas (OffHeapAccountLedger + OffHeapBankAccount) :
+ * lot de virements et versement des intérêts sur toute la population.
+ * L'empreinte sur le tas se compare avec -prof gc ou un histogramme (jmap -histo).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = BenchmarkData.FORK_HEAP)
+public class OffHeapLedgerBenchmark {
+
+    private static final int BATCH = 4096;
+
+    @Param({"1000000"})
+    public int accounts;
+
+    @Param({"heap", "offheap"})
+    public String storage;
+
+    private BankingService service;
+    private List<TransactionRequest> batch;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        originalOut = BenchmarkData.silenceConsole();
+        service = "offheap".equals(storage)
+            ? new BankingService("TX", new OffHeapAccountLedger())
+            : new BankingService();
+        String[] accountNumbers = BenchmarkData.populate(service, accounts, 0, 42);
+
+        Random random = new Random(7);
+        batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            batch.add(new TransactionRequest("VIREMENT", accountNumbers[random.nextInt(accounts)],
+                accountNumbers[random.nextInt(accounts)], 0.01));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public BatchResult transferBatch() {
+        return service.processBatch(batch);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public InterestRunSummary interestRun() {
+        return service.applyInterestParallel();
+    }
+}
@@ -0,0 +1,81 @@
+package com.bank.legacy.bench;
+
+import com.bank.legacy.applied.composite.AccountComponent;
+import com.bank.legacy.applied.composite.AccountPortfolio;
+import com.bank.legacy.applied.composite.IndividualAccount;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AccountPortfolio.getBalance sur un arbre de {@code accounts} comptes individuels.
+ * Le facteur de branchement fixe la profondeur : 2 donne un arbre binaire de ~20 niveaux
+ * pour 1M comptes, 1000 un arbre de 2 niveaux.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = BenchmarkData.FORK_HEAP)
+public class PortfolioBenchmark {
+
+    @Param({"1000000"})
+    public int accounts;
+
+    @Param({"2", "10", "1000"})
+    public int fanout;
+
+    private AccountComponent root;
+    private PrintStream originalOut;
+
+    @Setup
+    public void setUp() {
+        originalOut = BenchmarkData.silenceConsole();
+        List<AccountComponent> level = new ArrayList<>(accounts);
+        for (int i = 0; i < accounts; i++) {
+            level.add(new IndividualAccount("ACC" + i, "COURANT", "Client " + i, "client" + i + "@email.fr",
+                "0600000000", 100 + i % 1000, 0.0, 500.0));
+        }
+
+        // Regroupement niveau par niveau jusqu'à la racine
+        int depth = 0;
+        while (level.size() > 1) {
+            List<AccountComponent> parents = new ArrayList<>(level.size() / fanout + 1);
+            for (int i = 0; i < level.size(); i += fanout) {
+                AccountPortfolio portfolio = new AccountPortfolio("P" + depth + "-" + i);
+                for (int j = i; j < Math.min(i + fanout, level.size()); j++) {
+                    portfolio.addChild(level.get(j));
+                }
+                parents.add(portfolio);
+            }
+            level = parents;
+            depth++;
+        }
+        root = level.get(0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public double getBalance() {
+        return root.getBalance();
+    }
+}
@@ -0,0 +1,87 @@
+package com.bank.legacy.bench;
+
+import com.bank.legacy.applied.ring.RingBufferEngine;
+import com.bank.legacy.old.BankingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintStream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Débit multi-threads : processTransaction avec verrous contre RingBufferEngine (écrivain unique,
+ * façade bloquante). Même mélange dépôts / retraits / virements sur des comptes tirés au hasard.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(value = 1, jvmArgsAppend = BenchmarkData.FORK_HEAP)
+public class RingBufferBenchmark {
+
+    @Param({"100000"})
+    public int accounts;
+
+    private BankingService lockedService;
+    private BankingService engineService;
+    private RingBufferEngine engine;
+    private String[] accountNumbers;
+    private PrintStream console;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        console = BenchmarkData.silenceConsole();
+        lockedService = new BankingService();
+        engineService = new BankingService();
+        accountNumbers = BenchmarkData.populate(lockedService, accounts, 0, 42);
+        BenchmarkData.populate(engineService, accounts, 0, 42);
+        engine = new RingBufferEngine(engineService, 1024).start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        engine.close();
+        System.setOut(console);
+    }
+
+    @Benchmark
+    public boolean locked() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String source = accountNumbers[random.nextInt(accounts)];
+        String destination = accountNumbers[random.nextInt(accounts)];
+        double amount = 1 + random.nextInt(200);
+        switch (random.nextInt(3)) {
+            case 0: return lockedService.processTransaction("DEPOT", null, destination, amount);
+            case 1: return lockedService.processTransaction("RETRAIT", source, null, amount);
+            default: return lockedService.processTransaction("VIREMENT", source, destination, amount);
+        }
+    }
+
+    @Benchmark
+    public boolean ringBuffer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String source = accountNumbers[random.nextInt(accounts)];
+        String destination = accountNumbers[random.nextInt(accounts)];
+        double amount = 1 + random.nextInt(200);
+        switch (random.nextInt(3)) {
+            case 0: return engine.processTransaction("DEPOT", null, destination, amount);
+            case 1: return engine.processTransaction("RETRAIT", source, null, amount);
+            default: return engine.processTransaction("VIREMENT", source, destination, amount);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.bank.legacy.bench;
+
+import com.bank.legacy.applied.shard.ShardedBankingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintStream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Débit multi-threads de ShardedBankingService selon le nombre de shards (1 = un seul service,
+ * un seul verrou de grand livre). Mélange dépôts / retraits / virements sur des comptes tirés au hasard ;
+ * avec N shards, (N-1)/N des virements passent par la réservation en deux phases.
+ *
+ * Le gain ne se voit qu'avec au moins autant de cœurs que de threads (-t pour changer le nombre de threads).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(value = 1, jvmArgsAppend = BenchmarkData.FORK_HEAP)
+public class ShardBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int shards;
+
+    @Param({"100000"})
+    public int accounts;
+
+    private ShardedBankingService service;
+    private String[] accountNumbers;
+    private PrintStream console;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        console = BenchmarkData.silenceConsole();
+        service = new ShardedBankingService(shards);
+        accountNumbers = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            accountNumbers[i] = service.createAccount("COURANT", "Client " + i, "client" + i + "@email.fr",
+                "06" + (10_000_000 + i), 5000.0).getAccountNumber();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(console);
+    }
+
+    @Benchmark
+    public boolean mixed() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String source = accountNumbers[random.nextInt(accounts)];
+        String destination = accountNumbers[random.nextInt(accounts)];
+        double amount = 1 + random.nextInt(200);
+        switch (random.nextInt(3)) {
+            case 0: return service.processTransaction("DEPOT", null, destination, amount);
+            case 1: return service.processTransaction("RETRAIT", source, null, amount);
+            default: return service.processTransaction("VIREMENT", source, destination, amount);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.bank.legacy.bench;
+
+import com.bank.legacy.applied.chain.CompiledValidationPipeline;
+import com.bank.legacy.applied.chain.TransactionValidator;
+import com.bank.legacy.applied.chain.ValidationChainBuilder;
+import com.bank.legacy.applied.chain.ValidationResult;
+import com.bank.legacy.applied.chain.ValidationRuleEngine;
+import com.bank.legacy.applied.trace.RingTraceSink;
+import com.bank.legacy.applied.trace.TraceLevel;
+import com.bank.legacy.applied.trace.TraceSink;
+import com.bank.legacy.applied.trace.Tracer;
+import com.bank.legacy.old.BankingService;
+import com.bank.legacy.old.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintStream;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation d'une transaction par la chaîne complète (ValidationChainBuilder.buildChain), par sa
+ * version compilée (ValidationChainBuilder.compile) et par le moteur de règles (règles par défaut)
+ * sur un service chargé. Les chaînes sont reconstruites à chaque itération pour que les cumuls
+ * quotidiens et l'historique anti-fraude ne faussent pas les mesures suivantes.
+ * Traces : coupées (OFF), détaillées vers la console muette (CONSOLE, l'ancien comportement) ou
+ * décisions gardées en mémoire (RING).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = BenchmarkData.FORK_HEAP)
+public class ValidationChainBenchmark {
+
+    private static final int POOL_SIZE = 1 << 16;
+    private static final String[] TYPES = {"DEPOT", "RETRAIT", "VIREMENT"};
+
+    @Param({"1000000"})
+    public int accounts;
+
+    @Param({"10000000"})
+    public int transactions;
+
+    @Param({"OFF", "CONSOLE", "RING"})
+    public String trace;
+
+    private BankingService service;
+    private Transaction[] pool;
+    private TransactionValidator chain;
+    private CompiledValidationPipeline pipeline;
+    private ValidationRuleEngine ruleEngine;
+    private int cursor;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        originalOut = BenchmarkData.silenceConsole();
+        service = new BankingService();
+        String[] accountNumbers = BenchmarkData.populate(service, accounts, transactions, 42);
+
+        Random random = new Random(7);
+        pool = new Transaction[POOL_SIZE];
+        for (int i = 0; i < POOL_SIZE; i++) {
+            String type = TYPES[i % TYPES.length];
+            String source = "DEPOT".equals(type) ? null : accountNumbers[random.nextInt(accountNumbers.length)];
+            String destination = "RETRAIT".equals(type) ? null : accountNumbers[random.nextInt(accountNumbers.length)];
+            pool[i] = new Transaction("TXB" + i, type, 1 + random.nextInt(500), source, destination);
+        }
+
+        switch (trace) {
+            case "CONSOLE":
+                Tracer.configure(TraceLevel.DETAIL, TraceSink.CONSOLE);
+                break;
+            case "RING":
+                Tracer.configure(TraceLevel.DECISION, new RingTraceSink(1024));
+                break;
+            default:
+                Tracer.disable();
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void buildChain() {
+        chain = ValidationChainBuilder.buildChain();
+        pipeline = ValidationChainBuilder.compile();
+        ruleEngine = new ValidationRuleEngine(new Properties());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Tracer.disable();
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public ValidationResult validate() {
+        Transaction tx = pool[cursor++ & (POOL_SIZE - 1)];
+        return chain.validate(tx, service);
+    }
+
+    @Benchmark
+    public ValidationResult validateCompiled() {
+        Transaction tx = pool[cursor++ & (POOL_SIZE - 1)];
+        return pipeline.validate(tx, service);
+    }
+
+    @Benchmark
+    public ValidationResult validateRuleEngine() {
+        Transaction tx = pool[cursor++ & (POOL_SIZE - 1)];
+        return ruleEngine.validate(tx, service);
+    }
+}
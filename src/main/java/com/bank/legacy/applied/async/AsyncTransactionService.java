@@ -0,0 +1,216 @@
+package com.bank.legacy.applied.async;
+
+import com.bank.legacy.applied.batch.BatchResult;
+import com.bank.legacy.applied.batch.TransactionRequest;
+import com.bank.legacy.applied.chain.ValidationResult;
+import com.bank.legacy.applied.command.BankCommand;
+import com.bank.legacy.applied.command.TransactionExecutor;
+import com.bank.legacy.old.BankingService;
+import com.bank.legacy.old.Transaction;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Façade asynchrone au-dessus de BankingService et de TransactionExecutor : chaque demande est
+ * traitée hors du thread appelant et son résultat est rendu sous forme de CompletableFuture.
+ *
+ * - Exécution sur threads virtuels quand la JVM en dispose (Java 21+), sinon sur un pool de threads
+ *   de plateforme : le projet reste compilé en Java 17.
+ * - Sérialisation par compte : les demandes portant sur un même compte (source d'un retrait, destination
+ *   d'un dépôt, source et destination d'un virement) s'exécutent une à une dans l'ordre de soumission ;
+ *   des comptes différents avancent en parallèle. Les commandes d'un même TransactionExecutor sont sérialisées
+ *   de la même façon (son historique n'est pas thread-safe).
+ * - Contre-pression : au-delà de maxInFlight demandes en cours, {@link #submit} bloque l'appelant
+ *   et {@link #trySubmit} échoue immédiatement (RejectedExecutionException).
+ *
+ * Les transactions suivent les règles et les codes de processBatch, sans trace console.
+ */
+public class AsyncTransactionService implements AutoCloseable {
+
+    private final BankingService service;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final Semaphore permits;
+    private final int maxInFlight;
+    /**
+     * Dernière demande en attente par clé (compte ou TransactionExecutor), sous son propre verrou :
+     * un virement prend la place de queue de ses deux comptes en une seule étape, sans quoi deux
+     * virements croisés pourraient s'attendre l'un l'autre
+     */
+    private final Map<Object, CompletableFuture<?>> tails = new HashMap<>();
+
+    public AsyncTransactionService(BankingService service, int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("La limite de demandes en cours doit être positive");
+        }
+        this.service = service;
+        this.maxInFlight = maxInFlight;
+        this.permits = new Semaphore(maxInFlight);
+        ExecutorService virtual = newVirtualThreadExecutor();
+        this.virtualThreads = virtual != null;
+        this.executor = virtual != null ? virtual : newPlatformExecutor();
+    }
+
+    /**
+     * Soumet une transaction ; bloque tant que la limite de demandes en cours est atteinte
+     */
+    public CompletableFuture<ValidationResult> submit(TransactionRequest request) {
+        permits.acquireUninterruptibly();
+        return enqueue(request, () -> apply(request));
+    }
+
+    /**
+     * Soumet une transaction sans attendre : le résultat échoue avec RejectedExecutionException
+     * si la limite de demandes en cours est atteinte
+     */
+    public CompletableFuture<ValidationResult> trySubmit(TransactionRequest request) {
+        if (!permits.tryAcquire()) {
+            return CompletableFuture.failedFuture(
+                new RejectedExecutionException("Trop de demandes en cours (" + maxInFlight + ")"));
+        }
+        return enqueue(request, () -> apply(request));
+    }
+
+    public CompletableFuture<ValidationResult> processTransaction(String type, String sourceAccount,
+                                                                  String destinationAccount, double amount) {
+        return submit(new TransactionRequest(type, sourceAccount, destinationAccount, amount));
+    }
+
+    /**
+     * Exécute une commande via un TransactionExecutor (historique undo/redo conservé), sans bloquer l'appelant
+     */
+    public CompletableFuture<ValidationResult> execute(TransactionExecutor commandExecutor, BankCommand command) {
+        permits.acquireUninterruptibly();
+        return enqueue(commandExecutor, null, () -> commandExecutor.execute(command)
+            ? ValidationResult.success()
+            : ValidationResult.failure("Commande refusée: " + command.getDescription()));
+    }
+
+    /**
+     * Demandes soumises dont le résultat n'est pas encore disponible
+     */
+    public int getInFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Attend la fin des demandes soumises puis arrête les threads
+     *
+     * @throws IllegalStateException si l'attente est interrompue : les threads sont alors arrêtés sans
+     *         attendre et l'indicateur d'interruption du thread est rétabli
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Arrêt du service interrompu", e);
+        }
+    }
+
+    private ValidationResult apply(TransactionRequest request) {
+        TransactionRequest[] requests = {request};
+        byte[] codes = new byte[1];
+        service.applyBatch(requests, 1, codes, new Transaction[1], new long[1]);
+        return codes[0] == BatchResult.COMPLETED
+            ? ValidationResult.success()
+            : ValidationResult.failure(BatchResult.reasonOf(codes[0]));
+    }
+
+    private <T> CompletableFuture<T> enqueue(TransactionRequest request, Supplier<T> task) {
+        String type = request.getType();
+        if ("VIREMENT".equals(type)) {
+            String source = request.getSourceAccount();
+            String destination = request.getDestinationAccount();
+            if (source != null && destination != null && !source.equals(destination)) {
+                return enqueue(source, destination, task);
+            }
+        }
+        String account = "DEPOT".equals(type) ? request.getDestinationAccount() : request.getSourceAccount();
+        // Demande sans compte : rejetée sans toucher à aucun solde, pas besoin de l'ordonner
+        return enqueue(account != null ? account : new Object(), null, task);
+    }
+
+    /**
+     * Chaîne la tâche derrière les précédentes de ses clés (second peut être null) ; une clé est retirée
+     * quand sa dernière tâche se termine. Le permis pris par l'appelant est rendu à la fin de la tâche,
+     * ou tout de suite si l'exécuteur la refuse (service arrêté).
+     */
+    private <T> CompletableFuture<T> enqueue(Object first, Object second, Supplier<T> task) {
+        CompletableFuture<T> future;
+        try {
+            synchronized (tails) {
+                CompletableFuture<?> previous = after(tails.get(first), second != null ? tails.get(second) : null);
+                future = previous == null
+                    ? CompletableFuture.supplyAsync(task, executor)
+                    : previous.thenApplyAsync(ignored -> task.get(), executor);
+                tails.put(first, future);
+                if (second != null) {
+                    tails.put(second, future);
+                }
+            }
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<T> created = future;
+        created.whenComplete((result, error) -> {
+            synchronized (tails) {
+                tails.remove(first, created);
+                if (second != null) {
+                    tails.remove(second, created);
+                }
+            }
+            permits.release();
+        });
+        return created;
+    }
+
+    /**
+     * Fin des tâches précédentes, réussies ou non : l'échec d'une demande ne bloque pas les suivantes
+     */
+    private static CompletableFuture<?> after(CompletableFuture<?> first, CompletableFuture<?> second) {
+        if (first == null || second == null || first == second) {
+            CompletableFuture<?> only = first != null ? first : second;
+            return only != null ? only.handle((ignored, error) -> null) : null;
+        }
+        return CompletableFuture.allOf(first.handle((ignored, error) -> null), second.handle((ignored, error) -> null));
+    }
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor() (Java 21+) appelé par réflexion, null avant Java 21
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService newPlatformExecutor() {
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "async-transactions");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,81 @@
+package com.bank.legacy.applied.batch;
+
+/**
+ * Résultat compact d'un lot : un octet par demande, dans l'ordre de soumission.
+ * Les codes de rejet correspondent aux motifs enregistrés par BankingService.
+ */
+public final class BatchResult {
+
+    public static final byte COMPLETED = 0;
+    public static final byte COMPTE_INTROUVABLE = 1;
+    public static final byte MONTANT_INVALIDE = 2;
+    public static final byte MONTANT_TROP_ELEVE = 3;
+    public static final byte SOLDE_INSUFFISANT = 4;
+    public static final byte TYPE_INCONNU = 5;
+
+    private static final String[] REASONS = {
+        null, "Compte introuvable", "Montant invalide", "Montant trop élevé", "Solde insuffisant", "Type inconnu"
+    };
+
+    private final byte[] codes;
+    private final int size;
+    private final int completed;
+
+    /**
+     * @param codes codes de résultat (le tableau n'est pas copié)
+     * @param size nombre de demandes du lot
+     */
+    public BatchResult(byte[] codes, int size) {
+        if (size > codes.length) {
+            throw new IllegalArgumentException("Taille du lot supérieure au nombre de codes");
+        }
+        this.codes = codes;
+        this.size = size;
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (codes[i] == COMPLETED) {
+                count++;
+            }
+        }
+        this.completed = count;
+    }
+
+    /**
+     * Motif de rejet associé à un code (null pour COMPLETED)
+     */
+    public static String reasonOf(byte code) {
+        return REASONS[code];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public byte getCode(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " hors du lot de " + size);
+        }
+        return codes[index];
+    }
+
+    public boolean isCompleted(int index) {
+        return getCode(index) == COMPLETED;
+    }
+
+    public String getRejectionReason(int index) {
+        return reasonOf(getCode(index));
+    }
+
+    public int getCompletedCount() {
+        return completed;
+    }
+
+    public int getRejectedCount() {
+        return size - completed;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult[" + size + " demandes, " + completed + " acceptées, " + (size - completed) + " rejetées]";
+    }
+}
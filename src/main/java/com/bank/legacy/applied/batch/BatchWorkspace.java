@@ -0,0 +1,84 @@
+package com.bank.legacy.applied.batch;
+
+import com.bank.legacy.old.BankAccount;
+
+import java.util.function.IntFunction;
+
+/**
+ * Tableaux de travail de l'application d'un lot (BankingService.applyBatch) : handles des comptes,
+ * bandes de verrous à prendre et soldes de travail. Alloués une fois et réutilisés d'un lot à
+ * l'autre par un thread qui applique des lots en boucle (thread métier de RingBufferEngine).
+ * Non thread-safe : un espace par thread.
+ */
+public final class BatchWorkspace {
+
+    private final int capacity;
+    private final int[] handles;
+    // Bandes marquées (un bit par bande), puis listées dans l'ordre croissant
+    private final long[] stripeBits;
+    private final int[] stripes;
+    private int stripeCount;
+    private final WorkingBalances working;
+
+    /**
+     * @param capacity nombre de demandes d'un lot au plus
+     * @param stripes nombre de bandes de verrous du stockage des comptes
+     * @param lookup compte d'un handle (null s'il n'existe pas)
+     */
+    public BatchWorkspace(int capacity, int stripes, IntFunction<BankAccount> lookup) {
+        this.capacity = capacity;
+        this.handles = new int[capacity * 2];
+        this.stripeBits = new long[(stripes + 63) >>> 6];
+        this.stripes = new int[Math.min(stripes, capacity * 2)];
+        this.working = new WorkingBalances(lookup);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Handles source et destination de chaque demande (indices 2i et 2i + 1)
+     */
+    public int[] getHandles() {
+        return handles;
+    }
+
+    public void markStripe(int stripe) {
+        stripeBits[stripe >>> 6] |= 1L << stripe;
+    }
+
+    /**
+     * Range les bandes marquées dans l'ordre croissant (ordre global de verrouillage) et efface les marques
+     * @return le nombre de bandes, lues ensuite par {@link #getStripes}
+     */
+    public int collectStripes() {
+        int count = 0;
+        for (int word = 0; word < stripeBits.length; word++) {
+            long bits = stripeBits[word];
+            while (bits != 0) {
+                stripes[count++] = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+            stripeBits[word] = 0;
+        }
+        stripeCount = count;
+        return count;
+    }
+
+    public int[] getStripes() {
+        return stripes;
+    }
+
+    public int getStripeCount() {
+        return stripeCount;
+    }
+
+    /**
+     * Soldes de travail vidés pour un nouveau lot
+     */
+    public WorkingBalances resetWorking() {
+        working.clear();
+        return working;
+    }
+}
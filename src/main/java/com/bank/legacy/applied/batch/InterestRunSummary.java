@@ -0,0 +1,33 @@
+package com.bank.legacy.applied.batch;
+
+import com.bank.legacy.applied.money.Money;
+
+/**
+ * Bilan d'un versement d'intérêts sur l'ensemble des comptes
+ */
+public final class InterestRunSummary {
+
+    private final long accountsScanned;
+    private final long accountsCredited;
+    private final long totalInterestMinor;
+    private final long elapsedNanos;
+
+    public InterestRunSummary(long accountsScanned, long accountsCredited, long totalInterestMinor, long elapsedNanos) {
+        this.accountsScanned = accountsScanned;
+        this.accountsCredited = accountsCredited;
+        this.totalInterestMinor = totalInterestMinor;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getAccountsScanned() { return accountsScanned; }
+    public long getAccountsCredited() { return accountsCredited; }
+    public long getTotalInterestMinor() { return totalInterestMinor; }
+    public double getTotalInterest() { return Money.toMajor(totalInterestMinor); }
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    @Override
+    public String toString() {
+        return "Intérêts: " + accountsCredited + " compte(s) crédité(s) sur " + accountsScanned
+               + ", total " + Money.format(totalInterestMinor) + " EUR en " + (elapsedNanos / 1_000_000) + " ms";
+    }
+}
@@ -0,0 +1,57 @@
+package com.bank.legacy.applied.batch;
+
+import com.bank.legacy.applied.money.Money;
+import com.bank.legacy.old.TransactionType;
+
+/**
+ * Demande de transaction soumise dans un lot (fichier de paie, prélèvements...).
+ * Le montant est converti une fois pour toutes en centimes.
+ */
+public final class TransactionRequest {
+
+    private final String type;
+    private final TransactionType transactionType;
+    private final String sourceAccount;
+    private final String destinationAccount;
+    private final long amountMinor;
+
+    public TransactionRequest(String type, String sourceAccount, String destinationAccount, Money amount) {
+        this(type, sourceAccount, destinationAccount, amount.getMinorUnits());
+    }
+
+    public TransactionRequest(String type, String sourceAccount, String destinationAccount, double amount) {
+        this(type, sourceAccount, destinationAccount, Money.toMinor(amount));
+    }
+
+    private TransactionRequest(String type, String sourceAccount, String destinationAccount, long amountMinor) {
+        this.type = type;
+        this.transactionType = TransactionType.fromCode(type);
+        this.sourceAccount = sourceAccount;
+        this.destinationAccount = destinationAccount;
+        this.amountMinor = amountMinor;
+    }
+
+    public static TransactionRequest depot(String destinationAccount, double amount) {
+        return new TransactionRequest("DEPOT", null, destinationAccount, amount);
+    }
+
+    public static TransactionRequest retrait(String sourceAccount, double amount) {
+        return new TransactionRequest("RETRAIT", sourceAccount, null, amount);
+    }
+
+    public static TransactionRequest virement(String sourceAccount, String destinationAccount, double amount) {
+        return new TransactionRequest("VIREMENT", sourceAccount, destinationAccount, amount);
+    }
+
+    public String getType() { return type; }
+    public TransactionType getTransactionType() { return transactionType; }
+    public String getSourceAccount() { return sourceAccount; }
+    public String getDestinationAccount() { return destinationAccount; }
+    public long getAmountMinor() { return amountMinor; }
+    public double getAmount() { return Money.toMajor(amountMinor); }
+
+    @Override
+    public String toString() {
+        return type + " " + Money.format(amountMinor) + " EUR [" + sourceAccount + " -> " + destinationAccount + "]";
+    }
+}
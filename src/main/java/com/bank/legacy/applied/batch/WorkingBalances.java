@@ -0,0 +1,139 @@
+package com.bank.legacy.applied.batch;
+
+import com.bank.legacy.old.BankAccount;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * Soldes de travail d'un lot : chaque compte n'est recherché qu'une fois, ses mouvements
+ * s'accumulent sur un long et le solde n'est écrit qu'une fois sur le compte en fin de lot.
+ * Non thread-safe : l'appelant détient les verrous de tous les comptes du lot.
+ */
+public final class WorkingBalances {
+
+    private static final int UNKNOWN = -1;
+    private static final int FREE = -1;
+
+    private final IntFunction<BankAccount> lookup;
+    // Table handle -> emplacement : handles (FREE pour une case libre) et emplacements en parallèle
+    private int[] tableHandles = newTable(32);
+    private int[] tableSlots = new int[32];
+    private int tableSize;
+    private BankAccount[] accounts = new BankAccount[16];
+    private long[] balances = new long[16];
+    private int size;
+
+    /**
+     * @param lookup compte d'un handle (null s'il n'existe pas)
+     */
+    public WorkingBalances(IntFunction<BankAccount> lookup) {
+        this.lookup = lookup;
+    }
+
+    /**
+     * Oublie les comptes du lot précédent, en gardant les tableaux pour le suivant
+     */
+    public void clear() {
+        Arrays.fill(accounts, 0, size, null);
+        size = 0;
+        if (tableSize > 0) {
+            Arrays.fill(tableHandles, FREE);
+            tableSize = 0;
+        }
+    }
+
+    /**
+     * @return l'emplacement du compte, ou -1 s'il est inconnu (handle négatif)
+     */
+    public int slotOf(int accountHandle) {
+        if (accountHandle < 0) {
+            return UNKNOWN;
+        }
+        int mask = tableHandles.length - 1;
+        int entry = mix(accountHandle) & mask;
+        while (tableHandles[entry] != FREE) {
+            if (tableHandles[entry] == accountHandle) {
+                return tableSlots[entry];
+            }
+            entry = (entry + 1) & mask;
+        }
+        BankAccount account = lookup.apply(accountHandle);
+        int assigned = UNKNOWN;
+        if (account != null) {
+            if (size == accounts.length) {
+                accounts = Arrays.copyOf(accounts, size * 2);
+                balances = Arrays.copyOf(balances, size * 2);
+            }
+            assigned = size++;
+            accounts[assigned] = account;
+            balances[assigned] = account.getBalanceMinor();
+        }
+        tableHandles[entry] = accountHandle;
+        tableSlots[entry] = assigned;
+        if (++tableSize * 2 > tableHandles.length) {
+            growTable();
+        }
+        return assigned;
+    }
+
+    public BankAccount account(int slot) {
+        return accounts[slot];
+    }
+
+    public long balance(int slot) {
+        return balances[slot];
+    }
+
+    public void add(int slot, long amount) {
+        balances[slot] = Math.addExact(balances[slot], amount);
+    }
+
+    /**
+     * Reporte les soldes de travail sur les comptes (une écriture par compte)
+     */
+    public void writeBack() {
+        for (int i = 0; i < size; i++) {
+            accounts[i].setBalanceMinor(balances[i]);
+        }
+    }
+
+    /**
+     * Mémorise sur chaque compte du lot le dernier enregistrement du journal qui le concerne
+     */
+    public void markJournaled(long sequence) {
+        for (int i = 0; i < size; i++) {
+            accounts[i].setJournalSequence(sequence);
+        }
+    }
+
+    private void growTable() {
+        int[] oldHandles = tableHandles;
+        int[] oldSlots = tableSlots;
+        tableHandles = newTable(oldHandles.length * 2);
+        tableSlots = new int[oldHandles.length * 2];
+        int mask = tableHandles.length - 1;
+        for (int i = 0; i < oldHandles.length; i++) {
+            if (oldHandles[i] != FREE) {
+                int entry = mix(oldHandles[i]) & mask;
+                while (tableHandles[entry] != FREE) {
+                    entry = (entry + 1) & mask;
+                }
+                tableHandles[entry] = oldHandles[i];
+                tableSlots[entry] = oldSlots[i];
+            }
+        }
+    }
+
+    private static int[] newTable(int capacity) {
+        int[] table = new int[capacity];
+        Arrays.fill(table, FREE);
+        return table;
+    }
+
+    // Handles consécutifs : dispersés par multiplication pour éviter les grappes du sondage linéaire
+    private static int mix(int handle) {
+        int h = handle * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
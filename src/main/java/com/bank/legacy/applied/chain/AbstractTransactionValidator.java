@@ -1,18 +1,34 @@
 package com.bank.legacy.applied.chain;
 
+import com.bank.legacy.applied.trace.TraceLevel;
+import com.bank.legacy.applied.trace.Tracer;
 import com.bank.legacy.old.BankingService;
 import com.bank.legacy.old.Transaction;
 
+import java.util.function.Supplier;
+
 /**
- * Classe abstraite de base pour les validateurs de transaction
+ * Classe abstraite de base pour les validateurs de transaction.
+ * Chaque validateur implémente son contrôle dans {@link #check} ; il s'utilise maillon d'une chaîne
+ * liée (validate puis suivant) ou étape d'une CompiledValidationPipeline. Dans une chaîne liée, un
+ * seul ValidationContext est créé à l'entrée et passé de maillon en maillon.
+ *
+ * Un validateur écrit avant check, qui ne redéfinit que validate(Transaction, BankingService) et
+ * appelle validateNext, reste utilisable : check délègue alors à son validate.
+ *
+ * Les traces passent par {@link Tracer} (coupé par défaut) : un message construit par concaténation
+ * est précédé d'un test {@link #isTracing}, pour ne rien coûter quand la trace est coupée.
  */
-public abstract class AbstractTransactionValidator implements TransactionValidator {
+public abstract class AbstractTransactionValidator implements TransactionValidator, ValidationStep {
 
     protected TransactionValidator next;
     protected final String validatorName;
+    // Validateur écrit avant check : validate(Transaction, BankingService) redéfini
+    private final boolean legacyValidate;
 
     protected AbstractTransactionValidator(String validatorName) {
         this.validatorName = validatorName;
+        this.legacyValidate = overridesValidate(getClass());
     }
 
     @Override
@@ -21,7 +37,57 @@ public abstract class AbstractTransactionValidator implements TransactionValidat
     }
 
     /**
-     * Passe la validation au prochain validateur dans la chaîne
+     * Entrée de chaîne liée : crée le contexte partagé par tous les maillons
+     */
+    @Override
+    public ValidationResult validate(Transaction transaction, BankingService service) {
+        return validate(new ValidationContext(transaction, service));
+    }
+
+    /**
+     * Maillon de chaîne liée : contrôle puis, s'il réussit, validateur suivant dans le même contexte ;
+     * si la suite rejette la transaction, le contrôle est annulé
+     */
+    public ValidationResult validate(ValidationContext context) {
+        ValidationResult result = check(context);
+        if (!result.isValid()) {
+            return result;
+        }
+        ValidationResult nextResult = validateNext(context);
+        if (!nextResult.isValid()) {
+            undo(context);
+        }
+        return nextResult;
+    }
+
+    /**
+     * Contrôle propre au validateur. Par défaut, celui d'un validateur qui ne redéfinit que
+     * validate(Transaction, BankingService) : son validate est appelé (avec sa suite éventuelle).
+     */
+    @Override
+    public ValidationResult check(ValidationContext context) {
+        if (!legacyValidate) {
+            throw new UnsupportedOperationException(validatorName + " doit redéfinir check ou validate");
+        }
+        return validate(context.getTransaction(), context.getService());
+    }
+
+    /**
+     * Passe la validation au prochain validateur dans la chaîne, avec le contexte partagé
+     * @return ValidationResult.success() s'il n'y a pas de suivant
+     */
+    protected ValidationResult validateNext(ValidationContext context) {
+        if (next instanceof AbstractTransactionValidator && !((AbstractTransactionValidator) next).legacyValidate) {
+            return ((AbstractTransactionValidator) next).validate(context);
+        }
+        if (next != null) {
+            return next.validate(context.getTransaction(), context.getService());
+        }
+        return ValidationResult.success();
+    }
+
+    /**
+     * Passe la validation au prochain validateur dans la chaîne (validateurs écrits avant check)
      * @return ValidationResult.success() s'il n'y a pas de suivant
      */
     protected ValidationResult validateNext(Transaction transaction, BankingService service) {
@@ -32,9 +98,36 @@ public abstract class AbstractTransactionValidator implements TransactionValidat
     }
 
     /**
-     * Log la validation en cours
+     * Trace une étape de la validation en cours (niveau DETAIL)
      */
     protected void logValidation(String message) {
-        System.out.println("[" + validatorName + "] " + message);
+        Tracer.emit(validatorName, TraceLevel.DETAIL, message);
+    }
+
+    /**
+     * Trace une étape dont le message n'est construit que si le niveau DETAIL est retenu
+     */
+    protected void logValidation(Supplier<String> message) {
+        Tracer.emit(validatorName, TraceLevel.DETAIL, message);
+    }
+
+    /**
+     * Trace la décision du contrôle, acceptation ou rejet (niveau DECISION)
+     */
+    protected void logDecision(String message) {
+        Tracer.emit(validatorName, TraceLevel.DECISION, message);
+    }
+
+    protected static boolean isTracing(TraceLevel level) {
+        return Tracer.isEnabled(level);
+    }
+
+    private static boolean overridesValidate(Class<?> type) {
+        try {
+            return type.getMethod("validate", Transaction.class, BankingService.class).getDeclaringClass()
+                != AbstractTransactionValidator.class;
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
@@ -1,7 +1,6 @@
 package com.bank.legacy.applied.chain;
 
-import com.bank.legacy.old.BankingService;
-import com.bank.legacy.old.Transaction;
+import com.bank.legacy.applied.trace.TraceLevel;
 
 /**
  * Validateur de l'existence des comptes
@@ -13,30 +12,39 @@ public class AccountExistsValidator extends AbstractTransactionValidator {
     }
 
     @Override
-    public ValidationResult validate(Transaction transaction, BankingService service) {
-        String sourceAccount = transaction.getSourceAccount();
-        String destAccount = transaction.getDestinationAccount();
+    public ValidationResult check(ValidationContext context) {
+        String sourceAccount = context.getSourceAccount();
+        String destAccount = context.getDestinationAccount();
 
         logValidation("Vérification de l'existence des comptes");
 
         // Vérification du compte source (si spécifié)
         if (sourceAccount != null && !sourceAccount.isEmpty()) {
-            if (service.getAccount(sourceAccount) == null) {
-                logValidation("ÉCHEC - Compte source introuvable: " + sourceAccount);
-                return ValidationResult.failure("Compte source introuvable: " + sourceAccount);
+            if (context.getSource() == null) {
+                if (isTracing(TraceLevel.DECISION)) {
+                    logDecision("ÉCHEC - Compte source introuvable: " + sourceAccount);
+                }
+                return ValidationResult.failure(FailureCode.SOURCE_NOT_FOUND, sourceAccount);
+            }
+            if (isTracing(TraceLevel.DETAIL)) {
+                logValidation("OK - Compte source trouvé: " + sourceAccount);
             }
-            logValidation("OK - Compte source trouvé: " + sourceAccount);
         }
 
         // Vérification du compte destination (si spécifié)
         if (destAccount != null && !destAccount.isEmpty()) {
-            if (service.getAccount(destAccount) == null) {
-                logValidation("ÉCHEC - Compte destination introuvable: " + destAccount);
-                return ValidationResult.failure("Compte destination introuvable: " + destAccount);
+            if (context.getDestination() == null) {
+                if (isTracing(TraceLevel.DECISION)) {
+                    logDecision("ÉCHEC - Compte destination introuvable: " + destAccount);
+                }
+                return ValidationResult.failure(FailureCode.DESTINATION_NOT_FOUND, destAccount);
+            }
+            if (isTracing(TraceLevel.DETAIL)) {
+                logValidation("OK - Compte destination trouvé: " + destAccount);
             }
-            logValidation("OK - Compte destination trouvé: " + destAccount);
         }
 
-        return validateNext(transaction, service);
+        logDecision("OK - Comptes existants");
+        return ValidationResult.success();
     }
 }
@@ -1,8 +1,9 @@
 package com.bank.legacy.applied.chain;
 
+import com.bank.legacy.applied.trace.TraceLevel;
+import com.bank.legacy.old.AccountStatus;
 import com.bank.legacy.old.BankAccount;
-import com.bank.legacy.old.BankingService;
-import com.bank.legacy.old.Transaction;
+import com.bank.legacy.old.TransactionType;
 
 /**
  * Validateur de l'état du compte (utilise le status de BankAccount)
@@ -14,40 +15,44 @@ public class AccountStateValidator extends AbstractTransactionValidator {
     }
 
     @Override
-    public ValidationResult validate(Transaction transaction, BankingService service) {
-        String type = transaction.getType();
-        String sourceAccount = transaction.getSourceAccount();
-        String destAccount = transaction.getDestinationAccount();
+    public ValidationResult check(ValidationContext context) {
+        TransactionType type = context.getType();
+        String sourceAccount = context.getSourceAccount();
+        String destAccount = context.getDestinationAccount();
 
         logValidation("Vérification de l'état des comptes");
 
         // Vérification du compte source pour RETRAIT et VIREMENT
-        if (("RETRAIT".equals(type) || "VIREMENT".equals(type)) &&
+        if ((type == TransactionType.RETRAIT || type == TransactionType.VIREMENT) &&
             sourceAccount != null && !sourceAccount.isEmpty()) {
 
-            BankAccount source = service.getAccount(sourceAccount);
-            if (source != null && !"ACTIVE".equals(source.getStatus())) {
-                logValidation("ÉCHEC - Compte source non actif: " + source.getStatus());
-                return ValidationResult.failure("Compte source non actif (état: " + source.getStatus() + ")");
+            BankAccount source = context.getSource();
+            if (source != null && source.getStatusCode() != AccountStatus.ACTIVE) {
+                if (isTracing(TraceLevel.DECISION)) {
+                    logDecision("ÉCHEC - Compte source non actif: " + source.getStatus());
+                }
+                return ValidationResult.failure(FailureCode.SOURCE_INACTIVE, source.getStatus());
             }
         }
 
         // Vérification du compte destination pour DEPOT et VIREMENT
-        if (("DEPOT".equals(type) || "VIREMENT".equals(type)) &&
+        if ((type == TransactionType.DEPOT || type == TransactionType.VIREMENT) &&
             destAccount != null && !destAccount.isEmpty()) {
 
-            BankAccount dest = service.getAccount(destAccount);
+            BankAccount dest = context.getDestination();
             if (dest != null) {
-                String status = dest.getStatus();
+                AccountStatus status = dest.getStatusCode();
                 // Pour les dépôts, on peut accepter les comptes SUSPENDED
-                if ("CLOSED".equals(status) || "FROZEN".equals(status)) {
-                    logValidation("ÉCHEC - Compte destination non disponible: " + status);
-                    return ValidationResult.failure("Compte destination non disponible (état: " + status + ")");
+                if (status == AccountStatus.CLOSED || status == AccountStatus.FROZEN) {
+                    if (isTracing(TraceLevel.DECISION)) {
+                        logDecision("ÉCHEC - Compte destination non disponible: " + status);
+                    }
+                    return ValidationResult.failure(FailureCode.DESTINATION_UNAVAILABLE, status.name());
                 }
             }
         }
 
-        logValidation("OK - État des comptes valide");
-        return validateNext(transaction, service);
+        logDecision("OK - État des comptes valide");
+        return ValidationResult.success();
     }
 }
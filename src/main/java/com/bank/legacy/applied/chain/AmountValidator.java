@@ -1,34 +1,44 @@
 package com.bank.legacy.applied.chain;
 
-import com.bank.legacy.old.BankingService;
-import com.bank.legacy.old.Transaction;
+import com.bank.legacy.applied.trace.TraceLevel;
 
 /**
  * Validateur du montant de la transaction
  */
 public class AmountValidator extends AbstractTransactionValidator {
 
-    private static final double MAX_AMOUNT = 50000.0;
+    public static final double DEFAULT_MAX_AMOUNT = 50000.0;
+
+    private final double maxAmount;
 
     public AmountValidator() {
+        this(DEFAULT_MAX_AMOUNT);
+    }
+
+    public AmountValidator(double maxAmount) {
         super("AmountValidator");
+        this.maxAmount = maxAmount;
     }
 
     @Override
-    public ValidationResult validate(Transaction transaction, BankingService service) {
-        logValidation("Vérification du montant: " + transaction.getAmount() + " EUR");
+    public ValidationResult check(ValidationContext context) {
+        if (isTracing(TraceLevel.DETAIL)) {
+            logValidation("Vérification du montant: " + context.getAmount() + " EUR");
+        }
 
-        if (transaction.getAmount() <= 0) {
-            logValidation("ÉCHEC - Montant invalide (doit être positif)");
-            return ValidationResult.failure("Le montant doit être positif");
+        if (context.getAmount() <= 0) {
+            logDecision("ÉCHEC - Montant invalide (doit être positif)");
+            return ValidationResult.failure(FailureCode.INVALID_AMOUNT);
         }
 
-        if (transaction.getAmount() > MAX_AMOUNT) {
-            logValidation("ÉCHEC - Montant trop élevé (max " + MAX_AMOUNT + " EUR)");
-            return ValidationResult.failure("Le montant dépasse la limite maximale de " + MAX_AMOUNT + " EUR");
+        if (context.getAmount() > maxAmount) {
+            if (isTracing(TraceLevel.DECISION)) {
+                logDecision("ÉCHEC - Montant trop élevé (max " + maxAmount + " EUR)");
+            }
+            return ValidationResult.failure(FailureCode.AMOUNT_ABOVE_MAXIMUM, context.getAmount(), maxAmount);
         }
 
-        logValidation("OK - Montant valide");
-        return validateNext(transaction, service);
+        logDecision("OK - Montant valide");
+        return ValidationResult.success();
     }
 }
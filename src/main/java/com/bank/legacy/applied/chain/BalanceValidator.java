@@ -1,8 +1,8 @@
 package com.bank.legacy.applied.chain;
 
+import com.bank.legacy.applied.trace.TraceLevel;
 import com.bank.legacy.old.BankAccount;
-import com.bank.legacy.old.BankingService;
-import com.bank.legacy.old.Transaction;
+import com.bank.legacy.old.TransactionType;
 
 /**
  * Validateur du solde suffisant pour les retraits et virements
@@ -14,40 +14,48 @@ public class BalanceValidator extends AbstractTransactionValidator {
     }
 
     @Override
-    public ValidationResult validate(Transaction transaction, BankingService service) {
-        String type = transaction.getType();
+    public boolean appliesTo(TransactionType type) {
+        return type != TransactionType.DEPOT;
+    }
+
+    @Override
+    public ValidationResult check(ValidationContext context) {
+        TransactionType type = context.getType();
 
         // Le dépôt n'a pas besoin de vérification de solde
-        if ("DEPOT".equals(type)) {
+        if (type == TransactionType.DEPOT) {
             logValidation("Dépôt - pas de vérification de solde nécessaire");
-            return validateNext(transaction, service);
+            return ValidationResult.success();
         }
 
-        String sourceAccount = transaction.getSourceAccount();
+        String sourceAccount = context.getSourceAccount();
         if (sourceAccount == null || sourceAccount.isEmpty()) {
-            return validateNext(transaction, service);
+            return ValidationResult.success();
         }
 
-        BankAccount account = service.getAccount(sourceAccount);
+        BankAccount account = context.getSource();
         if (account == null) {
             // Déjà vérifié par AccountExistsValidator, mais sécurité
-            return validateNext(transaction, service);
+            return ValidationResult.success();
         }
 
-        double amount = transaction.getAmount();
+        double amount = context.getAmount();
         double availableBalance = account.getBalance() + account.getOverdraftLimit();
 
-        logValidation("Vérification du solde: " + account.getBalance() + " EUR" +
-                     " (découvert autorisé: " + account.getOverdraftLimit() + " EUR)");
+        if (isTracing(TraceLevel.DETAIL)) {
+            logValidation("Vérification du solde: " + account.getBalance() + " EUR" +
+                         " (découvert autorisé: " + account.getOverdraftLimit() + " EUR)");
+        }
 
         if (amount > availableBalance) {
-            logValidation("ÉCHEC - Solde insuffisant (disponible: " + availableBalance +
-                         " EUR, demandé: " + amount + " EUR)");
-            return ValidationResult.failure("Solde insuffisant. Disponible: " +
-                                           availableBalance + " EUR, demandé: " + amount + " EUR");
+            if (isTracing(TraceLevel.DECISION)) {
+                logDecision("ÉCHEC - Solde insuffisant (disponible: " + availableBalance +
+                           " EUR, demandé: " + amount + " EUR)");
+            }
+            return ValidationResult.failure(FailureCode.INSUFFICIENT_BALANCE, amount, availableBalance);
         }
 
-        logValidation("OK - Solde suffisant");
-        return validateNext(transaction, service);
+        logDecision("OK - Solde suffisant");
+        return ValidationResult.success();
     }
 }
@@ -1,5 +1,8 @@
 package com.bank.legacy.applied.chain;
 
+import com.bank.legacy.applied.trace.TraceLevel;
+import com.bank.legacy.applied.trace.TraceSink;
+import com.bank.legacy.applied.trace.Tracer;
 import com.bank.legacy.old.BankAccount;
 import com.bank.legacy.old.BankingService;
 import com.bank.legacy.old.Transaction;
@@ -14,6 +17,9 @@ public class ChainDemo {
         System.out.println("DÉMONSTRATION DU PATTERN CHAIN OF RESPONSIBILITY");
         System.out.println("=".repeat(70));
 
+        // Traces détaillées de chaque validateur sur la console (coupées par défaut)
+        Tracer.configure(TraceLevel.DETAIL, TraceSink.CONSOLE);
+
         // Création du service et des comptes
         BankingService service = new BankingService();
         BankAccount compte1 = service.createAccount("COURANT", "Jean Dupont",
@@ -107,7 +113,7 @@ public class ChainDemo {
                └─ Vérifie: solde suffisant (avec découvert) pour les débits
 
             5. DailyLimitValidator
-               └─ Vérifie: limite quotidienne de 10000 EUR par compte
+               └─ Vérifie: limite quotidienne par compte (10000 EUR par défaut, réglable par type)
 
             6. FraudDetectionValidator
                └─ Vérifie: max 5 transactions/heure, pas de gros montants la nuit
@@ -0,0 +1,65 @@
+package com.bank.legacy.applied.chain;
+
+import com.bank.legacy.old.BankingService;
+import com.bank.legacy.old.Transaction;
+
+/**
+ * Chaîne de validation « compilée » : les contrôles sont rangés dans un tableau et exécutés par
+ * une boucle qui s'arrête au premier échec, sans appels récursifs de validateNext. Les comptes
+ * sont résolus une fois pour tous les contrôles (ValidationContext).
+ *
+ * Mêmes contrôles dans le même ordre que la chaîne liée équivalente, donc mêmes résultats ; l'ordre
+ * de ValidationChainBuilder place déjà les contrôles les moins coûteux (montant) en tête, avant
+ * toute recherche de compte, et les contrôles qui mémorisent un état (limite quotidienne, fraude)
+ * en dernier.
+ */
+public final class CompiledValidationPipeline implements TransactionValidation {
+
+    private final ValidationStep[] steps;
+
+    public CompiledValidationPipeline(ValidationStep... steps) {
+        if (steps == null || steps.length == 0) {
+            throw new IllegalArgumentException("Au moins un validateur est requis");
+        }
+        this.steps = steps.clone();
+    }
+
+    public ValidationResult validate(Transaction transaction, BankingService service) {
+        return validate(new ValidationContext(transaction, service));
+    }
+
+    /**
+     * Valide dans un contexte fourni par l'appelant, qui pourra annuler la validation par
+     * {@link #undo} si la transaction n'est finalement pas exécutée. En cas d'échec, les contrôles
+     * déjà passés sont annulés (dans l'ordre inverse).
+     */
+    @Override
+    public ValidationResult validate(ValidationContext context) {
+        for (int i = 0; i < steps.length; i++) {
+            ValidationResult result = steps[i].check(context);
+            if (!result.isValid()) {
+                undo(context, i);
+                return result;
+            }
+        }
+        return ValidationResult.success();
+    }
+
+    /**
+     * Annule une validation réussie (transaction abandonnée après validation)
+     */
+    @Override
+    public void undo(ValidationContext context) {
+        undo(context, steps.length);
+    }
+
+    private void undo(ValidationContext context, int passed) {
+        for (int i = passed - 1; i >= 0; i--) {
+            steps[i].undo(context);
+        }
+    }
+
+    public int size() {
+        return steps.length;
+    }
+}
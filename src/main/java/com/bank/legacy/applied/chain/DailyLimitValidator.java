@@ -1,89 +1,126 @@
 package com.bank.legacy.applied.chain;
 
-import com.bank.legacy.old.BankingService;
-import com.bank.legacy.old.Transaction;
+import com.bank.legacy.applied.money.Money;
+import com.bank.legacy.applied.store.DailyLimitLedger;
+import com.bank.legacy.applied.trace.TraceLevel;
+import com.bank.legacy.old.AccountType;
+import com.bank.legacy.old.BankAccount;
+import com.bank.legacy.old.TransactionType;
 
-import java.time.LocalDate;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 /**
- * Validateur de la limite quotidienne par compte
+ * Validateur de la limite quotidienne par compte.
+ * Thread-safe : le montant est réservé sur le cumul du jour par une opération atomique
+ * ({@link DailyLimitLedger}) et rendu si un contrôle suivant rejette la transaction ({@link #undo}).
+ * Le plafond dépend du type du compte source.
  */
 public class DailyLimitValidator extends AbstractTransactionValidator {
 
-    private static final double DAILY_LIMIT = 10000.0;
+    public static final double DEFAULT_DAILY_LIMIT = 10000.0;
 
-    // Suivi des transactions quotidiennes par compte
-    private final Map<String, DailyTracker> dailyTrackers = new HashMap<>();
+    // Cumuls quotidiens par compte (indexé par handle)
+    private volatile DailyLimitLedger ledger;
+    private final LocalClock clock = new LocalClock();
+    // Plafonds en centimes par type de compte (ordinal), le dernier pour un type inconnu ;
+    // remplacé en bloc à chaque modification
+    private volatile long[] limitsMinor;
 
     public DailyLimitValidator() {
+        this(new DailyLimitLedger());
+    }
+
+    /**
+     * @param ledger cumuls à utiliser, éventuellement partagés avec d'autres validateurs (les cumuls
+     *               survivent ainsi au remplacement des règles)
+     */
+    public DailyLimitValidator(DailyLimitLedger ledger) {
         super("DailyLimitValidator");
+        this.ledger = ledger;
+        limitsMinor = new long[AccountType.values().length + 1];
+        Arrays.fill(limitsMinor, Money.toMinor(DEFAULT_DAILY_LIMIT));
+    }
+
+    /**
+     * Plafond quotidien des comptes d'un type (null : comptes de type inconnu)
+     */
+    public synchronized void setDailyLimit(AccountType type, double limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Plafond négatif: " + limit);
+        }
+        long[] updated = limitsMinor.clone();
+        updated[indexOf(type)] = Money.toMinor(limit);
+        limitsMinor = updated;
+    }
+
+    public double getDailyLimit(AccountType type) {
+        return Money.toMajor(limitsMinor[indexOf(type)]);
+    }
+
+    @Override
+    public boolean appliesTo(TransactionType type) {
+        return type != TransactionType.DEPOT;
     }
 
     @Override
-    public ValidationResult validate(Transaction transaction, BankingService service) {
-        String type = transaction.getType();
+    public ValidationResult check(ValidationContext context) {
+        TransactionType type = context.getType();
 
         // Le dépôt n'a pas de limite quotidienne
-        if ("DEPOT".equals(type)) {
+        if (type == TransactionType.DEPOT) {
             logValidation("Dépôt - pas de limite quotidienne");
-            return validateNext(transaction, service);
+            return ValidationResult.success();
         }
 
-        String sourceAccount = transaction.getSourceAccount();
-        if (sourceAccount == null || sourceAccount.isEmpty()) {
-            return validateNext(transaction, service);
+        // Compte absent ou inexistant : rien à suivre (AccountExistsValidator le rejette)
+        if (!isReserved(context)) {
+            return ValidationResult.success();
         }
 
-        DailyTracker tracker = dailyTrackers.computeIfAbsent(sourceAccount, k -> new DailyTracker());
-        tracker.resetIfNewDay();
+        DailyLimitLedger current = ledger;
+        int handle = context.getSourceHandle();
+        long day = clock.epochDay(context.getTimeMillis());
+        long amountMinor = Money.toMinor(context.getAmount());
+        long limitMinor = limitOf(context.getSource());
 
-        double currentTotal = tracker.getTotalAmount();
-        double newTotal = currentTotal + transaction.getAmount();
-
-        logValidation("Vérification limite quotidienne pour " + sourceAccount +
-                     " (actuel: " + currentTotal + " EUR, demandé: " + transaction.getAmount() + " EUR)");
-
-        if (newTotal > DAILY_LIMIT) {
-            logValidation("ÉCHEC - Limite quotidienne dépassée (" + DAILY_LIMIT + " EUR)");
-            return ValidationResult.failure("Limite quotidienne dépassée. Maximum: " +
-                                           DAILY_LIMIT + " EUR, déjà utilisé: " + currentTotal + " EUR");
+        if (isTracing(TraceLevel.DETAIL)) {
+            logValidation("Vérification limite quotidienne pour " + context.getSourceAccount() +
+                         " (actuel: " + Money.toMajor(current.used(handle, day)) + " EUR, demandé: " +
+                         context.getAmount() + " EUR)");
         }
 
-        // Mettre à jour le tracker
-        tracker.addTransaction(transaction.getAmount());
-        logValidation("OK - Nouveau total quotidien: " + newTotal + " EUR");
+        // Vérification du plafond et réservation en une seule opération
+        long newTotal = current.reserve(handle, day, amountMinor, limitMinor);
+        if (newTotal == DailyLimitLedger.REJECTED) {
+            double used = Money.toMajor(current.used(handle, day));
+            double limit = Money.toMajor(limitMinor);
+            if (isTracing(TraceLevel.DECISION)) {
+                logDecision("ÉCHEC - Limite quotidienne dépassée (" + limit + " EUR)");
+            }
+            return ValidationResult.failure(FailureCode.DAILY_LIMIT_EXCEEDED, used, limit);
+        }
 
-        return validateNext(transaction, service);
+        if (isTracing(TraceLevel.DECISION)) {
+            logDecision("OK - Nouveau total quotidien: " + Money.toMajor(newTotal) + " EUR");
+        }
+        return ValidationResult.success();
     }
 
     /**
-     * Classe interne pour suivre les transactions quotidiennes
+     * Rend le montant réservé par {@link #check} (transaction rejetée plus loin ou abandonnée).
+     * Appelé par l'annulation de la chaîne : un appelant qui exécute lui-même une transaction validée
+     * doit appeler {@code undo} de la chaîne si elle échoue ou est annulée (ce que font les
+     * WithdrawCommand et TransferCommand validées).
      */
-    private static class DailyTracker {
-        private LocalDate date;
-        private double totalAmount;
-
-        public DailyTracker() {
-            this.date = LocalDate.now();
-            this.totalAmount = 0;
-        }
-
-        public void resetIfNewDay() {
-            LocalDate today = LocalDate.now();
-            if (!today.equals(date)) {
-                date = today;
-                totalAmount = 0;
-            }
-        }
-
-        public double getTotalAmount() {
-            return totalAmount;
+    @Override
+    public void undo(ValidationContext context) {
+        if (context.getType() == TransactionType.DEPOT || !isReserved(context)) {
+            return;
         }
-
-        public void addTransaction(double amount) {
-            totalAmount += amount;
+        ledger.release(context.getSourceHandle(), clock.epochDay(context.getTimeMillis()),
+                       Money.toMinor(context.getAmount()));
+        if (isTracing(TraceLevel.DECISION)) {
+            logDecision("Réservation annulée pour " + context.getSourceAccount());
         }
     }
 
@@ -91,6 +128,21 @@ public class DailyLimitValidator extends AbstractTransactionValidator {
      * Réinitialise les compteurs (utile pour les tests)
      */
     public void reset() {
-        dailyTrackers.clear();
+        ledger = new DailyLimitLedger();
+    }
+
+    /**
+     * Seul un compte source existant a un cumul (un montant négatif est rejeté par AmountValidator)
+     */
+    private static boolean isReserved(ValidationContext context) {
+        return context.getSourceHandle() >= 0 && context.getAmount() >= 0;
+    }
+
+    private long limitOf(BankAccount source) {
+        return limitsMinor[indexOf(source.getType())];
+    }
+
+    private int indexOf(AccountType type) {
+        return type != null ? type.ordinal() : limitsMinor.length - 1;
     }
 }
@@ -0,0 +1,36 @@
+package com.bank.legacy.applied.chain;
+
+import java.util.function.Function;
+
+/**
+ * Motifs de rejet d'une validation. Le message lisible est rendu à la demande, à partir des détails
+ * portés par le ValidationResult (compte ou état concerné, montant, plafond) : un rejet dont
+ * personne ne lit le message ne construit aucune chaîne.
+ */
+public enum FailureCode {
+    INVALID_AMOUNT(r -> "Le montant doit être positif"),
+    AMOUNT_ABOVE_MAXIMUM(r -> "Le montant dépasse la limite maximale de " + r.getLimit() + " EUR"),
+    SOURCE_NOT_FOUND(r -> "Compte source introuvable: " + r.getSubject()),
+    DESTINATION_NOT_FOUND(r -> "Compte destination introuvable: " + r.getSubject()),
+    SOURCE_INACTIVE(r -> "Compte source non actif (état: " + r.getSubject() + ")"),
+    DESTINATION_UNAVAILABLE(r -> "Compte destination non disponible (état: " + r.getSubject() + ")"),
+    INSUFFICIENT_BALANCE(r -> "Solde insuffisant. Disponible: " + r.getLimit() + " EUR, demandé: " +
+                              r.getAmount() + " EUR"),
+    DAILY_LIMIT_EXCEEDED(r -> "Limite quotidienne dépassée. Maximum: " + r.getLimit() + " EUR, déjà utilisé: " +
+                              r.getAmount() + " EUR"),
+    NIGHT_HIGH_AMOUNT(r -> "Transaction suspecte: montant élevé pendant les heures de nuit"),
+    TOO_MANY_TRANSACTIONS(r -> "Transaction suspecte: trop de transactions en une heure (max " +
+                               (long) r.getLimit() + ")"),
+    /** Rejet au message libre (ValidationResult.failure(String)) */
+    REJECTED(ValidationResult::getSubject);
+
+    private final Function<ValidationResult, String> renderer;
+
+    FailureCode(Function<ValidationResult, String> renderer) {
+        this.renderer = renderer;
+    }
+
+    String render(ValidationResult result) {
+        return renderer.apply(result);
+    }
+}
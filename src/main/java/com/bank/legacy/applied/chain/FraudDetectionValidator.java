@@ -1,75 +1,102 @@
 package com.bank.legacy.applied.chain;
 
-import com.bank.legacy.old.BankingService;
-import com.bank.legacy.old.Transaction;
+import com.bank.legacy.applied.store.SlidingWindowCounter;
+import com.bank.legacy.applied.trace.TraceLevel;
 
-import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.*;
 
 /**
- * Validateur de détection de fraude
+ * Validateur de détection de fraude.
+ * Thread-safe : le nombre de transactions de la dernière heure est tenu par un compteur à fenêtre
+ * glissante sans verrou (cases d'une minute), l'heure locale est calculée sans allocation à partir
+ * d'un décalage horaire mis en cache jusqu'au prochain changement d'heure.
  */
 public class FraudDetectionValidator extends AbstractTransactionValidator {
 
-    private static final int MAX_TRANSACTIONS_PER_HOUR = 5;
-    private static final double NIGHT_AMOUNT_LIMIT = 5000.0;
-    private static final LocalTime NIGHT_START = LocalTime.of(23, 0);
-    private static final LocalTime NIGHT_END = LocalTime.of(6, 0);
+    public static final int DEFAULT_MAX_TRANSACTIONS_PER_HOUR = 5;
+    public static final double DEFAULT_NIGHT_AMOUNT_LIMIT = 5000.0;
+    private static final long NIGHT_START_MILLIS = LocalTime.of(23, 0).toSecondOfDay() * 1000L;
+    private static final long NIGHT_END_MILLIS = LocalTime.of(6, 0).toSecondOfDay() * 1000L;
+    private static final int WINDOW_SECONDS = 3600;
+    private static final int WINDOW_BUCKETS = 60;
 
-    // Suivi des transactions récentes par compte
-    private final Map<String, List<LocalDateTime>> recentTransactions = new HashMap<>();
+    // Transactions récentes par compte (indexé par handle)
+    private volatile SlidingWindowCounter recentTransactions;
+    private final int maxTransactionsPerHour;
+    private final double nightAmountLimit;
+    private final LocalClock clock = new LocalClock();
 
     public FraudDetectionValidator() {
+        this(newCounter(), DEFAULT_MAX_TRANSACTIONS_PER_HOUR, DEFAULT_NIGHT_AMOUNT_LIMIT);
+    }
+
+    /**
+     * @param recentTransactions compteur à utiliser, éventuellement partagé avec d'autres validateurs
+     *                           (créé par {@link #newCounter()})
+     */
+    public FraudDetectionValidator(SlidingWindowCounter recentTransactions, int maxTransactionsPerHour,
+                                   double nightAmountLimit) {
         super("FraudDetectionValidator");
+        this.recentTransactions = recentTransactions;
+        this.maxTransactionsPerHour = maxTransactionsPerHour;
+        this.nightAmountLimit = nightAmountLimit;
     }
 
-    @Override
-    public ValidationResult validate(Transaction transaction, BankingService service) {
-        String sourceAccount = transaction.getSourceAccount();
+    /**
+     * Compteur des transactions de la dernière heure, par cases d'une minute
+     */
+    public static SlidingWindowCounter newCounter() {
+        return new SlidingWindowCounter(WINDOW_SECONDS, WINDOW_BUCKETS);
+    }
 
+    @Override
+    public ValidationResult check(ValidationContext context) {
         logValidation("Analyse des patterns suspects...");
 
         // Vérification des transactions nocturnes à montant élevé
-        LocalTime currentTime = LocalTime.now();
-        boolean isNightTime = currentTime.isAfter(NIGHT_START) || currentTime.isBefore(NIGHT_END);
-
-        if (isNightTime && transaction.getAmount() > NIGHT_AMOUNT_LIMIT) {
-            logValidation("ALERTE - Transaction nocturne de montant élevé (" +
-                         transaction.getAmount() + " EUR à " + currentTime + ")");
-            return ValidationResult.failure("Transaction suspecte: montant élevé pendant les heures de nuit");
+        long now = context.getTimeMillis();
+        long millisOfDay = clock.millisOfDay(now);
+        boolean isNightTime = millisOfDay > NIGHT_START_MILLIS || millisOfDay < NIGHT_END_MILLIS;
+
+        if (isNightTime && context.getAmount() > nightAmountLimit) {
+            if (isTracing(TraceLevel.DECISION)) {
+                logDecision("ALERTE - Transaction nocturne de montant élevé (" +
+                           context.getAmount() + " EUR à " + LocalTime.ofNanoOfDay(millisOfDay * 1_000_000) + ")");
+            }
+            return ValidationResult.failure(FailureCode.NIGHT_HIGH_AMOUNT);
         }
 
-        // Vérification du nombre de transactions par heure
-        if (sourceAccount != null && !sourceAccount.isEmpty()) {
-            List<LocalDateTime> accountTransactions = recentTransactions.computeIfAbsent(
-                sourceAccount, k -> new ArrayList<>());
-
-            // Nettoyer les transactions de plus d'une heure
-            LocalDateTime oneHourAgo = LocalDateTime.now().minusHours(1);
-            accountTransactions.removeIf(dt -> dt.isBefore(oneHourAgo));
-
-            if (accountTransactions.size() >= MAX_TRANSACTIONS_PER_HOUR) {
-                logValidation("ALERTE - Trop de transactions en une heure (" +
-                             accountTransactions.size() + " transactions)");
-                return ValidationResult.failure("Transaction suspecte: trop de transactions en une heure " +
-                                               "(max " + MAX_TRANSACTIONS_PER_HOUR + ")");
+        // Vérification du nombre de transactions par heure (compte source existant)
+        int handle = context.getSourceHandle();
+        if (handle >= 0) {
+            SlidingWindowCounter counter = recentTransactions;
+            long epochSecond = now / 1000;
+            int recent = counter.count(handle, epochSecond);
+
+            if (recent >= maxTransactionsPerHour) {
+                if (isTracing(TraceLevel.DECISION)) {
+                    logDecision("ALERTE - Trop de transactions en une heure (" +
+                               recent + " transactions)");
+                }
+                return ValidationResult.failure(FailureCode.TOO_MANY_TRANSACTIONS, recent, maxTransactionsPerHour);
             }
 
             // Ajouter la transaction actuelle
-            accountTransactions.add(LocalDateTime.now());
-            logValidation("OK - " + (accountTransactions.size()) + "/" +
-                         MAX_TRANSACTIONS_PER_HOUR + " transactions cette heure");
+            counter.increment(handle, epochSecond);
+            if (isTracing(TraceLevel.DETAIL)) {
+                logValidation("OK - " + (recent + 1) + "/" +
+                             maxTransactionsPerHour + " transactions cette heure");
+            }
         }
 
-        logValidation("OK - Aucun pattern suspect détecté");
-        return validateNext(transaction, service);
+        logDecision("OK - Aucun pattern suspect détecté");
+        return ValidationResult.success();
     }
 
     /**
      * Réinitialise l'historique des transactions (utile pour les tests)
      */
     public void reset() {
-        recentTransactions.clear();
+        recentTransactions = newCounter();
     }
 }
@@ -0,0 +1,64 @@
+package com.bank.legacy.applied.chain;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+/**
+ * Heure et jour locaux (fuseau par défaut) calculés sans allocation à partir d'un instant epoch :
+ * le décalage horaire est mis en cache jusqu'au prochain changement d'heure, et relu au plus tard
+ * au bout d'une heure au cas où le fuseau par défaut changerait. Thread-safe.
+ */
+final class LocalClock {
+
+    static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private volatile CachedOffset offset;
+
+    /**
+     * Heure locale en millisecondes depuis minuit
+     */
+    long millisOfDay(long epochMillis) {
+        return Math.floorMod(localMillis(epochMillis), MILLIS_PER_DAY);
+    }
+
+    /**
+     * Jour local (numéro de jour epoch, comme LocalDate.toEpochDay)
+     */
+    long epochDay(long epochMillis) {
+        return Math.floorDiv(localMillis(epochMillis), MILLIS_PER_DAY);
+    }
+
+    private long localMillis(long epochMillis) {
+        CachedOffset cached = offset;
+        if (cached == null || epochMillis >= cached.validUntil || epochMillis < cached.validFrom) {
+            cached = CachedOffset.at(epochMillis);
+            offset = cached;
+        }
+        return epochMillis + cached.offsetMillis;
+    }
+
+    private static final class CachedOffset {
+        final long validFrom;
+        final long validUntil;
+        final long offsetMillis;
+
+        private CachedOffset(long validFrom, long validUntil, long offsetMillis) {
+            this.validFrom = validFrom;
+            this.validUntil = validUntil;
+            this.offsetMillis = offsetMillis;
+        }
+
+        static CachedOffset at(long epochMillis) {
+            ZoneRules rules = ZoneId.systemDefault().getRules();
+            Instant instant = Instant.ofEpochMilli(epochMillis);
+            long until = epochMillis + 3_600_000L;
+            ZoneOffsetTransition next = rules.nextTransition(instant);
+            if (next != null) {
+                until = Math.min(until, next.toEpochSecond() * 1000);
+            }
+            return new CachedOffset(epochMillis, until, rules.getOffset(instant).getTotalSeconds() * 1000L);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.bank.legacy.applied.chain;
+
+/**
+ * Validation qui peut réserver (limite quotidienne) et donc s'annuler :
+ * CompiledValidationPipeline ou ValidationRuleEngine.
+ */
+public interface TransactionValidation {
+
+    /**
+     * Valide la transaction du contexte ; en cas d'échec, rien ne reste réservé
+     */
+    ValidationResult validate(ValidationContext context);
+
+    /**
+     * Annule une validation réussie (transaction abandonnée, échouée ou annulée après coup)
+     */
+    void undo(ValidationContext context);
+}
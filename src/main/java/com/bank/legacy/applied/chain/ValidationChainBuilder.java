@@ -49,6 +49,30 @@ public class ValidationChainBuilder {
         return amountValidator;
     }
 
+    /**
+     * Mêmes contrôles et même ordre que {@link #buildChain()}, exécutés par une boucle à plat
+     * (comptes résolus une seule fois, arrêt au premier échec)
+     */
+    public static CompiledValidationPipeline compile() {
+        return new CompiledValidationPipeline(
+            new AmountValidator(),
+            new AccountExistsValidator(),
+            new AccountStateValidator(),
+            new BalanceValidator(),
+            new DailyLimitValidator(),
+            new FraudDetectionValidator());
+    }
+
+    /**
+     * Version compilée de {@link #buildSimpleChain()}
+     */
+    public static CompiledValidationPipeline compileSimple() {
+        return new CompiledValidationPipeline(
+            new AmountValidator(),
+            new AccountExistsValidator(),
+            new BalanceValidator());
+    }
+
     /**
      * Construit une chaîne personnalisée à partir des validateurs fournis
      */
@@ -0,0 +1,106 @@
+package com.bank.legacy.applied.chain;
+
+import com.bank.legacy.old.BankAccount;
+import com.bank.legacy.old.BankingService;
+import com.bank.legacy.old.Transaction;
+import com.bank.legacy.old.TransactionType;
+
+/**
+ * Transaction en cours de validation et comptes qu'elle concerne, partagés par tous les contrôles :
+ * chaque compte est résolu au plus une fois (handle puis compte), à la première demande. Un contrôle
+ * qui échoue avant tout accès aux comptes (montant) n'a donc déclenché aucune recherche.
+ * L'heure est lue une fois, à la création : tous les contrôles (et leur annulation) voient la même.
+ * ValidationRuleEngine y note la chaîne qui a validé, pour annuler avec celle-ci après un rechargement.
+ *
+ * Propre à une validation, non thread-safe.
+ */
+public final class ValidationContext {
+
+    private static final int UNRESOLVED = -2;
+
+    private final Transaction transaction;
+    private final BankingService service;
+    private final long timeMillis;
+    private int sourceHandle = UNRESOLVED;
+    private int destinationHandle = UNRESOLVED;
+    private BankAccount source;
+    private BankAccount destination;
+    private CompiledValidationPipeline pipeline; // chaîne qui a accepté la transaction (ValidationRuleEngine)
+
+    public ValidationContext(Transaction transaction, BankingService service) {
+        this.transaction = transaction;
+        this.service = service;
+        this.timeMillis = System.currentTimeMillis();
+    }
+
+    public Transaction getTransaction() {
+        return transaction;
+    }
+
+    public BankingService getService() {
+        return service;
+    }
+
+    /**
+     * Instant de la validation (millisecondes epoch)
+     */
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public TransactionType getType() {
+        return transaction.getTransactionType();
+    }
+
+    public double getAmount() {
+        return transaction.getAmount();
+    }
+
+    public String getSourceAccount() {
+        return transaction.getSourceAccount();
+    }
+
+    public String getDestinationAccount() {
+        return transaction.getDestinationAccount();
+    }
+
+    /**
+     * @return le handle du compte source, -1 s'il est absent ou inexistant
+     */
+    public int getSourceHandle() {
+        if (sourceHandle == UNRESOLVED) {
+            sourceHandle = service.getAccountHandle(transaction.getSourceAccount());
+            source = service.getAccount(sourceHandle);
+        }
+        return sourceHandle;
+    }
+
+    /**
+     * @return le compte source, null s'il est absent ou inexistant
+     */
+    public BankAccount getSource() {
+        getSourceHandle();
+        return source;
+    }
+
+    public int getDestinationHandle() {
+        if (destinationHandle == UNRESOLVED) {
+            destinationHandle = service.getAccountHandle(transaction.getDestinationAccount());
+            destination = service.getAccount(destinationHandle);
+        }
+        return destinationHandle;
+    }
+
+    public BankAccount getDestination() {
+        getDestinationHandle();
+        return destination;
+    }
+
+    CompiledValidationPipeline getPipeline() {
+        return pipeline;
+    }
+
+    void setPipeline(CompiledValidationPipeline pipeline) {
+        this.pipeline = pipeline;
+    }
+}
@@ -1,45 +1,117 @@
 package com.bank.legacy.applied.chain;
 
 /**
- * Résultat d'une validation dans la chaîne
+ * Résultat d'une validation dans la chaîne.
+ *
+ * Le succès est une instance partagée ; un rejet porte un {@link FailureCode} et ses détails
+ * (compte ou état concerné, montant, plafond) sous forme brute. Le message n'est construit qu'à la
+ * première lecture de {@link #getErrorMessage()} : valider une transaction acceptée n'alloue aucun
+ * résultat, et un rejet sans détails (montant invalide...) non plus.
+ *
+ * La validation elle-même n'est pas sans allocation : validate(Transaction, BankingService) crée un
+ * ValidationContext par transaction (un seul pour toute la chaîne liée ou compilée). Seul un appelant
+ * qui fournit son propre contexte (validate(ValidationContext)) n'alloue rien pour une acceptation.
  */
 public class ValidationResult {
 
-    private final boolean valid;
-    private final String errorMessage;
+    private static final ValidationResult SUCCESS = new ValidationResult(null, null, 0, 0);
+    private static final ValidationResult[] BARE_FAILURES = new ValidationResult[FailureCode.values().length];
 
-    private ValidationResult(boolean valid, String errorMessage) {
-        this.valid = valid;
-        this.errorMessage = errorMessage;
+    static {
+        for (FailureCode code : FailureCode.values()) {
+            BARE_FAILURES[code.ordinal()] = new ValidationResult(code, null, 0, 0);
+        }
+    }
+
+    private final FailureCode code;
+    private final String subject;
+    private final double amount;
+    private final double limit;
+    // Rendu à la demande ; une course ne fait que le rendre deux fois
+    private String errorMessage;
+
+    private ValidationResult(FailureCode code, String subject, double amount, double limit) {
+        this.code = code;
+        this.subject = subject;
+        this.amount = amount;
+        this.limit = limit;
     }
 
     /**
-     * Crée un résultat de succès
+     * Résultat de succès (instance partagée)
      */
     public static ValidationResult success() {
-        return new ValidationResult(true, null);
+        return SUCCESS;
     }
 
     /**
      * Crée un résultat d'échec avec un message d'erreur
      */
     public static ValidationResult failure(String message) {
-        return new ValidationResult(false, message);
+        return new ValidationResult(FailureCode.REJECTED, message, 0, 0);
+    }
+
+    /**
+     * Rejet sans détails (instance partagée par motif)
+     */
+    public static ValidationResult failure(FailureCode code) {
+        return BARE_FAILURES[code.ordinal()];
+    }
+
+    /**
+     * Rejet concernant un compte ou un état (numéro de compte, état du compte...)
+     */
+    public static ValidationResult failure(FailureCode code, String subject) {
+        return new ValidationResult(code, subject, 0, 0);
+    }
+
+    /**
+     * Rejet chiffré : montant en cause (demandé, déjà utilisé...) et plafond applicable
+     */
+    public static ValidationResult failure(FailureCode code, double amount, double limit) {
+        return new ValidationResult(code, null, amount, limit);
     }
 
     public boolean isValid() {
-        return valid;
+        return code == null;
+    }
+
+    /**
+     * @return le motif du rejet, null pour un succès
+     */
+    public FailureCode getCode() {
+        return code;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public double getLimit() {
+        return limit;
     }
 
     public String getErrorMessage() {
-        return errorMessage;
+        if (code == null) {
+            return null;
+        }
+        String message = errorMessage;
+        if (message == null) {
+            message = code.render(this);
+            errorMessage = message;
+        }
+        return message;
     }
 
     @Override
     public String toString() {
-        if (valid) {
+        if (isValid()) {
             return "ValidationResult[VALID]";
         }
-        return "ValidationResult[INVALID: " + errorMessage + "]";
+        return "ValidationResult[INVALID: " + getErrorMessage() + "]";
     }
 }
@@ -0,0 +1,282 @@
+package com.bank.legacy.applied.chain;
+
+import com.bank.legacy.applied.store.DailyLimitLedger;
+import com.bank.legacy.applied.store.SlidingWindowCounter;
+import com.bank.legacy.old.AccountType;
+import com.bank.legacy.old.BankAccount;
+import com.bank.legacy.old.BankingService;
+import com.bank.legacy.old.Transaction;
+import com.bank.legacy.old.TransactionType;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Moteur de règles de validation : les contrôles et leurs plafonds sont lus dans un fichier de
+ * propriétés, puis compilés en une chaîne (CompiledValidationPipeline) par couple (type de compte,
+ * type de transaction). Valider une transaction revient à choisir la chaîne de sa case et
+ * à l'exécuter ; les contrôles sans objet pour le type de transaction (solde, limite quotidienne
+ * d'un dépôt) sont retirés à la compilation.
+ *
+ * Format du fichier (toutes les clés sont facultatives, les valeurs par défaut sont celles de
+ * ValidationChainBuilder.buildChain) :
+ * <pre>
+ * steps=amount,accountExists,accountState,balance,dailyLimit,fraud
+ * amount.max=50000
+ * daily.limit=10000
+ * fraud.maxPerHour=5
+ * fraud.nightAmount=5000
+ * </pre>
+ * Chaque clé peut être précisée par type de compte et/ou de transaction ; la plus précise l'emporte :
+ * {@code daily.limit.EPARGNE.VIREMENT}, puis {@code daily.limit.EPARGNE}, {@code daily.limit.VIREMENT},
+ * {@code daily.limit}. Le type de compte est celui de la destination pour un dépôt, de la source sinon.
+ *
+ * Rechargement à chaud ({@link #reload}, {@link #reloadIfModified}) : le nouveau jeu de règles est
+ * compilé à part puis publié en une écriture volatile. Une validation en cours termine avec le jeu
+ * qu'elle a lu, et son annulation passe par ce même jeu ; un fichier invalide est refusé et le jeu
+ * courant conservé. Les cumuls quotidiens et le compteur anti-fraude appartiennent au moteur : ils
+ * survivent au rechargement.
+ */
+public class ValidationRuleEngine implements TransactionValidation {
+
+    public static final String DEFAULT_STEPS = "amount,accountExists,accountState,balance,dailyLimit,fraud";
+
+    private static final AccountType[] ACCOUNT_TYPES = AccountType.values();
+    private static final TransactionType[] TRANSACTION_TYPES = TransactionType.values();
+    private static final String[] KEYS = {"steps", "amount.max", "daily.limit", "fraud.maxPerHour", "fraud.nightAmount"};
+
+    private final Path rulesFile;
+    private final DailyLimitLedger dailyTotals = new DailyLimitLedger();
+    private final SlidingWindowCounter recentTransactions = FraudDetectionValidator.newCounter();
+    // [type de compte (dernier : inconnu)][type de transaction (dernier : inconnu)]
+    private volatile CompiledValidationPipeline[][] pipelines;
+    private FileTime loadedModification;
+
+    /**
+     * Règles données directement (pas de fichier à recharger)
+     */
+    public ValidationRuleEngine(Properties rules) {
+        this.rulesFile = null;
+        load(rules);
+    }
+
+    private ValidationRuleEngine(Path rulesFile) throws IOException {
+        this.rulesFile = rulesFile;
+        reload();
+    }
+
+    /**
+     * Charge les règles d'un fichier de propriétés (UTF-8)
+     */
+    public static ValidationRuleEngine fromFile(Path rulesFile) throws IOException {
+        return new ValidationRuleEngine(rulesFile);
+    }
+
+    /**
+     * Relit le fichier de règles et remplace les règles courantes
+     * @throws IllegalArgumentException si le fichier est invalide (les règles courantes restent en place)
+     */
+    public synchronized void reload() throws IOException {
+        if (rulesFile == null) {
+            throw new IllegalStateException("Règles sans fichier associé");
+        }
+        FileTime modification = Files.getLastModifiedTime(rulesFile);
+        Properties rules = new Properties();
+        try (Reader reader = Files.newBufferedReader(rulesFile, StandardCharsets.UTF_8)) {
+            rules.load(reader);
+        }
+        load(rules);
+        loadedModification = modification;
+    }
+
+    /**
+     * Relit le fichier de règles s'il a changé depuis le dernier chargement
+     * @return true si les règles ont été rechargées
+     */
+    public synchronized boolean reloadIfModified() throws IOException {
+        if (rulesFile == null || Files.getLastModifiedTime(rulesFile).equals(loadedModification)) {
+            return false;
+        }
+        reload();
+        return true;
+    }
+
+    /**
+     * Compile un jeu de règles et le publie
+     * @throws IllegalArgumentException si une règle est invalide (les règles courantes restent en place)
+     */
+    public synchronized void load(Properties rules) {
+        for (String key : rules.stringPropertyNames()) {
+            checkKey(key);
+        }
+        CompiledValidationPipeline[][] compiled =
+            new CompiledValidationPipeline[ACCOUNT_TYPES.length + 1][TRANSACTION_TYPES.length + 1];
+        for (int a = 0; a <= ACCOUNT_TYPES.length; a++) {
+            for (int t = 0; t <= TRANSACTION_TYPES.length; t++) {
+                AccountType accountType = a < ACCOUNT_TYPES.length ? ACCOUNT_TYPES[a] : null;
+                TransactionType transactionType = t < TRANSACTION_TYPES.length ? TRANSACTION_TYPES[t] : null;
+                compiled[a][t] = compile(rules, accountType, transactionType);
+            }
+        }
+        pipelines = compiled;
+    }
+
+    public ValidationResult validate(Transaction transaction, BankingService service) {
+        return validate(new ValidationContext(transaction, service));
+    }
+
+    /**
+     * Valide dans un contexte fourni par l'appelant, qui pourra annuler la validation par {@link #undo}.
+     * La chaîne choisie est notée dans le contexte : l'annulation passe par elle, même si les règles
+     * ont été rechargées entre-temps.
+     */
+    @Override
+    public ValidationResult validate(ValidationContext context) {
+        CompiledValidationPipeline pipeline = pipelineFor(context);
+        ValidationResult result = pipeline.validate(context);
+        // Un rejet a déjà tout annulé : rien à rendre ensuite
+        context.setPipeline(result.isValid() ? pipeline : null);
+        return result;
+    }
+
+    /**
+     * Annule une validation réussie (transaction abandonnée après validation) avec la chaîne qui l'a
+     * acceptée ; sans effet après un rejet ou une première annulation
+     */
+    @Override
+    public void undo(ValidationContext context) {
+        CompiledValidationPipeline pipeline = context.getPipeline();
+        if (pipeline != null) {
+            context.setPipeline(null);
+            pipeline.undo(context);
+        }
+    }
+
+    private CompiledValidationPipeline pipelineFor(ValidationContext context) {
+        CompiledValidationPipeline[][] current = pipelines;
+        TransactionType type = context.getType();
+        BankAccount account = type == TransactionType.DEPOT ? context.getDestination() : context.getSource();
+        AccountType accountType = account != null ? account.getType() : null;
+        return current[accountType != null ? accountType.ordinal() : ACCOUNT_TYPES.length]
+                      [type != null ? type.ordinal() : TRANSACTION_TYPES.length];
+    }
+
+    private CompiledValidationPipeline compile(Properties rules, AccountType accountType,
+                                               TransactionType transactionType) {
+        List<ValidationStep> steps = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (String name : resolve(rules, "steps", accountType, transactionType, DEFAULT_STEPS).split(",")) {
+            if (!names.add(name.trim())) {
+                throw new IllegalArgumentException("Règle invalide: contrôle en double '" + name.trim() + "'");
+            }
+            ValidationStep step = createStep(name.trim(), rules, accountType, transactionType);
+            if (transactionType == null || step.appliesTo(transactionType)) {
+                steps.add(step);
+            }
+        }
+        if (steps.isEmpty()) {
+            steps.add(context -> ValidationResult.success());
+        }
+        return new CompiledValidationPipeline(steps.toArray(new ValidationStep[0]));
+    }
+
+    private ValidationStep createStep(String name, Properties rules, AccountType accountType,
+                                      TransactionType transactionType) {
+        switch (name) {
+            case "amount":
+                return new AmountValidator(number(rules, "amount.max", accountType, transactionType,
+                                                  AmountValidator.DEFAULT_MAX_AMOUNT));
+            case "accountExists":
+                return new AccountExistsValidator();
+            case "accountState":
+                return new AccountStateValidator();
+            case "balance":
+                return new BalanceValidator();
+            case "dailyLimit":
+                DailyLimitValidator dailyLimit = new DailyLimitValidator(dailyTotals);
+                dailyLimit.setDailyLimit(accountType, number(rules, "daily.limit", accountType, transactionType,
+                                                             DailyLimitValidator.DEFAULT_DAILY_LIMIT));
+                return dailyLimit;
+            case "fraud":
+                double maxPerHour = number(rules, "fraud.maxPerHour", accountType, transactionType,
+                                           FraudDetectionValidator.DEFAULT_MAX_TRANSACTIONS_PER_HOUR);
+                if (maxPerHour != Math.rint(maxPerHour)) {
+                    throw new IllegalArgumentException("Règle invalide: fraud.maxPerHour doit être entier (" + maxPerHour + ")");
+                }
+                return new FraudDetectionValidator(recentTransactions, (int) maxPerHour,
+                    number(rules, "fraud.nightAmount", accountType, transactionType,
+                           FraudDetectionValidator.DEFAULT_NIGHT_AMOUNT_LIMIT));
+            default:
+                throw new IllegalArgumentException("Règle invalide: contrôle inconnu '" + name + "'");
+        }
+    }
+
+    private static double number(Properties rules, String key, AccountType accountType,
+                                 TransactionType transactionType, double defaultValue) {
+        String value = resolve(rules, key, accountType, transactionType, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            double number = Double.parseDouble(value.trim());
+            if (number < 0 || Double.isNaN(number) || Double.isInfinite(number)) {
+                throw new NumberFormatException();
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Règle invalide: " + key + "=" + value);
+        }
+    }
+
+    /**
+     * Valeur de la clé la plus précise : clé.COMPTE.TRANSACTION, clé.COMPTE, clé.TRANSACTION, clé
+     */
+    private static String resolve(Properties rules, String key, AccountType accountType,
+                                  TransactionType transactionType, String defaultValue) {
+        String value = null;
+        if (accountType != null && transactionType != null) {
+            value = rules.getProperty(key + "." + accountType + "." + transactionType);
+        }
+        if (value == null && accountType != null) {
+            value = rules.getProperty(key + "." + accountType);
+        }
+        if (value == null && transactionType != null) {
+            value = rules.getProperty(key + "." + transactionType);
+        }
+        if (value == null) {
+            value = rules.getProperty(key);
+        }
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * Refuse les clés inconnues (une faute de frappe ne doit pas passer inaperçue)
+     */
+    private static void checkKey(String key) {
+        for (String known : KEYS) {
+            if (key.equals(known)) {
+                return;
+            }
+            if (key.startsWith(known + ".")) {
+                String[] qualifiers = key.substring(known.length() + 1).split("\\.", -1);
+                boolean valid = qualifiers.length == 1
+                    ? AccountType.fromCode(qualifiers[0]) != null || TransactionType.fromCode(qualifiers[0]) != null
+                    : qualifiers.length == 2 && AccountType.fromCode(qualifiers[0]) != null
+                      && TransactionType.fromCode(qualifiers[1]) != null;
+                if (valid) {
+                    return;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Règle invalide: clé inconnue '" + key + "'");
+    }
+}
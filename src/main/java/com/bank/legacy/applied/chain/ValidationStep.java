@@ -0,0 +1,30 @@
+package com.bank.legacy.applied.chain;
+
+import com.bank.legacy.old.TransactionType;
+
+/**
+ * Un contrôle de validation, sans chaînage : il ne fait que sa vérification.
+ * Les validateurs de la chaîne l'implémentent ; CompiledValidationPipeline les enchaîne en boucle.
+ */
+public interface ValidationStep {
+
+    /**
+     * @return un succès pour passer au contrôle suivant, sinon l'échec à retourner
+     */
+    ValidationResult check(ValidationContext context);
+
+    /**
+     * @return false si le contrôle n'a rien à vérifier pour ce type de transaction : une chaîne
+     *         compilée par type de transaction peut alors l'omettre
+     */
+    default boolean appliesTo(TransactionType type) {
+        return true;
+    }
+
+    /**
+     * Annule l'effet d'un contrôle réussi (une réservation par exemple) quand la transaction est
+     * rejetée par un contrôle suivant ou abandonnée. Appelé au plus une fois, avec le même contexte.
+     */
+    default void undo(ValidationContext context) {
+    }
+}
@@ -1,6 +1,7 @@
 package com.bank.legacy.applied.command;
 
 import com.bank.legacy.old.BankAccount;
+import com.bank.legacy.old.HeapBankAccount;
 
 /**
  * Démonstration du pattern Command avec undo/redo
@@ -13,9 +14,9 @@ public class CommandDemo {
         System.out.println("=".repeat(60));
 
         // Création des comptes
-        BankAccount compte1 = new BankAccount("ACC001", "COURANT", "Jean Dupont",
+        BankAccount compte1 = new HeapBankAccount("ACC001", "COURANT", "Jean Dupont",
             "jean@email.com", "+33600000001", 1000.0, 0.0, 500.0);
-        BankAccount compte2 = new BankAccount("ACC002", "EPARGNE", "Marie Martin",
+        BankAccount compte2 = new HeapBankAccount("ACC002", "EPARGNE", "Marie Martin",
             "marie@email.com", "+33600000002", 2000.0, 2.5, 0.0);
 
         // Création de l'exécuteur de transactions
@@ -0,0 +1,59 @@
+package com.bank.legacy.applied.command;
+
+import com.bank.legacy.applied.chain.TransactionValidation;
+import com.bank.legacy.applied.chain.ValidationContext;
+import com.bank.legacy.applied.chain.ValidationResult;
+import com.bank.legacy.applied.money.Money;
+import com.bank.legacy.old.BankingService;
+import com.bank.legacy.old.Transaction;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Validation d'une commande et réservation qu'elle tient (limite quotidienne) tant que la commande
+ * reste exécutée : la réservation est rendue si l'exécution échoue ou si la commande est annulée.
+ * Chaque exécution (redo compris) valide dans un nouveau contexte.
+ */
+final class CommandValidation {
+
+    private static final AtomicLong COMMAND_IDS = new AtomicLong();
+
+    private final TransactionValidation validation;
+    private final BankingService service;
+    private ValidationContext context; // validation en cours, null si rien n'est réservé
+
+    CommandValidation(TransactionValidation validation, BankingService service) {
+        if (validation == null || service == null) {
+            throw new IllegalArgumentException("Validation et service requis");
+        }
+        this.validation = validation;
+        this.service = service;
+    }
+
+    /**
+     * Valide la transaction ; affiche l'erreur si elle est rejetée
+     * @return true si elle est acceptée (la réservation est alors tenue jusqu'à {@link #release})
+     */
+    boolean validate(String type, long amountMinor, String sourceAccount, String destinationAccount) {
+        Transaction transaction = new Transaction("CMD" + COMMAND_IDS.incrementAndGet(), type,
+            Money.toMajor(amountMinor), sourceAccount, destinationAccount);
+        ValidationContext validated = new ValidationContext(transaction, service);
+        ValidationResult result = validation.validate(validated);
+        if (!result.isValid()) {
+            System.out.println("ERREUR: " + result.getErrorMessage());
+            return false;
+        }
+        context = validated;
+        return true;
+    }
+
+    /**
+     * Rend la réservation de la dernière validation acceptée (sans effet s'il n'y en a pas)
+     */
+    void release() {
+        if (context != null) {
+            validation.undo(context);
+            context = null;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.bank.legacy.applied.command;
 
+import com.bank.legacy.applied.money.Money;
 import com.bank.legacy.old.BankAccount;
 
 /**
@@ -8,12 +9,16 @@ import com.bank.legacy.old.BankAccount;
 public class DepositCommand implements BankCommand {
 
     private final BankAccount account;
-    private final double amount;
+    private final long amount; // en centimes
     private boolean executed;
 
     public DepositCommand(BankAccount account, double amount) {
+        this(account, Money.eur(amount));
+    }
+
+    public DepositCommand(BankAccount account, Money amount) {
         this.account = account;
-        this.amount = amount;
+        this.amount = amount.getMinorUnits();
         this.executed = false;
     }
 
@@ -24,9 +29,9 @@ public class DepositCommand implements BankCommand {
             return false;
         }
 
-        account.setBalance(account.getBalance() + amount);
+        account.setBalanceMinor(account.getBalanceMinor() + amount);
         executed = true;
-        System.out.println("Dépôt de " + amount + " EUR effectué sur le compte " + account.getAccountNumber());
+        System.out.println("Dépôt de " + Money.toMajor(amount) + " EUR effectué sur le compte " + account.getAccountNumber());
         return true;
     }
 
@@ -37,15 +42,15 @@ public class DepositCommand implements BankCommand {
             return false;
         }
 
-        account.setBalance(account.getBalance() - amount);
+        account.setBalanceMinor(account.getBalanceMinor() - amount);
         executed = false;
-        System.out.println("Annulation du dépôt de " + amount + " EUR sur le compte " + account.getAccountNumber());
+        System.out.println("Annulation du dépôt de " + Money.toMajor(amount) + " EUR sur le compte " + account.getAccountNumber());
         return true;
     }
 
     @Override
     public String getDescription() {
-        return "Dépôt de " + amount + " EUR sur le compte " + account.getAccountNumber();
+        return "Dépôt de " + Money.toMajor(amount) + " EUR sur le compte " + account.getAccountNumber();
     }
 
     public boolean isExecuted() {
@@ -1,6 +1,9 @@
 package com.bank.legacy.applied.command;
 
+import com.bank.legacy.applied.chain.TransactionValidation;
+import com.bank.legacy.applied.money.Money;
 import com.bank.legacy.old.BankAccount;
+import com.bank.legacy.old.BankingService;
 
 /**
  * Macro Command pour effectuer un virement (composition de WithdrawCommand et DepositCommand)
@@ -11,24 +14,58 @@ public class TransferCommand implements BankCommand {
     private final DepositCommand depositCommand;
     private final BankAccount sourceAccount;
     private final BankAccount destinationAccount;
-    private final double amount;
+    private final Money amount;
+    private final CommandValidation validation; // null : pas de validation
+    private boolean executed;
 
     public TransferCommand(BankAccount sourceAccount, BankAccount destinationAccount, double amount) {
+        this(sourceAccount, destinationAccount, Money.eur(amount));
+    }
+
+    public TransferCommand(BankAccount sourceAccount, BankAccount destinationAccount, Money amount) {
+        this(sourceAccount, destinationAccount, amount, null);
+    }
+
+    /**
+     * Virement validé avant exécution (comptes rangés dans service) : la réservation de la limite
+     * quotidienne est rendue si le virement échoue ou est annulé
+     */
+    public TransferCommand(BankAccount sourceAccount, BankAccount destinationAccount, Money amount,
+                           TransactionValidation validation, BankingService service) {
+        this(sourceAccount, destinationAccount, amount, new CommandValidation(validation, service));
+    }
+
+    private TransferCommand(BankAccount sourceAccount, BankAccount destinationAccount, Money amount,
+                            CommandValidation validation) {
         this.sourceAccount = sourceAccount;
         this.destinationAccount = destinationAccount;
         this.amount = amount;
+        this.validation = validation;
         this.withdrawCommand = new WithdrawCommand(sourceAccount, amount);
         this.depositCommand = new DepositCommand(destinationAccount, amount);
     }
 
     @Override
     public boolean execute() {
-        System.out.println("Début du virement de " + amount + " EUR de " +
+        System.out.println("Début du virement de " + amount.toMajor() + " EUR de " +
                           sourceAccount.getAccountNumber() + " vers " + destinationAccount.getAccountNumber());
 
+        // Avant toute validation : une seconde réservation remplacerait celle du virement en cours
+        if (executed) {
+            System.out.println("ERREUR: Le virement a déjà été exécuté");
+            return false;
+        }
+
+        if (validation != null && !validation.validate("VIREMENT", amount.getMinorUnits(),
+                                                         sourceAccount.getAccountNumber(),
+                                                         destinationAccount.getAccountNumber())) {
+            return false;
+        }
+
         // Exécuter le retrait d'abord
         if (!withdrawCommand.execute()) {
             System.out.println("ERREUR: Échec du retrait - virement annulé");
+            release();
             return false;
         }
 
@@ -36,22 +73,26 @@ public class TransferCommand implements BankCommand {
         if (!depositCommand.execute()) {
             System.out.println("ERREUR: Échec du dépôt - annulation du retrait");
             withdrawCommand.undo();
+            release();
             return false;
         }
 
+        executed = true;
         System.out.println("Virement effectué avec succès");
         return true;
     }
 
     @Override
     public boolean undo() {
-        System.out.println("Annulation du virement de " + amount + " EUR");
+        System.out.println("Annulation du virement de " + amount.toMajor() + " EUR");
 
         // Annuler dans l'ordre inverse : d'abord le dépôt, puis le retrait
         boolean depositUndone = depositCommand.undo();
         boolean withdrawUndone = withdrawCommand.undo();
 
         if (depositUndone && withdrawUndone) {
+            executed = false;
+            release();
             System.out.println("Virement annulé avec succès");
             return true;
         }
@@ -62,7 +103,13 @@ public class TransferCommand implements BankCommand {
 
     @Override
     public String getDescription() {
-        return "Virement de " + amount + " EUR de " + sourceAccount.getAccountNumber() +
+        return "Virement de " + amount.toMajor() + " EUR de " + sourceAccount.getAccountNumber() +
                " vers " + destinationAccount.getAccountNumber();
     }
+
+    private void release() {
+        if (validation != null) {
+            validation.release();
+        }
+    }
 }
@@ -1,6 +1,9 @@
 package com.bank.legacy.applied.command;
 
+import com.bank.legacy.applied.chain.TransactionValidation;
+import com.bank.legacy.applied.money.Money;
 import com.bank.legacy.old.BankAccount;
+import com.bank.legacy.old.BankingService;
 
 /**
  * Commande concrète pour effectuer un retrait
@@ -8,13 +11,31 @@ import com.bank.legacy.old.BankAccount;
 public class WithdrawCommand implements BankCommand {
 
     private final BankAccount account;
-    private final double amount;
+    private final long amount; // en centimes
+    private final CommandValidation validation; // null : pas de validation
     private boolean executed;
 
     public WithdrawCommand(BankAccount account, double amount) {
+        this(account, Money.eur(amount));
+    }
+
+    public WithdrawCommand(BankAccount account, Money amount) {
+        this.account = account;
+        this.amount = amount.getMinorUnits();
+        this.executed = false;
+        this.validation = null;
+    }
+
+    /**
+     * Retrait validé avant exécution (compte rangé dans service) : la réservation de la limite
+     * quotidienne est rendue si le retrait échoue ou est annulé
+     */
+    public WithdrawCommand(BankAccount account, Money amount, TransactionValidation validation,
+                           BankingService service) {
         this.account = account;
-        this.amount = amount;
+        this.amount = amount.getMinorUnits();
         this.executed = false;
+        this.validation = new CommandValidation(validation, service);
     }
 
     @Override
@@ -24,15 +45,26 @@ public class WithdrawCommand implements BankCommand {
             return false;
         }
 
+        // Avant toute validation : une seconde réservation remplacerait celle du retrait en cours
+        if (executed) {
+            System.out.println("ERREUR: Le retrait a déjà été exécuté");
+            return false;
+        }
+
+        if (validation != null && !validation.validate("RETRAIT", amount, account.getAccountNumber(), null)) {
+            return false;
+        }
+
         // Vérification du solde avec découvert autorisé
-        if (account.getBalance() - amount < -account.getOverdraftLimit()) {
+        if (account.getBalanceMinor() - amount < -account.getOverdraftLimitMinor()) {
             System.out.println("ERREUR: Solde insuffisant (découvert dépassé)");
+            release();
             return false;
         }
 
-        account.setBalance(account.getBalance() - amount);
+        account.setBalanceMinor(account.getBalanceMinor() - amount);
         executed = true;
-        System.out.println("Retrait de " + amount + " EUR effectué sur le compte " + account.getAccountNumber());
+        System.out.println("Retrait de " + Money.toMajor(amount) + " EUR effectué sur le compte " + account.getAccountNumber());
         return true;
     }
 
@@ -43,18 +75,25 @@ public class WithdrawCommand implements BankCommand {
             return false;
         }
 
-        account.setBalance(account.getBalance() + amount);
+        account.setBalanceMinor(account.getBalanceMinor() + amount);
         executed = false;
-        System.out.println("Annulation du retrait de " + amount + " EUR sur le compte " + account.getAccountNumber());
+        release();
+        System.out.println("Annulation du retrait de " + Money.toMajor(amount) + " EUR sur le compte " + account.getAccountNumber());
         return true;
     }
 
     @Override
     public String getDescription() {
-        return "Retrait de " + amount + " EUR sur le compte " + account.getAccountNumber();
+        return "Retrait de " + Money.toMajor(amount) + " EUR sur le compte " + account.getAccountNumber();
     }
 
     public boolean isExecuted() {
         return executed;
     }
+
+    private void release() {
+        if (validation != null) {
+            validation.release();
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package com.bank.legacy.applied.composite;
 
 import com.bank.legacy.old.BankAccount;
+import com.bank.legacy.old.HeapBankAccount;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -19,7 +20,7 @@ public class IndividualAccount implements AccountComponent {
     public IndividualAccount(String accountNumber, String accountType, String customerName,
                              String customerEmail, String customerPhone, double initialDeposit,
                              double interestRate, double overdraftLimit) {
-        this.account = new BankAccount(accountNumber, accountType, customerName,
+        this.account = new HeapBankAccount(accountNumber, accountType, customerName,
                                        customerEmail, customerPhone, initialDeposit,
                                        interestRate, overdraftLimit);
     }
@@ -15,6 +15,6 @@ public class Demo {
         Transaction tx = new Transaction("123", "VIREMENT_INTERNATIONAL",
                 1000.0, "123ABC","456DEF", FeeCalculator.Currency.EUR);
 
-        System.out.println("USD weekend transfer: " + calculator.fee(tx) + " €");
+        System.out.println("USD weekend transfer: " + calculator.fee(tx));
     }
 }
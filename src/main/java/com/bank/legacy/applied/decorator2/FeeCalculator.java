@@ -1,11 +1,17 @@
 package com.bank.legacy.applied.decorator2;
 
+import com.bank.legacy.applied.money.Money;
 import com.bank.legacy.old.Transaction;
 
-import java.math.BigDecimal;
-
 public interface FeeCalculator {
     enum Currency { USD, EUR, GBP }
 
-    BigDecimal fee(Transaction tx);
+    /**
+     * Frais en centimes d'euro, calculés en arithmétique entière (sans allocation)
+     */
+    long feeMinor(Transaction tx);
+
+    default Money fee(Transaction tx) {
+        return Money.of(feeMinor(tx), Currency.EUR);
+    }
 }
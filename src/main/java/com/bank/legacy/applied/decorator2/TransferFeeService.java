@@ -1,27 +1,25 @@
 package com.bank.legacy.applied.decorator2;
 
+import com.bank.legacy.applied.money.Money;
 import com.bank.legacy.old.Transaction;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-
 public class TransferFeeService {
 
-    public BigDecimal calculateFee(Transaction tx) {
+    public Money calculateFee(Transaction tx) {
+        // Calcul en millièmes de centime : aucun arrondi intermédiaire, un seul arrondi final
         // 1️⃣ Base fee
-        BigDecimal fee = new BigDecimal("2.00")
-                .add(new BigDecimal(tx.getAmount()).multiply(new BigDecimal("0.001"))); // 0.1%
+        long fee = 200_000 + tx.getAmountMinor(); // 2.00 + 0.1%
 
         // 2️⃣ Surcharge USD
         if (tx.getCurrency() == FeeCalculator.Currency.USD) {
-            fee = fee.add(new BigDecimal("0.50"));
+            fee += 50_000;
         }
 
         // 3️⃣ Surcharge week-end
         if (tx.weekend()) {
-            fee = fee.multiply(new BigDecimal("1.10"));
+            return Money.of(Money.divideHalfUp(fee * 110, 100_000), FeeCalculator.Currency.EUR);
         }
 
-        return fee.setScale(2, RoundingMode.HALF_UP);
+        return Money.of(Money.divideHalfUp(fee, 1000), FeeCalculator.Currency.EUR);
     }
 }
@@ -2,8 +2,6 @@ package com.bank.legacy.applied.decorator2;
 
 import com.bank.legacy.old.Transaction;
 
-import java.math.BigDecimal;
-
 public class UsdDecorator extends FeeDecorator{
 
     public UsdDecorator(FeeCalculator delegate) {
@@ -11,12 +9,12 @@ public class UsdDecorator extends FeeDecorator{
     }
 
     @Override
-    public BigDecimal fee(Transaction tx) {
+    public long feeMinor(Transaction tx) {
         System.out.println("[DECORATOR] Applying USD fee");
-        BigDecimal f = delegate.fee(tx);
+        long f = delegate.feeMinor(tx);
         if (tx.getCurrency() == Currency.USD) {
-            f = f.add(new BigDecimal("0.50"));
+            f += 50; // +0.50
         }
-        return scale(f);
+        return f;
     }
 }
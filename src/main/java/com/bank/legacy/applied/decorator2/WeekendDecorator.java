@@ -1,20 +1,19 @@
 package com.bank.legacy.applied.decorator2;
 
+import com.bank.legacy.applied.money.Money;
 import com.bank.legacy.old.Transaction;
 
-import java.math.BigDecimal;
-
 class WeekendDecorator extends FeeDecorator {
     public WeekendDecorator(FeeCalculator delegate) { super(delegate); }
 
     @Override
-    public BigDecimal fee(Transaction tx) {
+    public long feeMinor(Transaction tx) {
         System.out.println("[DECORATOR] Applying weekend fee");
-        BigDecimal f = delegate.fee(tx);
+        long f = delegate.feeMinor(tx);
         if (tx.weekend()) {
-            f = f.multiply(new BigDecimal("1.10")); // +10%
+            f = Money.divideHalfUp(f * 110, 100); // +10%
         }
-        return scale(f);
+        return f;
     }
 }
 
@@ -0,0 +1,224 @@
+package com.bank.legacy.applied.journal;
+
+import com.bank.legacy.applied.money.Money;
+import com.bank.legacy.old.BankAccount;
+import com.bank.legacy.old.HeapBankAccount;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Image compacte de l'état de tous les comptes, associée à la position du journal qu'elle couvre.
+ *
+ * Au redémarrage, on charge la dernière image puis on ne relit que la fin du journal
+ * (à partir de getJournalSequence()). Chaque compte mémorise le dernier enregistrement du journal
+ * qui lui a été appliqué : les enregistrements de la fin du journal déjà inclus dans l'image
+ * (écrits pendant la prise de l'image) sont ignorés lors de la relecture.
+ *
+ * Le nom du fichier porte la tête du journal au moment de l'image (croissante d'une image à la suivante) ;
+ * la séquence de relecture, qui peut reculer jusqu'à une réservation ouverte, est rangée dans l'en-tête.
+ *
+ * <pre>
+ * En-tête : magic | version | tête du journal (long) | séquence de relecture (long)
+ *           | compteur de comptes (int) | compteur de transactions (int)
+ * Compte  : présent (boolean) | numéro | type | statut (UTF) | solde, découvert en centimes (long) | taux (double)
+ *           | séquence du journal (long)
+ * Fin     : false | marqueur de fin (int) | nombre de comptes (int)
+ * </pre>
+ */
+public final class BalanceSnapshot {
+
+    private static final int MAGIC = 0x424B5331; // "BKS1"
+    private static final int VERSION = 3;
+    private static final int END_MARKER = 0x454E4421; // "END!"
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".bin";
+
+    private final long headSequence;
+    private final long journalSequence;
+    private final int accountCounter;
+    private final int transactionCounter;
+
+    private BalanceSnapshot(long headSequence, long journalSequence, int accountCounter, int transactionCounter) {
+        this.headSequence = headSequence;
+        this.journalSequence = journalSequence;
+        this.accountCounter = accountCounter;
+        this.transactionCounter = transactionCounter;
+    }
+
+    /**
+     * Séquence du prochain enregistrement du journal au moment de l'image (clé du nom de fichier)
+     */
+    public long getHeadSequence() { return headSequence; }
+
+    /**
+     * Séquence du journal à partir de laquelle relire après le chargement de l'image
+     */
+    public long getJournalSequence() { return journalSequence; }
+    public int getAccountCounter() { return accountCounter; }
+    public int getTransactionCounter() { return transactionCounter; }
+
+    /**
+     * Ouvre l'écriture d'une image dans un fichier temporaire du répertoire. L'image ne devient
+     * visible qu'à {@link Writer#publish} (renommage atomique) ; {@link Writer#abort} l'abandonne.
+     *
+     * @param headSequence tête du journal (nom du fichier : une image plus récente a une tête au moins égale)
+     * @param journalSequence séquence à partir de laquelle relire le journal après chargement
+     */
+    public static Writer create(Path directory, long headSequence, long journalSequence, int accountCounter,
+                                int transactionCounter) throws IOException {
+        Files.createDirectories(directory);
+        return new Writer(directory, headSequence, journalSequence, accountCounter, transactionCounter);
+    }
+
+    /**
+     * Retourne la plus récente image du répertoire, ou null s'il n'y en a aucune
+     */
+    public static Path latest(Path directory) throws IOException {
+        List<Path> snapshots = list(directory);
+        return snapshots.isEmpty() ? null : snapshots.get(snapshots.size() - 1);
+    }
+
+    /**
+     * Supprime les images les plus anciennes pour n'en conserver que {@code retain}
+     */
+    public static void prune(Path directory, int retain) throws IOException {
+        List<Path> snapshots = list(directory);
+        for (int i = 0; i < snapshots.size() - retain; i++) {
+            Files.deleteIfExists(snapshots.get(i));
+        }
+    }
+
+    /**
+     * Charge une image : chaque compte reconstruit est transmis au consommateur
+     */
+    public static BalanceSnapshot load(Path file, Consumer<BankAccount> consumer) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Image invalide : " + file);
+            }
+            BalanceSnapshot snapshot = new BalanceSnapshot(in.readLong(), in.readLong(), in.readInt(), in.readInt());
+            int count = 0;
+            while (in.readBoolean()) {
+                String accountNumber = in.readUTF();
+                String accountType = in.readUTF();
+                String status = in.readUTF();
+                long balance = in.readLong();
+                long overdraftLimit = in.readLong();
+                double interestRate = in.readDouble();
+                long sequence = in.readLong();
+                BankAccount account = new HeapBankAccount(accountNumber, accountType, null, null, null,
+                                                      0, interestRate, Money.toMajor(overdraftLimit));
+                account.setBalanceMinor(balance);
+                account.setStatus(status);
+                account.setJournalSequence(sequence);
+                consumer.accept(account);
+                count++;
+            }
+            if (in.readInt() != END_MARKER || in.readInt() != count) {
+                throw new IOException("Image incomplète : " + file);
+            }
+            return snapshot;
+        } catch (EOFException e) {
+            throw new IOException("Image tronquée : " + file, e);
+        }
+    }
+
+    private static List<Path> list(Path directory) throws IOException {
+        List<Path> snapshots = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return snapshots;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path path : stream) {
+                snapshots.add(path);
+            }
+        }
+        // Noms de taille fixe : l'ordre lexicographique est l'ordre des têtes du journal
+        snapshots.sort(null);
+        return snapshots;
+    }
+
+    /**
+     * Écriture en flux d'une image, compte par compte, terminée par {@link #publish} ou {@link #abort}
+     */
+    public static final class Writer {
+        private final Path temporary;
+        private final Path target;
+        private final DataOutputStream out;
+        private int count;
+
+        private Writer(Path directory, long headSequence, long journalSequence, int accountCounter,
+                       int transactionCounter) throws IOException {
+            String name = PREFIX + String.format("%020d", headSequence) + SUFFIX;
+            this.target = directory.resolve(name);
+            // Nom temporaire unique : deux images de même tête ne s'écrivent pas dans le même fichier
+            this.temporary = Files.createTempFile(directory, name + ".", ".tmp");
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(headSequence);
+            out.writeLong(journalSequence);
+            out.writeInt(accountCounter);
+            out.writeInt(transactionCounter);
+        }
+
+        /**
+         * @param balance solde en centimes
+         * @param overdraftLimit découvert autorisé en centimes
+         */
+        public void writeAccount(String accountNumber, String accountType, String status, long balance,
+                                 long overdraftLimit, double interestRate, long journalSequence) throws IOException {
+            out.writeBoolean(true);
+            out.writeUTF(accountNumber);
+            out.writeUTF(accountType);
+            out.writeUTF(status);
+            out.writeLong(balance);
+            out.writeLong(overdraftLimit);
+            out.writeDouble(interestRate);
+            out.writeLong(journalSequence);
+            count++;
+        }
+
+        /**
+         * Termine l'image et la publie (renommage atomique, remplace une image de même tête).
+         * À n'appeler qu'une fois tous les comptes écrits et le journal couvert sur disque.
+         * @return le fichier de l'image
+         */
+        public Path publish() throws IOException {
+            out.writeBoolean(false);
+            out.writeInt(END_MARKER);
+            out.writeInt(count);
+            out.close();
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return target;
+        }
+
+        /**
+         * Abandonne l'image : le fichier temporaire est supprimé, rien n'est publié
+         */
+        public void abort() {
+            try {
+                out.close();
+            } catch (IOException e) {
+                // Fichier abandonné : son contenu n'a plus d'importance
+            }
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException e) {
+                // Le nom temporaire n'est jamais pris pour une image (list() ne retient que les .bin)
+            }
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.bank.legacy.applied.journal;
+
+import com.bank.legacy.applied.decorator2.FeeCalculator;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * Format binaire du journal : un en-tête suivi d'enregistrements de taille fixe.
+ *
+ * <pre>
+ * En-tête (16 octets) : magic | version | taille d'enregistrement | réservé
+ *
+ * Enregistrement (224 octets) :
+ *   0 sequence (long)         8 horodatage ms (long)    16 montant en centimes (long)
+ *  24 frais en centimes (long) 32 taux d'intérêt (double) 40 découvert autorisé en centimes (long)
+ *  48 nature (byte)          49 statut (byte)           50 devise (byte)     51 réservé
+ *  56 id transaction (32)    88 type (24)              112 compte source (24)
+ * 136 compte destination (24) 160 type de compte (16)  176 motif de rejet (44)
+ * 220 CRC32C des 220 premiers octets (int)
+ * </pre>
+ *
+ * Les chaînes sont stockées avec un octet de longueur suivi de leur encodage UTF-8. Les champs
+ * relus par la reconstruction des soldes (identifiant, type, comptes, type de compte) doivent tenir
+ * dans leur largeur : sinon l'enregistrement est refusé, jamais tronqué. Seuls le motif de rejet
+ * (texte libre) et les champs d'une transaction rejetée (ignorée à la relecture) sont tronqués.
+ * Le CRC permet de détecter un enregistrement partiellement écrit lors d'un arrêt brutal.
+ */
+final class JournalFormat {
+
+    static final int MAGIC = 0x424B4A31; // "BKJ1"
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 224;
+
+    /** Octets UTF-8 utiles d'un identifiant de transaction, d'un numéro de compte */
+    static final int MAX_TRANSACTION_ID_BYTES = 31;
+    static final int MAX_ACCOUNT_NUMBER_BYTES = 23;
+
+    private static final int ID_OFFSET = 56;
+    private static final int TYPE_OFFSET = 88;
+    private static final int SOURCE_OFFSET = 112;
+    private static final int DESTINATION_OFFSET = 136;
+    private static final int ACCOUNT_TYPE_OFFSET = 160;
+    private static final int REASON_OFFSET = 176;
+    private static final int CRC_OFFSET = 220;
+
+    private static final String[] STATUSES = {"PENDING", "COMPLETED", "REJECTED"};
+    private static final FeeCalculator.Currency[] CURRENCIES = FeeCalculator.Currency.values();
+
+    private JournalFormat() {
+    }
+
+    static void writeHeader(ByteBuffer buffer) {
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(0);
+    }
+
+    static boolean isValidHeader(ByteBuffer buffer) {
+        return buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION && buffer.getInt(8) == RECORD_SIZE;
+    }
+
+    /**
+     * Vérifie que chaque champ de l'enregistrement tient dans sa largeur
+     * @throws IllegalArgumentException sinon
+     */
+    static void requireEncodable(JournalRecord record) {
+        requireFits("identifiant de transaction", record.transactionId, 32);
+        // Transaction rejetée : comptes et type ne sont pas relus (saisie d'un client, éventuellement invalide)
+        if (record.kind != JournalRecord.Kind.TRANSACTION || !"REJECTED".equals(record.status)) {
+            requireFits("type", record.type, 24);
+            requireFits("compte source", record.sourceAccount, 24);
+            requireFits("compte destination", record.destinationAccount, 24);
+            requireFits("type de compte", record.accountType, 16);
+        }
+    }
+
+    /**
+     * Encode un enregistrement à la position courante du buffer (qui avance de RECORD_SIZE)
+     * @throws IllegalArgumentException si un champ ne tient pas dans sa largeur (le buffer est inchangé)
+     */
+    static void encode(ByteBuffer buffer, JournalRecord record) {
+        requireEncodable(record);
+        int base = buffer.position();
+        for (int i = 0; i < RECORD_SIZE; i++) {
+            buffer.put(base + i, (byte) 0);
+        }
+        buffer.putLong(base, record.sequence);
+        buffer.putLong(base + 8, record.timestamp);
+        buffer.putLong(base + 16, record.amount);
+        buffer.putLong(base + 24, record.fees);
+        buffer.putDouble(base + 32, record.interestRate);
+        buffer.putLong(base + 40, record.overdraftLimit);
+        buffer.put(base + 48, record.kind.code());
+        buffer.put(base + 49, statusCode(record.status));
+        buffer.put(base + 50, record.currency == null ? (byte) -1 : (byte) record.currency.ordinal());
+        putString(buffer, base + ID_OFFSET, 32, record.transactionId);
+        putString(buffer, base + TYPE_OFFSET, 24, record.type);
+        putString(buffer, base + SOURCE_OFFSET, 24, record.sourceAccount);
+        putString(buffer, base + DESTINATION_OFFSET, 24, record.destinationAccount);
+        putString(buffer, base + ACCOUNT_TYPE_OFFSET, 16, record.accountType);
+        putString(buffer, base + REASON_OFFSET, 44, record.rejectionReason);
+        buffer.putInt(base + CRC_OFFSET, checksum(buffer, base));
+        buffer.position(base + RECORD_SIZE);
+    }
+
+    /**
+     * Décode l'enregistrement situé à l'offset donné dans l'instance fournie
+     * @return false si l'enregistrement est vide ou corrompu (écriture interrompue)
+     */
+    static boolean decode(ByteBuffer buffer, int base, JournalRecord record) {
+        if (buffer.getInt(base + CRC_OFFSET) != checksum(buffer, base) || !JournalRecord.Kind.isValid(buffer.get(base + 48))) {
+            return false;
+        }
+        record.sequence = buffer.getLong(base);
+        record.timestamp = buffer.getLong(base + 8);
+        record.amount = buffer.getLong(base + 16);
+        record.fees = buffer.getLong(base + 24);
+        record.interestRate = buffer.getDouble(base + 32);
+        record.overdraftLimit = buffer.getLong(base + 40);
+        record.kind = JournalRecord.Kind.fromCode(buffer.get(base + 48));
+        byte status = buffer.get(base + 49);
+        record.status = status < 0 ? null : STATUSES[status];
+        byte currency = buffer.get(base + 50);
+        record.currency = currency < 0 ? null : CURRENCIES[currency];
+        record.transactionId = getString(buffer, base + ID_OFFSET);
+        record.type = getString(buffer, base + TYPE_OFFSET);
+        record.sourceAccount = getString(buffer, base + SOURCE_OFFSET);
+        record.destinationAccount = getString(buffer, base + DESTINATION_OFFSET);
+        record.accountType = getString(buffer, base + ACCOUNT_TYPE_OFFSET);
+        record.rejectionReason = getString(buffer, base + REASON_OFFSET);
+        return true;
+    }
+
+    private static int checksum(ByteBuffer buffer, int base) {
+        CRC32C crc = new CRC32C();
+        ByteBuffer slice = buffer.duplicate();
+        slice.limit(base + CRC_OFFSET).position(base);
+        crc.update(slice);
+        return (int) crc.getValue();
+    }
+
+    private static byte statusCode(String status) {
+        for (int i = 0; i < STATUSES.length; i++) {
+            if (STATUSES[i].equals(status)) {
+                return (byte) i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @throws IllegalArgumentException si la valeur ne tient pas dans un champ de la largeur donnée
+     */
+    private static void requireFits(String field, String value, int width) {
+        if (value != null && utf8Length(value) > width - 1) {
+            throw new IllegalArgumentException("Champ " + field + " trop long pour le journal (" + (width - 1) +
+                                               " octets au plus): " + value);
+        }
+    }
+
+    static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Écrit une chaîne (longueur sur un octet + UTF-8), tronquée sur une frontière de caractère.
+     * La longueur 0xFF code la valeur null.
+     */
+    private static void putString(ByteBuffer buffer, int offset, int width, String value) {
+        if (value == null) {
+            buffer.put(offset, (byte) 0xFF);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, width - 1);
+        // Ne pas couper un caractère multi-octets
+        while (length < bytes.length && length > 0 && (bytes[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        buffer.put(offset, (byte) length);
+        for (int i = 0; i < length; i++) {
+            buffer.put(offset + 1 + i, bytes[i]);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer, int offset) {
+        int length = buffer.get(offset) & 0xFF;
+        if (length == 0xFF) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + 1 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,85 @@
+package com.bank.legacy.applied.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Relecture du journal binaire par projection mémoire (MappedByteBuffer).
+ *
+ * Le fichier est projeté par tranches d'au plus 2 Go ; la lecture s'arrête au premier
+ * enregistrement vide ou corrompu (fin d'une écriture interrompue).
+ */
+public final class JournalReader {
+
+    private static final long MAX_RECORDS_PER_MAPPING = Integer.MAX_VALUE / JournalFormat.RECORD_SIZE;
+
+    private JournalReader() {
+    }
+
+    /**
+     * Relit le journal à partir d'une séquence donnée.
+     * L'enregistrement transmis au consommateur est réutilisé d'un appel à l'autre.
+     *
+     * @return la séquence suivant le dernier enregistrement valide lu
+     */
+    public static long replay(Path file, long fromSequence, Consumer<JournalRecord> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long total = recordCount(channel);
+            JournalRecord record = new JournalRecord();
+            long sequence = fromSequence;
+            while (sequence < total) {
+                long chunk = Math.min(MAX_RECORDS_PER_MAPPING, total - sequence);
+                MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_ONLY,
+                    JournalFormat.HEADER_SIZE + sequence * JournalFormat.RECORD_SIZE,
+                    chunk * JournalFormat.RECORD_SIZE);
+                for (int i = 0; i < chunk; i++) {
+                    if (!JournalFormat.decode(mapping, i * JournalFormat.RECORD_SIZE, record)) {
+                        return sequence;
+                    }
+                    consumer.accept(record);
+                    sequence++;
+                }
+            }
+            return sequence;
+        }
+    }
+
+    /**
+     * Nombre d'enregistrements valides : on remonte depuis la fin tant que le dernier est incomplet
+     */
+    static long validRecordCount(FileChannel channel) throws IOException {
+        long count = recordCount(channel);
+        ByteBuffer buffer = ByteBuffer.allocate(JournalFormat.RECORD_SIZE);
+        JournalRecord record = new JournalRecord();
+        while (count > 0) {
+            buffer.clear();
+            long position = JournalFormat.HEADER_SIZE + (count - 1) * JournalFormat.RECORD_SIZE;
+            while (buffer.hasRemaining() && channel.read(buffer, position + buffer.position()) >= 0) {
+                // lecture complète de l'enregistrement
+            }
+            if (JournalFormat.decode(buffer, 0, record) && record.sequence == count - 1) {
+                break;
+            }
+            count--;
+        }
+        return count;
+    }
+
+    private static long recordCount(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size < JournalFormat.HEADER_SIZE) {
+            throw new IOException("Journal invalide : en-tête manquant");
+        }
+        ByteBuffer header = ByteBuffer.allocate(JournalFormat.HEADER_SIZE);
+        channel.read(header, 0);
+        if (!JournalFormat.isValidHeader(header)) {
+            throw new IOException("Journal invalide : format non reconnu");
+        }
+        return (size - JournalFormat.HEADER_SIZE) / JournalFormat.RECORD_SIZE;
+    }
+}
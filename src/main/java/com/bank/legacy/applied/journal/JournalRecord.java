@@ -0,0 +1,73 @@
+package com.bank.legacy.applied.journal;
+
+import com.bank.legacy.applied.decorator2.FeeCalculator;
+
+/**
+ * Enregistrement décodé du journal binaire.
+ *
+ * Lors d'une relecture, la même instance est réutilisée pour chaque enregistrement :
+ * le consommateur ne doit pas la conserver.
+ */
+public class JournalRecord {
+
+    /**
+     * Nature de l'enregistrement. Un virement entre shards est journalisé côté source en deux temps :
+     * RESERVATION (montant + frais débités), puis CONFIRMATION (aucun mouvement) ou ANNULATION
+     * (montant + frais rendus).
+     */
+    public enum Kind {
+        TRANSACTION, OUVERTURE, INTERET, RESERVATION, CONFIRMATION, ANNULATION;
+
+        private static final Kind[] VALUES = values();
+
+        static boolean isValid(byte code) {
+            return code >= 0 && code < VALUES.length;
+        }
+
+        static Kind fromCode(byte code) {
+            return VALUES[code];
+        }
+
+        byte code() {
+            return (byte) ordinal();
+        }
+    }
+
+    long sequence;
+    Kind kind;
+    String transactionId;
+    String type;
+    long amount; // centimes
+    long fees; // centimes
+    String sourceAccount;
+    String destinationAccount;
+    FeeCalculator.Currency currency;
+    long timestamp;
+    String status;
+    String rejectionReason;
+    String accountType;
+    double interestRate;
+    long overdraftLimit; // centimes
+
+    public long getSequence() { return sequence; }
+    public Kind getKind() { return kind; }
+    public String getTransactionId() { return transactionId; }
+    public String getType() { return type; }
+    public long getAmountMinor() { return amount; }
+    public long getFeesMinor() { return fees; }
+    public String getSourceAccount() { return sourceAccount; }
+    public String getDestinationAccount() { return destinationAccount; }
+    public FeeCalculator.Currency getCurrency() { return currency; }
+    public long getTimestamp() { return timestamp; }
+    public String getStatus() { return status; }
+    public String getRejectionReason() { return rejectionReason; }
+    public String getAccountType() { return accountType; }
+    public double getInterestRate() { return interestRate; }
+    public long getOverdraftLimitMinor() { return overdraftLimit; }
+
+    @Override
+    public String toString() {
+        return "JournalRecord[#" + sequence + " " + kind + " " + transactionId + " " + type + " " + amount +
+               " " + sourceAccount + " -> " + destinationAccount + " " + status + "]";
+    }
+}
@@ -0,0 +1,57 @@
+package com.bank.legacy.applied.journal;
+
+import com.bank.legacy.old.BankingService;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prise périodique d'images des soldes, sur un thread dédié.
+ * Les transactions continuent d'être traitées pendant la prise d'image
+ * (chaque compte n'est verrouillé que le temps de copier son état).
+ */
+public class SnapshotScheduler implements AutoCloseable {
+
+    private final BankingService service;
+    private final Path directory;
+    private final int retain;
+    private final ScheduledExecutorService executor;
+
+    /**
+     * @param retain nombre d'images conservées dans le répertoire
+     */
+    public SnapshotScheduler(BankingService service, Path directory, int retain) {
+        this.service = service;
+        this.directory = directory;
+        this.retain = retain;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "balance-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start(long period, TimeUnit unit) {
+        executor.scheduleAtFixedRate(this::snapshotNow, period, period, unit);
+    }
+
+    /**
+     * Prend immédiatement une image (les erreurs sont journalisées, l'ordonnancement continue)
+     */
+    public void snapshotNow() {
+        try {
+            service.takeSnapshot(directory);
+            BalanceSnapshot.prune(directory, retain);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[SnapshotScheduler] Échec de la prise d'image: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,266 @@
+package com.bank.legacy.applied.journal;
+
+import com.bank.legacy.old.BankAccount;
+import com.bank.legacy.old.Transaction;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Journal binaire en ajout seul (append-only) des transactions, écrit via un FileChannel.
+ *
+ * Les enregistrements sont regroupés par lots (group commit) : un lot est écrit sur disque
+ * dès qu'il contient groupCommitSize enregistrements, puis forcé sur le support (fsync) si demandé.
+ * - groupCommitSize = 1 et fsync = true : durabilité maximale, débit minimal
+ * - groupCommitSize élevé et fsync = false : débit maximal, les derniers enregistrements
+ *   non écrits sont perdus en cas d'arrêt brutal (appeler flush() pour les forcer)
+ */
+public class TransactionJournal implements Closeable {
+
+    /** Longueur maximale (octets UTF-8) d'un numéro de compte journalisé */
+    public static final int MAX_ACCOUNT_NUMBER_BYTES = JournalFormat.MAX_ACCOUNT_NUMBER_BYTES;
+    /** Longueur maximale (octets UTF-8) d'un identifiant de transaction journalisé */
+    public static final int MAX_TRANSACTION_ID_BYTES = JournalFormat.MAX_TRANSACTION_ID_BYTES;
+
+    private final FileChannel channel;
+    private final ByteBuffer batch;
+    private final int groupCommitSize;
+    private final boolean fsync;
+    private final JournalRecord scratch = new JournalRecord();
+    private long nextSequence;
+    private long writePosition;
+    private int pending;
+    /** Première erreur d'écriture : le lot en cours est perdu, le journal refuse ensuite tout ajout */
+    private IOException failure;
+
+    /**
+     * Ouvre un journal avec durabilité maximale (écriture et fsync à chaque enregistrement)
+     */
+    public TransactionJournal(Path file) throws IOException {
+        this(file, 1, true);
+    }
+
+    /**
+     * Ouvre (ou crée) un journal. Un éventuel enregistrement incomplet en fin de fichier est supprimé.
+     * @param groupCommitSize nombre d'enregistrements regroupés par écriture
+     * @param fsync true pour forcer chaque lot sur le support physique
+     */
+    public TransactionJournal(Path file, int groupCommitSize, boolean fsync) throws IOException {
+        if (groupCommitSize <= 0) {
+            throw new IllegalArgumentException("La taille de lot doit être positive");
+        }
+        this.groupCommitSize = groupCommitSize;
+        this.fsync = fsync;
+        this.batch = ByteBuffer.allocateDirect(groupCommitSize * JournalFormat.RECORD_SIZE);
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                        StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(JournalFormat.HEADER_SIZE);
+                JournalFormat.writeHeader(header);
+                header.flip();
+                channel.write(header, 0);
+                this.nextSequence = 0;
+            } else {
+                this.nextSequence = JournalReader.validRecordCount(channel);
+                channel.truncate(JournalFormat.HEADER_SIZE + nextSequence * JournalFormat.RECORD_SIZE);
+            }
+            this.writePosition = JournalFormat.HEADER_SIZE + nextSequence * JournalFormat.RECORD_SIZE;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return true si la valeur tient dans un champ de numéro de compte (null accepté)
+     */
+    public static boolean fitsAccountNumber(String accountNumber) {
+        return accountNumber == null || JournalFormat.utf8Length(accountNumber) <= MAX_ACCOUNT_NUMBER_BYTES;
+    }
+
+    /**
+     * @return true si la valeur tient dans un champ d'identifiant de transaction (null accepté)
+     */
+    public static boolean fitsTransactionId(String transactionId) {
+        return transactionId == null || JournalFormat.utf8Length(transactionId) <= MAX_TRANSACTION_ID_BYTES;
+    }
+
+    /**
+     * Journalise une transaction (acceptée ou rejetée). À appeler avant d'appliquer la transaction :
+     * si l'ajout échoue, elle ne doit pas l'être.
+     * @param fees frais prélevés sur le compte source, en centimes (0 si aucun)
+     * @return le numéro de séquence attribué
+     * @throws IllegalArgumentException si un identifiant ou un numéro de compte ne tient pas dans
+     *                                  son champ (rien n'est journalisé)
+     * @throws UncheckedIOException si l'écriture du lot échoue, maintenant ou lors d'un ajout précédent
+     *                              (l'enregistrement a pu atteindre le disque ou non ; plus rien n'est
+     *                              journalisé ensuite)
+     */
+    public synchronized long appendTransaction(Transaction tx, long fees) {
+        return append(fill(JournalRecord.Kind.TRANSACTION, tx, fees));
+    }
+
+    /**
+     * Journalise une étape d'un virement entre shards, côté source (la transaction porte le statut
+     * de l'étape : PENDING, COMPLETED ou REJECTED)
+     * @param kind RESERVATION, CONFIRMATION ou ANNULATION
+     * @param fees frais réservés sur le compte source, en centimes
+     * @return le numéro de séquence attribué
+     */
+    public synchronized long appendTransferStep(JournalRecord.Kind kind, Transaction tx, long fees) {
+        if (kind != JournalRecord.Kind.RESERVATION && kind != JournalRecord.Kind.CONFIRMATION
+            && kind != JournalRecord.Kind.ANNULATION) {
+            throw new IllegalArgumentException("Pas une étape de virement: " + kind);
+        }
+        return append(fill(kind, tx, fees));
+    }
+
+    /**
+     * Journalise un lot de transactions en une seule prise du verrou : les enregistrements
+     * reçoivent des séquences consécutives.
+     * @param fees frais de chaque transaction, en centimes (même indice que dans le lot)
+     * @return la séquence du premier enregistrement du lot
+     * @throws IllegalArgumentException si un enregistrement ne tient pas dans ses champs : tous sont
+     *                                  vérifiés avant le premier ajout, rien n'est journalisé
+     */
+    public synchronized long appendTransactions(Transaction[] batch, long[] fees, int count) {
+        for (int i = 0; i < count; i++) {
+            JournalFormat.requireEncodable(fill(JournalRecord.Kind.TRANSACTION, batch[i], fees[i]));
+        }
+        long first = nextSequence;
+        for (int i = 0; i < count; i++) {
+            appendTransaction(batch[i], fees[i]);
+        }
+        return first;
+    }
+
+    /**
+     * Journalise l'ouverture d'un compte (dépôt initial et paramètres du compte)
+     */
+    public synchronized long appendAccountOpening(BankAccount account) {
+        JournalRecord record = reset(JournalRecord.Kind.OUVERTURE);
+        record.destinationAccount = account.getAccountNumber();
+        record.accountType = account.getAccountType();
+        record.amount = account.getBalanceMinor();
+        record.interestRate = account.getInterestRate();
+        record.overdraftLimit = account.getOverdraftLimitMinor();
+        record.timestamp = account.getCreationDate().getTime();
+        record.status = "COMPLETED";
+        return append(record);
+    }
+
+    /**
+     * Journalise le versement d'intérêts (en centimes) sur un compte
+     */
+    public synchronized long appendInterest(String accountNumber, long interest) {
+        JournalRecord record = reset(JournalRecord.Kind.INTERET);
+        record.destinationAccount = accountNumber;
+        record.amount = interest;
+        record.timestamp = System.currentTimeMillis();
+        record.status = "COMPLETED";
+        return append(record);
+    }
+
+    /**
+     * Écrit le lot en cours sur disque (et le force si fsync est activé)
+     */
+    public synchronized void flush() {
+        try {
+            commit();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Écriture du journal impossible", e);
+        }
+    }
+
+    /**
+     * Numéro de séquence du prochain enregistrement (= nombre d'enregistrements journalisés)
+     */
+    public synchronized long getNextSequence() {
+        return nextSequence;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            commit();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private JournalRecord reset(JournalRecord.Kind kind) {
+        JournalRecord record = scratch;
+        record.kind = kind;
+        record.transactionId = null;
+        record.type = null;
+        record.amount = 0;
+        record.fees = 0;
+        record.sourceAccount = null;
+        record.destinationAccount = null;
+        record.currency = null;
+        record.status = null;
+        record.rejectionReason = null;
+        record.accountType = null;
+        record.interestRate = 0;
+        record.overdraftLimit = 0;
+        return record;
+    }
+
+    private JournalRecord fill(JournalRecord.Kind kind, Transaction tx, long fees) {
+        JournalRecord record = reset(kind);
+        record.transactionId = tx.getTransactionId();
+        record.type = tx.getType();
+        record.amount = tx.getAmountMinor();
+        record.fees = fees;
+        record.sourceAccount = tx.getSourceAccount();
+        record.destinationAccount = tx.getDestinationAccount();
+        record.currency = tx.getCurrency();
+        record.timestamp = tx.getTransactionDate().getTime();
+        record.status = tx.getStatus();
+        record.rejectionReason = tx.getRejectionReason();
+        return record;
+    }
+
+    private long append(JournalRecord record) {
+        if (failure != null) {
+            throw new UncheckedIOException("Journal inutilisable après une erreur d'écriture", failure);
+        }
+        record.sequence = nextSequence;
+        JournalFormat.encode(batch, record);
+        nextSequence++;
+        pending++;
+        if (pending >= groupCommitSize) {
+            flush();
+        }
+        return record.sequence;
+    }
+
+    private void commit() throws IOException {
+        if (failure != null) {
+            throw new IOException("Journal inutilisable après une erreur d'écriture", failure);
+        }
+        if (pending == 0) {
+            return;
+        }
+        try {
+            batch.flip();
+            while (batch.hasRemaining()) {
+                writePosition += channel.write(batch, writePosition);
+            }
+            batch.clear();
+            pending = 0;
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        }
+    }
+}
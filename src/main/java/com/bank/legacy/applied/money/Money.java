@@ -0,0 +1,152 @@
+package com.bank.legacy.applied.money;
+
+import com.bank.legacy.applied.decorator2.FeeCalculator.Currency;
+
+import java.util.Objects;
+
+/**
+ * Montant immuable en virgule fixe : un long en unités mineures (centimes) et une devise.
+ *
+ * L'arithmétique est exacte, sans le coût en allocations et en CPU de BigDecimal.
+ * Sur les chemins critiques, on manipule directement les centimes (long) via les méthodes
+ * statiques ; l'objet Money sert aux API publiques.
+ */
+public final class Money implements Comparable<Money> {
+
+    /** Nombre d'unités mineures par unité (centimes par euro) */
+    public static final long MINOR_PER_MAJOR = 100;
+
+    private static final Money[] ZEROS = new Money[Currency.values().length];
+
+    static {
+        for (Currency currency : Currency.values()) {
+            ZEROS[currency.ordinal()] = new Money(0, currency);
+        }
+    }
+
+    private final long minorUnits;
+    private final Currency currency;
+
+    private Money(long minorUnits, Currency currency) {
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+    }
+
+    public static Money of(long minorUnits, Currency currency) {
+        Objects.requireNonNull(currency, "devise");
+        if (minorUnits == 0) {
+            return ZEROS[currency.ordinal()];
+        }
+        return new Money(minorUnits, currency);
+    }
+
+    /**
+     * Conversion depuis un montant décimal (API historique en double), arrondi au centime
+     */
+    public static Money ofMajor(double amount, Currency currency) {
+        return of(toMinor(amount), currency);
+    }
+
+    public static Money eur(double amount) {
+        return ofMajor(amount, Currency.EUR);
+    }
+
+    public long getMinorUnits() { return minorUnits; }
+    public Currency getCurrency() { return currency; }
+
+    /**
+     * Montant en unités (pour l'affichage et les API historiques en double)
+     */
+    public double toMajor() {
+        return toMajor(minorUnits);
+    }
+
+    public Money plus(Money other) {
+        checkSameCurrency(other);
+        return of(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        checkSameCurrency(other);
+        return of(Math.subtractExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        checkSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Money)) return false;
+        Money money = (Money) o;
+        return minorUnits == money.minorUnits && currency == money.currency;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(minorUnits) + currency.hashCode();
+    }
+
+    /**
+     * Format "1234.50 EUR"
+     */
+    @Override
+    public String toString() {
+        return format(minorUnits) + " " + currency;
+    }
+
+    private void checkSameCurrency(Money other) {
+        if (currency != other.currency) {
+            throw new IllegalArgumentException("Devises différentes: " + currency + " / " + other.currency);
+        }
+    }
+
+    // ========== ARITHMÉTIQUE SUR LES CENTIMES (sans allocation) ==========
+
+    /**
+     * Convertit un montant décimal en centimes (arrondi au plus proche, saturé aux bornes du long)
+     */
+    public static long toMinor(double amount) {
+        return Math.round(amount * MINOR_PER_MAJOR);
+    }
+
+    public static double toMajor(long minorUnits) {
+        return minorUnits / (double) MINOR_PER_MAJOR;
+    }
+
+    /**
+     * Division entière arrondie au plus proche, les demis s'éloignant de zéro (équivalent de HALF_UP)
+     */
+    public static long divideHalfUp(long dividend, long divisor) {
+        long half = divisor / 2;
+        if (dividend >= 0) {
+            return (dividend + half) / divisor;
+        }
+        return -((-dividend + half) / divisor);
+    }
+
+    /**
+     * Applique un taux exprimé en pourcentage (ex. 2.5 pour 2,5 %), arrondi au centime.
+     * Le taux est ramené en points de base : le calcul reste entier.
+     */
+    public static long percentOf(long minorUnits, double percentRate) {
+        long basisPoints = Math.round(percentRate * 100);
+        return divideHalfUp(Math.multiplyExact(minorUnits, basisPoints), 10_000);
+    }
+
+    /**
+     * Format "1234.50" sans passer par un double
+     */
+    public static String format(long minorUnits) {
+        long abs = Math.abs(minorUnits);
+        long cents = abs % MINOR_PER_MAJOR;
+        return (minorUnits < 0 ? "-" : "") + (abs / MINOR_PER_MAJOR) + "." + (cents < 10 ? "0" : "") + cents;
+    }
+}
@@ -1,5 +1,6 @@
 package com.bank.legacy.applied.observer;
 
+import com.bank.legacy.applied.store.HandleMap;
 import com.bank.legacy.old.BankingService;
 import com.bank.legacy.old.Transaction;
 
@@ -15,8 +16,8 @@ public class FraudDetectionObserver implements TransactionObserver {
     private static final int MAX_TRANSACTIONS_PER_HOUR = 5;
     private static final double AVERAGE_MULTIPLIER = 5.0;
 
-    // Historique des transactions récentes par compte
-    private final Map<String, List<TransactionRecord>> transactionHistory = new HashMap<>();
+    // Historique des transactions récentes par compte (indexé par handle)
+    private final HandleMap<List<TransactionRecord>> transactionHistory = new HandleMap<>();
 
     @Override
     public void onTransactionCompleted(Transaction transaction, BankingService service) {
@@ -25,13 +26,13 @@ public class FraudDetectionObserver implements TransactionObserver {
             accountNumber = transaction.getDestinationAccount();
         }
 
-        if (accountNumber == null) {
+        int handle = service.getAccountHandle(accountNumber);
+        if (handle < 0) {
             return;
         }
 
         // Enregistrer la transaction
-        List<TransactionRecord> history = transactionHistory.computeIfAbsent(
-            accountNumber, k -> new ArrayList<>());
+        List<TransactionRecord> history = transactionHistory.computeIfAbsent(handle, ArrayList::new);
 
         history.add(new TransactionRecord(transaction.getAmount(), LocalDateTime.now()));
 
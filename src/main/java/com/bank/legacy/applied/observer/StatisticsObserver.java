@@ -2,8 +2,11 @@ package com.bank.legacy.applied.observer;
 
 import com.bank.legacy.old.BankingService;
 import com.bank.legacy.old.Transaction;
+import com.bank.legacy.old.TransactionType;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -13,17 +16,25 @@ public class StatisticsObserver implements TransactionObserver {
 
     private int totalTransactions = 0;
     private double totalAmount = 0;
-    private final Map<String, Integer> transactionsByType = new HashMap<>();
-    private final Map<String, Double> amountsByType = new HashMap<>();
+    // Compteurs indexés par TransactionType.ordinal() ; les types inconnus vont dans les maps
+    private final int[] countsByType = new int[TransactionType.values().length];
+    private final double[] amountsByType = new double[TransactionType.values().length];
+    private final Map<String, Integer> otherCounts = new HashMap<>();
+    private final Map<String, Double> otherAmounts = new HashMap<>();
 
     @Override
     public void onTransactionCompleted(Transaction transaction, BankingService service) {
         totalTransactions++;
         totalAmount += transaction.getAmount();
 
-        String type = transaction.getType();
-        transactionsByType.merge(type, 1, Integer::sum);
-        amountsByType.merge(type, transaction.getAmount(), Double::sum);
+        TransactionType type = transaction.getTransactionType();
+        if (type != null) {
+            countsByType[type.ordinal()]++;
+            amountsByType[type.ordinal()] += transaction.getAmount();
+        } else {
+            otherCounts.merge(transaction.getType(), 1, Integer::sum);
+            otherAmounts.merge(transaction.getType(), transaction.getAmount(), Double::sum);
+        }
     }
 
     /**
@@ -39,10 +50,14 @@ public class StatisticsObserver implements TransactionObserver {
                          totalTransactions > 0 ? totalAmount / totalTransactions : 0);
 
         System.out.println("\nPar type de transaction:");
-        for (String type : transactionsByType.keySet()) {
-            int count = transactionsByType.get(type);
-            double amount = amountsByType.get(type);
-            System.out.printf("  - %s: %d transactions (%.2f EUR)%n", type, count, amount);
+        for (TransactionType type : TransactionType.values()) {
+            if (countsByType[type.ordinal()] > 0) {
+                System.out.printf("  - %s: %d transactions (%.2f EUR)%n", type,
+                                  countsByType[type.ordinal()], amountsByType[type.ordinal()]);
+            }
+        }
+        for (String type : otherCounts.keySet()) {
+            System.out.printf("  - %s: %d transactions (%.2f EUR)%n", type, otherCounts.get(type), otherAmounts.get(type));
         }
         System.out.println("=".repeat(50) + "\n");
     }
@@ -57,7 +72,14 @@ public class StatisticsObserver implements TransactionObserver {
     }
 
     public Map<String, Integer> getTransactionsByType() {
-        return new HashMap<>(transactionsByType);
+        Map<String, Integer> byType = new LinkedHashMap<>();
+        for (TransactionType type : TransactionType.values()) {
+            if (countsByType[type.ordinal()] > 0) {
+                byType.put(type.name(), countsByType[type.ordinal()]);
+            }
+        }
+        byType.putAll(otherCounts);
+        return byType;
     }
 
     /**
@@ -66,7 +88,9 @@ public class StatisticsObserver implements TransactionObserver {
     public void reset() {
         totalTransactions = 0;
         totalAmount = 0;
-        transactionsByType.clear();
-        amountsByType.clear();
+        Arrays.fill(countsByType, 0);
+        Arrays.fill(amountsByType, 0);
+        otherCounts.clear();
+        otherAmounts.clear();
     }
 }
@@ -0,0 +1,41 @@
+package com.bank.legacy.applied.ring;
+
+import com.bank.legacy.applied.batch.BatchResult;
+import com.bank.legacy.applied.batch.TransactionRequest;
+import com.bank.legacy.applied.observer.TransactionObserver;
+import com.bank.legacy.old.BankingService;
+import com.bank.legacy.old.Transaction;
+
+import java.util.List;
+
+/**
+ * Notifie des TransactionObserver depuis le ring, hors du thread métier.
+ * Seules les transactions acceptées sont notifiées ; comme avec TransactionSubject, un observateur
+ * peut échouer sans bloquer les autres.
+ */
+public class ObserverEventHandler implements RingEventHandler {
+
+    private final TransactionObserver[] observers;
+    private final BankingService service;
+
+    public ObserverEventHandler(BankingService service, List<? extends TransactionObserver> observers) {
+        this.service = service;
+        this.observers = observers.toArray(new TransactionObserver[0]);
+    }
+
+    @Override
+    public void onEvent(long sequence, TransactionRequest request, Transaction transaction, byte code, long feesMinor,
+                        boolean endOfBatch) {
+        if (code != BatchResult.COMPLETED) {
+            return;
+        }
+        for (TransactionObserver observer : observers) {
+            try {
+                observer.onTransactionCompleted(transaction, service);
+            } catch (Exception e) {
+                System.err.println("[ObserverEventHandler] Erreur dans " +
+                    observer.getClass().getSimpleName() + ": " + e.getMessage());
+            }
+        }
+    }
+}
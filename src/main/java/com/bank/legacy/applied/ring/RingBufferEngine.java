@@ -0,0 +1,324 @@
+package com.bank.legacy.applied.ring;
+
+import com.bank.legacy.applied.batch.BatchResult;
+import com.bank.legacy.applied.batch.BatchWorkspace;
+import com.bank.legacy.applied.batch.TransactionRequest;
+import com.bank.legacy.old.BankingService;
+import com.bank.legacy.old.Transaction;
+import com.bank.legacy.old.TransactionType;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Moteur de transactions à écrivain unique, sur le modèle du Disruptor.
+ *
+ * Les producteurs (threads appelants) réservent une case d'un anneau préalloué par incrément atomique
+ * de la séquence, y déposent leur demande puis la publient. Un seul thread métier applique les demandes
+ * publiées dans l'ordre du ring, par séries consécutives, via {@link BankingService#applyBatch} :
+ * les verrous de comptes ne sont jamais disputés et chaque série est enregistrée (grand livre, index,
+ * journal) en un bloc. Le thread métier prend tout de même les bandes de verrous de la série : elles
+ * gardent cohérente une image des soldes (takeSnapshot) prise pendant qu'il tourne. Les consommateurs
+ * en aval ({@link RingEventHandler}) lisent ensuite les mêmes cases, chacun sur son thread. Une case
+ * n'est réutilisée qu'une fois passée par tous les consommateurs (et lue par le producteur qui attend
+ * son résultat).
+ *
+ * Les cases, les tableaux de la série et l'espace de travail du thread métier (handles, bandes de
+ * verrous, soldes de travail : {@link BatchWorkspace}) sont alloués une fois. Restent alloués par
+ * demande : la TransactionRequest construite par la façade {@link #processTransaction} ({@link #submit}
+ * accepte une demande déjà construite, immuable donc réutilisable) et la Transaction que le service
+ * conserve au grand livre.
+ *
+ * {@link #processTransaction} reprend l'API de BankingService en façade bloquante. Le service ne doit
+ * pas être modifié directement pendant que le moteur tourne, sous peine de perdre l'exclusivité de l'écriture.
+ */
+public class RingBufferEngine implements AutoCloseable {
+
+    private static final int MAX_RUN = 4096;
+    private static final long UNPUBLISHED = -1;
+    /** Valeur de la séquence de réservation une fois le moteur arrêté : toute réservation suivante est négative */
+    private static final long SEALED = Long.MIN_VALUE / 2;
+
+    private final BankingService service;
+    private final int mask;
+
+    // Cases du ring : demande, puis résultat écrit par le thread métier
+    private final TransactionRequest[] requests;
+    private final Transaction[] transactions;
+    private final byte[] codes;
+    private final long[] fees;
+    /** Séquence publiée dans chaque case */
+    private final AtomicLongArray published;
+    /** 1 tant que le producteur de la case attend son résultat */
+    private final AtomicIntegerArray awaited;
+
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong businessCursor = new AtomicLong(-1);
+    private final RingEventHandler[] handlers;
+    private final AtomicLong[] handlerCursors;
+
+    // Tableaux de travail du thread métier (une série au plus)
+    private final TransactionRequest[] runRequests;
+    private final Transaction[] runTransactions;
+    private final byte[] runCodes;
+    private final long[] runFees;
+    private final BatchWorkspace workspace;
+
+    private final Thread businessThread;
+    private final Thread[] handlerThreads;
+    private volatile boolean running = true;
+    private volatile RuntimeException failure;
+
+    /**
+     * @param capacity nombre de cases (puissance de 2)
+     * @param handlers consommateurs en aval, chacun sur son thread
+     */
+    public RingBufferEngine(BankingService service, int capacity, RingEventHandler... handlers) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("La capacité doit être une puissance de 2");
+        }
+        this.service = service;
+        this.mask = capacity - 1;
+        this.requests = new TransactionRequest[capacity];
+        this.transactions = new Transaction[capacity];
+        this.codes = new byte[capacity];
+        this.fees = new long[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, UNPUBLISHED);
+        }
+        this.awaited = new AtomicIntegerArray(capacity);
+        this.handlers = handlers.clone();
+        this.handlerCursors = new AtomicLong[handlers.length];
+        for (int i = 0; i < handlers.length; i++) {
+            handlerCursors[i] = new AtomicLong(-1);
+        }
+        int run = Math.min(capacity, MAX_RUN);
+        this.runRequests = new TransactionRequest[run];
+        this.runTransactions = new Transaction[run];
+        this.runCodes = new byte[run];
+        this.runFees = new long[run];
+        this.workspace = service.newBatchWorkspace(run);
+
+        businessThread = new Thread(this::runBusiness, "ring-business");
+        businessThread.setDaemon(true);
+        handlerThreads = new Thread[handlers.length];
+        for (int i = 0; i < handlers.length; i++) {
+            final int index = i;
+            handlerThreads[i] = new Thread(() -> runHandler(index), "ring-handler-" + i);
+            handlerThreads[i].setDaemon(true);
+        }
+    }
+
+    public RingBufferEngine start() {
+        businessThread.start();
+        for (Thread thread : handlerThreads) {
+            thread.start();
+        }
+        return this;
+    }
+
+    /**
+     * Façade bloquante : mêmes paramètres et même résultat que BankingService.processTransaction
+     * (sans trace console)
+     */
+    public boolean processTransaction(String type, String sourceAccount, String destinationAccount, double amount) {
+        return submitAndWait(new TransactionRequest(type, sourceAccount, destinationAccount, amount)) == BatchResult.COMPLETED;
+    }
+
+    public boolean processTransaction(TransactionType type, String sourceAccount, String destinationAccount, double amount) {
+        return processTransaction(type.name(), sourceAccount, destinationAccount, amount);
+    }
+
+    /**
+     * Publie une demande et attend son traitement par le thread métier
+     *
+     * @return le code de résultat (voir BatchResult)
+     */
+    public byte submitAndWait(TransactionRequest request) {
+        long sequence = claim();
+        int index = (int) sequence & mask;
+        awaited.set(index, 1);
+        publish(sequence, request);
+
+        int idle = 0;
+        while (businessCursor.get() < sequence) {
+            checkFailure();
+            idle = backOff(idle);
+        }
+        byte code = codes[index];
+        // La case peut maintenant être réutilisée
+        awaited.set(index, 0);
+        return code;
+    }
+
+    /**
+     * Publie une demande sans attendre son résultat (visible ensuite par les consommateurs en aval)
+     *
+     * @return la séquence de la demande
+     */
+    public long submit(TransactionRequest request) {
+        long sequence = claim();
+        publish(sequence, request);
+        return sequence;
+    }
+
+    /**
+     * Séquence de la dernière demande traitée par le thread métier (-1 au départ)
+     */
+    public long getProcessedSequence() {
+        return businessCursor.get();
+    }
+
+    /**
+     * Attend que toutes les demandes publiées soient passées par tous les consommateurs, puis arrête
+     * les threads du moteur. Un producteur qui soumet pendant l'arrêt voit sa demande traitée, ou
+     * reçoit une IllegalStateException si le thread métier s'est déjà arrêté.
+     *
+     * @throws IllegalStateException si l'attente est interrompue (l'indicateur d'interruption du thread
+     *         est rétabli ; les threads du moteur finissent de s'arrêter seuls) ou si le thread métier
+     *         s'est arrêté sur une erreur
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            businessThread.join();
+            for (Thread thread : handlerThreads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Arrêt du moteur interrompu", e);
+        }
+        checkFailure();
+    }
+
+    private long claim() {
+        if (!running) {
+            throw new IllegalStateException("Moteur arrêté");
+        }
+        long sequence = claimed.getAndIncrement();
+        if (sequence < 0) {
+            // Le thread métier s'est arrêté entre le contrôle ci-dessus et la réservation
+            throw new IllegalStateException("Moteur arrêté");
+        }
+        int index = (int) sequence & mask;
+        // Attente que la case ait été libérée par le tour précédent
+        long wrapPoint = sequence - requests.length;
+        int idle = 0;
+        while (wrapPoint > gatingSequence() || awaited.get(index) != 0) {
+            checkFailure();
+            idle = backOff(idle);
+        }
+        return sequence;
+    }
+
+    private void publish(long sequence, TransactionRequest request) {
+        int index = (int) sequence & mask;
+        requests[index] = request;
+        // L'écriture volatile rend la demande visible au thread métier
+        published.set(index, sequence);
+    }
+
+    /**
+     * Plus petite séquence traitée par tous les consommateurs
+     */
+    private long gatingSequence() {
+        long minimum = businessCursor.get();
+        for (AtomicLong cursor : handlerCursors) {
+            minimum = Math.min(minimum, cursor.get());
+        }
+        return minimum;
+    }
+
+    private void runBusiness() {
+        long next = 0;
+        int idle = 0;
+        try {
+            while (true) {
+                int count = 0;
+                while (count < runRequests.length && published.get((int) (next + count) & mask) == next + count) {
+                    runRequests[count] = requests[(int) (next + count) & mask];
+                    count++;
+                }
+                if (count == 0) {
+                    // Arrêt seulement si aucune séquence n'a été réservée depuis : la réservation est
+                    // scellée, un producteur en retard échoue au lieu d'attendre un résultat
+                    if (!running && claimed.compareAndSet(next, SEALED)) {
+                        return;
+                    }
+                    idle = backOff(idle);
+                    continue;
+                }
+                idle = 0;
+                service.applyBatch(runRequests, count, runCodes, runTransactions, runFees, workspace);
+                for (int i = 0; i < count; i++) {
+                    int index = (int) (next + i) & mask;
+                    codes[index] = runCodes[i];
+                    transactions[index] = runTransactions[i];
+                    fees[index] = runFees[i];
+                }
+                next += count;
+                // Publie les résultats de la série aux producteurs et aux consommateurs en aval
+                businessCursor.set(next - 1);
+            }
+        } catch (RuntimeException e) {
+            failure = e;
+            running = false;
+        }
+    }
+
+    private void runHandler(int handlerIndex) {
+        RingEventHandler handler = handlers[handlerIndex];
+        AtomicLong cursor = handlerCursors[handlerIndex];
+        long next = 0;
+        int idle = 0;
+        while (true) {
+            long available = businessCursor.get();
+            if (available < next) {
+                if (!businessThread.isAlive() && businessCursor.get() < next) {
+                    return;
+                }
+                idle = backOff(idle);
+                continue;
+            }
+            idle = 0;
+            for (long sequence = next; sequence <= available; sequence++) {
+                int index = (int) sequence & mask;
+                try {
+                    handler.onEvent(sequence, requests[index], transactions[index], codes[index], fees[index],
+                                    sequence == available);
+                } catch (RuntimeException e) {
+                    System.err.println("[RingBufferEngine] Erreur dans " + handler.getClass().getSimpleName()
+                                       + ": " + e.getMessage());
+                }
+            }
+            next = available + 1;
+            cursor.set(available);
+        }
+    }
+
+    private void checkFailure() {
+        RuntimeException e = failure;
+        if (e != null) {
+            throw new IllegalStateException("Moteur arrêté sur une erreur du thread métier", e);
+        }
+    }
+
+    /**
+     * Attente active courte, puis cession du processeur, puis mise en sommeil brève
+     */
+    private static int backOff(int idle) {
+        if (idle < 100) {
+            Thread.onSpinWait();
+        } else if (idle < 200) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(50_000);
+        }
+        return idle + 1;
+    }
+}
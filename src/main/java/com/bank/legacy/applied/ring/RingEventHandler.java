@@ -0,0 +1,21 @@
+package com.bank.legacy.applied.ring;
+
+import com.bank.legacy.applied.batch.TransactionRequest;
+import com.bank.legacy.old.Transaction;
+
+/**
+ * Consommateur en aval de l'étape métier de RingBufferEngine (notifications, statistiques, export...).
+ * Chaque consommateur a son propre thread et voit toutes les transactions, dans l'ordre du ring.
+ * Les arguments ne doivent pas être conservés au-delà de l'appel, sauf la transaction (immuable une fois traitée).
+ */
+public interface RingEventHandler {
+
+    /**
+     * @param sequence position de la demande dans le ring
+     * @param code code de résultat (voir BatchResult)
+     * @param feesMinor frais prélevés en centimes
+     * @param endOfBatch dernière transaction disponible pour l'instant (pour regrouper les écritures)
+     */
+    void onEvent(long sequence, TransactionRequest request, Transaction transaction, byte code, long feesMinor,
+                 boolean endOfBatch);
+}
@@ -0,0 +1,212 @@
+package com.bank.legacy.applied.shard;
+
+import com.bank.legacy.applied.journal.JournalReader;
+import com.bank.legacy.applied.journal.JournalRecord;
+import com.bank.legacy.old.AccountType;
+import com.bank.legacy.old.BankAccount;
+import com.bank.legacy.old.BankingService;
+import com.bank.legacy.old.TransactionType;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Façade répartissant les comptes entre N BankingService indépendants (shards), chacun avec ses
+ * comptes, son grand livre, ses verrous et son journal (attaché via {@link #getShard(int)}).
+ *
+ * Le shard d'un compte est fixé par le hachage de son numéro. Les numéros sont attribués ici
+ * (numérotation globale) ; les identifiants de transaction portent le préfixe du shard ("S2-TX15").
+ *
+ * Dépôts, retraits et virements entre deux comptes d'un même shard sont délégués tels quels.
+ * Un virement entre deux shards suit un protocole de réservation en deux phases, sans jamais
+ * tenir deux verrous à la fois :
+ * 1. le shard source valide et met de côté montant + frais (le solde est débité)
+ * 2. le shard destination crédite le montant et enregistre le virement
+ * 3. le shard source enregistre le virement et ses frais (ou, si l'étape 2 échoue, rend la réservation)
+ * Entre les phases 1 et 3, le montant est « en vol » : la somme des soldes lue à cet instant est
+ * inférieure au total. Le shard source journalise la réservation puis sa confirmation ou son
+ * annulation ; après un arrêt entre ces écritures, la relecture ({@link #replayJournals},
+ * {@link #recover}) confirme la réservation si le journal du shard destination contient le crédit,
+ * et l'annule sinon.
+ */
+public class ShardedBankingService {
+
+    private final BankingService[] shards;
+    private final AtomicInteger accountCounter = new AtomicInteger(1000);
+
+    public ShardedBankingService(int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Le nombre de shards doit être positif");
+        }
+        shards = new BankingService[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new BankingService("S" + i + "-TX");
+        }
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public BankingService getShard(int index) {
+        return shards[index];
+    }
+
+    /**
+     * Shard propriétaire d'un compte
+     */
+    public int shardOf(String accountNumber) {
+        int h = accountNumber.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), shards.length);
+    }
+
+    public BankAccount createAccount(String type, String name, String email, String phone, double initialDeposit) {
+        AccountType accountType = AccountType.fromCode(type);
+        if (accountType == null) {
+            System.out.println("ERREUR: Type de compte inconnu");
+            return null;
+        }
+        return createAccount(accountType, name, email, phone, initialDeposit);
+    }
+
+    public BankAccount createAccount(AccountType type, String name, String email, String phone, double initialDeposit) {
+        String accountNumber = "ACC" + accountCounter.getAndIncrement();
+        return shards[shardOf(accountNumber)].createAccount(accountNumber, type, name, email, phone, initialDeposit);
+    }
+
+    public BankAccount getAccount(String accountNumber) {
+        return accountNumber == null ? null : shards[shardOf(accountNumber)].getAccount(accountNumber);
+    }
+
+    public boolean processTransaction(String type, String sourceAccount, String destinationAccount, double amount) {
+        if (TransactionType.fromCode(type) == TransactionType.VIREMENT) {
+            return virement(sourceAccount, destinationAccount, amount);
+        }
+        return owner(type, sourceAccount, destinationAccount)
+            .processTransaction(type, sourceAccount, destinationAccount, amount);
+    }
+
+    public boolean processTransaction(TransactionType type, String sourceAccount, String destinationAccount, double amount) {
+        if (type == TransactionType.VIREMENT) {
+            return virement(sourceAccount, destinationAccount, amount);
+        }
+        return owner(type.name(), sourceAccount, destinationAccount)
+            .processTransaction(type, sourceAccount, destinationAccount, amount);
+    }
+
+    /**
+     * Relit le journal de chaque shard (journalFiles[i] pour le shard i) puis reprend la numérotation
+     * globale après le plus grand numéro de compte relu
+     */
+    public void replayJournals(Path... journalFiles) throws IOException {
+        if (journalFiles.length != shards.length) {
+            throw new IllegalArgumentException("Un journal par shard est attendu");
+        }
+        for (int i = 0; i < shards.length; i++) {
+            shards[i].replayJournal(journalFiles[i]);
+            accountCounter.accumulateAndGet(shards[i].getNextAccountNumber(), Math::max);
+        }
+        resolveOpenReservations(journalFiles);
+    }
+
+    /**
+     * Démarrage rapide : dernière image puis fin du journal de chaque shard (snapshotDirectories[i]
+     * et journalFiles[i] pour le shard i), comme {@link #replayJournals}
+     */
+    public void recover(Path[] snapshotDirectories, Path[] journalFiles) throws IOException {
+        if (snapshotDirectories.length != shards.length || journalFiles.length != shards.length) {
+            throw new IllegalArgumentException("Un répertoire d'images et un journal par shard sont attendus");
+        }
+        for (int i = 0; i < shards.length; i++) {
+            shards[i].recover(snapshotDirectories[i], journalFiles[i]);
+            accountCounter.accumulateAndGet(shards[i].getNextAccountNumber(), Math::max);
+        }
+        resolveOpenReservations(journalFiles);
+    }
+
+    /**
+     * Termine les virements laissés en suspens par un arrêt : confirmés si le shard destination a
+     * journalisé le crédit, annulés (montant et frais rendus) sinon. Les journaux destination ne
+     * sont parcourus que s'il reste des réservations ouvertes, c'est-à-dire après un arrêt brutal.
+     */
+    private void resolveOpenReservations(Path[] journalFiles) throws IOException {
+        List<TransferReservation> open = new ArrayList<>();
+        for (BankingService shard : shards) {
+            open.addAll(shard.getOpenReservations());
+        }
+        if (open.isEmpty()) {
+            return;
+        }
+        Set<String> pending = new HashSet<>();
+        boolean[] destinations = new boolean[shards.length];
+        for (TransferReservation reservation : open) {
+            pending.add(reservation.getTransaction().getTransactionId());
+            destinations[shardOf(reservation.getDestinationAccount())] = true;
+        }
+        Set<String> credited = new HashSet<>();
+        for (int i = 0; i < shards.length; i++) {
+            if (destinations[i]) {
+                // Le crédit est un virement COMPLETED portant l'identifiant de la réservation
+                JournalReader.replay(journalFiles[i], 0, record -> {
+                    if (record.getKind() == JournalRecord.Kind.TRANSACTION && "COMPLETED".equals(record.getStatus())
+                        && pending.contains(record.getTransactionId())) {
+                        credited.add(record.getTransactionId());
+                    }
+                });
+            }
+        }
+        for (TransferReservation reservation : open) {
+            BankingService source = shards[shardOf(reservation.getSourceAccount())];
+            if (credited.contains(reservation.getTransaction().getTransactionId())) {
+                source.completeTransfer(reservation);
+            } else {
+                source.cancelTransfer(reservation, "Interrompu par un arrêt");
+            }
+        }
+    }
+
+    /**
+     * Shard qui traite (et enregistre) une opération sur un seul compte ; une opération sans compte
+     * connu est rejetée par le premier shard
+     */
+    private BankingService owner(String type, String sourceAccount, String destinationAccount) {
+        String accountNumber = "DEPOT".equals(type) ? destinationAccount : sourceAccount;
+        return accountNumber == null ? shards[0] : shards[shardOf(accountNumber)];
+    }
+
+    private boolean virement(String sourceAccount, String destinationAccount, double amount) {
+        if (sourceAccount == null || destinationAccount == null) {
+            return shards[0].processTransaction(TransactionType.VIREMENT, sourceAccount, destinationAccount, amount);
+        }
+        BankingService source = shards[shardOf(sourceAccount)];
+        BankingService destination = shards[shardOf(destinationAccount)];
+        if (source == destination) {
+            return source.processTransaction(TransactionType.VIREMENT, sourceAccount, destinationAccount, amount);
+        }
+
+        // Les comptes ne sont jamais supprimés : l'existence de la destination peut être vérifiée d'avance
+        TransferReservation reservation = source.reserveTransfer(sourceAccount, destinationAccount,
+            destination.getAccount(destinationAccount) != null, amount);
+        if (reservation == null) {
+            return false;
+        }
+        boolean credited;
+        try {
+            credited = destination.creditTransfer(reservation);
+        } catch (RuntimeException e) {
+            source.cancelTransfer(reservation, "Crédit impossible");
+            throw e;
+        }
+        if (!credited) {
+            source.cancelTransfer(reservation, "Compte introuvable");
+            return false;
+        }
+        source.completeTransfer(reservation);
+        return true;
+    }
+}
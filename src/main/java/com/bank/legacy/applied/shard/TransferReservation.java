@@ -0,0 +1,29 @@
+package com.bank.legacy.applied.shard;
+
+import com.bank.legacy.old.Transaction;
+
+/**
+ * Virement entre shards accepté par le shard source : montant + frais sont débités et mis de côté,
+ * en attente du crédit sur le shard destination
+ */
+public final class TransferReservation {
+
+    private final Transaction transaction;
+    private final long feesMinor;
+    private final long journalSequence;
+
+    /**
+     * @param journalSequence séquence de l'enregistrement RESERVATION, -1 sans journal
+     */
+    public TransferReservation(Transaction transaction, long feesMinor, long journalSequence) {
+        this.transaction = transaction;
+        this.feesMinor = feesMinor;
+        this.journalSequence = journalSequence;
+    }
+
+    public Transaction getTransaction() { return transaction; }
+    public long getFeesMinor() { return feesMinor; }
+    public long getJournalSequence() { return journalSequence; }
+    public String getSourceAccount() { return transaction.getSourceAccount(); }
+    public String getDestinationAccount() { return transaction.getDestinationAccount(); }
+}
@@ -1,6 +1,8 @@
 package com.bank.legacy.applied.state;
 
+import com.bank.legacy.applied.money.Money;
 import com.bank.legacy.old.BankAccount;
+import com.bank.legacy.old.HeapBankAccount;
 
 /**
  * Adaptateur pour BankAccount avec gestion d'état via le pattern State
@@ -18,7 +20,7 @@ public class StatefulBankAccount {
     public StatefulBankAccount(String accountNumber, String accountType, String customerName,
                                String customerEmail, String customerPhone, double initialDeposit,
                                double interestRate, double overdraftLimit) {
-        this.account = new BankAccount(accountNumber, accountType, customerName,
+        this.account = new HeapBankAccount(accountNumber, accountType, customerName,
                                        customerEmail, customerPhone, initialDeposit,
                                        interestRate, overdraftLimit);
         this.state = new ActiveState();
@@ -28,6 +30,11 @@ public class StatefulBankAccount {
      * Effectue un dépôt si l'état le permet
      */
     public boolean deposit(double amount) {
+        return deposit(Money.eur(amount));
+    }
+
+    public boolean deposit(Money money) {
+        long amount = money.getMinorUnits();
         if (!state.canDeposit()) {
             System.out.println("ERREUR: Dépôt non autorisé - Compte en état " + state.getStateName());
             return false;
@@ -38,8 +45,8 @@ public class StatefulBankAccount {
             return false;
         }
 
-        account.setBalance(account.getBalance() + amount);
-        System.out.println("Dépôt de " + amount + " EUR effectué. Nouveau solde: " + account.getBalance() + " EUR");
+        account.setBalanceMinor(account.getBalanceMinor() + amount);
+        System.out.println("Dépôt de " + Money.toMajor(amount) + " EUR effectué. Nouveau solde: " + account.getBalance() + " EUR");
         return true;
     }
 
@@ -47,6 +54,11 @@ public class StatefulBankAccount {
      * Effectue un retrait si l'état le permet et respecte la limite
      */
     public boolean withdraw(double amount) {
+        return withdraw(Money.eur(amount));
+    }
+
+    public boolean withdraw(Money money) {
+        long amount = money.getMinorUnits();
         if (!state.canWithdraw()) {
             System.out.println("ERREUR: Retrait non autorisé - Compte en état " + state.getStateName());
             return false;
@@ -58,20 +70,20 @@ public class StatefulBankAccount {
         }
 
         // Vérification de la limite de retrait selon l'état
-        if (amount > state.getWithdrawalLimit()) {
+        if (amount > Money.toMinor(state.getWithdrawalLimit())) {
             System.out.println("ERREUR: Montant supérieur à la limite de retrait (" +
                               state.getWithdrawalLimit() + " EUR) pour l'état " + state.getStateName());
             return false;
         }
 
         // Vérification du découvert
-        if (account.getBalance() - amount < -account.getOverdraftLimit()) {
+        if (account.getBalanceMinor() - amount < -account.getOverdraftLimitMinor()) {
             System.out.println("ERREUR: Solde insuffisant (découvert dépassé)");
             return false;
         }
 
-        account.setBalance(account.getBalance() - amount);
-        System.out.println("Retrait de " + amount + " EUR effectué. Nouveau solde: " + account.getBalance() + " EUR");
+        account.setBalanceMinor(account.getBalanceMinor() - amount);
+        System.out.println("Retrait de " + Money.toMajor(amount) + " EUR effectué. Nouveau solde: " + account.getBalance() + " EUR");
         return true;
     }
 
@@ -79,6 +91,11 @@ public class StatefulBankAccount {
      * Effectue un virement si l'état le permet
      */
     public boolean transfer(StatefulBankAccount destination, double amount) {
+        return transfer(destination, Money.eur(amount));
+    }
+
+    public boolean transfer(StatefulBankAccount destination, Money money) {
+        long amount = money.getMinorUnits();
         if (!state.canTransfer()) {
             System.out.println("ERREUR: Virement non autorisé - Compte source en état " + state.getStateName());
             return false;
@@ -91,14 +108,14 @@ public class StatefulBankAccount {
         }
 
         // Vérification du découvert
-        if (account.getBalance() - amount < -account.getOverdraftLimit()) {
+        if (account.getBalanceMinor() - amount < -account.getOverdraftLimitMinor()) {
             System.out.println("ERREUR: Solde insuffisant pour le virement");
             return false;
         }
 
-        account.setBalance(account.getBalance() - amount);
-        destination.account.setBalance(destination.account.getBalance() + amount);
-        System.out.println("Virement de " + amount + " EUR effectué vers " + destination.getAccountNumber());
+        account.setBalanceMinor(account.getBalanceMinor() - amount);
+        destination.account.setBalanceMinor(destination.account.getBalanceMinor() + amount);
+        System.out.println("Virement de " + Money.toMajor(amount) + " EUR effectué vers " + destination.getAccountNumber());
         return true;
     }
 
@@ -0,0 +1,112 @@
+package com.bank.legacy.applied.store;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Annuaire des numéros de compte : chaque numéro externe ("ACC1000") reçoit une fois pour toutes
+ * un handle entier dense (0, 1, 2...). Les structures internes (comptes, index, suivis par compte)
+ * sont ensuite des tableaux indexés par handle : ni hachage, ni comparaison de chaînes, ni boxing.
+ * La chaîne n'est hachée qu'une fois, à l'entrée, par {@link #handleOf}.
+ *
+ * Table à adressage ouvert (sondage linéaire) : numéros et handles dans des tableaux parallèles,
+ * jamais supprimés. Les ajouts sont synchronisés ; les lectures sont sans verrou (la table courante
+ * est publiée par un champ volatile, chaque numéro par une écriture volatile après son handle).
+ */
+public class AccountDirectory {
+
+    public static final int UNKNOWN = -1;
+
+    private volatile Table table = new Table(16);
+    private final AppendLog<String> numbers = new AppendLog<>();
+
+    /**
+     * @return le handle du numéro, ou {@link #UNKNOWN} s'il n'a jamais été enregistré (ou null)
+     */
+    public int handleOf(String accountNumber) {
+        if (accountNumber == null) {
+            return UNKNOWN;
+        }
+        Table current = table;
+        int mask = current.handles.length - 1;
+        for (int slot = hash(accountNumber) & mask; ; slot = (slot + 1) & mask) {
+            String key = current.keys.get(slot);
+            if (key == null) {
+                return UNKNOWN;
+            }
+            if (key.equals(accountNumber)) {
+                return current.handles[slot];
+            }
+        }
+    }
+
+    /**
+     * Enregistre un numéro s'il est nouveau
+     * @return son handle (le même à chaque appel pour un même numéro)
+     */
+    public synchronized int intern(String accountNumber) {
+        int handle = handleOf(accountNumber);
+        if (handle != UNKNOWN) {
+            return handle;
+        }
+        handle = numbers.size();
+        if ((handle + 1) * 4 > table.handles.length * 3) {
+            table = table.grow();
+        }
+        table.insert(accountNumber, handle);
+        numbers.append(accountNumber);
+        return handle;
+    }
+
+    /**
+     * Numéro de compte d'un handle attribué par {@link #intern}
+     */
+    public String numberOf(int handle) {
+        return numbers.get(handle);
+    }
+
+    public int size() {
+        return numbers.size();
+    }
+
+    // Numéros séquentiels ("ACC1000", "ACC1001"...) : hachages voisins, dispersés par multiplication
+    // pour éviter les grappes du sondage linéaire
+    private static int hash(String accountNumber) {
+        int h = accountNumber.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Table {
+        final AtomicReferenceArray<String> keys;
+        final int[] handles;
+
+        Table(int capacity) {
+            keys = new AtomicReferenceArray<>(capacity);
+            handles = new int[capacity];
+        }
+
+        void insert(String accountNumber, int handle) {
+            int mask = handles.length - 1;
+            int slot = hash(accountNumber) & mask;
+            while (keys.get(slot) != null) {
+                slot = (slot + 1) & mask;
+            }
+            handles[slot] = handle;
+            // Publie le numéro après son handle
+            keys.set(slot, accountNumber);
+        }
+
+        /**
+         * Copie dans une table deux fois plus grande, publiée ensuite en une fois
+         */
+        Table grow() {
+            Table grown = new Table(handles.length * 2);
+            for (int i = 0; i < handles.length; i++) {
+                String key = keys.get(i);
+                if (key != null) {
+                    grown.insert(key, handles[i]);
+                }
+            }
+            return grown;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.bank.legacy.applied.store;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Journal en ajout seul, découpé en segments qui ne sont jamais recopiés : le segment k contient
+ * {@code 8 << k} éléments, le répertoire est alloué une fois (au premier ajout) et ne grandit pas.
+ * Capacité : {@link #MAX_CAPACITY} éléments, au-delà l'ajout est refusé.
+ *
+ * Un élément écrit n'est plus jamais déplacé ni modifié : une vue figée (répertoire + taille
+ * publiée) s'obtient en O(1), sans copie, et reste valide pendant les ajouts suivants.
+ *
+ * Les ajouts doivent être sérialisés par l'appelant ; les lectures peuvent être concurrentes.
+ */
+public class AppendLog<T> {
+
+    private static final int FIRST_SEGMENT_SHIFT = 3;
+    private static final int FIRST_SEGMENT_SIZE = 1 << FIRST_SEGMENT_SHIFT;
+    /** Le segment suivant ({@code 8 << 28}) dépasserait la taille maximale d'un tableau */
+    private static final int MAX_SEGMENTS = 31 - FIRST_SEGMENT_SHIFT;
+    /** Nombre d'éléments que couvrent les segments : Integer.MAX_VALUE - 7 */
+    public static final int MAX_CAPACITY = FIRST_SEGMENT_SIZE * ((1 << MAX_SEGMENTS) - 1);
+
+    private volatile Object[][] segments;
+    private volatile int size;
+
+    /**
+     * @throws IllegalStateException si le journal contient déjà {@link #MAX_CAPACITY} éléments
+     */
+    public void append(T item) {
+        int n = size;
+        requireCapacity(n, 1);
+        slotFor(n)[offsetOf(n)] = item;
+        // La publication de size rend visibles l'élément et son segment
+        size = n + 1;
+    }
+
+    /**
+     * Ajoute les count premiers éléments de items, publiés ensemble
+     * @throws IllegalStateException si la capacité ne suffit pas pour les count éléments (aucun n'est ajouté)
+     */
+    public void appendAll(T[] items, int count) {
+        int n = size;
+        requireCapacity(n, count);
+        int copied = 0;
+        while (copied < count) {
+            Object[] segment = slotFor(n + copied);
+            int offset = offsetOf(n + copied);
+            int length = Math.min(count - copied, segment.length - offset);
+            System.arraycopy(items, copied, segment, offset, length);
+            copied += length;
+        }
+        size = n + count;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Élément à la position i (i < size())
+     */
+    public T get(int i) {
+        int n = size;
+        if (i < 0 || i >= n) {
+            throw new IndexOutOfBoundsException("Index: " + i + ", taille: " + n);
+        }
+        return elementAt(segments, i);
+    }
+
+    /**
+     * Vue en lecture seule des éléments publiés à cet instant ; les ajouts suivants n'y apparaissent pas
+     */
+    public List<T> snapshot() {
+        int n = size;
+        // Lu après size : le répertoire couvre toutes les positions < n
+        return n == 0 ? List.of() : new Snapshot<>(segments, n);
+    }
+
+    private static void requireCapacity(int size, int count) {
+        if (count > MAX_CAPACITY - size) {
+            throw new IllegalStateException("Journal plein : " + size + " éléments, "
+                + count + " à ajouter, capacité " + MAX_CAPACITY);
+        }
+    }
+
+    private Object[] slotFor(int index) {
+        Object[][] directory = segments;
+        if (directory == null) {
+            directory = new Object[MAX_SEGMENTS][];
+            segments = directory;
+        }
+        int k = segmentOf(index);
+        Object[] segment = directory[k];
+        if (segment == null) {
+            segment = new Object[FIRST_SEGMENT_SIZE << k];
+            directory[k] = segment;
+        }
+        return segment;
+    }
+
+    private static int segmentOf(int index) {
+        return 31 - Integer.numberOfLeadingZeros((index >>> FIRST_SEGMENT_SHIFT) + 1);
+    }
+
+    private static int offsetOf(int index) {
+        return index + FIRST_SEGMENT_SIZE - (FIRST_SEGMENT_SIZE << segmentOf(index));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T elementAt(Object[][] directory, int index) {
+        return (T) directory[segmentOf(index)][offsetOf(index)];
+    }
+
+    private static final class Snapshot<T> extends AbstractList<T> implements RandomAccess {
+        private final Object[][] directory;
+        private final int size;
+
+        Snapshot(Object[][] directory, int size) {
+            this.directory = directory;
+            this.size = size;
+        }
+
+        @Override
+        public T get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", taille: " + size);
+            }
+            return elementAt(directory, index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
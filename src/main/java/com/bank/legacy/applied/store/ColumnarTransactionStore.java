@@ -0,0 +1,351 @@
+package com.bank.legacy.applied.store;
+
+import com.bank.legacy.old.Transaction;
+import com.bank.legacy.old.TransactionType;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Copie en colonnes du grand livre pour les requêtes analytiques.
+ *
+ * Une ligne par transaction, répartie dans des tableaux primitifs : montant et frais en centimes,
+ * horodatage en millisecondes, comptes source/destination par leur handle ({@link AccountDirectory}),
+ * type et statut en octets. Soit ~34 octets par transaction, contre plusieurs centaines pour
+ * un objet Transaction avec ses chaînes et sa Date ; un parcours lit des tableaux contigus.
+ * Les handles sont fournis par l'appelant, qui les a déjà résolus : l'ajout ne hache aucune chaîne.
+ *
+ * C'est une copie supplémentaire du grand livre : BankingService ne la tient qu'à la demande
+ * ({@code enableColumnarStore}).
+ *
+ * Les ajouts doivent être sérialisés par l'appelant (ils sont faits sous le verrou du grand livre) ;
+ * les requêtes peuvent être concurrentes et voient toutes les lignes publiées avant leur début.
+ */
+public class ColumnarTransactionStore {
+
+    /** Compte absent (dépôt sans source, retrait sans destination) ou inconnu */
+    public static final int NO_ACCOUNT = AccountDirectory.UNKNOWN;
+
+    public static final byte STATUS_PENDING = 0;
+    public static final byte STATUS_COMPLETED = 1;
+    public static final byte STATUS_REJECTED = 2;
+    public static final byte STATUS_OTHER = 3;
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+    /** Code des types inconnus (après les ordinaux de TransactionType) */
+    private static final byte TYPE_OTHER = (byte) TYPES.length;
+
+    private final AccountDirectory directory;
+    private volatile Columns columns = new Columns(1024);
+    private volatile int size;
+
+    /**
+     * @param directory annuaire qui a attribué les handles des comptes (pour les requêtes par numéro)
+     */
+    public ColumnarTransactionStore(AccountDirectory directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Ajoute une transaction (frais en centimes)
+     * @param sourceHandle handle du compte source, {@link #NO_ACCOUNT} si absent ou inconnu
+     * @param destinationHandle handle du compte destination, {@link #NO_ACCOUNT} si absent ou inconnu
+     */
+    public void append(Transaction tx, long fees, int sourceHandle, int destinationHandle) {
+        int row = size;
+        Columns current = columns;
+        if (row == current.capacity()) {
+            current = current.grow(row * 2);
+            columns = current;
+        }
+        current.amount[row] = tx.getAmountMinor();
+        current.fees[row] = fees;
+        current.timestamp[row] = tx.getTransactionDate().getTime();
+        current.source[row] = sourceHandle;
+        current.destination[row] = destinationHandle;
+        TransactionType type = tx.getTransactionType();
+        current.type[row] = type != null ? (byte) type.ordinal() : TYPE_OTHER;
+        current.status[row] = statusCode(tx.getStatus());
+        // La publication de size rend la ligne visible aux requêtes
+        size = row + 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Nouvelle requête sur toutes les lignes publiées à cet instant
+     */
+    public Query query() {
+        return new Query();
+    }
+
+    public static byte statusCode(String status) {
+        if (status == null) {
+            return STATUS_OTHER;
+        }
+        switch (status) {
+            case "PENDING": return STATUS_PENDING;
+            case "COMPLETED": return STATUS_COMPLETED;
+            case "REJECTED": return STATUS_REJECTED;
+            default: return STATUS_OTHER;
+        }
+    }
+
+    /**
+     * Tableaux d'une génération : remplacés (copiés) en bloc à l'agrandissement
+     */
+    private static final class Columns {
+        final long[] amount;
+        final long[] fees;
+        final long[] timestamp;
+        final int[] source;
+        final int[] destination;
+        final byte[] type;
+        final byte[] status;
+
+        Columns(int capacity) {
+            this(new long[capacity], new long[capacity], new long[capacity], new int[capacity],
+                 new int[capacity], new byte[capacity], new byte[capacity]);
+        }
+
+        private Columns(long[] amount, long[] fees, long[] timestamp, int[] source, int[] destination,
+                        byte[] type, byte[] status) {
+            this.amount = amount;
+            this.fees = fees;
+            this.timestamp = timestamp;
+            this.source = source;
+            this.destination = destination;
+            this.type = type;
+            this.status = status;
+        }
+
+        int capacity() {
+            return amount.length;
+        }
+
+        Columns grow(int capacity) {
+            return new Columns(Arrays.copyOf(amount, capacity), Arrays.copyOf(fees, capacity),
+                               Arrays.copyOf(timestamp, capacity), Arrays.copyOf(source, capacity),
+                               Arrays.copyOf(destination, capacity), Arrays.copyOf(type, capacity),
+                               Arrays.copyOf(status, capacity));
+        }
+    }
+
+    /**
+     * Requête : filtres combinés (ET) puis une opération terminale (comptage, somme, regroupement).
+     * Le filtre par compte retient les transactions dont le compte est source ou destination.
+     */
+    public final class Query {
+        private final int rows = size;
+        private final Columns data = columns;
+        private boolean empty;
+        private int account = NO_ACCOUNT;
+        private int typeCode = -1;
+        private int statusCode = -1;
+        private long from = Long.MIN_VALUE;
+        private long to = Long.MAX_VALUE;
+
+        private Query() {
+        }
+
+        public Query forAccount(String accountNumber) {
+            account = directory.handleOf(accountNumber);
+            empty |= account == NO_ACCOUNT;
+            return this;
+        }
+
+        public Query ofType(TransactionType type) {
+            typeCode = type.ordinal();
+            return this;
+        }
+
+        public Query withStatus(String status) {
+            statusCode = statusCode(status);
+            return this;
+        }
+
+        public Query completed() {
+            statusCode = STATUS_COMPLETED;
+            return this;
+        }
+
+        /**
+         * @param from début inclus (null = pas de borne)
+         * @param to fin exclue (null = pas de borne)
+         */
+        public Query between(Date from, Date to) {
+            return between(from != null ? from.getTime() : Long.MIN_VALUE, to != null ? to.getTime() : Long.MAX_VALUE);
+        }
+
+        public Query between(long fromMillis, long toMillis) {
+            from = fromMillis;
+            to = toMillis;
+            return this;
+        }
+
+        private boolean matches(int row) {
+            if (account != NO_ACCOUNT && data.source[row] != account && data.destination[row] != account) {
+                return false;
+            }
+            if (typeCode >= 0 && data.type[row] != typeCode) {
+                return false;
+            }
+            if (statusCode >= 0 && data.status[row] != statusCode) {
+                return false;
+            }
+            long time = data.timestamp[row];
+            return time >= from && time < to;
+        }
+
+        public int count() {
+            if (empty) {
+                return 0;
+            }
+            int count = 0;
+            for (int row = 0; row < rows; row++) {
+                if (matches(row)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        public long sumAmountMinor() {
+            if (empty) {
+                return 0;
+            }
+            long sum = 0;
+            for (int row = 0; row < rows; row++) {
+                if (matches(row)) {
+                    sum += data.amount[row];
+                }
+            }
+            return sum;
+        }
+
+        public long sumFeesMinor() {
+            if (empty) {
+                return 0;
+            }
+            long sum = 0;
+            for (int row = 0; row < rows; row++) {
+                if (matches(row)) {
+                    sum += data.fees[row];
+                }
+            }
+            return sum;
+        }
+
+        /**
+         * Somme des montants par type (les types inconnus sont ignorés)
+         */
+        public Map<TransactionType, Long> sumByType() {
+            long[] sums = new long[TYPES.length + 1];
+            if (!empty) {
+                for (int row = 0; row < rows; row++) {
+                    if (matches(row)) {
+                        sums[data.type[row]] += data.amount[row];
+                    }
+                }
+            }
+            Map<TransactionType, Long> result = new EnumMap<>(TransactionType.class);
+            for (TransactionType type : TYPES) {
+                result.put(type, sums[type.ordinal()]);
+            }
+            return result;
+        }
+
+        /**
+         * Somme des montants par compte concerné (source et destination), dans l'ordre des handles
+         * (ordre d'ouverture des comptes) ; un virement d'un compte vers lui-même n'est compté qu'une fois
+         */
+        public Map<String, Long> sumByAccount() {
+            int accountCount = directory.size();
+            long[] sums = new long[accountCount];
+            boolean[] seen = new boolean[accountCount];
+            if (!empty) {
+                for (int row = 0; row < rows; row++) {
+                    if (matches(row)) {
+                        int source = data.source[row];
+                        int destination = data.destination[row];
+                        if (source != NO_ACCOUNT) {
+                            sums[source] += data.amount[row];
+                            seen[source] = true;
+                        }
+                        if (destination != NO_ACCOUNT && destination != source) {
+                            sums[destination] += data.amount[row];
+                            seen[destination] = true;
+                        }
+                    }
+                }
+            }
+            Map<String, Long> result = new LinkedHashMap<>();
+            for (int handle = 0; handle < accountCount; handle++) {
+                if (seen[handle]) {
+                    result.put(directory.numberOf(handle), sums[handle]);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Somme des montants par fenêtre de temps de windowMillis (clé = début de la fenêtre)
+         */
+        public SortedMap<Long, Long> sumByWindow(long windowMillis) {
+            if (windowMillis <= 0) {
+                throw new IllegalArgumentException("La fenêtre doit être positive");
+            }
+            SortedMap<Long, Long> result = new TreeMap<>();
+            if (empty) {
+                return result;
+            }
+            long currentWindow = Long.MIN_VALUE;
+            long currentSum = 0;
+            for (int row = 0; row < rows; row++) {
+                if (matches(row)) {
+                    long window = Math.floorDiv(data.timestamp[row], windowMillis) * windowMillis;
+                    // Les lignes arrivent presque triées par date : on cumule tant que la fenêtre ne change pas
+                    if (window != currentWindow) {
+                        if (currentWindow != Long.MIN_VALUE) {
+                            result.merge(currentWindow, currentSum, Long::sum);
+                        }
+                        currentWindow = window;
+                        currentSum = 0;
+                    }
+                    currentSum += data.amount[row];
+                }
+            }
+            if (currentWindow != Long.MIN_VALUE) {
+                result.merge(currentWindow, currentSum, Long::sum);
+            }
+            return result;
+        }
+
+        /**
+         * Lignes retenues, dans l'ordre d'arrivée (mêmes positions que le grand livre)
+         */
+        public int[] rows() {
+            if (empty) {
+                return new int[0];
+            }
+            int[] result = new int[16];
+            int count = 0;
+            for (int row = 0; row < rows; row++) {
+                if (matches(row)) {
+                    if (count == result.length) {
+                        result = Arrays.copyOf(result, count * 2);
+                    }
+                    result[count++] = row;
+                }
+            }
+            return Arrays.copyOf(result, count);
+        }
+    }
+}
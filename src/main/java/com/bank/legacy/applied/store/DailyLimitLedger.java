@@ -0,0 +1,117 @@
+package com.bank.legacy.applied.store;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Cumul quotidien des montants par compte (indexé par handle), thread-safe et sans verrou.
+ *
+ * Le cumul d'un compte est un long qui regroupe le jour (numéro de jour epoch) et le montant en
+ * centimes : la réservation est un CAS qui vérifie le plafond et ajoute le montant en une seule
+ * opération, sans fenêtre entre la lecture et l'écriture. Un cumul d'un jour révolu compte pour
+ * zéro : le changement de jour ne demande ni remise à zéro ni balayage.
+ *
+ * Une réservation est rendue par {@link #release} si la transaction est finalement rejetée ;
+ * une réservation d'un jour révolu n'a plus rien à rendre.
+ */
+public class DailyLimitLedger {
+
+    /** Retour de {@link #reserve} quand le plafond serait dépassé */
+    public static final long REJECTED = -1;
+
+    private static final int AMOUNT_BITS = 40;
+    private static final long AMOUNT_MASK = (1L << AMOUNT_BITS) - 1;
+    private static final int CHUNK_SHIFT = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+    /** Cumuls par handle, par blocs alloués à la demande et jamais déplacés */
+    private volatile AtomicLongArray[] chunks = new AtomicLongArray[0];
+
+    /**
+     * Réserve un montant sur le cumul du jour, si le plafond le permet
+     * @param amountMinor montant en centimes (positif)
+     * @return le nouveau cumul du jour en centimes, ou {@link #REJECTED} (rien n'est réservé)
+     */
+    public long reserve(int handle, long epochDay, long amountMinor, long limitMinor) {
+        if (amountMinor < 0) {
+            throw new IllegalArgumentException("Montant négatif: " + amountMinor);
+        }
+        AtomicLongArray totals = chunkFor(handle);
+        int slot = handle & (CHUNK_SIZE - 1);
+        while (true) {
+            long current = totals.get(slot);
+            long total = amountOf(current, epochDay) + amountMinor;
+            if (total > limitMinor || total > AMOUNT_MASK) {
+                return REJECTED;
+            }
+            if (totals.compareAndSet(slot, current, pack(epochDay, total))) {
+                return total;
+            }
+        }
+    }
+
+    /**
+     * Rend un montant réservé le jour donné (sans effet si ce jour est révolu)
+     */
+    public void release(int handle, long epochDay, long amountMinor) {
+        AtomicLongArray totals = chunkOf(handle);
+        if (totals == null) {
+            return;
+        }
+        int slot = handle & (CHUNK_SIZE - 1);
+        while (true) {
+            long current = totals.get(slot);
+            if ((current >>> AMOUNT_BITS) != epochDay) {
+                return;
+            }
+            long total = Math.max(0, (current & AMOUNT_MASK) - amountMinor);
+            if (totals.compareAndSet(slot, current, pack(epochDay, total))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return le cumul du jour en centimes (0 pour un compte sans réservation ce jour-là)
+     */
+    public long used(int handle, long epochDay) {
+        AtomicLongArray totals = chunkOf(handle);
+        return totals != null ? amountOf(totals.get(handle & (CHUNK_SIZE - 1)), epochDay) : 0;
+    }
+
+    private static long amountOf(long packed, long epochDay) {
+        return (packed >>> AMOUNT_BITS) == epochDay ? packed & AMOUNT_MASK : 0;
+    }
+
+    private static long pack(long epochDay, long amountMinor) {
+        return (epochDay << AMOUNT_BITS) | amountMinor;
+    }
+
+    private AtomicLongArray chunkOf(int handle) {
+        AtomicLongArray[] current = chunks;
+        int chunk = handle >>> CHUNK_SHIFT;
+        return handle >= 0 && chunk < current.length ? current[chunk] : null;
+    }
+
+    private AtomicLongArray chunkFor(int handle) {
+        if (handle < 0) {
+            throw new IllegalArgumentException("Handle invalide: " + handle);
+        }
+        AtomicLongArray totals = chunkOf(handle);
+        return totals != null ? totals : grow(handle >>> CHUNK_SHIFT);
+    }
+
+    /**
+     * Alloue le bloc d'un handle ; le répertoire agrandi est publié une fois complet
+     */
+    private synchronized AtomicLongArray grow(int chunk) {
+        AtomicLongArray[] current = chunks;
+        if (chunk < current.length && current[chunk] != null) {
+            return current[chunk];
+        }
+        AtomicLongArray[] grown = new AtomicLongArray[Math.max(chunk + 1, current.length)];
+        System.arraycopy(current, 0, grown, 0, current.length);
+        grown[chunk] = new AtomicLongArray(CHUNK_SIZE);
+        chunks = grown;
+        return grown[chunk];
+    }
+}
@@ -0,0 +1,45 @@
+package com.bank.legacy.applied.store;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Table associant une valeur à un handle de compte ({@link AccountDirectory}) : un tableau indexé
+ * directement par le handle, agrandi par doublement. Remplace une Map&lt;String, V&gt; sur les
+ * suivis par compte, sans hachage ni boxing.
+ *
+ * Non thread-safe, comme les HashMap qu'elle remplace. Les handles sont propres à un service :
+ * une même table ne doit pas mélanger les comptes de plusieurs services.
+ */
+public final class HandleMap<V> {
+
+    private Object[] values = new Object[16];
+
+    /**
+     * @return la valeur du handle, ou null (aussi pour un handle négatif)
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int handle) {
+        return handle >= 0 && handle < values.length ? (V) values[handle] : null;
+    }
+
+    /**
+     * @param handle handle positif ou nul
+     */
+    @SuppressWarnings("unchecked")
+    public V computeIfAbsent(int handle, Supplier<? extends V> factory) {
+        if (handle >= values.length) {
+            values = Arrays.copyOf(values, Math.max(values.length * 2, handle + 1));
+        }
+        Object value = values[handle];
+        if (value == null) {
+            value = factory.get();
+            values[handle] = value;
+        }
+        return (V) value;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+    }
+}
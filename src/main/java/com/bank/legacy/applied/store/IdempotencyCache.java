@@ -0,0 +1,187 @@
+package com.bank.legacy.applied.store;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cache de déduplication : clé d'idempotence fournie par le client -> résultat d'origine, conservé
+ * pendant une fenêtre de temps et pour au plus maxEntries clés (les plus anciennes sont évincées).
+ *
+ * Table à adressage ouvert (sondage linéaire, suppression par décalage arrière) : clés, résultats et
+ * échéances dans des tableaux parallèles. Les entrées sont aussi rangées par ordre d'insertion dans
+ * un anneau, ce qui donne en O(1) la prochaine à expirer (la fenêtre est la même pour toutes).
+ *
+ * Les accès à la table sont synchronisés et brefs. Pour qu'une même clé ne soit jamais traitée deux
+ * fois en parallèle, l'appelant prend {@link #lockKey} autour de get + traitement + put ; ces verrous
+ * sont distincts de ceux des comptes et doivent être pris avant eux.
+ */
+public class IdempotencyCache<V> {
+
+    private static final int KEY_STRIPES = 64;
+
+    private final int maxEntries;
+    private final long windowMillis;
+    private final ReentrantLock[] keyLocks = new ReentrantLock[KEY_STRIPES];
+
+    private String[] keys = new String[16];
+    private Object[] values = new Object[16];
+    private long[] expires = new long[16];
+    private int size;
+
+    // Anneau des insertions : clé et échéance, de la plus ancienne à la plus récente
+    private final String[] fifoKeys;
+    private final long[] fifoExpires;
+    private int fifoHead;
+    private int fifoCount;
+
+    public IdempotencyCache(int maxEntries, long windowMillis) {
+        if (maxEntries <= 0 || windowMillis <= 0) {
+            throw new IllegalArgumentException("Taille et fenêtre doivent être positives");
+        }
+        this.maxEntries = maxEntries;
+        this.windowMillis = windowMillis;
+        this.fifoKeys = new String[maxEntries];
+        this.fifoExpires = new long[maxEntries];
+        for (int i = 0; i < KEY_STRIPES; i++) {
+            keyLocks[i] = new ReentrantLock();
+        }
+    }
+
+    public void lockKey(String key) {
+        keyLocks[stripeOf(key)].lock();
+    }
+
+    public void unlockKey(String key) {
+        keyLocks[stripeOf(key)].unlock();
+    }
+
+    /**
+     * @return le résultat mémorisé pour la clé, ou null si elle est inconnue ou expirée
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized V get(String key, long nowMillis) {
+        expire(nowMillis);
+        int slot = find(key);
+        if (slot < 0) {
+            return null;
+        }
+        return (V) values[slot];
+    }
+
+    /**
+     * Mémorise le résultat d'une clé jusqu'à nowMillis + fenêtre (remplace un résultat existant)
+     */
+    public synchronized void put(String key, V value, long nowMillis) {
+        expire(nowMillis);
+        if (fifoCount == maxEntries) {
+            evictOldest();
+        }
+        long expiry = nowMillis + windowMillis;
+        int slot = find(key);
+        if (slot < 0) {
+            if ((size + 1) * 4 > keys.length * 3) {
+                resize(keys.length * 2);
+            }
+            slot = insertionSlot(key);
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+        expires[slot] = expiry;
+        int tail = (fifoHead + fifoCount) % maxEntries;
+        fifoKeys[tail] = key;
+        fifoExpires[tail] = expiry;
+        fifoCount++;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void expire(long nowMillis) {
+        while (fifoCount > 0 && fifoExpires[fifoHead] <= nowMillis) {
+            evictOldest();
+        }
+    }
+
+    /**
+     * Retire la plus ancienne insertion, sauf si la clé a été remémorisée depuis (échéance différente)
+     */
+    private void evictOldest() {
+        String key = fifoKeys[fifoHead];
+        long expiry = fifoExpires[fifoHead];
+        fifoKeys[fifoHead] = null;
+        fifoHead = (fifoHead + 1) % maxEntries;
+        fifoCount--;
+        int slot = find(key);
+        if (slot >= 0 && expires[slot] == expiry) {
+            delete(slot);
+        }
+    }
+
+    private int find(String key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot].equals(key)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private int insertionSlot(String key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Suppression par décalage arrière : les entrées suivantes de la même grappe sont remontées,
+     * aucune marque de suppression n'est laissée
+     */
+    private void delete(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; keys[next] != null; next = (next + 1) & mask) {
+            int home = hash(keys[next]) & mask;
+            // L'entrée peut combler le trou si sa position d'origine n'est pas entre le trou et elle
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                expires[hole] = expires[next];
+                hole = next;
+            }
+        }
+        keys[hole] = null;
+        values[hole] = null;
+        size--;
+    }
+
+    private void resize(int capacity) {
+        String[] oldKeys = keys;
+        Object[] oldValues = values;
+        long[] oldExpires = expires;
+        keys = new String[capacity];
+        values = new Object[capacity];
+        expires = new long[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = insertionSlot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                expires[slot] = oldExpires[i];
+            }
+        }
+    }
+
+    private static int hash(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int stripeOf(String key) {
+        return hash(key) & (KEY_STRIPES - 1);
+    }
+}
@@ -0,0 +1,154 @@
+package com.bank.legacy.applied.store;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Grand livre des soldes hors du tas Java : l'état chaud de chaque compte (solde, découvert, taux,
+ * type, état, séquence du journal, date d'ouverture) occupe un emplacement de {@value #SLOT_SIZE}
+ * octets dans des ByteBuffer directs. Des dizaines de millions de comptes n'ajoutent ainsi presque
+ * rien au tas ni au travail du ramasse-miettes.
+ *
+ * Les emplacements sont regroupés en blocs de {@value #SLOTS_PER_CHUNK}, alloués à la demande :
+ * un bloc n'est jamais déplacé. Accès par VarHandle ; solde, séquence du journal et état ont une
+ * sémantique volatile, comme les champs de BankAccount qu'ils remplacent. Les autres valeurs
+ * sont écrites une fois, avant la publication du compte.
+ *
+ * Les emplacements ne sont jamais libérés (un compte n'est pas supprimé ; un compte remplacé lors
+ * d'une relecture reprend l'emplacement de l'ancien).
+ */
+public class OffHeapAccountLedger {
+
+    public static final int SLOT_SIZE = 48;
+    private static final int CHUNK_SHIFT = 16;
+    private static final int SLOTS_PER_CHUNK = 1 << CHUNK_SHIFT;
+    private static final int SLOT_MASK = SLOTS_PER_CHUNK - 1;
+
+    // Disposition d'un emplacement (champs alignés sur leur taille)
+    private static final int BALANCE = 0;
+    private static final int OVERDRAFT_LIMIT = 8;
+    private static final int INTEREST_RATE = 16;
+    private static final int JOURNAL_SEQUENCE = 24;
+    private static final int CREATION_MILLIS = 32;
+    private static final int STATUS = 40;
+    private static final int TYPE = 44;
+
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private volatile ByteBuffer[] chunks = new ByteBuffer[0];
+    private volatile int size;
+
+    /**
+     * Réserve un emplacement (rempli de zéros)
+     * @return son numéro
+     */
+    public synchronized int allocate() {
+        int slot = size;
+        int chunk = slot >>> CHUNK_SHIFT;
+        if (chunk == chunks.length) {
+            ByteBuffer[] grown = new ByteBuffer[chunk + 1];
+            System.arraycopy(chunks, 0, grown, 0, chunk);
+            grown[chunk] = ByteBuffer.allocateDirect(SLOTS_PER_CHUNK * SLOT_SIZE).order(ByteOrder.nativeOrder());
+            chunks = grown;
+        }
+        size = slot + 1;
+        return slot;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Mémoire hors tas réservée, en octets
+     */
+    public long getReservedBytes() {
+        return (long) chunks.length * SLOTS_PER_CHUNK * SLOT_SIZE;
+    }
+
+    public long getBalance(int slot) {
+        return (long) LONG.getVolatile(chunk(slot), offset(slot) + BALANCE);
+    }
+
+    public void setBalance(int slot, long balance) {
+        LONG.setVolatile(chunk(slot), offset(slot) + BALANCE, balance);
+    }
+
+    public long getOverdraftLimit(int slot) {
+        return (long) LONG.get(chunk(slot), offset(slot) + OVERDRAFT_LIMIT);
+    }
+
+    public void setOverdraftLimit(int slot, long overdraftLimit) {
+        LONG.set(chunk(slot), offset(slot) + OVERDRAFT_LIMIT, overdraftLimit);
+    }
+
+    public double getInterestRate(int slot) {
+        return Double.longBitsToDouble((long) LONG.get(chunk(slot), offset(slot) + INTEREST_RATE));
+    }
+
+    public void setInterestRate(int slot, double interestRate) {
+        LONG.set(chunk(slot), offset(slot) + INTEREST_RATE, Double.doubleToRawLongBits(interestRate));
+    }
+
+    public long getJournalSequence(int slot) {
+        return (long) LONG.getVolatile(chunk(slot), offset(slot) + JOURNAL_SEQUENCE);
+    }
+
+    public void setJournalSequence(int slot, long sequence) {
+        LONG.setVolatile(chunk(slot), offset(slot) + JOURNAL_SEQUENCE, sequence);
+    }
+
+    public long getCreationMillis(int slot) {
+        return (long) LONG.get(chunk(slot), offset(slot) + CREATION_MILLIS);
+    }
+
+    public void setCreationMillis(int slot, long creationMillis) {
+        LONG.set(chunk(slot), offset(slot) + CREATION_MILLIS, creationMillis);
+    }
+
+    /**
+     * @return le code d'état (ordinal d'AccountStatus, -1 pour un état inconnu)
+     */
+    public int getStatus(int slot) {
+        return (int) INT.getVolatile(chunk(slot), offset(slot) + STATUS);
+    }
+
+    public void setStatus(int slot, int status) {
+        INT.setVolatile(chunk(slot), offset(slot) + STATUS, status);
+    }
+
+    /**
+     * @return le code de type (ordinal d'AccountType, -1 pour un type inconnu)
+     */
+    public int getType(int slot) {
+        return (int) INT.get(chunk(slot), offset(slot) + TYPE);
+    }
+
+    public void setType(int slot, int type) {
+        INT.set(chunk(slot), offset(slot) + TYPE, type);
+    }
+
+    /**
+     * Somme des soldes de tous les emplacements, sans toucher aux objets comptes
+     */
+    public long sumBalances() {
+        int n = size;
+        ByteBuffer[] current = chunks;
+        long total = 0;
+        for (int slot = 0; slot < n; slot++) {
+            total += (long) LONG.getVolatile(current[slot >>> CHUNK_SHIFT], (slot & SLOT_MASK) * SLOT_SIZE + BALANCE);
+        }
+        return total;
+    }
+
+    private ByteBuffer chunk(int slot) {
+        return chunks[slot >>> CHUNK_SHIFT];
+    }
+
+    private static int offset(int slot) {
+        return (slot & SLOT_MASK) * SLOT_SIZE;
+    }
+}
@@ -0,0 +1,115 @@
+package com.bank.legacy.applied.store;
+
+import com.bank.legacy.old.AccountStatus;
+import com.bank.legacy.old.AccountType;
+import com.bank.legacy.old.BankAccount;
+
+import java.util.Date;
+
+/**
+ * Compte dont l'état chaud vit dans un emplacement d'{@link OffHeapAccountLedger} : l'objet n'est
+ * qu'une vue (poids mouche) qui ne porte sur le tas que l'état froid de BankAccount (numéro, type,
+ * coordonnées client) et son emplacement. Pas de Date ni d'historique alloués : la date d'ouverture
+ * est recréée à la demande et l'historique n'est créé qu'au premier ajout.
+ *
+ * S'utilise partout où un BankAccount est attendu ; mêmes règles de concurrence.
+ */
+public class OffHeapBankAccount extends BankAccount {
+
+    private static final AccountStatus[] STATUSES = AccountStatus.values();
+
+    private final OffHeapAccountLedger ledger;
+    private final int slot;
+    private volatile String unknownStatus; // état hors AccountStatus, gardé tel quel (rare)
+
+    private OffHeapBankAccount(BankAccount source, OffHeapAccountLedger ledger, int slot) {
+        super(source.getAccountNumber(), source.getAccountType(), source.getCustomerName(),
+              source.getCustomerEmail(), source.getCustomerPhone());
+        this.ledger = ledger;
+        this.slot = slot;
+    }
+
+    /**
+     * Recopie l'état d'un compte dans l'emplacement slot du grand livre (écrase son contenu)
+     * @return la vue sur cet emplacement
+     */
+    public static OffHeapBankAccount copyOf(BankAccount source, OffHeapAccountLedger ledger, int slot) {
+        OffHeapBankAccount account = new OffHeapBankAccount(source, ledger, slot);
+        AccountType type = source.getType();
+        ledger.setType(slot, type != null ? type.ordinal() : -1);
+        ledger.setOverdraftLimit(slot, source.getOverdraftLimitMinor());
+        ledger.setInterestRate(slot, source.getInterestRate());
+        Date creationDate = source.getCreationDate();
+        ledger.setCreationMillis(slot, creationDate != null ? creationDate.getTime() : System.currentTimeMillis());
+        ledger.setBalance(slot, source.getBalanceMinor());
+        ledger.setJournalSequence(slot, source.getJournalSequence());
+        account.setStatus(source.getStatus());
+        return account;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    @Override
+    public long getBalanceMinor() {
+        return ledger.getBalance(slot);
+    }
+
+    @Override
+    public void setBalanceMinor(long balance) {
+        ledger.setBalance(slot, balance);
+    }
+
+    @Override
+    public long getOverdraftLimitMinor() {
+        return ledger.getOverdraftLimit(slot);
+    }
+
+    @Override
+    public double getInterestRate() {
+        return ledger.getInterestRate(slot);
+    }
+
+    @Override
+    public Date getCreationDate() {
+        return new Date(ledger.getCreationMillis(slot));
+    }
+
+    @Override
+    public long getJournalSequence() {
+        return ledger.getJournalSequence(slot);
+    }
+
+    @Override
+    public void setJournalSequence(long journalSequence) {
+        ledger.setJournalSequence(slot, journalSequence);
+    }
+
+    @Override
+    public AccountStatus getStatusCode() {
+        int code = ledger.getStatus(slot);
+        return code >= 0 ? STATUSES[code] : null;
+    }
+
+    @Override
+    public String getStatus() {
+        int code = ledger.getStatus(slot);
+        // Un état inconnu reste sur le tas, tel quel
+        return code >= 0 ? STATUSES[code].name() : unknownStatus;
+    }
+
+    @Override
+    public void setStatus(String status) {
+        AccountStatus code = AccountStatus.fromCode(status);
+        if (code == null) {
+            unknownStatus = status;
+        }
+        ledger.setStatus(slot, code != null ? code.ordinal() : -1);
+    }
+
+    @Override
+    public void setStatus(AccountStatus status) {
+        ledger.setStatus(slot, status.ordinal());
+    }
+}
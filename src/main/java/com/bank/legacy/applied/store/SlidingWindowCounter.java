@@ -0,0 +1,221 @@
+package com.bank.legacy.applied.store;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Compteur d'événements par compte sur une fenêtre glissante (par exemple : transactions de la
+ * dernière heure), thread-safe et sans verrou.
+ *
+ * Chaque compte actif a un anneau de {@code buckets} cases d'une durée de {@code bucketSeconds}
+ * secondes. Une case est un long qui regroupe le numéro de sa période (secondes epoch / durée) et
+ * son compteur : l'incrément est un CAS qui remet la case à zéro si sa période est révolue. Le
+ * décompte additionne les cases de la fenêtre : coût constant, sans allocation. La fenêtre avance
+ * par case : un événement est compté pendant entre (buckets - 1) et buckets périodes.
+ *
+ * Les anneaux ne sont alloués qu'au premier événement d'un compte et sont libérés quand toutes leurs
+ * cases sont révolues : au décompte d'un compte inactif, et par un balayage progressif fait à chaque
+ * incrément. La mémoire suit le nombre de comptes actifs, pas le nombre de comptes.
+ */
+public class SlidingWindowCounter {
+
+    private static final int COUNT_BITS = 24;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final int CHUNK_SHIFT = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    /** Anneaux examinés par le balayage à chaque incrément */
+    private static final int SWEEP_PER_INCREMENT = 2;
+    private static final long SEALED = 1;
+
+    private final int buckets;
+    private final int bucketSeconds;
+    /** Anneaux par handle, par blocs alloués à la demande et jamais déplacés */
+    private volatile Rings[] chunks = new Rings[0];
+    private final AtomicInteger sweepCursor = new AtomicInteger();
+
+    /**
+     * @param windowSeconds durée de la fenêtre
+     * @param buckets nombre de cases (la fenêtre avance par pas de windowSeconds / buckets)
+     */
+    public SlidingWindowCounter(int windowSeconds, int buckets) {
+        if (buckets <= 0 || windowSeconds <= 0 || windowSeconds % buckets != 0) {
+            throw new IllegalArgumentException("La fenêtre doit être un multiple positif du nombre de cases");
+        }
+        this.buckets = buckets;
+        this.bucketSeconds = windowSeconds / buckets;
+    }
+
+    /**
+     * Compte un événement pour le handle à l'instant donné
+     */
+    public void increment(int handle, long epochSecond) {
+        long period = epochSecond / bucketSeconds;
+        int index = (int) (period % buckets);
+        Rings rings = ringsFor(handle);
+        int slot = handle & (CHUNK_SIZE - 1);
+        while (true) {
+            AtomicLongArray ring = rings.get(slot);
+            if (ring == null) {
+                ring = new AtomicLongArray(buckets + 1);
+                if (!rings.compareAndSet(slot, null, ring)) {
+                    continue;
+                }
+            }
+            long current;
+            long updated;
+            do {
+                current = ring.get(index);
+                long count = (current >>> COUNT_BITS) == period ? current & COUNT_MASK : 0;
+                updated = (period << COUNT_BITS) | Math.min(count + 1, COUNT_MASK);
+            } while (!ring.compareAndSet(index, current, updated));
+
+            if (ring.get(buckets) != SEALED || awaitEviction(rings, slot, ring)) {
+                break;
+            }
+            // Anneau libéré entre-temps : l'événement est recompté dans un nouvel anneau
+        }
+        sweep(period);
+    }
+
+    /**
+     * @return le nombre d'événements du handle dans la fenêtre se terminant à epochSecond
+     */
+    public int count(int handle, long epochSecond) {
+        long period = epochSecond / bucketSeconds;
+        Rings rings = ringsOf(handle);
+        if (rings == null) {
+            return 0;
+        }
+        int slot = handle & (CHUNK_SIZE - 1);
+        AtomicLongArray ring = rings.get(slot);
+        if (ring == null) {
+            return 0;
+        }
+        int total = sum(ring, period);
+        if (total == 0) {
+            evict(rings, slot, ring, period);
+        }
+        return total;
+    }
+
+    /**
+     * Comptes ayant un anneau alloué (actifs récemment)
+     */
+    public int activeAccounts() {
+        int active = 0;
+        for (Rings rings : chunks) {
+            for (int i = 0; rings != null && i < CHUNK_SIZE; i++) {
+                if (rings.get(i) != null) {
+                    active++;
+                }
+            }
+        }
+        return active;
+    }
+
+    private int sum(AtomicLongArray ring, long period) {
+        long total = 0;
+        for (int i = 0; i < buckets; i++) {
+            long bucket = ring.get(i);
+            long age = period - (bucket >>> COUNT_BITS);
+            if (age >= 0 && age < buckets) {
+                total += bucket & COUNT_MASK;
+            }
+        }
+        return (int) Math.min(total, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Libère un anneau dont toutes les cases sont révolues. L'anneau est d'abord scellé : un incrément
+     * concurrent qui le voit scellé attend l'issue, et recommence dans un nouvel anneau s'il a été libéré.
+     */
+    private void evict(Rings rings, int slot, AtomicLongArray ring, long period) {
+        if (!ring.compareAndSet(buckets, 0, SEALED)) {
+            return;
+        }
+        if (sum(ring, period) == 0 && rings.compareAndSet(slot, ring, null)) {
+            return; // reste scellé
+        }
+        ring.set(buckets, 0);
+    }
+
+    /**
+     * @return true si l'anneau a été conservé (l'incrément y est compté), false s'il a été libéré
+     */
+    private static boolean awaitEviction(Rings rings, int slot, AtomicLongArray ring) {
+        while (true) {
+            if (rings.get(slot) != ring) {
+                return false;
+            }
+            if (ring.get(ring.length() - 1) != SEALED) {
+                return true;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private void sweep(long period) {
+        Rings[] current = chunks;
+        int capacity = current.length * CHUNK_SIZE;
+        if (capacity == 0) {
+            return;
+        }
+        for (int i = 0; i < SWEEP_PER_INCREMENT; i++) {
+            int handle = Math.floorMod(sweepCursor.getAndIncrement(), capacity);
+            Rings rings = current[handle >>> CHUNK_SHIFT];
+            if (rings == null) {
+                continue;
+            }
+            int slot = handle & (CHUNK_SIZE - 1);
+            AtomicLongArray ring = rings.get(slot);
+            if (ring != null && sum(ring, period) == 0) {
+                evict(rings, slot, ring, period);
+            }
+        }
+    }
+
+    private Rings ringsOf(int handle) {
+        Rings[] current = chunks;
+        int chunk = handle >>> CHUNK_SHIFT;
+        return handle >= 0 && chunk < current.length ? current[chunk] : null;
+    }
+
+    private Rings ringsFor(int handle) {
+        if (handle < 0) {
+            throw new IllegalArgumentException("Handle invalide: " + handle);
+        }
+        Rings rings = ringsOf(handle);
+        return rings != null ? rings : grow(handle >>> CHUNK_SHIFT);
+    }
+
+    /**
+     * Alloue le bloc d'anneaux d'un handle ; le répertoire agrandi est publié une fois complet
+     */
+    private synchronized Rings grow(int chunk) {
+        Rings[] current = chunks;
+        if (chunk < current.length && current[chunk] != null) {
+            return current[chunk];
+        }
+        Rings[] grown = new Rings[Math.max(chunk + 1, current.length)];
+        System.arraycopy(current, 0, grown, 0, current.length);
+        grown[chunk] = new Rings();
+        chunks = grown;
+        return grown[chunk];
+    }
+
+    /**
+     * Anneaux d'une tranche de handles (tient lieu de tableau générique d'AtomicReferenceArray)
+     */
+    private static final class Rings {
+        private final AtomicReferenceArray<AtomicLongArray> slots = new AtomicReferenceArray<>(CHUNK_SIZE);
+
+        AtomicLongArray get(int slot) {
+            return slots.get(slot);
+        }
+
+        boolean compareAndSet(int slot, AtomicLongArray expected, AtomicLongArray ring) {
+            return slots.compareAndSet(slot, expected, ring);
+        }
+    }
+}
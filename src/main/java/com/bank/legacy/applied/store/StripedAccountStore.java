@@ -0,0 +1,265 @@
+package com.bank.legacy.applied.store;
+
+import com.bank.legacy.old.BankAccount;
+
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Stockage thread-safe des comptes avec verrouillage par bandes (lock striping)
+ *
+ * Chaque numéro de compte est associé à une bande de verrous : deux opérations sur des comptes
+ * de bandes différentes s'exécutent en parallèle. Pour un virement, les deux bandes sont
+ * toujours verrouillées dans l'ordre croissant de leur index afin d'éviter les interblocages.
+ *
+ * Les comptes sont rangés par handle ({@link AccountDirectory}) : le numéro n'est résolu qu'une fois,
+ * les accès suivants par {@link #get(int)} sont une simple lecture de tableau.
+ */
+public class StripedAccountStore {
+
+    private static final int DEFAULT_STRIPES = 256;
+
+    private final AccountDirectory directory = new AccountDirectory();
+    /** Comptes par handle ; remplacé par une copie plus grande quand il est plein */
+    private volatile AtomicReferenceArray<BankAccount> byHandle = new AtomicReferenceArray<>(16);
+    /** Handles attribués à un compte : [0, size) */
+    private volatile int size;
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public StripedAccountStore() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * @param stripeCount nombre de bandes de verrous (arrondi à la puissance de 2 supérieure)
+     */
+    public StripedAccountStore(int stripeCount) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Le nombre de bandes doit être positif");
+        }
+        int size = Integer.highestOneBit(stripeCount);
+        if (size < stripeCount) {
+            size <<= 1;
+        }
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Annuaire qui attribue les handles des comptes rangés ici
+     */
+    public AccountDirectory getDirectory() {
+        return directory;
+    }
+
+    public BankAccount get(String accountNumber) {
+        return get(directory.handleOf(accountNumber));
+    }
+
+    /**
+     * @return le compte du handle, ou null pour un handle inconnu (négatif)
+     */
+    public BankAccount get(int handle) {
+        AtomicReferenceArray<BankAccount> current = byHandle;
+        return handle >= 0 && handle < current.length() ? current.get(handle) : null;
+    }
+
+    /**
+     * @return le handle du compte, ou {@link AccountDirectory#UNKNOWN} s'il n'existe pas
+     */
+    public int handleOf(String accountNumber) {
+        int handle = directory.handleOf(accountNumber);
+        return get(handle) != null ? handle : AccountDirectory.UNKNOWN;
+    }
+
+    /**
+     * Ajoute un compte, ou remplace celui de même numéro (qui garde son handle)
+     */
+    public synchronized void put(BankAccount account) {
+        int handle = directory.intern(account.getAccountNumber());
+        account.setHandle(handle);
+        AtomicReferenceArray<BankAccount> current = byHandle;
+        if (handle >= current.length()) {
+            AtomicReferenceArray<BankAccount> grown = new AtomicReferenceArray<>(current.length() * 2);
+            for (int i = 0; i < current.length(); i++) {
+                grown.set(i, current.get(i));
+            }
+            byHandle = grown;
+            current = grown;
+        }
+        current.set(handle, account);
+        if (handle >= size) {
+            size = handle + 1;
+        }
+    }
+
+    /**
+     * Vue en lecture seule des comptes existant à cet instant, dans l'ordre des handles
+     */
+    public List<BankAccount> values() {
+        int n = size;
+        // Lu après size : le tableau couvre tous les handles < n
+        return new Accounts(byHandle, n);
+    }
+
+    /**
+     * Parcourt les comptes en parallèle (pool fork-join commun) : l'espace des handles est
+     * découpé en sous-tâches dès qu'il dépasse parallelismThreshold éléments.
+     * L'action ne reçoit pas la bande verrouillée : à elle de prendre le verrou si besoin.
+     */
+    public void forEachParallel(long parallelismThreshold, Consumer<BankAccount> action) {
+        int n = size;
+        AtomicReferenceArray<BankAccount> current = byHandle;
+        IntStream handles = IntStream.range(0, n);
+        if (n >= parallelismThreshold) {
+            handles = handles.parallel();
+        }
+        handles.forEach(handle -> action.accept(current.get(handle)));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Verrouille la bande d'un compte (un numéro null ne verrouille rien)
+     */
+    public void lock(String accountNumber) {
+        if (accountNumber != null) {
+            stripes[stripeIndex(accountNumber)].lock();
+        }
+    }
+
+    public void unlock(String accountNumber) {
+        if (accountNumber != null) {
+            stripes[stripeIndex(accountNumber)].unlock();
+        }
+    }
+
+    /**
+     * Verrouille les bandes de deux comptes dans un ordre global pour éviter les interblocages.
+     * Les numéros null sont ignorés ; deux comptes de la même bande ne la verrouillent qu'une fois.
+     */
+    public void lockBoth(String first, String second) {
+        if (first == null) {
+            lock(second);
+            return;
+        }
+        if (second == null) {
+            lock(first);
+            return;
+        }
+        int a = stripeIndex(first);
+        int b = stripeIndex(second);
+        if (a == b) {
+            stripes[a].lock();
+        } else {
+            stripes[Math.min(a, b)].lock();
+            stripes[Math.max(a, b)].lock();
+        }
+    }
+
+    public void unlockBoth(String first, String second) {
+        if (first == null) {
+            unlock(second);
+            return;
+        }
+        if (second == null) {
+            unlock(first);
+            return;
+        }
+        int a = stripeIndex(first);
+        int b = stripeIndex(second);
+        if (a == b) {
+            stripes[a].unlock();
+        } else {
+            stripes[Math.max(a, b)].unlock();
+            stripes[Math.min(a, b)].unlock();
+        }
+    }
+
+    /**
+     * Bandes couvrant un ensemble de comptes, sans doublon et dans l'ordre croissant
+     * (l'ordre global de verrouillage). Les numéros null sont ignorés.
+     */
+    public int[] stripesOf(Iterable<String> accountNumbers) {
+        BitSet used = new BitSet(stripes.length);
+        for (String accountNumber : accountNumbers) {
+            if (accountNumber != null) {
+                used.set(stripeIndex(accountNumber));
+            }
+        }
+        return used.stream().toArray();
+    }
+
+    /**
+     * Verrouille des bandes obtenues par {@link #stripesOf}, dans l'ordre croissant
+     */
+    public void lockStripes(int[] stripeIndexes) {
+        lockStripes(stripeIndexes, stripeIndexes.length);
+    }
+
+    public void unlockStripes(int[] stripeIndexes) {
+        unlockStripes(stripeIndexes, stripeIndexes.length);
+    }
+
+    /**
+     * Verrouille les count premières bandes du tableau, rangées dans l'ordre croissant
+     */
+    public void lockStripes(int[] stripeIndexes, int count) {
+        for (int i = 0; i < count; i++) {
+            stripes[stripeIndexes[i]].lock();
+        }
+    }
+
+    public void unlockStripes(int[] stripeIndexes, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            stripes[stripeIndexes[i]].unlock();
+        }
+    }
+
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    /**
+     * Bande d'un numéro de compte (non null)
+     */
+    public int stripeIndex(String accountNumber) {
+        int h = accountNumber.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private static final class Accounts extends AbstractList<BankAccount> implements RandomAccess {
+        private final AtomicReferenceArray<BankAccount> accounts;
+        private final int size;
+
+        Accounts(AtomicReferenceArray<BankAccount> accounts, int size) {
+            this.accounts = accounts;
+            this.size = size;
+        }
+
+        @Override
+        public BankAccount get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", taille: " + size);
+            }
+            return accounts.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
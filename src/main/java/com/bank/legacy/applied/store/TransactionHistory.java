@@ -0,0 +1,251 @@
+package com.bank.legacy.applied.store;
+
+import com.bank.legacy.old.Transaction;
+import com.bank.legacy.old.TransactionType;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Historique des transactions d'un compte, tenu trié à l'insertion pour répondre aux requêtes
+ * sans copier ni trier tout l'historique à chaque appel :
+ * - journal chronologique (clé = date en millisecondes) : plage de dates par recherche dichotomique
+ * - un journal chronologique par type : pagination directe
+ * - les {@link #TOP_CAPACITY} plus gros montants (clé = centimes), dans un index borné
+ *
+ * S'y ajoute le journal d'arrivée ({@link AppendLog}), dont la vue s'obtient en O(1) sans copie.
+ *
+ * Les transactions arrivant dans l'ordre chronologique, l'insertion dans les journaux est un ajout
+ * en fin (une recherche dichotomique et un décalage pour une transaction en retard) et l'index borné
+ * ne décale jamais plus de TOP_CAPACITY éléments : construire un long historique reste linéaire. À clé égale, l'ordre d'arrivée
+ * est conservé. Seul le parcours complet par montant ({@link #byAmount}) demande un tri, fait à
+ * la première requête qui suit un ajout puis réutilisé.
+ *
+ * Une requête n'alloue que sa page de résultats, hors ce tri. Les méthodes sont synchronisées sur
+ * l'historique (un verrou par compte), sauf la vue d'arrivée.
+ */
+public class TransactionHistory {
+
+    /** Nombre de plus gros montants tenus à jour à l'insertion */
+    public static final int TOP_CAPACITY = 128;
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+    // Montant croissant, ordre d'arrivée à montant égal (tri stable)
+    private static final Comparator<Transaction> BY_AMOUNT = Comparator.comparingLong(Transaction::getAmountMinor);
+
+    private final AppendLog<Transaction> arrivals = new AppendLog<>();
+    private final OrderedRun byTime = new OrderedRun();
+    private final OrderedRun top = new OrderedRun();
+    /** Un journal par type, le dernier pour les types inconnus */
+    private final OrderedRun[] byType = new OrderedRun[TYPES.length + 1];
+    /** Historique trié par montant, construit à la demande ; null après un ajout */
+    private Transaction[] amountOrder;
+
+    public TransactionHistory() {
+        for (int i = 0; i < byType.length; i++) {
+            byType[i] = new OrderedRun();
+        }
+    }
+
+    public synchronized void add(Transaction tx) {
+        long time = tx.getTransactionDate().getTime();
+        arrivals.append(tx);
+        byTime.insert(time, tx);
+        top.insertBounded(tx.getAmountMinor(), tx, TOP_CAPACITY);
+        amountOrder = null;
+        TransactionType type = tx.getTransactionType();
+        byType[type != null ? type.ordinal() : TYPES.length].insert(time, tx);
+    }
+
+    public int size() {
+        return arrivals.size();
+    }
+
+    /**
+     * Vue en lecture seule de toutes les transactions, dans l'ordre d'arrivée, sans copie ni verrou
+     */
+    public List<Transaction> snapshot() {
+        return arrivals.snapshot();
+    }
+
+    /**
+     * Transactions dont la date est dans [fromMillis, toMillis), dans l'ordre chronologique
+     */
+    public synchronized List<Transaction> between(long fromMillis, long toMillis) {
+        int start = byTime.lowerBound(fromMillis);
+        int end = Math.max(start, byTime.lowerBound(toMillis));
+        return byTime.page(start, end);
+    }
+
+    /**
+     * Les n transactions de plus gros montant, par montant décroissant
+     */
+    public synchronized List<Transaction> topByAmount(int n) {
+        int count = Math.min(Math.max(n, 0), arrivals.size());
+        if (count == 0) {
+            return List.of();
+        }
+        // Au-delà de l'index borné : parcours de l'historique trié
+        Transaction[] sorted = count <= top.size ? top.items : amountOrder();
+        int last = count <= top.size ? top.size - 1 : sorted.length - 1;
+        Transaction[] page = new Transaction[count];
+        for (int i = 0; i < count; i++) {
+            page[i] = sorted[last - i];
+        }
+        return Arrays.asList(page);
+    }
+
+    /**
+     * Transactions par montant croissant, à partir du rang offset (au plus limit)
+     */
+    public synchronized List<Transaction> byAmount(int offset, int limit) {
+        int size = arrivals.size();
+        int start = Math.min(Math.max(offset, 0), size);
+        int end = start + Math.min(Math.max(limit, 0), size - start);
+        return start == end ? List.of() : Arrays.asList(Arrays.copyOfRange(amountOrder(), start, end));
+    }
+
+    public synchronized int countOfType(TransactionType type) {
+        return byType[type.ordinal()].size;
+    }
+
+    /**
+     * Page numéro page (à partir de 0) des transactions d'un type, dans l'ordre chronologique
+     */
+    public synchronized List<Transaction> ofType(TransactionType type, int page, int pageSize) {
+        OrderedRun run = byType[type.ordinal()];
+        long offset = (long) Math.max(page, 0) * Math.max(pageSize, 0);
+        int start = (int) Math.min(offset, run.size);
+        return run.page(start, start + Math.min(Math.max(pageSize, 0), run.size - start));
+    }
+
+    /**
+     * Variante par code de type : un code inconnu est cherché parmi les transactions de type inconnu
+     */
+    public synchronized List<Transaction> ofType(String typeCode, int page, int pageSize) {
+        TransactionType type = TransactionType.fromCode(typeCode);
+        if (type != null) {
+            return ofType(type, page, pageSize);
+        }
+        OrderedRun others = byType[TYPES.length];
+        if (typeCode == null || others.size == 0 || pageSize <= 0) {
+            return List.of();
+        }
+        long skip = (long) Math.max(page, 0) * pageSize;
+        Transaction[] result = null;
+        int count = 0;
+        for (int i = 0; i < others.size && count < pageSize; i++) {
+            Transaction tx = others.items[i];
+            if (!typeCode.equals(tx.getType())) {
+                continue;
+            }
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            if (result == null) {
+                result = new Transaction[Math.min(pageSize, others.size - i)];
+            }
+            result[count++] = tx;
+        }
+        if (count == 0) {
+            return List.of();
+        }
+        return Arrays.asList(count == result.length ? result : Arrays.copyOf(result, count));
+    }
+
+    private Transaction[] amountOrder() {
+        Transaction[] sorted = amountOrder;
+        if (sorted == null) {
+            // L'ordre d'arrivée sert de départ : le tri stable le conserve à montant égal
+            sorted = arrivals.snapshot().toArray(new Transaction[0]);
+            Arrays.sort(sorted, BY_AMOUNT);
+            amountOrder = sorted;
+        }
+        return sorted;
+    }
+
+    /**
+     * Transactions rangées par clé croissante, avec la clé à côté pour la recherche dichotomique
+     */
+    private static final class OrderedRun {
+        private static final long[] NO_KEYS = new long[0];
+        private static final Transaction[] NO_ITEMS = new Transaction[0];
+
+        // Alloués au premier ajout : la plupart des comptes n'ont pas d'historique en mémoire
+        private long[] keys = NO_KEYS;
+        private Transaction[] items = NO_ITEMS;
+        private int size;
+
+        void insert(long key, Transaction tx) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, Math.max(8, size * 2));
+                items = Arrays.copyOf(items, Math.max(8, size * 2));
+            }
+            // Dernière position possible : l'ordre d'arrivée est conservé à clé égale
+            int at = upperBound(key);
+            if (at < size) {
+                System.arraycopy(keys, at, keys, at + 1, size - at);
+                System.arraycopy(items, at, items, at + 1, size - at);
+            }
+            keys[at] = key;
+            items[at] = tx;
+            size++;
+        }
+
+        /**
+         * Insère en ne gardant que les capacity plus grandes clés : la plus petite (la plus ancienne
+         * à clé égale) sort quand l'index est plein
+         */
+        void insertBounded(long key, Transaction tx, int capacity) {
+            if (size == capacity) {
+                if (key < keys[0]) {
+                    return;
+                }
+                System.arraycopy(keys, 1, keys, 0, size - 1);
+                System.arraycopy(items, 1, items, 0, size - 1);
+                items[--size] = null;
+            }
+            insert(key, tx);
+        }
+
+        /** Premier indice dont la clé est >= key */
+        int lowerBound(long key) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid] < key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /** Premier indice dont la clé est > key */
+        int upperBound(long key) {
+            // Cas courant : la clé arrive en dernier
+            if (size == 0 || keys[size - 1] <= key) {
+                return size;
+            }
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid] <= key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        List<Transaction> page(int start, int end) {
+            return start == end ? List.of() : Arrays.asList(Arrays.copyOfRange(items, start, end));
+        }
+    }
+}
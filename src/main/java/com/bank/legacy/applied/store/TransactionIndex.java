@@ -0,0 +1,81 @@
+package com.bank.legacy.applied.store;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Index secondaire : handle de compte ({@link AccountDirectory}) -> positions (dans l'ordre d'arrivée) de ses transactions
+ * dans le grand livre global.
+ *
+ * Un relevé ne parcourt ainsi que l'historique du compte concerné, et non tout le grand livre.
+ * Les ajouts doivent être sérialisés par l'appelant (ils sont faits sous le verrou du grand livre) ;
+ * les lectures peuvent être concurrentes.
+ */
+public class TransactionIndex {
+
+    private static final Positions EMPTY = new Positions();
+
+    /** Positions par handle ; remplacé par une copie plus grande quand il est plein */
+    private volatile AtomicReferenceArray<Positions> byAccount = new AtomicReferenceArray<>(16);
+
+    /**
+     * Ajoute la position d'une transaction à l'historique d'un compte
+     */
+    public void add(int accountHandle, int position) {
+        AtomicReferenceArray<Positions> current = byAccount;
+        if (accountHandle >= current.length()) {
+            AtomicReferenceArray<Positions> grown =
+                new AtomicReferenceArray<>(Math.max(current.length() * 2, accountHandle + 1));
+            for (int i = 0; i < current.length(); i++) {
+                grown.set(i, current.get(i));
+            }
+            byAccount = grown;
+            current = grown;
+        }
+        Positions positions = current.get(accountHandle);
+        if (positions == null) {
+            positions = new Positions();
+            current.set(accountHandle, positions);
+        }
+        positions.append(position);
+    }
+
+    /**
+     * Retourne les positions des transactions d'un compte (vue en lecture seule)
+     */
+    public Positions positionsOf(int accountHandle) {
+        AtomicReferenceArray<Positions> current = byAccount;
+        Positions positions = accountHandle >= 0 && accountHandle < current.length() ? current.get(accountHandle) : null;
+        return positions != null ? positions : EMPTY;
+    }
+
+    /**
+     * Liste de positions à croissance par doublement, sans boxing
+     */
+    public static final class Positions {
+        private int[] values = new int[8];
+        private volatile int size;
+
+        private void append(int position) {
+            int n = size;
+            if (n == values.length) {
+                int[] grown = new int[n * 2];
+                System.arraycopy(values, 0, grown, 0, n);
+                values = grown;
+            }
+            values[n] = position;
+            // La publication de size rend visibles le tableau et la nouvelle valeur
+            size = n + 1;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public int get(int i) {
+            if (i >= size) {
+                throw new IndexOutOfBoundsException("Index: " + i + ", taille: " + size);
+            }
+            return values[i];
+        }
+    }
+}
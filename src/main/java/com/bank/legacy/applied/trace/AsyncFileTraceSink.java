@@ -0,0 +1,102 @@
+package com.bank.legacy.applied.trace;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Écrit les traces dans un fichier (ajout en fin), depuis un thread dédié : l'appelant ne fait que
+ * déposer la trace dans une file bornée, sans attendre le disque. File pleine : la trace est
+ * abandonnée et comptée ({@link #getDropped}) plutôt que de ralentir les validations.
+ *
+ * Le thread écrit par paquets et vide le tampon dès que la file est vide ; {@link #close} écrit
+ * les traces restantes puis ferme le fichier.
+ */
+public class AsyncFileTraceSink implements TraceSink, Closeable {
+
+    private static final int DRAIN_BATCH = 1024;
+
+    private final ArrayBlockingQueue<TraceEntry> queue;
+    private final BufferedWriter writer;
+    private final Thread drainThread;
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean running = true;
+    private volatile IOException failure;
+
+    /**
+     * @param capacity nombre de traces en attente d'écriture au plus
+     */
+    public AsyncFileTraceSink(Path file, int capacity) throws IOException {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                                              StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        this.drainThread = new Thread(this::drain, "trace-drain-" + file.getFileName());
+        drainThread.setDaemon(true);
+        drainThread.start();
+    }
+
+    @Override
+    public void trace(long timeMillis, String source, TraceLevel level, String message) {
+        if (!running || !queue.offer(new TraceEntry(timeMillis, source, level, message))) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return le nombre de traces abandonnées (file pleine ou destination fermée)
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            drainThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void drain() {
+        List<TraceEntry> batch = new ArrayList<>(DRAIN_BATCH);
+        try {
+            while (running || !queue.isEmpty()) {
+                TraceEntry first = queue.poll(50, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, DRAIN_BATCH - 1);
+                for (TraceEntry entry : batch) {
+                    writer.write(entry.toString());
+                    writer.newLine();
+                }
+                batch.clear();
+                if (queue.isEmpty()) {
+                    writer.flush();
+                }
+            }
+            writer.flush();
+        } catch (IOException e) {
+            failure = e;
+            running = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.bank.legacy.applied.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Garde en mémoire les N dernières traces de chaque source (validateur), sans verrou : une trace
+ * prend la case suivante de l'anneau de sa source par incrément atomique et écrase la plus ancienne.
+ * Rien n'est écrit ni formaté ; les traces se consultent à la demande par {@link #recent}.
+ */
+public class RingTraceSink implements TraceSink {
+
+    private final int capacity;
+    private final ConcurrentHashMap<String, Ring> rings = new ConcurrentHashMap<>();
+
+    /**
+     * @param capacity nombre de traces gardées par source
+     */
+    public RingTraceSink(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("La capacité doit être positive");
+        }
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void trace(long timeMillis, String source, TraceLevel level, String message) {
+        Ring ring = rings.get(source);
+        if (ring == null) {
+            ring = rings.computeIfAbsent(source, s -> new Ring(capacity));
+        }
+        long sequence = ring.next.getAndIncrement();
+        ring.entries.set((int) (sequence % capacity), new TraceEntry(timeMillis, source, level, message));
+    }
+
+    /**
+     * @return les dernières traces de la source, de la plus ancienne à la plus récente (une trace
+     *         écrite pendant la lecture peut en remplacer une autre)
+     */
+    public List<TraceEntry> recent(String source) {
+        Ring ring = rings.get(source);
+        List<TraceEntry> recent = new ArrayList<>();
+        if (ring == null) {
+            return recent;
+        }
+        long end = ring.next.get();
+        for (long sequence = Math.max(0, end - capacity); sequence < end; sequence++) {
+            TraceEntry entry = ring.entries.get((int) (sequence % capacity));
+            if (entry != null) {
+                recent.add(entry);
+            }
+        }
+        return recent;
+    }
+
+    /**
+     * @return le nombre de traces reçues de la source depuis la création (conservées ou écrasées)
+     */
+    public long count(String source) {
+        Ring ring = rings.get(source);
+        return ring != null ? ring.next.get() : 0;
+    }
+
+    private static final class Ring {
+        final AtomicLong next = new AtomicLong();
+        final AtomicReferenceArray<TraceEntry> entries;
+
+        Ring(int capacity) {
+            entries = new AtomicReferenceArray<>(capacity);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.bank.legacy.applied.trace;
+
+import java.time.Instant;
+
+/**
+ * Une trace conservée (RingTraceSink) ou en attente d'écriture (AsyncFileTraceSink)
+ */
+public final class TraceEntry {
+
+    private final long timeMillis;
+    private final String source;
+    private final TraceLevel level;
+    private final String message;
+
+    public TraceEntry(long timeMillis, String source, TraceLevel level, String message) {
+        this.timeMillis = timeMillis;
+        this.source = source;
+        this.level = level;
+        this.message = message;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public TraceLevel getLevel() {
+        return level;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return Instant.ofEpochMilli(timeMillis) + " " + level + " [" + source + "] " + message;
+    }
+}
@@ -0,0 +1,13 @@
+package com.bank.legacy.applied.trace;
+
+/**
+ * Niveaux de trace, du plus restrictif au plus bavard
+ */
+public enum TraceLevel {
+    /** Aucune trace */
+    OFF,
+    /** Décisions : acceptation ou rejet par chaque contrôle */
+    DECISION,
+    /** Décisions et étapes intermédiaires (valeurs vérifiées...) */
+    DETAIL
+}
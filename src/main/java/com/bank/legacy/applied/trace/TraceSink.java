@@ -0,0 +1,28 @@
+package com.bank.legacy.applied.trace;
+
+/**
+ * Destination des traces retenues par {@link Tracer}. Appelée par les threads qui valident :
+ * une implémentation doit être thread-safe et rapide (pas d'E/S bloquante).
+ */
+public interface TraceSink {
+
+    /**
+     * Affichage console historique : "[source] message"
+     */
+    TraceSink CONSOLE = (timeMillis, source, level, message) ->
+        System.out.println("[" + source + "] " + message);
+
+    void trace(long timeMillis, String source, TraceLevel level, String message);
+
+    /**
+     * Envoie chaque trace à toutes les destinations, dans l'ordre
+     */
+    static TraceSink tee(TraceSink... sinks) {
+        TraceSink[] copy = sinks.clone();
+        return (timeMillis, source, level, message) -> {
+            for (TraceSink sink : copy) {
+                sink.trace(timeMillis, source, level, message);
+            }
+        };
+    }
+}
@@ -0,0 +1,74 @@
+package com.bank.legacy.applied.trace;
+
+import java.util.function.Supplier;
+
+/**
+ * Réglage global des traces de validation : niveau retenu et destination.
+ *
+ * Désactivé par défaut. Le contrôle du niveau est une lecture volatile et une comparaison : un appelant
+ * qui teste {@link #isEnabled} avant de construire son message (ou qui passe un Supplier) ne paie
+ * rien d'autre quand la trace est coupée.
+ */
+public final class Tracer {
+
+    // Ordinal du niveau retenu, et destination, publiés ensemble
+    private static volatile Config config = new Config(TraceLevel.OFF, TraceSink.CONSOLE);
+
+    private Tracer() {
+    }
+
+    /**
+     * Retient les traces jusqu'au niveau donné et les envoie à la destination
+     */
+    public static void configure(TraceLevel level, TraceSink sink) {
+        if (level == null || sink == null) {
+            throw new IllegalArgumentException("Niveau et destination requis");
+        }
+        config = new Config(level, sink);
+    }
+
+    /**
+     * Coupe toutes les traces
+     */
+    public static void disable() {
+        config = new Config(TraceLevel.OFF, config.sink);
+    }
+
+    public static TraceLevel getLevel() {
+        return config.level;
+    }
+
+    public static boolean isEnabled(TraceLevel level) {
+        return level.ordinal() <= config.threshold;
+    }
+
+    public static void emit(String source, TraceLevel level, String message) {
+        Config current = config;
+        if (level.ordinal() <= current.threshold) {
+            current.sink.trace(System.currentTimeMillis(), source, level, message);
+        }
+    }
+
+    /**
+     * Message construit seulement si le niveau est retenu
+     */
+    public static void emit(String source, TraceLevel level, Supplier<String> message) {
+        Config current = config;
+        if (level.ordinal() <= current.threshold) {
+            current.sink.trace(System.currentTimeMillis(), source, level, message.get());
+        }
+    }
+
+    private static final class Config {
+        final TraceLevel level;
+        final int threshold;
+        final TraceSink sink;
+
+        Config(TraceLevel level, TraceSink sink) {
+            this.level = level;
+            // OFF (0) ne retient rien : aucun niveau émis n'a un ordinal nul
+            this.threshold = level == TraceLevel.OFF ? -1 : level.ordinal();
+            this.sink = sink;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.bank.legacy.old;
+
+/**
+ * États d'un compte (mêmes codes que les états du pattern State)
+ */
+public enum AccountStatus {
+    ACTIVE,
+    SUSPENDED,
+    FROZEN,
+    CLOSED;
+
+    /**
+     * Conversion depuis l'API texte
+     * @return null pour un état inconnu (ou null)
+     */
+    public static AccountStatus fromCode(String code) {
+        if (code == null) {
+            return null;
+        }
+        switch (code) {
+            case "ACTIVE": return ACTIVE;
+            case "SUSPENDED": return SUSPENDED;
+            case "FROZEN": return FROZEN;
+            case "CLOSED": return CLOSED;
+            default: return null;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.bank.legacy.old;
+
+import com.bank.legacy.applied.money.Money;
+
+/**
+ * Types de compte et leurs paramètres : la table de dispatch des frais et des règles
+ * d'ouverture remplace les comparaisons de chaînes du BankingService.
+ * Tous les montants sont en centimes.
+ */
+public enum AccountType {
+    //            dépôt min.  taux  découvert   seuil retrait  frais <= seuil  frais > seuil  virement
+    COURANT(      100_00,     0.0,  500_00,     1000_00,       0,              250,           100),
+    EPARGNE(      500_00,     2.5,  0,          Long.MAX_VALUE, 100,           100,           250),
+    PROFESSIONNEL(1000_00,    0.5,  2000_00,    5000_00,       200,            500,           50);
+
+    private final long minimumDepositMinor;
+    private final double interestRate;
+    private final long overdraftLimitMinor;
+    private final long withdrawalThresholdMinor;
+    private final long withdrawalFeeMinor;
+    private final long largeWithdrawalFeeMinor;
+    private final long transferFeeMinor;
+
+    AccountType(long minimumDepositMinor, double interestRate, long overdraftLimitMinor,
+                long withdrawalThresholdMinor, long withdrawalFeeMinor, long largeWithdrawalFeeMinor,
+                long transferFeeMinor) {
+        this.minimumDepositMinor = minimumDepositMinor;
+        this.interestRate = interestRate;
+        this.overdraftLimitMinor = overdraftLimitMinor;
+        this.withdrawalThresholdMinor = withdrawalThresholdMinor;
+        this.withdrawalFeeMinor = withdrawalFeeMinor;
+        this.largeWithdrawalFeeMinor = largeWithdrawalFeeMinor;
+        this.transferFeeMinor = transferFeeMinor;
+    }
+
+    /**
+     * Conversion depuis l'API texte
+     * @return null pour un type inconnu (ou null)
+     */
+    public static AccountType fromCode(String code) {
+        if (code == null) {
+            return null;
+        }
+        switch (code) {
+            case "COURANT": return COURANT;
+            case "EPARGNE": return EPARGNE;
+            case "PROFESSIONNEL": return PROFESSIONNEL;
+            default: return null;
+        }
+    }
+
+    public long getMinimumDepositMinor() { return minimumDepositMinor; }
+    public double getMinimumDeposit() { return Money.toMajor(minimumDepositMinor); }
+    public double getInterestRate() { return interestRate; }
+    public double getOverdraftLimit() { return Money.toMajor(overdraftLimitMinor); }
+
+    /**
+     * Seuls les comptes épargne et professionnels produisent des intérêts
+     */
+    public boolean isInterestBearing() {
+        return interestRate > 0;
+    }
+
+    /**
+     * Frais de retrait en centimes pour un montant donné (en centimes)
+     */
+    public long withdrawalFees(long amountMinor) {
+        return amountMinor > withdrawalThresholdMinor ? largeWithdrawalFeeMinor : withdrawalFeeMinor;
+    }
+
+    /**
+     * Frais de virement en centimes, prélevés sur le compte source
+     */
+    public long transferFees() {
+        return transferFeeMinor;
+    }
+}
@@ -1,6 +1,9 @@
 package com.bank.legacy.old;
 
-import java.util.ArrayList;
+import com.bank.legacy.applied.decorator2.FeeCalculator;
+import com.bank.legacy.applied.money.Money;
+import com.bank.legacy.applied.store.TransactionHistory;
+
 import java.util.Date;
 import java.util.List;
 
@@ -11,35 +14,30 @@ import java.util.List;
  * - Logique métier mélangée
  * - Pas de validation cohérente
  * - Couplage fort
+ *
+ * Ne porte que l'état froid (numéro, type, coordonnées client, historique) ; l'état chaud (solde,
+ * taux, découvert, état, date d'ouverture, séquence du journal) est tenu par la sous-classe :
+ * sur le tas ({@link HeapBankAccount}, à construire directement) ou dans un grand livre hors tas
+ * (OffHeapBankAccount).
  */
-public class BankAccount {
-    private String accountNumber;
-    private String accountType; // "COURANT", "EPARGNE", "PROFESSIONNEL"
-    private String customerName;
-    private String customerEmail;
-    private String customerPhone;
-    private double balance;
-    private double interestRate;
-    private double overdraftLimit;
-    private Date creationDate;
-    private String status; // "ACTIVE", "SUSPENDED", "CLOSED"
-    private List<Transaction> transactions; // Liste des transactions
+public abstract class BankAccount {
+    private final String accountNumber;
+    private final String accountType; // "COURANT", "EPARGNE", "PROFESSIONNEL"
+    private final AccountType type; // null pour un type inconnu
+    private final String customerName;
+    private final String customerEmail;
+    private final String customerPhone;
+    private volatile TransactionHistory transactions; // Historique trié (date, montant, type), créé au premier ajout
+    private int handle = -1; // Identifiant entier dense attribué par le stockage des comptes
 
-    // Constructeur monolithique avec trop de paramètres
-    public BankAccount(String accountNumber, String accountType, String customerName,
-                       String customerEmail, String customerPhone, double initialDeposit,
-                       double interestRate, double overdraftLimit) {
+    protected BankAccount(String accountNumber, String accountType, String customerName,
+                          String customerEmail, String customerPhone) {
         this.accountNumber = accountNumber;
         this.accountType = accountType;
+        this.type = AccountType.fromCode(accountType);
         this.customerName = customerName;
         this.customerEmail = customerEmail;
         this.customerPhone = customerPhone;
-        this.balance = initialDeposit;
-        this.interestRate = interestRate;
-        this.overdraftLimit = overdraftLimit;
-        this.creationDate = new Date();
-        this.status = "ACTIVE";
-        this.transactions = new ArrayList<>();
     }
 
     // Getters et setters basiques
@@ -48,21 +46,62 @@ public class BankAccount {
     public String getCustomerName() { return customerName; }
     public String getCustomerEmail() { return customerEmail; }
     public String getCustomerPhone() { return customerPhone; }
-    public double getBalance() { return balance; }
-    public double getInterestRate() { return interestRate; }
-    public double getOverdraftLimit() { return overdraftLimit; }
-    public Date getCreationDate() { return creationDate; }
-    public String getStatus() { return status; }
+    public double getBalance() { return Money.toMajor(getBalanceMinor()); }
+    public abstract double getInterestRate();
+    public double getOverdraftLimit() { return Money.toMajor(getOverdraftLimitMinor()); }
+    public abstract Date getCreationDate();
+    public abstract String getStatus();
+
+    public void setBalance(double balance) { setBalanceMinor(Money.toMinor(balance)); }
+    public abstract void setStatus(String status);
+
+    // Types énumérés pour les chemins critiques (pas de comparaison de chaînes)
+    public AccountType getType() { return type; }
+    public abstract AccountStatus getStatusCode();
+    public abstract void setStatus(AccountStatus status);
+
+    // Montants en centimes (arithmétique exacte sur les chemins critiques)
+    public abstract long getBalanceMinor();
+    public abstract void setBalanceMinor(long balance);
+    public abstract long getOverdraftLimitMinor();
+    public Money getBalanceMoney() { return Money.of(getBalanceMinor(), FeeCalculator.Currency.EUR); }
 
-    public void setBalance(double balance) { this.balance = balance; }
-    public void setStatus(String status) { this.status = status; }
+    // Dernier enregistrement du journal appliqué au compte (-1 : aucun)
+    public abstract long getJournalSequence();
+    public abstract void setJournalSequence(long journalSequence);
+
+    // Handle du compte dans son StripedAccountStore (-1 tant qu'il n'y est pas rangé)
+    public int getHandle() { return handle; }
+    public void setHandle(int handle) { this.handle = handle; }
 
     // Méthodes pour gérer les transactions
     public void addTransaction(Transaction transaction) {
-        this.transactions.add(transaction);
+        getHistory().add(transaction);
     }
 
+    /**
+     * Vue en lecture seule de l'historique, dans l'ordre d'ajout, obtenue en O(1) sans copie.
+     * Les ajouts ultérieurs n'y apparaissent pas.
+     */
     public List<Transaction> getTransactions() {
-        return new ArrayList<>(transactions);
+        TransactionHistory history = transactions;
+        return history != null ? history.snapshot() : List.of();
+    }
+
+    /**
+     * Historique interrogeable sans copie complète (plage de dates, plus gros montants, type paginé)
+     */
+    public TransactionHistory getHistory() {
+        TransactionHistory history = transactions;
+        if (history == null) {
+            synchronized (this) {
+                history = transactions;
+                if (history == null) {
+                    history = new TransactionHistory();
+                    transactions = history;
+                }
+            }
+        }
+        return history;
     }
 }
@@ -1,6 +1,39 @@
 package com.bank.legacy.old;
 
+import com.bank.legacy.applied.batch.BatchResult;
+import com.bank.legacy.applied.batch.BatchWorkspace;
+import com.bank.legacy.applied.batch.InterestRunSummary;
+import com.bank.legacy.applied.batch.TransactionRequest;
+import com.bank.legacy.applied.batch.WorkingBalances;
+import com.bank.legacy.applied.decorator2.FeeCalculator;
+import com.bank.legacy.applied.journal.BalanceSnapshot;
+import com.bank.legacy.applied.journal.JournalReader;
+import com.bank.legacy.applied.journal.JournalRecord;
+import com.bank.legacy.applied.journal.TransactionJournal;
+import com.bank.legacy.applied.money.Money;
+import com.bank.legacy.applied.shard.TransferReservation;
+import com.bank.legacy.applied.store.AppendLog;
+import com.bank.legacy.applied.store.ColumnarTransactionStore;
+import com.bank.legacy.applied.store.IdempotencyCache;
+import com.bank.legacy.applied.store.OffHeapAccountLedger;
+import com.bank.legacy.applied.store.OffHeapBankAccount;
+import com.bank.legacy.applied.store.StripedAccountStore;
+import com.bank.legacy.applied.store.TransactionIndex;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Service bancaire principal (CODE LEGACY HORRIBLE - À REFACTORER)
@@ -11,153 +44,460 @@ import java.util.*;
  * - Pas de séparation des préoccupations
  * - Calculs de frais en dur
  * - Validation dispersée
+ *
+ * Les comptes sont stockés dans un StripedAccountStore : processTransaction peut être appelé
+ * depuis plusieurs threads (verrou par bande de comptes, identifiants générés atomiquement).
  */
 public class BankingService {
 
-    private Map<String, BankAccount> accounts = new HashMap<>();
-    private List<Transaction> transactions = new ArrayList<>();
-    private int accountCounter = 1000;
-    private int transactionCounter = 1;
+    private final StripedAccountStore accounts = new StripedAccountStore();
+    private final AppendLog<Transaction> transactions = new AppendLog<>(); // grand livre ; ajouts sous son verrou
+    private final TransactionIndex transactionIndex = new TransactionIndex();
+    // Copie en colonnes du grand livre, tenue seulement à la demande (enableColumnarStore)
+    private volatile ColumnarTransactionStore columnarStore;
+    private static final int BATCH_CHUNK = 4096;
+    private static final long INTEREST_PARALLELISM_THRESHOLD = 10_000;
+    private static final int IDEMPOTENCY_MAX_KEYS = 100_000;
+    private static final long IDEMPOTENCY_WINDOW_MILLIS = 24 * 60 * 60 * 1000L;
 
-    public BankAccount createAccount(String type, String name, String email, String phone, double initialDeposit) {
-        String accountNumber = "ACC" + (accountCounter++);
+    private final AtomicInteger accountCounter = new AtomicInteger(1000);
+    private final AtomicInteger transactionCounter = new AtomicInteger(1);
+    private final String transactionPrefix;
+    private final OffHeapAccountLedger offHeapLedger; // null : état des comptes sur le tas
+    private volatile TransactionJournal journal;
+    // Virements entre shards réservés, ni confirmés ni annulés (par identifiant) ; une réservation est
+    // journalisée et inscrite sous ce verrou, que takeSnapshot prend pour lire sa séquence de départ
+    private final Map<String, TransferReservation> openReservations = new HashMap<>();
+    private final IdempotencyCache<Transaction> idempotency =
+        new IdempotencyCache<>(IDEMPOTENCY_MAX_KEYS, IDEMPOTENCY_WINDOW_MILLIS);
 
-        BankAccount account = null;
+    public BankingService() {
+        this("TX");
+    }
 
-        // CODE DUPLIQUÉ et LOGIQUE EN DUR
-        if (type.equals("COURANT")) {
-            // Validation manuelle pour compte courant
-            if (initialDeposit < 100) {
-                System.out.println("ERREUR: Dépôt initial minimum 100 EUR pour compte courant");
-                return null;
+    /**
+     * @param transactionPrefix préfixe des identifiants de transaction ("TX" par défaut) : des
+     *                          services indépendants (shards) ne doivent pas produire les mêmes identifiants
+     */
+    public BankingService(String transactionPrefix) {
+        this(transactionPrefix, null);
+    }
+
+    /**
+     * @param offHeapLedger grand livre hors tas où ranger l'état des comptes (OffHeapBankAccount),
+     *                      null pour des BankAccount ordinaires
+     */
+    public BankingService(String transactionPrefix, OffHeapAccountLedger offHeapLedger) {
+        this.transactionPrefix = transactionPrefix;
+        this.offHeapLedger = offHeapLedger;
+    }
+
+    /**
+     * Active la journalisation persistante : chaque ouverture de compte, transaction et
+     * versement d'intérêts est écrit dans le journal fourni
+     *
+     * @throws IllegalArgumentException si le préfixe des transactions ou un compte déjà ouvert
+     *                                  produirait des identifiants trop longs pour le journal
+     */
+    public void attachJournal(TransactionJournal journal) {
+        // Identifiant le plus long : préfixe suivi d'un compteur long
+        String longestId = transactionPrefix + Long.MAX_VALUE;
+        if (!TransactionJournal.fitsTransactionId(longestId)) {
+            throw new IllegalArgumentException("Préfixe de transaction trop long pour le journal: " + transactionPrefix);
+        }
+        for (BankAccount account : accounts.values()) {
+            if (!TransactionJournal.fitsAccountNumber(account.getAccountNumber())) {
+                throw new IllegalArgumentException("Numéro de compte trop long pour le journal: "
+                                                   + account.getAccountNumber());
             }
-            account = new BankAccount(accountNumber, "COURANT", name, email, phone, initialDeposit, 0.0, 500.0);
-            System.out.println("Compte courant créé: " + accountNumber);
-            System.out.println("Email de bienvenue envoyé à: " + email);
+        }
+        this.journal = journal;
+    }
 
-        } else if (type.equals("EPARGNE")) {
-            // Validation manuelle pour compte épargne
-            if (initialDeposit < 500) {
-                System.out.println("ERREUR: Dépôt initial minimum 500 EUR pour compte épargne");
-                return null;
+    /**
+     * Reconstruit les comptes et leurs soldes en relisant un journal (à appeler au démarrage,
+     * avant toute opération). Les coordonnées client ne sont pas journalisées ; le grand livre
+     * en mémoire n'est pas reconstruit, l'historique restant consultable dans le journal.
+     *
+     * @return la séquence suivant le dernier enregistrement relu
+     */
+    public long replayJournal(Path journalFile) throws IOException {
+        return JournalReader.replay(journalFile, 0, this::applyJournalRecord);
+    }
+
+    /**
+     * Démarrage rapide : charge la dernière image des soldes du répertoire (s'il y en a une)
+     * puis ne relit que la fin du journal postérieure à cette image.
+     *
+     * @return la séquence suivant le dernier enregistrement relu
+     */
+    public long recover(Path snapshotDirectory, Path journalFile) throws IOException {
+        long fromSequence = 0;
+        Path latest = BalanceSnapshot.latest(snapshotDirectory);
+        if (latest != null) {
+            BalanceSnapshot snapshot = BalanceSnapshot.load(latest, account -> accounts.put(adopt(account)));
+            accountCounter.accumulateAndGet(snapshot.getAccountCounter(), Math::max);
+            transactionCounter.accumulateAndGet(snapshot.getTransactionCounter(), Math::max);
+            fromSequence = snapshot.getJournalSequence();
+        }
+        return JournalReader.replay(journalFile, fromSequence, this::applyJournalRecord);
+    }
+
+    /**
+     * Écrit une image de tous les comptes sans interrompre le traitement des transactions :
+     * chaque compte n'est verrouillé que le temps de copier son état.
+     *
+     * La position de départ de relecture est lue avant le parcours : toute transaction de la fin du
+     * journal déjà incluse dans l'image est reconnue grâce à la séquence mémorisée par chaque compte.
+     * Elle recule jusqu'à la plus ancienne réservation ouverte, afin que la relecture retrouve les
+     * virements entre shards encore en suspens ; elle est rangée dans l'image, dont le nom porte la
+     * tête du journal. L'image n'est publiée qu'une fois tous les comptes écrits et le journal sur
+     * disque : en cas d'échec, le fichier temporaire est supprimé et l'exception propagée.
+     *
+     * @return le fichier de l'image
+     */
+    public Path takeSnapshot(Path directory) throws IOException {
+        TransactionJournal currentJournal = journal;
+        if (currentJournal == null) {
+            throw new IllegalStateException("Aucun journal attaché : une image sans journal ne peut pas être complétée");
+        }
+        long headSequence;
+        long fromSequence;
+        synchronized (openReservations) {
+            headSequence = currentJournal.getNextSequence();
+            fromSequence = headSequence;
+            for (TransferReservation reservation : openReservations.values()) {
+                if (reservation.getJournalSequence() >= 0) {
+                    fromSequence = Math.min(fromSequence, reservation.getJournalSequence());
+                }
+            }
+        }
+        BalanceSnapshot.Writer writer = BalanceSnapshot.create(directory, headSequence, fromSequence,
+            accountCounter.get(), transactionCounter.get());
+        try {
+            for (BankAccount account : accounts.values()) {
+                String accountNumber = account.getAccountNumber();
+                String status;
+                long balance;
+                long sequence;
+                accounts.lock(accountNumber);
+                try {
+                    status = account.getStatus();
+                    balance = account.getBalanceMinor();
+                    sequence = account.getJournalSequence();
+                } finally {
+                    accounts.unlock(accountNumber);
+                }
+                writer.writeAccount(accountNumber, account.getAccountType(), status, balance,
+                                    account.getOverdraftLimitMinor(), account.getInterestRate(), sequence);
             }
-            account = new BankAccount(accountNumber, "EPARGNE", name, email, phone, initialDeposit, 2.5, 0.0);
-            System.out.println("Compte épargne créé: " + accountNumber);
-            System.out.println("Email de bienvenue envoyé à: " + email);
+            // Les enregistrements couverts par l'image doivent être sur disque avant qu'elle soit publiée
+            currentJournal.flush();
+            return writer.publish();
+        } catch (IOException | RuntimeException e) {
+            // Image incomplète ou journal non écrit : rien n'est publié, recover() garde l'image précédente
+            writer.abort();
+            throw e;
+        }
+    }
 
-        } else if (type.equals("PROFESSIONNEL")) {
-            // Validation manuelle pour compte professionnel
-            if (initialDeposit < 1000) {
-                System.out.println("ERREUR: Dépôt initial minimum 1000 EUR pour compte professionnel");
-                return null;
+    private void applyJournalRecord(JournalRecord record) {
+        long sequence = record.getSequence();
+        switch (record.getKind()) {
+            case OUVERTURE: {
+                BankAccount existing = accounts.get(record.getDestinationAccount());
+                if (existing != null && existing.getJournalSequence() >= sequence) {
+                    break; // déjà inclus dans l'image
+                }
+                BankAccount account = new HeapBankAccount(record.getDestinationAccount(), record.getAccountType(),
+                    null, null, null, 0, record.getInterestRate(), Money.toMajor(record.getOverdraftLimitMinor()));
+                account.setBalanceMinor(record.getAmountMinor());
+                account.setJournalSequence(sequence);
+                accounts.put(adopt(account));
+                advancePast(accountCounter, record.getDestinationAccount(), "ACC");
+                break;
             }
-            account = new BankAccount(accountNumber, "PROFESSIONNEL", name, email, phone, initialDeposit, 0.5, 2000.0);
-            System.out.println("Compte professionnel créé: " + accountNumber);
-            System.out.println("Email de bienvenue envoyé à: " + email);
-            System.out.println("SMS envoyé à: " + phone);
-        } else {
+            case INTERET: {
+                applyJournaled(record.getDestinationAccount(), record.getAmountMinor(), sequence);
+                break;
+            }
+            case RESERVATION: {
+                advancePast(transactionCounter, record.getTransactionId(), transactionPrefix);
+                applyJournaled(record.getSourceAccount(), -(record.getAmountMinor() + record.getFeesMinor()), sequence);
+                Transaction tx = new Transaction(record.getTransactionId(), record.getType(),
+                    TransactionType.fromCode(record.getType()), record.getAmountMinor(), record.getSourceAccount(),
+                    record.getDestinationAccount(), record.getCurrency());
+                synchronized (openReservations) {
+                    openReservations.put(tx.getTransactionId(), new TransferReservation(tx, record.getFeesMinor(), sequence));
+                }
+                break;
+            }
+            case CONFIRMATION: {
+                // Le débit a été relu avec la réservation : seul le suivi est clos
+                synchronized (openReservations) {
+                    openReservations.remove(record.getTransactionId());
+                }
+                break;
+            }
+            case ANNULATION: {
+                applyJournaled(record.getSourceAccount(), record.getAmountMinor() + record.getFeesMinor(), sequence);
+                synchronized (openReservations) {
+                    openReservations.remove(record.getTransactionId());
+                }
+                break;
+            }
+            case TRANSACTION: {
+                advancePast(transactionCounter, record.getTransactionId(), transactionPrefix);
+                if (!"COMPLETED".equals(record.getStatus())) {
+                    break;
+                }
+                String source = record.getSourceAccount();
+                String destination = record.getDestinationAccount();
+                TransactionType type = TransactionType.fromCode(record.getType());
+                if (type == null) {
+                    break;
+                }
+                switch (type) {
+                    case DEPOT:
+                        applyJournaled(destination, record.getAmountMinor(), sequence);
+                        break;
+                    case RETRAIT:
+                        applyJournaled(source, -(record.getAmountMinor() + record.getFeesMinor()), sequence);
+                        break;
+                    case VIREMENT:
+                        if (source.equals(destination)) {
+                            applyJournaled(source, -record.getFeesMinor(), sequence);
+                        } else {
+                            applyJournaled(source, -(record.getAmountMinor() + record.getFeesMinor()), sequence);
+                            applyJournaled(destination, record.getAmountMinor(), sequence);
+                        }
+                        break;
+                }
+                break;
+            }
+        }
+    }
+
+    /**
+     * Applique un mouvement relu du journal, sauf s'il est déjà inclus dans l'état du compte
+     */
+    private void applyJournaled(String accountNumber, long amount, long sequence) {
+        BankAccount account = accounts.get(accountNumber);
+        if (account != null && account.getJournalSequence() < sequence) {
+            account.setBalanceMinor(account.getBalanceMinor() + amount);
+            account.setJournalSequence(sequence);
+        }
+    }
+
+    /**
+     * Fait avancer un compteur au-delà du numéro contenu dans un identifiant ("ACC1005", "TX42"...)
+     */
+    private static void advancePast(AtomicInteger counter, String id, String prefix) {
+        if (id == null || !id.startsWith(prefix)) {
+            return;
+        }
+        try {
+            int value = Integer.parseInt(id.substring(prefix.length()));
+            counter.accumulateAndGet(value + 1, Math::max);
+        } catch (NumberFormatException e) {
+            // Identifiant externe : pas d'impact sur la numérotation
+        }
+    }
+
+    public BankAccount createAccount(String type, String name, String email, String phone, double initialDeposit) {
+        AccountType accountType = AccountType.fromCode(type);
+        if (accountType == null) {
             System.out.println("ERREUR: Type de compte inconnu");
             return null;
         }
+        return createAccount(accountType, name, email, phone, initialDeposit);
+    }
+
+    public BankAccount createAccount(AccountType type, String name, String email, String phone, double initialDeposit) {
+        return createAccount("ACC" + accountCounter.getAndIncrement(), type, name, email, phone, initialDeposit);
+    }
+
+    /**
+     * Ouverture avec un numéro attribué par l'appelant (numérotation globale d'un ShardedBankingService).
+     * La numérotation locale reprend après ce numéro.
+     */
+    public BankAccount createAccount(String accountNumber, AccountType type, String name, String email,
+                                     String phone, double initialDeposit) {
+        if (journal != null && !TransactionJournal.fitsAccountNumber(accountNumber)) {
+            System.out.println("ERREUR: Numéro de compte trop long pour le journal: " + accountNumber);
+            return null;
+        }
+        advancePast(accountCounter, accountNumber, "ACC");
+        if (accounts.get(accountNumber) != null) {
+            System.out.println("ERREUR: Compte déjà existant: " + accountNumber);
+            return null;
+        }
+
+        // Validation du dépôt initial minimum
+        if (Money.toMinor(initialDeposit) < type.getMinimumDepositMinor()) {
+            System.out.println("ERREUR: Dépôt initial minimum " + (int) type.getMinimumDeposit()
+                               + " EUR pour compte " + label(type));
+            return null;
+        }
+
+        BankAccount account = new HeapBankAccount(accountNumber, type.name(), name, email, phone, initialDeposit,
+                                              type.getInterestRate(), type.getOverdraftLimit());
+        System.out.println("Compte " + label(type) + " créé: " + accountNumber);
+        System.out.println("Email de bienvenue envoyé à: " + email);
+        if (type == AccountType.PROFESSIONNEL) {
+            System.out.println("SMS envoyé à: " + phone);
+        }
 
-        accounts.put(accountNumber, account);
+        // Le verrou du compte garantit qu'aucune transaction ne précède son ouverture dans le journal
+        accounts.lock(accountNumber);
+        try {
+            if (accounts.get(accountNumber) != null) {
+                // Ouvert entre-temps par un autre thread avec le même numéro
+                System.out.println("ERREUR: Compte déjà existant: " + accountNumber);
+                return null;
+            }
+            account = adopt(account);
+            TransactionJournal currentJournal = journal;
+            if (currentJournal != null) {
+                account.setJournalSequence(currentJournal.appendAccountOpening(account));
+            }
+            accounts.put(account);
+        } finally {
+            accounts.unlock(accountNumber);
+        }
         return account;
     }
 
+    /**
+     * Avec un grand livre hors tas : recopie le compte dans un emplacement (celui du compte de même
+     * numéro qu'il remplace, s'il y en a un) et retourne la vue ; sinon retourne le compte tel quel
+     */
+    private BankAccount adopt(BankAccount account) {
+        if (offHeapLedger == null) {
+            return account;
+        }
+        BankAccount existing = accounts.get(account.getAccountNumber());
+        int slot = existing instanceof OffHeapBankAccount
+            ? ((OffHeapBankAccount) existing).getSlot()
+            : offHeapLedger.allocate();
+        return OffHeapBankAccount.copyOf(account, offHeapLedger, slot);
+    }
+
+    private static String label(AccountType type) {
+        switch (type) {
+            case COURANT: return "courant";
+            case EPARGNE: return "épargne";
+            default: return "professionnel";
+        }
+    }
+
+    /**
+     * API texte historique : le type est converti une fois en TransactionType
+     * (un type inconnu est rejeté et enregistré tel quel)
+     */
     public boolean processTransaction(String type, String sourceAccount, String destinationAccount, double amount) {
-        String txId = "TX" + (transactionCounter++);
-        Transaction tx = new Transaction(txId, type, amount, sourceAccount, destinationAccount);
+        return processTransaction(type, TransactionType.fromCode(type), sourceAccount, destinationAccount, amount);
+    }
+
+    public boolean processTransaction(TransactionType type, String sourceAccount, String destinationAccount, double amount) {
+        return processTransaction(type.name(), type, sourceAccount, destinationAccount, amount);
+    }
+
+    private boolean processTransaction(String typeCode, TransactionType type, String sourceAccount,
+                                       String destinationAccount, double amount) {
+        // Verrouillage des comptes concernés (ordre global pour les virements)
+        accounts.lockBoth(sourceAccount, destinationAccount);
+        try {
+            return doProcessTransaction(typeCode, type, sourceAccount, destinationAccount, amount);
+        } finally {
+            accounts.unlockBoth(sourceAccount, destinationAccount);
+        }
+    }
+
+    private boolean doProcessTransaction(String typeCode, TransactionType type, String sourceAccount,
+                                         String destinationAccount, double amount) {
+        String txId = transactionPrefix + transactionCounter.getAndIncrement();
+        // Tous les calculs se font en centimes (arithmétique exacte)
+        long amountMinor = Money.toMinor(amount);
+        Transaction tx = new Transaction(txId, typeCode, type, amountMinor, sourceAccount, destinationAccount,
+                                         FeeCalculator.Currency.EUR);
 
         // VALIDATION HORRIBLE avec IF/ELSE imbriqués
-        if (type.equals("DEPOT")) {
+        if (type == TransactionType.DEPOT) {
             BankAccount account = accounts.get(destinationAccount);
             if (account == null) {
                 System.out.println("ERREUR: Compte destination introuvable");
                 tx.setStatus("REJECTED");
                 tx.setRejectionReason("Compte introuvable");
-                transactions.add(tx);
+                recordTransaction(tx, 0);
                 return false;
             }
-            if (amount <= 0) {
+            if (amountMinor <= 0) {
                 System.out.println("ERREUR: Montant invalide");
                 tx.setStatus("REJECTED");
                 tx.setRejectionReason("Montant invalide");
-                transactions.add(tx);
+                recordTransaction(tx, 0);
                 return false;
             }
-            if (amount > 10000) {
+            if (amountMinor > 10000 * Money.MINOR_PER_MAJOR) {
                 System.out.println("ERREUR: Dépôt supérieur à 10000 EUR nécessite une vérification");
                 tx.setStatus("REJECTED");
                 tx.setRejectionReason("Montant trop élevé");
-                transactions.add(tx);
+                recordTransaction(tx, 0);
                 return false;
             }
 
-            account.setBalance(account.getBalance() + amount);
             tx.setStatus("COMPLETED");
-            transactions.add(tx);
+            recordTransaction(tx, 0);
+            account.setBalanceMinor(account.getBalanceMinor() + amountMinor);
             System.out.println("Dépôt effectué sur " + destinationAccount);
             System.out.println("Email envoyé à: " + account.getCustomerEmail());
             return true;
 
-        } else if (type.equals("RETRAIT")) {
+        } else if (type == TransactionType.RETRAIT) {
             BankAccount account = accounts.get(sourceAccount);
             if (account == null) {
                 System.out.println("ERREUR: Compte source introuvable");
                 tx.setStatus("REJECTED");
                 tx.setRejectionReason("Compte introuvable");
-                transactions.add(tx);
+                recordTransaction(tx, 0);
                 return false;
             }
-            if (amount <= 0) {
+            if (amountMinor <= 0) {
                 System.out.println("ERREUR: Montant invalide");
                 tx.setStatus("REJECTED");
                 tx.setRejectionReason("Montant invalide");
-                transactions.add(tx);
+                recordTransaction(tx, 0);
                 return false;
             }
 
-            // CALCUL DE FRAIS EN DUR
-            double fees = 0;
-            if (account.getAccountType().equals("COURANT")) {
-                if (amount > 1000) {
-                    fees = 2.5;
-                }
-            } else if (account.getAccountType().equals("EPARGNE")) {
-                fees = 1.0; // Frais fixe pour retrait épargne
-            } else if (account.getAccountType().equals("PROFESSIONNEL")) {
-                if (amount > 5000) {
-                    fees = 5.0;
-                } else {
-                    fees = 2.0;
-                }
-            }
+            long fees = withdrawalFees(account.getType(), amountMinor);
 
-            double totalAmount = amount + fees;
+            long totalAmount = amountMinor + fees;
 
             // Vérification découvert
-            if (account.getBalance() - totalAmount < -account.getOverdraftLimit()) {
+            if (account.getBalanceMinor() - totalAmount < -account.getOverdraftLimitMinor()) {
                 System.out.println("ERREUR: Solde insuffisant (découvert dépassé)");
                 tx.setStatus("REJECTED");
                 tx.setRejectionReason("Solde insuffisant");
-                transactions.add(tx);
+                recordTransaction(tx, 0);
                 return false;
             }
 
-            account.setBalance(account.getBalance() - totalAmount);
             tx.setStatus("COMPLETED");
-            transactions.add(tx);
-            System.out.println("Retrait effectué sur " + sourceAccount + " (frais: " + fees + " EUR)");
+            recordTransaction(tx, fees);
+            account.setBalanceMinor(account.getBalanceMinor() - totalAmount);
+            System.out.println("Retrait effectué sur " + sourceAccount + " (frais: " + Money.toMajor(fees) + " EUR)");
             System.out.println("Email envoyé à: " + account.getCustomerEmail());
 
             // Alerte découvert
-            if (account.getBalance() < 0) {
+            if (account.getBalanceMinor() < 0) {
                 System.out.println("ALERTE: Compte en découvert!");
                 System.out.println("SMS d'alerte envoyé à: " + account.getCustomerPhone());
             }
             return true;
 
-        } else if (type.equals("VIREMENT")) {
+        } else if (type == TransactionType.VIREMENT) {
             BankAccount source = accounts.get(sourceAccount);
             BankAccount destination = accounts.get(destinationAccount);
 
@@ -165,41 +505,33 @@ public class BankingService {
                 System.out.println("ERREUR: Compte source ou destination introuvable");
                 tx.setStatus("REJECTED");
                 tx.setRejectionReason("Compte introuvable");
-                transactions.add(tx);
+                recordTransaction(tx, 0);
                 return false;
             }
-            if (amount <= 0) {
+            if (amountMinor <= 0) {
                 System.out.println("ERREUR: Montant invalide");
                 tx.setStatus("REJECTED");
                 tx.setRejectionReason("Montant invalide");
-                transactions.add(tx);
+                recordTransaction(tx, 0);
                 return false;
             }
 
-            // CALCUL DE FRAIS EN DUR pour virement
-            double fees = 0;
-            if (source.getAccountType().equals("COURANT")) {
-                fees = 1.0;
-            } else if (source.getAccountType().equals("EPARGNE")) {
-                fees = 2.5; // Frais élevé pour virement depuis épargne
-            } else if (source.getAccountType().equals("PROFESSIONNEL")) {
-                fees = 0.5;
-            }
+            long fees = transferFees(source.getType());
 
-            double totalAmount = amount + fees;
+            long totalAmount = amountMinor + fees;
 
-            if (source.getBalance() - totalAmount < -source.getOverdraftLimit()) {
+            if (source.getBalanceMinor() - totalAmount < -source.getOverdraftLimitMinor()) {
                 System.out.println("ERREUR: Solde insuffisant");
                 tx.setStatus("REJECTED");
                 tx.setRejectionReason("Solde insuffisant");
-                transactions.add(tx);
+                recordTransaction(tx, 0);
                 return false;
             }
 
-            source.setBalance(source.getBalance() - totalAmount);
-            destination.setBalance(destination.getBalance() + amount);
             tx.setStatus("COMPLETED");
-            transactions.add(tx);
+            recordTransaction(tx, fees);
+            source.setBalanceMinor(source.getBalanceMinor() - totalAmount);
+            destination.setBalanceMinor(destination.getBalanceMinor() + amountMinor);
             System.out.println("Virement effectué de " + sourceAccount + " vers " + destinationAccount);
             System.out.println("Email envoyé à: " + source.getCustomerEmail());
             System.out.println("Email envoyé à: " + destination.getCustomerEmail());
@@ -209,71 +541,680 @@ public class BankingService {
         System.out.println("ERREUR: Type de transaction inconnu");
         tx.setStatus("REJECTED");
         tx.setRejectionReason("Type inconnu");
-        transactions.add(tx);
+        recordTransaction(tx, 0);
         return false;
     }
 
+    /**
+     * Virement entre shards, phase 1 (shard du compte source) : mêmes contrôles que processTransaction,
+     * puis montant + frais sont débités et mis de côté jusqu'à la confirmation ou l'annulation.
+     * Un rejet est enregistré ici ; une réservation n'entre au grand livre qu'à sa confirmation,
+     * mais elle est journalisée dès maintenant (RESERVATION) avec le débit du compte source.
+     *
+     * @param destinationExists le compte destination existe (sur son propre shard)
+     * @return la réservation, ou null si le virement est rejeté
+     */
+    public TransferReservation reserveTransfer(String sourceAccount, String destinationAccount,
+                                               boolean destinationExists, double amount) {
+        accounts.lock(sourceAccount);
+        try {
+            long amountMinor = Money.toMinor(amount);
+            Transaction tx = new Transaction(transactionPrefix + transactionCounter.getAndIncrement(),
+                TransactionType.VIREMENT.name(), TransactionType.VIREMENT, amountMinor, sourceAccount,
+                destinationAccount, FeeCalculator.Currency.EUR);
+
+            BankAccount source = accounts.get(sourceAccount);
+            if (source == null || !destinationExists) {
+                System.out.println("ERREUR: Compte source ou destination introuvable");
+                rejectTransfer(tx, "Compte introuvable");
+                return null;
+            }
+            if (amountMinor <= 0) {
+                System.out.println("ERREUR: Montant invalide");
+                rejectTransfer(tx, "Montant invalide");
+                return null;
+            }
+            long fees = transferFees(source.getType());
+            long totalAmount = amountMinor + fees;
+            if (source.getBalanceMinor() - totalAmount < -source.getOverdraftLimitMinor()) {
+                System.out.println("ERREUR: Solde insuffisant");
+                rejectTransfer(tx, "Solde insuffisant");
+                return null;
+            }
+            synchronized (openReservations) {
+                long sequence = -1;
+                TransactionJournal currentJournal = journal;
+                if (currentJournal != null) {
+                    sequence = currentJournal.appendTransferStep(JournalRecord.Kind.RESERVATION, tx, fees);
+                    source.setJournalSequence(sequence);
+                }
+                source.setBalanceMinor(source.getBalanceMinor() - totalAmount);
+                TransferReservation reservation = new TransferReservation(tx, fees, sequence);
+                openReservations.put(tx.getTransactionId(), reservation);
+                return reservation;
+            }
+        } finally {
+            accounts.unlock(sourceAccount);
+        }
+    }
+
+    /**
+     * Virement entre shards, phase 2 (shard du compte destination) : crédite le montant et enregistre
+     * le virement (sans frais : ils sont enregistrés côté source)
+     *
+     * @return false si le compte destination est introuvable (la réservation doit être annulée)
+     */
+    public boolean creditTransfer(TransferReservation reservation) {
+        Transaction tx = reservation.getTransaction();
+        String destinationAccount = tx.getDestinationAccount();
+        accounts.lock(destinationAccount);
+        try {
+            BankAccount destination = accounts.get(destinationAccount);
+            if (destination == null) {
+                return false;
+            }
+            tx.setStatus("COMPLETED");
+            recordTransaction(tx, 0);
+            destination.setBalanceMinor(destination.getBalanceMinor() + tx.getAmountMinor());
+            System.out.println("Email envoyé à: " + destination.getCustomerEmail());
+            return true;
+        } finally {
+            accounts.unlock(destinationAccount);
+        }
+    }
+
+    /**
+     * Virement entre shards, phase 3 (shard du compte source) : enregistre le virement et ses frais
+     * (journalisé en CONFIRMATION : le débit l'a été avec la réservation)
+     */
+    public void completeTransfer(TransferReservation reservation) {
+        Transaction tx = reservation.getTransaction();
+        String sourceAccount = tx.getSourceAccount();
+        accounts.lock(sourceAccount);
+        try {
+            tx.setStatus("COMPLETED");
+            recordTransaction(tx, reservation.getFeesMinor(), JournalRecord.Kind.CONFIRMATION);
+            closeReservation(tx);
+            System.out.println("Virement effectué de " + sourceAccount + " vers " + tx.getDestinationAccount());
+            System.out.println("Email envoyé à: " + accounts.get(sourceAccount).getCustomerEmail());
+        } finally {
+            accounts.unlock(sourceAccount);
+        }
+    }
+
+    /**
+     * Annule une réservation (shard du compte source) : montant et frais sont rendus, le rejet est
+     * enregistré (journalisé en ANNULATION)
+     */
+    public void cancelTransfer(TransferReservation reservation, String reason) {
+        Transaction tx = reservation.getTransaction();
+        String sourceAccount = tx.getSourceAccount();
+        accounts.lock(sourceAccount);
+        try {
+            BankAccount source = accounts.get(sourceAccount);
+            tx.setStatus("REJECTED");
+            tx.setRejectionReason(reason);
+            recordTransaction(tx, reservation.getFeesMinor(), JournalRecord.Kind.ANNULATION);
+            source.setBalanceMinor(source.getBalanceMinor() + tx.getAmountMinor() + reservation.getFeesMinor());
+            closeReservation(tx);
+        } finally {
+            accounts.unlock(sourceAccount);
+        }
+    }
+
+    private void closeReservation(Transaction tx) {
+        synchronized (openReservations) {
+            openReservations.remove(tx.getTransactionId());
+        }
+    }
+
+    /**
+     * Virements entre shards réservés ici et ni confirmés ni annulés : en cours, ou laissés en suspens
+     * par un arrêt et retrouvés à la relecture du journal (à terminer par le ShardedBankingService)
+     */
+    public List<TransferReservation> getOpenReservations() {
+        synchronized (openReservations) {
+            return new ArrayList<>(openReservations.values());
+        }
+    }
+
+    private void rejectTransfer(Transaction tx, String reason) {
+        tx.setStatus("REJECTED");
+        tx.setRejectionReason(reason);
+        recordTransaction(tx, 0);
+    }
+
+    // Frais en centimes, tirés de la table AccountType (pas de frais pour un type inconnu)
+    private static long withdrawalFees(AccountType accountType, long amountMinor) {
+        return accountType == null ? 0 : accountType.withdrawalFees(amountMinor);
+    }
+
+    private static long transferFees(AccountType accountType) {
+        return accountType == null ? 0 : accountType.transferFees();
+    }
+
+    /**
+     * Transaction idempotente : une demande renvoyée avec la même clé (nouvel essai du client après
+     * un délai dépassé) retourne la transaction d'origine, acceptée ou rejetée, sans repasser par les
+     * contrôles, les frais ni le grand livre. Les clés sont conservées 24 h (au plus
+     * {@value #IDEMPOTENCY_MAX_KEYS}, les plus anciennes sont oubliées au-delà) ; le contenu de la
+     * demande renvoyée n'est pas comparé à celui d'origine.
+     * Règles et codes de processBatch, sans trace console.
+     *
+     * @return la transaction enregistrée pour cette clé
+     */
+    public Transaction processTransaction(String idempotencyKey, TransactionRequest request) {
+        if (idempotencyKey == null) {
+            throw new IllegalArgumentException("Clé d'idempotence obligatoire");
+        }
+        // Verrou de la clé avant ceux des comptes : deux essais simultanés ne sont pas appliqués deux fois
+        idempotency.lockKey(idempotencyKey);
+        try {
+            Transaction original = idempotency.get(idempotencyKey, System.currentTimeMillis());
+            if (original != null) {
+                return original;
+            }
+            Transaction[] recorded = new Transaction[1];
+            applyBatch(new TransactionRequest[]{request}, 1, new byte[1], recorded, new long[1]);
+            idempotency.put(idempotencyKey, recorded[0], System.currentTimeMillis());
+            return recorded[0];
+        } finally {
+            idempotency.unlockKey(idempotencyKey);
+        }
+    }
+
+    /**
+     * Traite un lot de transactions (fichier de paie, prélèvements...) avec les mêmes règles
+     * que processTransaction. Voir {@link #processBatch(Iterator)}.
+     */
+    public BatchResult processBatch(List<TransactionRequest> requests) {
+        return processBatch(requests.iterator(), requests.size());
+    }
+
+    /**
+     * Traite un flux de demandes par tranches de {@value #BATCH_CHUNK} :
+     * - les bandes de verrous des comptes d'une tranche sont prises une seule fois, dans l'ordre croissant
+     * - chaque compte n'est recherché qu'une fois ; ses mouvements s'accumulent sur un solde de
+     *   travail écrit une seule fois en fin de tranche
+     * - la tranche est ajoutée au grand livre et au journal en un seul bloc
+     * Pas de trace console par transaction : un seul résumé pour le lot.
+     *
+     * @return un code de résultat par demande, dans l'ordre de soumission
+     */
+    public BatchResult processBatch(Iterator<TransactionRequest> requests) {
+        return processBatch(requests, BATCH_CHUNK);
+    }
+
+    private BatchResult processBatch(Iterator<TransactionRequest> requests, int expectedSize) {
+        byte[] codes = new byte[Math.max(expectedSize, 16)];
+        TransactionRequest[] chunk = new TransactionRequest[BATCH_CHUNK];
+        Transaction[] batch = new Transaction[BATCH_CHUNK];
+        long[] fees = new long[BATCH_CHUNK];
+        BatchWorkspace workspace = newBatchWorkspace(BATCH_CHUNK);
+        int size = 0;
+        while (requests.hasNext()) {
+            int count = 0;
+            while (count < BATCH_CHUNK && requests.hasNext()) {
+                chunk[count++] = requests.next();
+            }
+            if (size + count > codes.length) {
+                codes = Arrays.copyOf(codes, Math.max(codes.length * 2, size + count));
+            }
+            processChunk(chunk, count, codes, size, batch, fees, workspace);
+            size += count;
+        }
+        BatchResult result = new BatchResult(codes, size);
+        System.out.println("Lot traité: " + result.size() + " transaction(s), " + result.getCompletedCount()
+                           + " acceptée(s), " + result.getRejectedCount() + " rejetée(s)");
+        return result;
+    }
+
+    /**
+     * Applique count demandes avec les règles et les codes de processBatch, sans trace console, et les
+     * enregistre en un bloc. Étape métier de RingBufferEngine (écrivain unique) et d'AsyncTransactionService ;
+     * peut être appelée par plusieurs threads (bandes de verrous prises comme pour processBatch).
+     * Les tableaux de sortie (de taille >= count) sont réutilisés d'un appel à l'autre par l'appelant :
+     * codes[i], recorded[i] et fees[i] reçoivent le résultat de requests[i].
+     */
+    public void applyBatch(TransactionRequest[] requests, int count, byte[] codes, Transaction[] recorded, long[] fees) {
+        processChunk(requests, count, codes, 0, recorded, fees, newBatchWorkspace(count));
+    }
+
+    /**
+     * Variante pour un thread qui applique des lots en boucle : handles, bandes et soldes de travail
+     * sont pris dans son espace ({@link #newBatchWorkspace}), réutilisé d'un appel à l'autre.
+     * Seules les Transaction enregistrées au grand livre sont allouées.
+     */
+    public void applyBatch(TransactionRequest[] requests, int count, byte[] codes, Transaction[] recorded, long[] fees,
+                           BatchWorkspace workspace) {
+        if (count > workspace.getCapacity()) {
+            throw new IllegalArgumentException("Lot plus grand que l'espace de travail: " + count);
+        }
+        processChunk(requests, count, codes, 0, recorded, fees, workspace);
+    }
+
+    /**
+     * Espace de travail pour des lots d'au plus capacity demandes, à réserver à un seul thread
+     */
+    public BatchWorkspace newBatchWorkspace(int capacity) {
+        return new BatchWorkspace(capacity, accounts.getStripeCount(), accounts::get);
+    }
+
+    /**
+     * batch, fees et workspace : tableaux de travail (taille >= count) réutilisés d'une tranche à l'autre
+     */
+    private void processChunk(TransactionRequest[] chunk, int count, byte[] codes, int offset,
+                              Transaction[] batch, long[] fees, BatchWorkspace workspace) {
+        for (int i = 0; i < count; i++) {
+            String source = chunk[i].getSourceAccount();
+            String destination = chunk[i].getDestinationAccount();
+            if (source != null) {
+                workspace.markStripe(accounts.stripeIndex(source));
+            }
+            if (destination != null) {
+                workspace.markStripe(accounts.stripeIndex(destination));
+            }
+        }
+        int stripeCount = workspace.collectStripes();
+        int[] stripes = workspace.getStripes();
+        int firstId = transactionCounter.getAndAdd(count);
+
+        accounts.lockStripes(stripes, stripeCount);
+        try {
+            // Numéros résolus une fois en handles : la suite de la tranche ne manipule que des entiers
+            int[] handles = workspace.getHandles();
+            for (int i = 0; i < count; i++) {
+                handles[2 * i] = accounts.handleOf(chunk[i].getSourceAccount());
+                handles[2 * i + 1] = accounts.handleOf(chunk[i].getDestinationAccount());
+            }
+            WorkingBalances working = workspace.resetWorking();
+            for (int i = 0; i < count; i++) {
+                TransactionRequest request = chunk[i];
+                long amountMinor = request.getAmountMinor();
+                Transaction tx = new Transaction(transactionPrefix + (firstId + i), request.getType(), request.getTransactionType(),
+                    amountMinor, request.getSourceAccount(), request.getDestinationAccount(), FeeCalculator.Currency.EUR);
+                fees[i] = 0;
+                byte code = applyRequest(request, amountMinor, handles[2 * i], handles[2 * i + 1], working, fees, i);
+                if (code == BatchResult.COMPLETED) {
+                    tx.setStatus("COMPLETED");
+                } else {
+                    tx.setStatus("REJECTED");
+                    tx.setRejectionReason(BatchResult.reasonOf(code));
+                }
+                codes[offset + i] = code;
+                batch[i] = tx;
+            }
+            // Soldes recopiés une fois la tranche journalisée : un refus du journal les laisse intacts
+            recordBatch(batch, fees, count, handles, working);
+            working.writeBack();
+        } finally {
+            accounts.unlockStripes(stripes, stripeCount);
+        }
+    }
+
+    /**
+     * Règles de processTransaction appliquées aux soldes de travail
+     * @param sourceHandle handle du compte source (négatif s'il est inconnu), de même pour la destination
+     * @return le code de résultat ; les frais prélevés sont rangés dans fees[index]
+     */
+    private static byte applyRequest(TransactionRequest request, long amountMinor, int sourceHandle,
+                                     int destinationHandle, WorkingBalances working, long[] fees, int index) {
+        TransactionType type = request.getTransactionType();
+        if (type == TransactionType.DEPOT) {
+            int destination = working.slotOf(destinationHandle);
+            if (destination < 0) {
+                return BatchResult.COMPTE_INTROUVABLE;
+            }
+            if (amountMinor <= 0) {
+                return BatchResult.MONTANT_INVALIDE;
+            }
+            if (amountMinor > 10000 * Money.MINOR_PER_MAJOR) {
+                return BatchResult.MONTANT_TROP_ELEVE;
+            }
+            working.add(destination, amountMinor);
+            return BatchResult.COMPLETED;
+
+        } else if (type == TransactionType.RETRAIT) {
+            int source = working.slotOf(sourceHandle);
+            if (source < 0) {
+                return BatchResult.COMPTE_INTROUVABLE;
+            }
+            if (amountMinor <= 0) {
+                return BatchResult.MONTANT_INVALIDE;
+            }
+            BankAccount account = working.account(source);
+            long fee = withdrawalFees(account.getType(), amountMinor);
+            long totalAmount = amountMinor + fee;
+            if (working.balance(source) - totalAmount < -account.getOverdraftLimitMinor()) {
+                return BatchResult.SOLDE_INSUFFISANT;
+            }
+            working.add(source, -totalAmount);
+            fees[index] = fee;
+            return BatchResult.COMPLETED;
+
+        } else if (type == TransactionType.VIREMENT) {
+            int source = working.slotOf(sourceHandle);
+            int destination = working.slotOf(destinationHandle);
+            if (source < 0 || destination < 0) {
+                return BatchResult.COMPTE_INTROUVABLE;
+            }
+            if (amountMinor <= 0) {
+                return BatchResult.MONTANT_INVALIDE;
+            }
+            BankAccount account = working.account(source);
+            long fee = transferFees(account.getType());
+            long totalAmount = amountMinor + fee;
+            if (working.balance(source) - totalAmount < -account.getOverdraftLimitMinor()) {
+                return BatchResult.SOLDE_INSUFFISANT;
+            }
+            working.add(source, -totalAmount);
+            working.add(destination, amountMinor);
+            fees[index] = fee;
+            return BatchResult.COMPLETED;
+        }
+        return BatchResult.TYPE_INCONNU;
+    }
+
+    /**
+     * Ajoute une tranche au journal, puis au grand livre et à l'index, en une seule section critique
+     * (l'appelant détient les verrous de tous les comptes de la tranche). Si le journal refuse la
+     * tranche, rien n'est ajouté.
+     * @param handles handles source et destination de chaque transaction (négatif pour un compte inconnu)
+     */
+    private void recordBatch(Transaction[] batch, long[] fees, int count, int[] handles, WorkingBalances working) {
+        synchronized (transactions) {
+            TransactionJournal currentJournal = journal;
+            if (currentJournal != null) {
+                long first = currentJournal.appendTransactions(batch, fees, count);
+                working.markJournaled(first + count - 1);
+            }
+            int position = transactions.size();
+            transactions.appendAll(batch, count);
+            ColumnarTransactionStore store = columnarStore;
+            for (int i = 0; i < count; i++) {
+                int source = handles[2 * i];
+                int destination = handles[2 * i + 1];
+                if (store != null) {
+                    store.append(batch[i], fees[i], source, destination);
+                }
+                if (source >= 0) {
+                    transactionIndex.add(source, position + i);
+                }
+                if (destination >= 0 && destination != source) {
+                    transactionIndex.add(destination, position + i);
+                }
+            }
+        }
+    }
+
     public String generateStatement(String accountNumber) {
+        StringWriter statement = new StringWriter();
+        try {
+            if (!writeStatement(accountNumber, null, null, statement)) {
+                return "Compte introuvable";
+            }
+        } catch (IOException e) {
+            // Impossible avec un StringWriter
+            throw new UncheckedIOException(e);
+        }
+        return statement.toString();
+    }
+
+    /**
+     * Écrit le relevé d'un compte en flux continu, ligne par ligne, sans le construire en mémoire.
+     * La mémoire utilisée reste constante quel que soit le nombre de transactions.
+     * Le flux n'est pas fermé.
+     *
+     * @param from date de début incluse (null = pas de borne)
+     * @param to date de fin exclue (null = pas de borne)
+     * @return false si le compte est introuvable (rien n'est écrit)
+     */
+    public boolean writeStatement(String accountNumber, Date from, Date to, Writer out) throws IOException {
         BankAccount account = accounts.get(accountNumber);
         if (account == null) {
-            return "Compte introuvable";
-        }
-
-        StringBuilder statement = new StringBuilder();
-        statement.append("========================================\n");
-        statement.append("RELEVÉ BANCAIRE\n");
-        statement.append("========================================\n");
-        statement.append("Compte: ").append(account.getAccountNumber()).append("\n");
-        statement.append("Type: ").append(account.getAccountType()).append("\n");
-        statement.append("Titulaire: ").append(account.getCustomerName()).append("\n");
-        statement.append("Date de création: ").append(account.getCreationDate()).append("\n");
-        statement.append("Solde actuel: ").append(account.getBalance()).append(" EUR\n");
-        statement.append("========================================\n");
-        statement.append("TRANSACTIONS\n");
-        statement.append("========================================\n");
-
-        for (Transaction tx : transactions) {
-            if (tx.getSourceAccount() != null && tx.getSourceAccount().equals(accountNumber)) {
-                statement.append(tx.getTransactionDate()).append(" | ");
-                statement.append(tx.getType()).append(" | ");
-                statement.append("-").append(tx.getAmount()).append(" EUR | ");
-                statement.append(tx.getStatus()).append("\n");
-            } else if (tx.getDestinationAccount() != null && tx.getDestinationAccount().equals(accountNumber)) {
-                statement.append(tx.getTransactionDate()).append(" | ");
-                statement.append(tx.getType()).append(" | ");
-                statement.append("+").append(tx.getAmount()).append(" EUR | ");
-                statement.append(tx.getStatus()).append("\n");
-            }
-        }
-
-        statement.append("========================================\n");
+            return false;
+        }
 
-        return statement.toString();
+        out.write("========================================\n");
+        out.write("RELEVÉ BANCAIRE\n");
+        out.write("========================================\n");
+        out.append("Compte: ").append(account.getAccountNumber()).append("\n");
+        out.append("Type: ").append(account.getAccountType()).append("\n");
+        out.append("Titulaire: ").append(account.getCustomerName()).append("\n");
+        out.append("Date de création: ").append(String.valueOf(account.getCreationDate())).append("\n");
+        out.append("Solde actuel: ").append(String.valueOf(account.getBalance())).append(" EUR\n");
+        out.write("========================================\n");
+        out.write("TRANSACTIONS\n");
+        out.write("========================================\n");
+
+        // Seul l'historique du compte est parcouru grâce à l'index
+        TransactionIndex.Positions positions = transactionIndex.positionsOf(account.getHandle());
+        for (int i = 0; i < positions.size(); i++) {
+            Transaction tx = transactions.get(positions.get(i));
+            Date date = tx.getTransactionDate();
+            if ((from != null && date.before(from)) || (to != null && !date.before(to))) {
+                continue;
+            }
+            boolean debit = tx.getSourceAccount() != null && tx.getSourceAccount().equals(accountNumber);
+            out.append(String.valueOf(date)).append(" | ");
+            out.append(tx.getType()).append(" | ");
+            out.append(debit ? "-" : "+").append(String.valueOf(tx.getAmount())).append(" EUR | ");
+            out.append(tx.getStatus()).append("\n");
+        }
+
+        out.write("========================================\n");
+        out.flush();
+        return true;
+    }
+
+    /**
+     * Écrit le relevé en UTF-8 dans un OutputStream (non fermé)
+     */
+    public boolean writeStatement(String accountNumber, Date from, Date to, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        return writeStatement(accountNumber, from, to, writer);
+    }
+
+    /**
+     * Écrit le relevé en UTF-8 dans un canal (fichier, socket...) non fermé
+     */
+    public boolean writeStatement(String accountNumber, Date from, Date to, WritableByteChannel channel) throws IOException {
+        Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8);
+        return writeStatement(accountNumber, from, to, writer);
+    }
+
+    /**
+     * Journalise une transaction, puis l'ajoute au grand livre et met à jour l'index par compte.
+     * Seuls les comptes existants sont indexés (un numéro inconnu ne crée pas d'entrée).
+     * À appeler avant de modifier les soldes : si le journal refuse l'enregistrement (exception),
+     * ni le grand livre ni les soldes ne changent.
+     * @param fees frais prélevés sur le compte source, en centimes
+     */
+    private void recordTransaction(Transaction tx, long fees) {
+        recordTransaction(tx, fees, JournalRecord.Kind.TRANSACTION);
+    }
+
+    /**
+     * @param kind TRANSACTION, ou l'étape de virement entre shards qui clôt une réservation
+     */
+    private void recordTransaction(Transaction tx, long fees, JournalRecord.Kind kind) {
+        int source = accounts.handleOf(tx.getSourceAccount());
+        int destination = accounts.handleOf(tx.getDestinationAccount());
+        synchronized (transactions) {
+            TransactionJournal currentJournal = journal;
+            if (currentJournal != null) {
+                long sequence = kind == JournalRecord.Kind.TRANSACTION
+                    ? currentJournal.appendTransaction(tx, fees)
+                    : currentJournal.appendTransferStep(kind, tx, fees);
+                markJournaled(source, sequence);
+                markJournaled(destination, sequence);
+            }
+            int position = transactions.size();
+            transactions.append(tx);
+            ColumnarTransactionStore store = columnarStore;
+            if (store != null) {
+                store.append(tx, fees, source, destination);
+            }
+            if (source >= 0) {
+                transactionIndex.add(source, position);
+            }
+            if (destination >= 0 && destination != source) {
+                transactionIndex.add(destination, position);
+            }
+        }
     }
 
     public void applyInterest() {
         System.out.println("Application des intérêts...");
         for (BankAccount account : accounts.values()) {
-            if (account.getAccountType().equals("EPARGNE")) {
-                double interest = account.getBalance() * account.getInterestRate() / 100;
-                account.setBalance(account.getBalance() + interest);
-                System.out.println("Intérêts appliqués sur " + account.getAccountNumber() + ": " + interest + " EUR");
-                System.out.println("Email envoyé à: " + account.getCustomerEmail());
-            } else if (account.getAccountType().equals("PROFESSIONNEL")) {
-                double interest = account.getBalance() * account.getInterestRate() / 100;
-                account.setBalance(account.getBalance() + interest);
-                System.out.println("Intérêts appliqués sur " + account.getAccountNumber() + ": " + interest + " EUR");
-                System.out.println("Email envoyé à: " + account.getCustomerEmail());
+            accounts.lock(account.getAccountNumber());
+            try {
+                AccountType type = account.getType();
+                if (type != null && type.isInterestBearing()) {
+                    long interest = Money.percentOf(account.getBalanceMinor(), account.getInterestRate());
+                    journalInterest(account, interest);
+                    account.setBalanceMinor(account.getBalanceMinor() + interest);
+                    System.out.println("Intérêts appliqués sur " + account.getAccountNumber() + ": " + Money.toMajor(interest) + " EUR");
+                    System.out.println("Email envoyé à: " + account.getCustomerEmail());
+                }
+            } finally {
+                accounts.unlock(account.getAccountNumber());
             }
         }
     }
 
+    /**
+     * Versement des intérêts en parallèle sur tous les comptes (EPARGNE et PROFESSIONNEL).
+     * L'espace des comptes est découpé entre les threads du pool fork-join commun ; chaque compte
+     * est verrouillé le temps du calcul : les transactions peuvent continuer pendant le traitement.
+     * Aucune trace console par compte : le bilan est retourné. Un intérêt nul n'est pas journalisé.
+     */
+    public InterestRunSummary applyInterestParallel() {
+        long start = System.nanoTime();
+        LongAdder scanned = new LongAdder();
+        LongAdder credited = new LongAdder();
+        LongAdder total = new LongAdder();
+        accounts.forEachParallel(INTEREST_PARALLELISM_THRESHOLD, account -> {
+            scanned.increment();
+            long interest = creditInterest(account);
+            if (interest != 0) {
+                credited.increment();
+                total.add(interest);
+            }
+        });
+        return new InterestRunSummary(scanned.sum(), credited.sum(), total.sum(), System.nanoTime() - start);
+    }
+
+    /**
+     * @return l'intérêt versé en centimes (0 si le compte n'en produit pas)
+     */
+    private long creditInterest(BankAccount account) {
+        AccountType type = account.getType();
+        if (type == null || !type.isInterestBearing()) {
+            return 0;
+        }
+        String accountNumber = account.getAccountNumber();
+        accounts.lock(accountNumber);
+        try {
+            long interest = Money.percentOf(account.getBalanceMinor(), account.getInterestRate());
+            if (interest != 0) {
+                journalInterest(account, interest);
+                account.setBalanceMinor(account.getBalanceMinor() + interest);
+            }
+            return interest;
+        } finally {
+            accounts.unlock(accountNumber);
+        }
+    }
+
+    private void journalInterest(BankAccount account, long interest) {
+        TransactionJournal currentJournal = journal;
+        if (currentJournal != null) {
+            account.setJournalSequence(currentJournal.appendInterest(account.getAccountNumber(), interest));
+        }
+    }
+
+    /**
+     * Mémorise sur le compte (verrouillé par l'appelant) le dernier enregistrement du journal qui le concerne
+     */
+    private void markJournaled(int accountHandle, long sequence) {
+        BankAccount account = accounts.get(accountHandle);
+        if (account != null) {
+            account.setJournalSequence(sequence);
+        }
+    }
+
     public BankAccount getAccount(String accountNumber) {
         return accounts.get(accountNumber);
     }
 
+    /**
+     * Handle du compte : entier dense attribué à l'ouverture, stable pour la vie du service.
+     * Les structures tenues par compte (suivis des validateurs, observateurs...) s'y indexent
+     * au lieu de hacher le numéro à chaque transaction.
+     *
+     * @return le handle, ou -1 si le compte n'existe pas
+     */
+    public int getAccountHandle(String accountNumber) {
+        return accounts.handleOf(accountNumber);
+    }
+
+    /**
+     * @return le compte d'un handle obtenu par {@link #getAccountHandle}, null pour -1
+     */
+    public BankAccount getAccount(int accountHandle) {
+        return accounts.get(accountHandle);
+    }
+
+    /**
+     * @return le grand livre hors tas des comptes, ou null s'ils sont sur le tas
+     */
+    public OffHeapAccountLedger getOffHeapLedger() {
+        return offHeapLedger;
+    }
+
+    /**
+     * Prochain numéro de compte de la numérotation locale (après relecture d'un journal notamment)
+     */
+    public int getNextAccountNumber() {
+        return accountCounter.get();
+    }
+
+    /**
+     * Tient une copie en colonnes du grand livre (mêmes positions) pour les requêtes analytiques.
+     * À appeler avant la première transaction : les frais des transactions déjà enregistrées
+     * ne sont pas connus du grand livre.
+     *
+     * @throws IllegalStateException si des transactions sont déjà enregistrées
+     */
+    public void enableColumnarStore() {
+        synchronized (transactions) {
+            if (columnarStore != null) {
+                return;
+            }
+            if (transactions.size() > 0) {
+                throw new IllegalStateException("Stockage en colonnes à activer avant la première transaction");
+            }
+            columnarStore = new ColumnarTransactionStore(accounts.getDirectory());
+        }
+    }
+
+    /**
+     * Copie en colonnes du grand livre, pour les requêtes analytiques :
+     * {@code getColumnarStore().query().forAccount("ACC1000").completed().sumAmountMinor()}
+     *
+     * @return null si elle n'a pas été activée ({@link #enableColumnarStore})
+     */
+    public ColumnarTransactionStore getColumnarStore() {
+        return columnarStore;
+    }
+
+    /**
+     * Vue en lecture seule du grand livre, obtenue en O(1) sans copie ; les transactions
+     * enregistrées ensuite n'y apparaissent pas
+     */
     public List<Transaction> getTransactions() {
-        return new ArrayList<>(transactions);
+        return transactions.snapshot();
     }
 
     /**
@@ -286,28 +1227,15 @@ public class BankingService {
             return;
         }
 
-        List<Transaction> accountTransactions = account.getTransactions();
+        // L'historique est déjà tenu par date : pas de tri
+        List<Transaction> accountTransactions = account.getHistory().between(Long.MIN_VALUE, Long.MAX_VALUE);
         if (accountTransactions.isEmpty()) {
             System.out.println("Aucune transaction pour ce compte.");
             return;
         }
 
-        // Tri par date
-        accountTransactions.sort(Comparator.comparing(Transaction::getTransactionDate));
-
         System.out.println("\n=== Transactions chronologiques pour le compte " + accountNumber + " ===");
-        System.out.printf("%-15s | %-10s | %10s | %-30s | %-10s%n",
-            "ID", "Type", "Montant", "Date", "Status");
-        System.out.println("-".repeat(90));
-
-        for (Transaction tx : accountTransactions) {
-            System.out.printf("%-15s | %-10s | %9.2f€ | %-30s | %-10s%n",
-                tx.getTransactionId(),
-                tx.getType(),
-                tx.getAmount(),
-                tx.getTransactionDate(),
-                tx.getStatus());
-        }
+        afficherTableau(accountTransactions);
     }
 
     /**
@@ -320,28 +1248,15 @@ public class BankingService {
             return;
         }
 
-        List<Transaction> accountTransactions = account.getTransactions();
+        // Parcours de l'index par montant (croissant)
+        List<Transaction> accountTransactions = account.getHistory().byAmount(0, Integer.MAX_VALUE);
         if (accountTransactions.isEmpty()) {
             System.out.println("Aucune transaction pour ce compte.");
             return;
         }
 
-        // Tri par montant
-        accountTransactions.sort(Comparator.comparingDouble(Transaction::getAmount));
-
         System.out.println("\n=== Transactions par montant pour le compte " + accountNumber + " ===");
-        System.out.printf("%-15s | %-10s | %10s | %-30s | %-10s%n",
-            "ID", "Type", "Montant", "Date", "Status");
-        System.out.println("-".repeat(90));
-
-        for (Transaction tx : accountTransactions) {
-            System.out.printf("%-15s | %-10s | %9.2f€ | %-30s | %-10s%n",
-                tx.getTransactionId(),
-                tx.getType(),
-                tx.getAmount(),
-                tx.getTransactionDate(),
-                tx.getStatus());
-        }
+        afficherTableau(accountTransactions);
     }
 
     /**
@@ -354,30 +1269,23 @@ public class BankingService {
             return;
         }
 
-        List<Transaction> accountTransactions = account.getTransactions();
-        List<Transaction> filteredTransactions = new ArrayList<>();
-
-        // Filtrer par type
-        for (Transaction tx : accountTransactions) {
-            if (tx.getType().equals(type)) {
-                filteredTransactions.add(tx);
-            }
-        }
-
+        // Journal du type, déjà dans l'ordre chronologique
+        List<Transaction> filteredTransactions = account.getHistory().ofType(type, 0, Integer.MAX_VALUE);
         if (filteredTransactions.isEmpty()) {
             System.out.println("Aucune transaction de type " + type + " pour ce compte.");
             return;
         }
 
-        // Tri par date
-        filteredTransactions.sort(Comparator.comparing(Transaction::getTransactionDate));
-
         System.out.println("\n=== Transactions de type " + type + " pour le compte " + accountNumber + " ===");
+        afficherTableau(filteredTransactions);
+    }
+
+    private void afficherTableau(List<Transaction> accountTransactions) {
         System.out.printf("%-15s | %-10s | %10s | %-30s | %-10s%n",
             "ID", "Type", "Montant", "Date", "Status");
         System.out.println("-".repeat(90));
 
-        for (Transaction tx : filteredTransactions) {
+        for (Transaction tx : accountTransactions) {
             System.out.printf("%-15s | %-10s | %9.2f€ | %-30s | %-10s%n",
                 tx.getTransactionId(),
                 tx.getType(),
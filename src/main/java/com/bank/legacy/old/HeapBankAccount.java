@@ -0,0 +1,57 @@
+package com.bank.legacy.old;
+
+import com.bank.legacy.applied.money.Money;
+
+import java.util.Date;
+
+/**
+ * Compte dont tout l'état est tenu sur le tas : l'implémentation d'origine de BankAccount, à
+ * construire directement. Les vues d'OffHeapAccountLedger (OffHeapBankAccount) en sont les sœurs.
+ */
+public class HeapBankAccount extends BankAccount {
+    private volatile long balance; // en centimes
+    private final double interestRate;
+    private final long overdraftLimit; // en centimes
+    private final Date creationDate;
+    private volatile String status; // "ACTIVE", "SUSPENDED", "CLOSED"
+    private volatile AccountStatus statusCode; // null pour un état inconnu
+    private volatile long journalSequence = -1;
+
+    // Constructeur monolithique avec trop de paramètres
+    public HeapBankAccount(String accountNumber, String accountType, String customerName,
+                           String customerEmail, String customerPhone, double initialDeposit,
+                           double interestRate, double overdraftLimit) {
+        super(accountNumber, accountType, customerName, customerEmail, customerPhone);
+        this.balance = Money.toMinor(initialDeposit);
+        this.interestRate = interestRate;
+        this.overdraftLimit = Money.toMinor(overdraftLimit);
+        this.creationDate = new Date();
+        this.status = "ACTIVE";
+        this.statusCode = AccountStatus.ACTIVE;
+    }
+
+    @Override public double getInterestRate() { return interestRate; }
+    @Override public Date getCreationDate() { return creationDate; }
+    @Override public String getStatus() { return status; }
+
+    @Override
+    public void setStatus(String status) {
+        this.statusCode = AccountStatus.fromCode(status);
+        this.status = status;
+    }
+
+    @Override public AccountStatus getStatusCode() { return statusCode; }
+
+    @Override
+    public void setStatus(AccountStatus status) {
+        this.statusCode = status;
+        this.status = status.name();
+    }
+
+    @Override public long getBalanceMinor() { return balance; }
+    @Override public void setBalanceMinor(long balance) { this.balance = balance; }
+    @Override public long getOverdraftLimitMinor() { return overdraftLimit; }
+
+    @Override public long getJournalSequence() { return journalSequence; }
+    @Override public void setJournalSequence(long journalSequence) { this.journalSequence = journalSequence; }
+}
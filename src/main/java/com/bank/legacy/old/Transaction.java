@@ -1,6 +1,7 @@
 package com.bank.legacy.old;
 
 import com.bank.legacy.applied.decorator2.FeeCalculator;
+import com.bank.legacy.applied.money.Money;
 
 import java.util.Date;
 
@@ -10,7 +11,8 @@ import java.util.Date;
 public class Transaction {
     private String transactionId;
     private String type; // "DEPOT", "RETRAIT", "VIREMENT"
-    private double amount;
+    private TransactionType transactionType; // null pour un type inconnu
+    private long amount; // en unités mineures (centimes) de la devise
     private String sourceAccount;
     private String destinationAccount;
     private Date transactionDate;
@@ -18,10 +20,27 @@ public class Transaction {
     private String rejectionReason;
     private FeeCalculator.Currency currency;
 
+    public Transaction(String transactionId, String type, Money amount,
+                       String sourceAccount, String destinationAccount) {
+        this(transactionId, type, amount.getMinorUnits(), sourceAccount, destinationAccount, amount.getCurrency());
+    }
+
     public Transaction(String transactionId, String type, double amount,
                        String sourceAccount, String destinationAccount, FeeCalculator.Currency currency) {
+        this(transactionId, type, Money.toMinor(amount), sourceAccount, destinationAccount, currency);
+    }
+
+    private Transaction(String transactionId, String type, long amount,
+                        String sourceAccount, String destinationAccount, FeeCalculator.Currency currency) {
+        this(transactionId, type, TransactionType.fromCode(type), amount, sourceAccount, destinationAccount, currency);
+    }
+
+    // Type déjà résolu et montant déjà en centimes (BankingService)
+    Transaction(String transactionId, String type, TransactionType transactionType, long amount,
+                String sourceAccount, String destinationAccount, FeeCalculator.Currency currency) {
         this.transactionId = transactionId;
         this.type = type;
+        this.transactionType = transactionType;
         this.amount = amount;
         this.sourceAccount = sourceAccount;
         this.destinationAccount = destinationAccount;
@@ -39,7 +58,10 @@ public class Transaction {
 
     public String getTransactionId() { return transactionId; }
     public String getType() { return type; }
-    public double getAmount() { return amount; }
+    public TransactionType getTransactionType() { return transactionType; }
+    public double getAmount() { return Money.toMajor(amount); }
+    public long getAmountMinor() { return amount; }
+    public Money getMoney() { return Money.of(amount, currency); }
     public String getSourceAccount() { return sourceAccount; }
     public String getDestinationAccount() { return destinationAccount; }
     public Date getTransactionDate() { return transactionDate; }
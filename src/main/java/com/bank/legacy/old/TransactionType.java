@@ -0,0 +1,27 @@
+package com.bank.legacy.old;
+
+/**
+ * Types de transaction traités par le BankingService.
+ * Le code texte ("DEPOT"...) reste celui de l'API historique et du journal.
+ */
+public enum TransactionType {
+    DEPOT,
+    RETRAIT,
+    VIREMENT;
+
+    /**
+     * Conversion depuis l'API texte
+     * @return null pour un type inconnu (ou null)
+     */
+    public static TransactionType fromCode(String code) {
+        if (code == null) {
+            return null;
+        }
+        switch (code) {
+            case "DEPOT": return DEPOT;
+            case "RETRAIT": return RETRAIT;
+            case "VIREMENT": return VIREMENT;
+            default: return null;
+        }
+    }
+}
@@ -0,0 +1,548 @@
+package com.bank.legacy;
+
+import com.bank.legacy.applied.async.AsyncTransactionService;
+import com.bank.legacy.applied.batch.BatchResult;
+import com.bank.legacy.applied.batch.InterestRunSummary;
+import com.bank.legacy.applied.batch.TransactionRequest;
+import com.bank.legacy.applied.chain.CompiledValidationPipeline;
+import com.bank.legacy.applied.chain.DailyLimitValidator;
+import com.bank.legacy.applied.chain.ValidationResult;
+import com.bank.legacy.applied.command.BankCommand;
+import com.bank.legacy.applied.command.TransactionExecutor;
+import com.bank.legacy.applied.ring.RingBufferEngine;
+import com.bank.legacy.applied.shard.ShardedBankingService;
+import com.bank.legacy.applied.store.SlidingWindowCounter;
+import com.bank.legacy.old.AccountType;
+import com.bank.legacy.old.BankAccount;
+import com.bank.legacy.old.BankingService;
+import com.bank.legacy.old.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de charge multi-threads : aucun euro ne doit être créé ni perdu sous contention
+ */
+public class BankingServiceConcurrencyTest {
+
+    private static final int ACCOUNTS = 16;
+    private static final int THREADS = 8;
+    private static final int TRANSFERS_PER_THREAD = 2000;
+    private static final double INITIAL_BALANCE = 1000.0;
+    private static final double TRANSFER_FEE = 1.0; // frais de virement d'un compte courant
+
+    private BankingService service;
+    private PrintStream originalOut;
+
+    @BeforeEach
+    public void setUp() {
+        // Les traces console du service ne font que ralentir le test
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        service = new BankingService();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Test
+    public void testConcurrentTransfersConserveMoney() throws Exception {
+        List<String> accountNumbers = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            BankAccount account = service.createAccount("COURANT", "User " + i, "user" + i + "@email.fr",
+                "060000000" + i, INITIAL_BALANCE);
+            accountNumbers.add(account.getAccountNumber());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            final long seed = t;
+            results.add(pool.submit(() -> {
+                Random random = new Random(seed);
+                start.await();
+                int completed = 0;
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    String source = accountNumbers.get(random.nextInt(ACCOUNTS));
+                    String destination = accountNumbers.get(random.nextInt(ACCOUNTS));
+                    if (source.equals(destination)) {
+                        continue;
+                    }
+                    double amount = 1 + random.nextInt(500);
+                    if (service.processTransaction("VIREMENT", source, destination, amount)) {
+                        completed++;
+                    }
+                }
+                return completed;
+            }));
+        }
+
+        start.countDown();
+        int completedTransfers = 0;
+        for (Future<Integer> result : results) {
+            completedTransfers += result.get();
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Total des soldes + frais prélevés = total initial
+        double total = 0;
+        for (String accountNumber : accountNumbers) {
+            BankAccount account = service.getAccount(accountNumber);
+            assertTrue(account.getBalance() >= -account.getOverdraftLimit(),
+                "Découvert autorisé dépassé sur " + accountNumber);
+            total += account.getBalance();
+        }
+        assertEquals(ACCOUNTS * INITIAL_BALANCE, total + completedTransfers * TRANSFER_FEE);
+
+        // Chaque transaction a un identifiant unique
+        List<Transaction> transactions = service.getTransactions();
+        Set<String> ids = new HashSet<>();
+        for (Transaction tx : transactions) {
+            assertTrue(ids.add(tx.getTransactionId()), "Identifiant dupliqué: " + tx.getTransactionId());
+        }
+        long completedInLedger = transactions.stream().filter(tx -> "COMPLETED".equals(tx.getStatus())).count();
+        assertEquals(completedTransfers, completedInLedger);
+    }
+
+    @Test
+    public void testConcurrentDepositsAndWithdrawalsOnSameAccount() throws Exception {
+        BankAccount account = service.createAccount("COURANT", "Shared", "shared@email.fr", "0600000000", 1000.0);
+        String accountNumber = account.getAccountNumber();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    assertTrue(service.processTransaction("DEPOT", null, accountNumber, 10.0));
+                    assertTrue(service.processTransaction("RETRAIT", accountNumber, null, 10.0));
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get();
+        }
+        pool.shutdown();
+
+        // Retraits < 1000 EUR sur compte courant : pas de frais
+        assertEquals(1000.0, account.getBalance());
+        assertEquals(2 * THREADS * TRANSFERS_PER_THREAD, service.getTransactions().size());
+    }
+
+    @Test
+    public void testParallelInterestWhileDepositsContinue() throws Exception {
+        List<String> accountNumbers = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            String type = i % 2 == 0 ? "EPARGNE" : "COURANT";
+            accountNumbers.add(service.createAccount(type, "User " + i, "user" + i + "@email.fr",
+                "0600000000", 1000.0).getAccountNumber());
+        }
+
+        // Dépôts concurrents pendant le versement des intérêts
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> deposits = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final long seed = t;
+            deposits.add(pool.submit(() -> {
+                Random random = new Random(seed);
+                start.await();
+                long deposited = 0;
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    if (service.processTransaction("DEPOT", null,
+                            accountNumbers.get(random.nextInt(accountNumbers.size())), 10.0)) {
+                        deposited += 1000;
+                    }
+                }
+                return deposited;
+            }));
+        }
+        start.countDown();
+        InterestRunSummary summary = service.applyInterestParallel();
+        long depositedMinor = 0;
+        for (Future<Long> result : deposits) {
+            depositedMinor += result.get();
+        }
+        pool.shutdown();
+
+        assertEquals(accountNumbers.size(), summary.getAccountsScanned());
+        assertEquals(accountNumbers.size() / 2, summary.getAccountsCredited());
+        long totalMinor = 0;
+        for (String accountNumber : accountNumbers) {
+            totalMinor += service.getAccount(accountNumber).getBalanceMinor();
+        }
+        assertEquals(accountNumbers.size() * 100_000L + depositedMinor + summary.getTotalInterestMinor(), totalMinor);
+    }
+
+    @Test
+    public void testConcurrentCrossShardTransfersConserveMoney() throws Exception {
+        ShardedBankingService sharded = new ShardedBankingService(4);
+        List<String> accountNumbers = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountNumbers.add(sharded.createAccount("COURANT", "User " + i, "user" + i + "@email.fr",
+                "060000000" + i, INITIAL_BALANCE).getAccountNumber());
+        }
+        Set<Integer> used = new HashSet<>();
+        for (String accountNumber : accountNumbers) {
+            used.add(sharded.shardOf(accountNumber));
+        }
+        assertEquals(4, used.size(), "Les comptes doivent être répartis sur tous les shards");
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final long seed = t;
+            results.add(pool.submit(() -> {
+                Random random = new Random(seed);
+                start.await();
+                int completed = 0;
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    String source = accountNumbers.get(random.nextInt(ACCOUNTS));
+                    String destination = accountNumbers.get(random.nextInt(ACCOUNTS));
+                    if (!source.equals(destination)
+                            && sharded.processTransaction("VIREMENT", source, destination, 1 + random.nextInt(500))) {
+                        completed++;
+                    }
+                }
+                return completed;
+            }));
+        }
+        start.countDown();
+        int completedTransfers = 0;
+        for (Future<Integer> result : results) {
+            completedTransfers += result.get();
+        }
+        pool.shutdown();
+
+        double total = 0;
+        for (String accountNumber : accountNumbers) {
+            BankAccount account = sharded.getAccount(accountNumber);
+            assertTrue(account.getBalance() >= -account.getOverdraftLimit());
+            total += account.getBalance();
+        }
+        assertEquals(ACCOUNTS * INITIAL_BALANCE, total + completedTransfers * TRANSFER_FEE, 1e-6);
+
+        // Un virement entre shards figure dans les deux grands livres, avec le même identifiant
+        Set<String> completedIds = new HashSet<>();
+        for (int i = 0; i < sharded.getShardCount(); i++) {
+            for (Transaction tx : sharded.getShard(i).getTransactions()) {
+                if ("COMPLETED".equals(tx.getStatus())) {
+                    completedIds.add(tx.getTransactionId());
+                }
+            }
+        }
+        assertEquals(completedTransfers, completedIds.size());
+    }
+
+    @Test
+    public void testRingBufferEngineSingleWriter() throws Exception {
+        BankAccount shared = service.createAccount("COURANT", "Shared", "shared@email.fr", "0600000000", 1000.0);
+        BankAccount other = service.createAccount("COURANT", "Other", "other@email.fr", "0600000001", 1000.0);
+        String accountNumber = shared.getAccountNumber();
+
+        // Consommateur en aval : voit chaque séquence une fois, dans l'ordre
+        AtomicLong seen = new AtomicLong();
+        AtomicLong completed = new AtomicLong();
+        RingBufferEngine engine = new RingBufferEngine(service, 64, (sequence, request, tx, code, fees, end) -> {
+            assertEquals(seen.getAndIncrement(), sequence);
+            if (code == BatchResult.COMPLETED) {
+                completed.incrementAndGet();
+            }
+        }).start();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    assertTrue(engine.processTransaction("DEPOT", null, accountNumber, 11.0));
+                    assertTrue(engine.processTransaction("VIREMENT", accountNumber, other.getAccountNumber(), 10.0));
+                }
+                assertFalse(engine.processTransaction("RETRAIT", "ACC999", null, 10.0));
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get();
+        }
+        pool.shutdown();
+        engine.close();
+
+        int transfers = THREADS * TRANSFERS_PER_THREAD;
+        // Dépôt de 11 EUR, virement de 10 EUR + 1 EUR de frais (compte courant)
+        assertEquals(1000.0, shared.getBalance(), 1e-6);
+        assertEquals(1000.0 + transfers * 10.0, other.getBalance(), 1e-6);
+        assertEquals(2 * transfers + THREADS, service.getTransactions().size());
+        assertEquals(2 * transfers + THREADS, seen.get());
+        assertEquals(2 * transfers, completed.get());
+    }
+
+    @Test
+    public void testRingBufferEngineCloseWhileProducersSubmit() throws Exception {
+        BankAccount account = service.createAccount("COURANT", "Shared", "shared@email.fr", "0600000000", 1000.0);
+        RingBufferEngine engine = new RingBufferEngine(service, 64).start();
+
+        // Les producteurs soumettent jusqu'à l'arrêt : aucun ne doit rester bloqué sur une séquence
+        // réservée après la fin du thread métier
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(THREADS);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            results.add(pool.submit(() -> {
+                started.countDown();
+                try {
+                    while (true) {
+                        if (engine.processTransaction("DEPOT", null, account.getAccountNumber(), 1.0)) {
+                            accepted.incrementAndGet();
+                        }
+                    }
+                } catch (IllegalStateException stopped) {
+                    return null;
+                }
+            }));
+        }
+        started.await();
+        engine.close();
+        for (Future<?> result : results) {
+            result.get(10, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        assertEquals(1000.0 + accepted.get(), account.getBalance(), 1e-6);
+    }
+
+    @Test
+    public void testAsyncSubmissionKeepsPerAccountOrder() throws Exception {
+        List<String> accountNumbers = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountNumbers.add(service.createAccount("COURANT", "User " + i, "user" + i + "@email.fr",
+                "060000000" + i, INITIAL_BALANCE).getAccountNumber());
+        }
+
+        List<CompletableFuture<ValidationResult>> results = new ArrayList<>();
+        try (AsyncTransactionService async = new AsyncTransactionService(service, 64)) {
+            // Deux retraits de 900 EUR consécutifs dépasseraient le découvert : l'ordre doit être respecté
+            for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                for (String accountNumber : accountNumbers) {
+                    results.add(async.submit(TransactionRequest.depot(accountNumber, 900.0)));
+                    results.add(async.submit(TransactionRequest.retrait(accountNumber, 900.0)));
+                }
+            }
+            for (CompletableFuture<ValidationResult> result : results) {
+                assertTrue(result.get().isValid(), result.get().toString());
+            }
+            assertEquals(0, async.getInFlight());
+            assertEquals("Compte introuvable",
+                async.processTransaction("RETRAIT", "ACC999", null, 10.0).get().getErrorMessage());
+        }
+        for (String accountNumber : accountNumbers) {
+            assertEquals(INITIAL_BALANCE, service.getAccount(accountNumber).getBalance());
+        }
+    }
+
+    @Test
+    public void testAsyncTransferOrderedOnBothAccounts() throws Exception {
+        List<String[]> pairs = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            pairs.add(new String[]{
+                service.createAccount("EPARGNE", "Source " + i, "s" + i + "@email.fr", "060000000" + i, 100_000.0)
+                    .getAccountNumber(),
+                service.createAccount("EPARGNE", "Dest " + i, "d" + i + "@email.fr", "060000001" + i, 500.0)
+                    .getAccountNumber()});
+        }
+
+        AsyncTransactionService async = new AsyncTransactionService(service, 64);
+        List<CompletableFuture<ValidationResult>> results = new ArrayList<>();
+        try {
+            // Sans découvert, le retrait n'est possible qu'après le virement qui le précède sur la destination
+            // (1 EUR de frais par retrait, 2,50 EUR par virement)
+            for (int i = 0; i < 100; i++) {
+                for (String[] pair : pairs) {
+                    results.add(async.submit(TransactionRequest.virement(pair[0], pair[1], 900.0)));
+                    results.add(async.submit(TransactionRequest.retrait(pair[1], 900.0)));
+                }
+            }
+            for (CompletableFuture<ValidationResult> result : results) {
+                assertTrue(result.get().isValid(), result.get().toString());
+            }
+        } finally {
+            async.close();
+        }
+
+        // Service arrêté : la demande échoue et son permis est rendu
+        ExecutionException rejected = assertThrows(ExecutionException.class,
+            () -> async.submit(TransactionRequest.depot(pairs.get(0)[1], 10.0)).get());
+        assertInstanceOf(RejectedExecutionException.class, rejected.getCause());
+        assertEquals(0, async.getInFlight());
+    }
+
+    @Test
+    public void testAsyncBackpressureRejectsWhenFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        BankCommand blocking = new BankCommand() {
+            @Override
+            public boolean execute() {
+                try {
+                    return release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+
+            @Override
+            public boolean undo() {
+                return true;
+            }
+
+            @Override
+            public String getDescription() {
+                return "Commande bloquante";
+            }
+        };
+
+        try (AsyncTransactionService async = new AsyncTransactionService(service, 1)) {
+            TransactionExecutor commands = new TransactionExecutor();
+            CompletableFuture<ValidationResult> pending = async.execute(commands, blocking);
+            ExecutionException rejected = assertThrows(ExecutionException.class,
+                () -> async.trySubmit(TransactionRequest.depot("ACC1000", 10.0)).get());
+            assertInstanceOf(RejectedExecutionException.class, rejected.getCause());
+
+            release.countDown();
+            assertTrue(pending.get().isValid());
+            assertEquals(1, commands.getHistorySize());
+        }
+    }
+
+    @Test
+    public void testSlidingWindowCounterUnderConcurrentEviction() throws Exception {
+        SlidingWindowCounter counter = new SlidingWindowCounter(3600, 60);
+        long now = 1_700_000_000L;
+        int threads = 4;
+        int handles = 5000;
+        int passes = 4;
+        // Anneaux remplis d'événements révolus : le décompte et le balayage les libèrent pendant
+        // que les incréments arrivent, sans qu'aucun ne soit perdu
+        for (int h = 0; h < handles; h++) {
+            counter.increment(h, now - 7200);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            writers.add(executor.submit(() -> {
+                start.await();
+                for (int pass = 0; pass < passes; pass++) {
+                    for (int h = 0; h < handles; h++) {
+                        counter.increment(h, now);
+                    }
+                }
+                return null;
+            }));
+        }
+        Future<?> evictor = executor.submit(() -> {
+            start.await();
+            while (!writers.stream().allMatch(Future::isDone)) {
+                for (int h = 0; h < handles; h++) {
+                    counter.count(h, now);
+                }
+            }
+            return null;
+        });
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get(30, TimeUnit.SECONDS);
+        }
+        evictor.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        for (int h = 0; h < handles; h++) {
+            assertEquals(threads * passes, counter.count(h, now), "Événements perdus pour le handle " + h);
+        }
+        // Fenêtre glissante par cases d'une minute, puis libération des comptes inactifs
+        assertEquals(threads * passes, counter.count(0, now + 3540));
+        assertEquals(0, counter.count(0, now + 3600));
+        for (int h = 0; h < handles; h++) {
+            counter.count(h, now + 7200);
+        }
+        assertEquals(0, counter.activeAccounts());
+    }
+
+    @Test
+    public void testDailyLimitReservationsUnderContention() throws Exception {
+        service.createAccount("COURANT", "Client", "c@test.fr", "0600000000", 2000);
+        service.createAccount("EPARGNE", "Client", "e@test.fr", "0600000000", 2000);
+        DailyLimitValidator dailyLimit = new DailyLimitValidator();
+        dailyLimit.setDailyLimit(AccountType.EPARGNE, 1000);
+        // Un contrôle suivant rejette une transaction sur deux : sa réservation doit être rendue
+        CompiledValidationPipeline pipeline = new CompiledValidationPipeline(dailyLimit,
+            context -> context.getTransaction().getTransactionId().endsWith("R")
+                ? ValidationResult.failure("Rejet") : ValidationResult.success());
+
+        int perThread = 50;
+        AtomicInteger accepted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    String id = "TXL" + thread + "-" + i + (i % 2 == 0 ? "R" : "");
+                    if (pipeline.validate(new Transaction(id, "RETRAIT", 100.0, "ACC1000", null), service).isValid()) {
+                        accepted.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        // 10 000 EUR de plafond : exactement 100 retraits de 100 EUR, ni plus ni moins
+        assertEquals(100, accepted.get());
+
+        // Plafond propre au type de compte
+        assertTrue(pipeline.validate(new Transaction("TXE1", "RETRAIT", 600.0, "ACC1001", null), service).isValid());
+        ValidationResult refused = pipeline.validate(new Transaction("TXE2", "RETRAIT", 600.0, "ACC1001", null), service);
+        assertFalse(refused.isValid());
+        assertTrue(refused.getErrorMessage().contains("déjà utilisé: 600.0"));
+    }
+}
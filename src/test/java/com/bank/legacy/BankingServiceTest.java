@@ -1,9 +1,59 @@
 package com.bank.legacy;
 
+import com.bank.legacy.applied.batch.BatchResult;
+import com.bank.legacy.applied.batch.InterestRunSummary;
+import com.bank.legacy.applied.batch.TransactionRequest;
+import com.bank.legacy.applied.chain.AbstractTransactionValidator;
+import com.bank.legacy.applied.chain.AmountValidator;
+import com.bank.legacy.applied.chain.CompiledValidationPipeline;
+import com.bank.legacy.applied.chain.DailyLimitValidator;
+import com.bank.legacy.applied.chain.FailureCode;
+import com.bank.legacy.applied.chain.TransactionValidator;
+import com.bank.legacy.applied.chain.ValidationChainBuilder;
+import com.bank.legacy.applied.chain.ValidationContext;
+import com.bank.legacy.applied.chain.ValidationResult;
+import com.bank.legacy.applied.chain.ValidationRuleEngine;
+import com.bank.legacy.applied.command.TransactionExecutor;
+import com.bank.legacy.applied.command.TransferCommand;
+import com.bank.legacy.applied.command.WithdrawCommand;
+import com.bank.legacy.applied.money.Money;
+import com.bank.legacy.applied.store.ColumnarTransactionStore;
+import com.bank.legacy.applied.store.DailyLimitLedger;
+import com.bank.legacy.applied.store.IdempotencyCache;
+import com.bank.legacy.applied.store.OffHeapAccountLedger;
+import com.bank.legacy.applied.store.OffHeapBankAccount;
+import com.bank.legacy.applied.store.TransactionHistory;
+import com.bank.legacy.applied.trace.AsyncFileTraceSink;
+import com.bank.legacy.applied.trace.RingTraceSink;
+import com.bank.legacy.applied.trace.TraceEntry;
+import com.bank.legacy.applied.trace.TraceLevel;
+import com.bank.legacy.applied.trace.TraceSink;
+import com.bank.legacy.applied.trace.Tracer;
+import com.bank.legacy.old.AccountStatus;
+import com.bank.legacy.old.AccountType;
 import com.bank.legacy.old.BankAccount;
 import com.bank.legacy.old.BankingService;
+import com.bank.legacy.old.Transaction;
+import com.bank.legacy.old.TransactionType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -193,4 +243,699 @@ public class BankingServiceTest {
         service.processTransaction("RETRAIT", account.getAccountNumber(), null, 300.0);
         assertEquals(2198.0, account.getBalance()); // 2499 - 300 - 1.00
     }
+
+    // ========== TESTS POUR LE RELEVÉ ==========
+
+    @Test
+    public void testStatementListsOnlyAccountTransactions() {
+        BankAccount account = service.createAccount("COURANT", "User 1", "user1@email.fr", "0600000001", 1000.0);
+        BankAccount other = service.createAccount("COURANT", "User 2", "user2@email.fr", "0600000002", 1000.0);
+
+        service.processTransaction("DEPOT", null, account.getAccountNumber(), 200.0);
+        service.processTransaction("RETRAIT", other.getAccountNumber(), null, 50.0);
+        service.processTransaction("VIREMENT", other.getAccountNumber(), account.getAccountNumber(), 30.0);
+
+        String statement = service.generateStatement(account.getAccountNumber());
+        assertTrue(statement.contains("DEPOT | +200.0 EUR | COMPLETED"));
+        assertTrue(statement.contains("VIREMENT | +30.0 EUR | COMPLETED"));
+        assertFalse(statement.contains("RETRAIT"));
+    }
+
+    @Test
+    public void testStreamingStatementWithDateRange() throws Exception {
+        BankAccount account = service.createAccount("COURANT", "User 1", "user1@email.fr", "0600000001", 1000.0);
+        service.processTransaction("DEPOT", null, account.getAccountNumber(), 200.0);
+
+        ByteArrayOutputStream all = new ByteArrayOutputStream();
+        assertTrue(service.writeStatement(account.getAccountNumber(), null, null, all));
+        assertEquals(service.generateStatement(account.getAccountNumber()), all.toString(StandardCharsets.UTF_8));
+
+        // Période terminée avant la transaction : aucune ligne
+        StringWriter past = new StringWriter();
+        service.writeStatement(account.getAccountNumber(), null, new Date(0), past);
+        assertFalse(past.toString().contains("DEPOT"));
+
+        assertFalse(service.writeStatement("ACC999", null, null, new StringWriter()));
+    }
+
+    // ========== TESTS POUR LE TRAITEMENT PAR LOTS ==========
+
+    @Test
+    public void testBatchMatchesSequentialProcessing() {
+        BankingService sequential = new BankingService();
+        String[] types = {"COURANT", "EPARGNE", "PROFESSIONNEL"};
+        List<String> accountNumbers = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            String type = types[i % types.length];
+            accountNumbers.add(service.createAccount(type, "User " + i, "u" + i + "@email.fr", "0600000000", 1500.0)
+                .getAccountNumber());
+            sequential.createAccount(type, "User " + i, "u" + i + "@email.fr", "0600000000", 1500.0);
+        }
+        accountNumbers.add("ACC999"); // compte inconnu
+
+        // Plus de demandes qu'une tranche, avec des rejets de chaque sorte
+        Random random = new Random(3);
+        String[] requestTypes = {"DEPOT", "RETRAIT", "VIREMENT", "INCONNU"};
+        List<TransactionRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            String type = requestTypes[random.nextInt(requestTypes.length)];
+            String source = "DEPOT".equals(type) ? null : accountNumbers.get(random.nextInt(accountNumbers.size()));
+            String destination = "RETRAIT".equals(type) ? null : accountNumbers.get(random.nextInt(accountNumbers.size()));
+            double amount = random.nextInt(20) == 0 ? 12000.0 : random.nextInt(1200) - 10;
+            requests.add(new TransactionRequest(type, source, destination, amount));
+        }
+
+        BatchResult result = service.processBatch(requests);
+        assertEquals(requests.size(), result.size());
+        for (int i = 0; i < requests.size(); i++) {
+            TransactionRequest request = requests.get(i);
+            boolean completed = sequential.processTransaction(request.getType(), request.getSourceAccount(),
+                request.getDestinationAccount(), request.getAmount());
+            assertEquals(completed, result.isCompleted(i), "Demande " + i);
+            assertEquals(sequential.getTransactions().get(i).getRejectionReason(), result.getRejectionReason(i));
+        }
+        assertTrue(result.getCompletedCount() > 0 && result.getRejectedCount() > 0);
+
+        for (String accountNumber : accountNumbers.subList(0, 6)) {
+            assertEquals(sequential.getAccount(accountNumber).getBalance(), service.getAccount(accountNumber).getBalance());
+            assertEquals(sequential.generateStatement(accountNumber).lines().count(),
+                         service.generateStatement(accountNumber).lines().count());
+        }
+        assertEquals(requests.size(), service.getTransactions().size());
+    }
+
+    @Test
+    public void testParallelInterestMatchesSequential() {
+        BankingService sequential = new BankingService();
+        String[] types = {"COURANT", "EPARGNE", "PROFESSIONNEL"};
+        List<String> accountNumbers = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            double deposit = 1000.0 + i * 13.37;
+            accountNumbers.add(service.createAccount(types[i % 3], "User " + i, "u@email.fr", "0600000000", deposit)
+                .getAccountNumber());
+            sequential.createAccount(types[i % 3], "User " + i, "u@email.fr", "0600000000", deposit);
+        }
+
+        sequential.applyInterest();
+        InterestRunSummary summary = service.applyInterestParallel();
+
+        assertEquals(300, summary.getAccountsScanned());
+        assertEquals(200, summary.getAccountsCredited());
+        for (String accountNumber : accountNumbers) {
+            assertEquals(sequential.getAccount(accountNumber).getBalance(), service.getAccount(accountNumber).getBalance());
+        }
+    }
+
+    @Test
+    public void testTypedApiMatchesStringAdapter() {
+        BankAccount pro = service.createAccount(AccountType.PROFESSIONNEL, "Pro", "pro@email.fr", "0600000000", 6000.0);
+        assertEquals("PROFESSIONNEL", pro.getAccountType());
+        assertEquals(AccountType.PROFESSIONNEL, pro.getType());
+        assertEquals(2000.0, pro.getOverdraftLimit());
+        assertNull(service.createAccount(AccountType.EPARGNE, "E", "e@email.fr", "0600000000", 499.99));
+
+        // Retrait > 5000 EUR sur compte pro : 5.00 de frais
+        assertTrue(service.processTransaction(TransactionType.RETRAIT, pro.getAccountNumber(), null, 5500.0));
+        assertEquals(495.0, pro.getBalance());
+
+        assertFalse(service.processTransaction("PRELEVEMENT", pro.getAccountNumber(), null, 10.0));
+        assertEquals("Type inconnu", service.getTransactions().get(1).getRejectionReason());
+        assertNull(service.getTransactions().get(1).getTransactionType());
+
+        pro.setStatus("FROZEN");
+        assertEquals(AccountStatus.FROZEN, pro.getStatusCode());
+        pro.setStatus(AccountStatus.ACTIVE);
+        assertEquals("ACTIVE", pro.getStatus());
+    }
+
+    // ========== TESTS POUR LE STOCKAGE EN COLONNES ==========
+
+    @Test
+    public void testColumnarQueriesMatchLedger() {
+        assertNull(service.getColumnarStore());
+        service.enableColumnarStore();
+        BankAccount courant = service.createAccount("COURANT", "User 1", "user1@email.fr", "0600000001", 2000.0);
+        BankAccount epargne = service.createAccount("EPARGNE", "User 2", "user2@email.fr", "0600000002", 3000.0);
+        service.processTransaction("DEPOT", null, courant.getAccountNumber(), 500.0);
+        service.processTransaction("RETRAIT", courant.getAccountNumber(), null, 1500.0); // frais 2.50
+        service.processTransaction("VIREMENT", epargne.getAccountNumber(), courant.getAccountNumber(), 100.0);
+        service.processTransaction("RETRAIT", courant.getAccountNumber(), null, 99999.0); // rejeté
+        service.processBatch(List.of(TransactionRequest.depot(epargne.getAccountNumber(), 40.0)));
+
+        ColumnarTransactionStore store = service.getColumnarStore();
+        assertEquals(5, store.size());
+        assertEquals(4, store.query().forAccount(courant.getAccountNumber()).count());
+        assertEquals(3, store.query().forAccount(courant.getAccountNumber()).completed().count());
+        assertEquals(210_000, store.query().forAccount(courant.getAccountNumber()).completed().sumAmountMinor());
+        assertEquals(250 + 250, store.query().completed().sumFeesMinor());
+        assertEquals(0, store.query().forAccount("ACC999").count());
+
+        Map<TransactionType, Long> byType = store.query().completed().sumByType();
+        assertEquals(54_000, byType.get(TransactionType.DEPOT));
+        assertEquals(150_000, byType.get(TransactionType.RETRAIT));
+        assertEquals(10_000, byType.get(TransactionType.VIREMENT));
+
+        Map<String, Long> byAccount = store.query().ofType(TransactionType.VIREMENT).sumByAccount();
+        assertEquals(10_000, byAccount.get(courant.getAccountNumber()));
+        assertEquals(10_000, byAccount.get(epargne.getAccountNumber()));
+
+        assertEquals(0, store.query().between(null, new Date(0)).count());
+        long total = store.query().sumByWindow(60_000).values().stream().mapToLong(Long::longValue).sum();
+        assertEquals(store.query().sumAmountMinor(), total);
+        assertArrayEquals(new int[]{2}, store.query().ofType(TransactionType.VIREMENT).rows());
+
+        // Activation tardive refusée : les frais des transactions passées sont inconnus
+        BankingService late = new BankingService();
+        late.processTransaction("DEPOT", null, "ACC999", 10.0);
+        assertThrows(IllegalStateException.class, late::enableColumnarStore);
+    }
+
+    // ========== TESTS POUR L'HISTORIQUE D'UN COMPTE ==========
+
+    @Test
+    public void testHistoryQueriesWithoutSorting() {
+        TransactionHistory history = new TransactionHistory();
+        double[] amounts = {500.0, 100.0, 1500.0, 300.0, 50.0, 800.0, 5000.0};
+        String[] types = {"DEPOT", "RETRAIT", "DEPOT", "VIREMENT", "RETRAIT", "DEPOT", "CHEQUE"};
+        for (int i = 0; i < amounts.length; i++) {
+            history.add(new Transaction("TX" + i, types[i], amounts[i], "ACC1000", null));
+        }
+
+        assertEquals(7, history.size());
+        assertEquals(7, history.between(Long.MIN_VALUE, Long.MAX_VALUE).size());
+        assertTrue(history.between(Long.MIN_VALUE, 0).isEmpty());
+        List<Transaction> snapshot = history.snapshot();
+        assertEquals("TX0", snapshot.get(0).getTransactionId());
+
+        List<Transaction> top = history.topByAmount(3);
+        assertEquals(List.of("TX6", "TX2", "TX5"), top.stream().map(Transaction::getTransactionId).toList());
+        assertEquals(50.0, history.byAmount(0, 1).get(0).getAmount());
+        assertEquals(7, history.topByAmount(100).size());
+
+        // 3 dépôts, paginés par 2, dans l'ordre d'arrivée
+        assertEquals(3, history.countOfType(TransactionType.DEPOT));
+        assertEquals(List.of("TX0", "TX2"), history.ofType(TransactionType.DEPOT, 0, 2).stream()
+            .map(Transaction::getTransactionId).toList());
+        assertEquals(List.of("TX5"), history.ofType("DEPOT", 1, 2).stream()
+            .map(Transaction::getTransactionId).toList());
+        assertTrue(history.ofType(TransactionType.DEPOT, 2, 2).isEmpty());
+        assertEquals(1, history.ofType("CHEQUE", 0, 10).size());
+        assertTrue(history.ofType("INCONNU", 0, 10).isEmpty());
+
+        // La vue prise avant un ajout n'est pas modifiée
+        history.add(new Transaction("TX7", "DEPOT", 10.0, null, "ACC1000"));
+        assertEquals(7, snapshot.size());
+        assertEquals(8, history.snapshot().size());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add(null));
+    }
+
+    @Test
+    public void testLongHistoryKeepsLargestAmounts() {
+        TransactionHistory history = new TransactionHistory();
+        Random random = new Random(7);
+        int count = 20 * TransactionHistory.TOP_CAPACITY;
+        for (int i = 0; i < count; i++) {
+            history.add(new Transaction("TX" + i, "RETRAIT", 1 + random.nextInt(1000), "ACC1000", null));
+        }
+        List<Transaction> ascending = new ArrayList<>(history.snapshot());
+        ascending.sort(Comparator.comparingLong(Transaction::getAmountMinor));
+
+        // Dans l'index borné puis au-delà : même ordre qu'un tri complet (le plus récent d'abord à montant égal)
+        for (int n : new int[]{10, TransactionHistory.TOP_CAPACITY, TransactionHistory.TOP_CAPACITY + 1}) {
+            List<Transaction> top = history.topByAmount(n);
+            for (int i = 0; i < n; i++) {
+                assertSame(ascending.get(count - 1 - i), top.get(i));
+            }
+        }
+        assertEquals(ascending.subList(100, 150), history.byAmount(100, 50));
+        assertEquals(List.of(), history.byAmount(count, 10));
+    }
+
+    @Test
+    public void testSnapshotViewsUnchangedByLaterAppends() {
+        BankAccount account = service.createAccount("COURANT", "Jean Dupont", "jean@email.fr", "0601020304", 1000.0);
+        String accountNumber = account.getAccountNumber();
+        for (int i = 0; i < 5; i++) {
+            service.processTransaction("DEPOT", null, accountNumber, 10.0 + i);
+            account.addTransaction(new Transaction("TX" + i, "DEPOT", 10.0 + i, null, accountNumber));
+        }
+        List<Transaction> ledger = service.getTransactions();
+        List<Transaction> history = account.getTransactions();
+        List<Transaction> ledgerCopy = new ArrayList<>(ledger);
+        List<Transaction> historyCopy = new ArrayList<>(history);
+
+        // Ajouts un à un puis par lot, sur plusieurs segments (8, 16, 32, 64... éléments)
+        for (int i = 0; i < 40; i++) {
+            service.processTransaction("RETRAIT", accountNumber, null, 1.0);
+        }
+        List<TransactionRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            requests.add(TransactionRequest.depot(accountNumber, 2.0));
+        }
+        service.processBatch(requests);
+        for (int i = 5; i < 145; i++) {
+            account.addTransaction(new Transaction("TX" + i, "RETRAIT", 1.0, accountNumber, null));
+        }
+
+        assertEquals(5, ledger.size());
+        assertEquals(5, history.size());
+        for (int i = 0; i < 5; i++) {
+            assertSame(ledgerCopy.get(i), ledger.get(i));
+            assertSame(historyCopy.get(i), history.get(i));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> ledger.get(5));
+        assertEquals(145, service.getTransactions().size());
+        assertEquals(145, account.getTransactions().size());
+        assertEquals(ledgerCopy, service.getTransactions().subList(0, 5));
+        assertEquals(historyCopy, account.getTransactions().subList(0, 5));
+    }
+
+    // ========== TESTS POUR L'IDEMPOTENCE ==========
+
+    @Test
+    public void testIdempotentRetryReturnsOriginalTransaction() {
+        BankAccount account = service.createAccount("COURANT", "Test User", "test@email.fr", "0600000000", 500.0);
+        TransactionRequest retrait = TransactionRequest.retrait(account.getAccountNumber(), 100.0);
+
+        Transaction first = service.processTransaction("client-42", retrait);
+        Transaction retry = service.processTransaction("client-42", retrait);
+        assertSame(first, retry);
+        assertEquals("COMPLETED", first.getStatus());
+        assertEquals(400.0, account.getBalance());
+        assertEquals(1, service.getTransactions().size());
+
+        // Un rejet est rejoué tel quel, même si la demande passerait maintenant
+        Transaction rejected = service.processTransaction("client-43", TransactionRequest.retrait(account.getAccountNumber(), 5000.0));
+        assertEquals("Solde insuffisant", rejected.getRejectionReason());
+        service.processTransaction(TransactionType.DEPOT, null, account.getAccountNumber(), 9000.0);
+        assertSame(rejected, service.processTransaction("client-43", TransactionRequest.retrait(account.getAccountNumber(), 5000.0)));
+        assertEquals(3, service.getTransactions().size());
+    }
+
+    @Test
+    public void testIdempotencyCacheExpiryAndBound() {
+        IdempotencyCache<String> cache = new IdempotencyCache<>(100, 1000);
+        for (int i = 0; i < 150; i++) {
+            cache.put("key" + i, "result" + i, i);
+        }
+        // Borné à 100 clés : les 50 plus anciennes sont oubliées
+        assertEquals(100, cache.size());
+        assertNull(cache.get("key0", 150));
+        assertNull(cache.get("key49", 150));
+        assertEquals("result50", cache.get("key50", 150));
+        assertEquals("result149", cache.get("key149", 150));
+
+        // Fenêtre de 1000 ms : key50 (t=50) expire à 1050
+        assertNull(cache.get("key50", 1050));
+        assertEquals("result51", cache.get("key51", 1050));
+        assertEquals(99, cache.size());
+
+        // Une clé remémorisée n'est pas évincée par son ancienne échéance
+        cache.put("key60", "again", 1055);
+        assertEquals("again", cache.get("key60", 1500));
+        assertNull(cache.get("key61", 1500));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testAccountHandlesAreDenseAndStable() {
+        BankingService service = new BankingService();
+        BankAccount[] created = new BankAccount[40];
+        for (int i = 0; i < created.length; i++) {
+            created[i] = service.createAccount("COURANT", "Client " + i, "c" + i + "@test.fr", "060000000" + i, 100);
+        }
+        // Handles 0..n-1 dans l'ordre d'ouverture, au-delà de la capacité initiale des tables
+        for (int i = 0; i < created.length; i++) {
+            assertEquals(i, created[i].getHandle());
+            assertEquals(i, service.getAccountHandle(created[i].getAccountNumber()));
+            assertSame(created[i], service.getAccount(i));
+        }
+        assertEquals(-1, service.getAccountHandle("ACC9999"));
+        assertEquals(-1, service.getAccountHandle(null));
+        assertNull(service.getAccount(-1));
+        assertNull(service.getAccount(created.length));
+
+        // Lot et relevé passent par les handles
+        String first = created[0].getAccountNumber();
+        String last = created[created.length - 1].getAccountNumber();
+        BatchResult result = service.processBatch(List.of(
+            new TransactionRequest("VIREMENT", first, last, 10),
+            new TransactionRequest("DEPOT", null, "ACC9999", 10)));
+        assertEquals(BatchResult.COMPLETED, result.getCode(0));
+        assertEquals(BatchResult.COMPTE_INTROUVABLE, result.getCode(1));
+        assertEquals(110.0, created[created.length - 1].getBalance(), 0.001);
+        assertTrue(service.generateStatement(last).contains("VIREMENT"));
+        assertFalse(service.generateStatement(created[1].getAccountNumber()).contains("VIREMENT"));
+    }
+
+    @Test
+    public void testOffHeapLedgerMatchesHeapAccounts() {
+        OffHeapAccountLedger ledger = new OffHeapAccountLedger();
+        BankingService offHeap = new BankingService("TX", ledger);
+        BankingService onHeap = new BankingService();
+        String[] types = {"COURANT", "EPARGNE", "PROFESSIONNEL"};
+        for (BankingService s : List.of(offHeap, onHeap)) {
+            for (int i = 0; i < 6; i++) {
+                s.createAccount(types[i % 3], "Client " + i, "c" + i + "@test.fr", "0600000000", 5000);
+            }
+            s.processTransaction("RETRAIT", "ACC1000", null, 1200);
+            s.processTransaction("VIREMENT", "ACC1001", "ACC1002", 300.5);
+            s.processBatch(List.of(
+                new TransactionRequest("DEPOT", null, "ACC1003", 99.99),
+                new TransactionRequest("VIREMENT", "ACC1004", "ACC1005", 6000),
+                new TransactionRequest("RETRAIT", "ACC1005", null, 10)));
+            s.applyInterestParallel();
+            s.getAccount("ACC1002").setStatus(AccountStatus.FROZEN);
+        }
+
+        long total = 0;
+        for (int i = 0; i < 6; i++) {
+            BankAccount view = offHeap.getAccount("ACC" + (1000 + i));
+            BankAccount heap = onHeap.getAccount("ACC" + (1000 + i));
+            assertTrue(view instanceof OffHeapBankAccount);
+            assertEquals(heap.getBalanceMinor(), view.getBalanceMinor());
+            assertEquals(heap.getOverdraftLimitMinor(), view.getOverdraftLimitMinor());
+            assertEquals(heap.getInterestRate(), view.getInterestRate(), 0.0);
+            assertEquals(heap.getType(), view.getType());
+            assertEquals(heap.getStatus(), view.getStatus());
+            assertEquals(heap.getStatusCode(), view.getStatusCode());
+            assertEquals("Client " + i, view.getCustomerName());
+            assertNotNull(view.getCreationDate());
+            total += view.getBalanceMinor();
+        }
+        assertEquals(6, ledger.size());
+        assertEquals(total, ledger.sumBalances());
+
+        // Un état inconnu est conservé tel quel
+        BankAccount view = offHeap.getAccount("ACC1003");
+        view.setStatus("EN_REVUE");
+        assertEquals("EN_REVUE", view.getStatus());
+        assertNull(view.getStatusCode());
+        view.setStatus("ACTIVE");
+        assertEquals(AccountStatus.ACTIVE, view.getStatusCode());
+    }
+
+    @Test
+    public void testCompiledPipelineMatchesLinkedChain() {
+        BankingService service = new BankingService();
+        String[] types = {"COURANT", "EPARGNE", "PROFESSIONNEL"};
+        for (int i = 0; i < 6; i++) {
+            service.createAccount(types[i % 3], "Client " + i, "c" + i + "@test.fr", "0600000000", 2000);
+        }
+        service.getAccount("ACC1004").setStatus(AccountStatus.FROZEN);
+        service.getAccount("ACC1005").setStatus(AccountStatus.SUSPENDED);
+
+        TransactionValidator chain = ValidationChainBuilder.buildChain();
+        CompiledValidationPipeline pipeline = ValidationChainBuilder.compile();
+        TransactionValidator simpleChain = ValidationChainBuilder.buildSimpleChain();
+        CompiledValidationPipeline simplePipeline = ValidationChainBuilder.compileSimple();
+        String[] accounts = {"ACC1000", "ACC1001", "ACC1002", "ACC1003", "ACC1004", "ACC1005", "ACC9999", null, ""};
+        String[] txTypes = {"DEPOT", "RETRAIT", "VIREMENT", "INCONNU"};
+        double[] amounts = {-5, 0, 10, 950, 2500, 4000, 60000};
+        Random random = new Random(3);
+        int failures = 0;
+        for (int i = 0; i < 300; i++) {
+            Transaction tx = new Transaction("TXV" + i, txTypes[random.nextInt(txTypes.length)],
+                amounts[random.nextInt(amounts.length)],
+                accounts[random.nextInt(accounts.length)], accounts[random.nextInt(accounts.length)]);
+            ValidationResult linked = chain.validate(tx, service);
+            ValidationResult compiled = pipeline.validate(tx, service);
+            assertEquals(linked.isValid(), compiled.isValid(), tx.getTransactionId());
+            assertEquals(linked.getErrorMessage(), compiled.getErrorMessage(), tx.getTransactionId());
+            assertEquals(simpleChain.validate(tx, service).toString(), simplePipeline.validate(tx, service).toString());
+            if (!linked.isValid()) {
+                failures++;
+            }
+        }
+        // Des succès comme des échecs
+        assertTrue(failures > 0 && failures < 300);
+    }
+
+    @Test
+    public void testLinkedChainSharesContextAndRunsLegacyValidators() {
+        BankingService service = new BankingService();
+        BankAccount account = service.createAccount("COURANT", "Client 0", "c0@test.fr", "0600000000", 5000);
+        Transaction tx = new Transaction("TXL1", "RETRAIT", 300.0, account.getAccountNumber(), null);
+
+        // Un seul contexte pour toute la chaîne liée
+        List<ValidationContext> seen = new ArrayList<>();
+        AbstractTransactionValidator first = new AbstractTransactionValidator("Premier") {
+            @Override
+            public ValidationResult check(ValidationContext context) {
+                seen.add(context);
+                return ValidationResult.success();
+            }
+        };
+        AbstractTransactionValidator last = new AbstractTransactionValidator("Dernier") {
+            @Override
+            public ValidationResult check(ValidationContext context) {
+                seen.add(context);
+                return ValidationResult.success();
+            }
+        };
+        AmountValidator amount = new AmountValidator();
+        first.setNext(amount);
+        amount.setNext(last);
+        assertTrue(first.validate(tx, service).isValid());
+        assertEquals(2, seen.size());
+        assertSame(seen.get(0), seen.get(1));
+
+        // Validateur écrit avant check (validate seul) : rejet en bout de chaîne, réservation rendue
+        AbstractTransactionValidator legacy = new AbstractTransactionValidator("Legacy") {
+            @Override
+            public ValidationResult validate(Transaction transaction, BankingService service) {
+                if (transaction.getAmount() > 500) {
+                    return ValidationResult.failure("Montant refusé");
+                }
+                return validateNext(transaction, service);
+            }
+        };
+        DailyLimitLedger ledger = new DailyLimitLedger();
+        DailyLimitValidator dailyLimit = new DailyLimitValidator(ledger);
+        dailyLimit.setNext(legacy);
+        long day = LocalDate.now().toEpochDay();
+        Transaction large = new Transaction("TXL2", "RETRAIT", 800.0, account.getAccountNumber(), null);
+        assertEquals("Montant refusé", dailyLimit.validate(large, service).getErrorMessage());
+        assertEquals(0, ledger.used(account.getHandle(), day));
+        assertTrue(dailyLimit.validate(tx, service).isValid());
+        assertEquals(Money.toMinor(300), ledger.used(account.getHandle(), day));
+
+        // Et comme étape d'une chaîne compilée
+        assertEquals("Montant refusé", new CompiledValidationPipeline(legacy).validate(large, service).getErrorMessage());
+    }
+
+    @Test
+    public void testRuleEngineMatchesChainAndReloads(@TempDir Path directory) throws Exception {
+        BankingService service = new BankingService();
+        String[] types = {"COURANT", "EPARGNE", "PROFESSIONNEL"};
+        for (int i = 0; i < 6; i++) {
+            service.createAccount(types[i % 3], "Client " + i, "c" + i + "@test.fr", "0600000000", 2000);
+        }
+        service.getAccount("ACC1004").setStatus(AccountStatus.FROZEN);
+
+        // Sans règles : mêmes résultats que la chaîne codée en dur
+        ValidationRuleEngine defaults = new ValidationRuleEngine(new Properties());
+        CompiledValidationPipeline pipeline = ValidationChainBuilder.compile();
+        String[] accounts = {"ACC1000", "ACC1001", "ACC1002", "ACC1003", "ACC1004", "ACC9999", null};
+        String[] txTypes = {"DEPOT", "RETRAIT", "VIREMENT", "INCONNU"};
+        double[] amounts = {-5, 10, 950, 2500, 4000, 60000};
+        Random random = new Random(5);
+        for (int i = 0; i < 300; i++) {
+            Transaction tx = new Transaction("TXR" + i, txTypes[random.nextInt(txTypes.length)],
+                amounts[random.nextInt(amounts.length)],
+                accounts[random.nextInt(accounts.length)], accounts[random.nextInt(accounts.length)]);
+            assertEquals(pipeline.validate(tx, service).toString(), defaults.validate(tx, service).toString(),
+                         tx.getTransactionId());
+        }
+
+        // Plafond propre à un couple (type de compte, type de transaction), puis rechargement à chaud
+        Path rules = directory.resolve("validation.properties");
+        Files.writeString(rules, "amount.max.EPARGNE.RETRAIT=100\n");
+        ValidationRuleEngine engine = ValidationRuleEngine.fromFile(rules);
+        Transaction savingsWithdrawal = new Transaction("TXR1", "RETRAIT", 150.0, "ACC1001", null);
+        Transaction currentWithdrawal = new Transaction("TXR2", "RETRAIT", 150.0, "ACC1000", null);
+        assertFalse(engine.validate(savingsWithdrawal, service).isValid());
+        assertTrue(engine.validate(currentWithdrawal, service).isValid());
+        assertFalse(engine.reloadIfModified());
+
+        Files.writeString(rules, "amount.max.EPARGNE=200\ndaily.limit.COURANT=100\n");
+        Files.setLastModifiedTime(rules, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        assertTrue(engine.reloadIfModified());
+        assertTrue(engine.validate(savingsWithdrawal, service).isValid());
+        // Le cumul du jour survit au rechargement : 150 EUR déjà réservés sur ACC1000
+        assertFalse(engine.validate(new Transaction("TXR3", "RETRAIT", 10.0, "ACC1000", null), service).isValid());
+
+        // Règles invalides refusées, les précédentes restent en place
+        Files.writeString(rules, "daily.limit.EPARNE=100\n");
+        assertThrows(IllegalArgumentException.class, engine::reload);
+        assertTrue(engine.validate(savingsWithdrawal, service).isValid());
+    }
+
+    @Test
+    public void testRuleEngineUndoUsesPipelineThatValidated(@TempDir Path directory) throws Exception {
+        BankingService service = new BankingService();
+        String account = service.createAccount("COURANT", "Client 0", "c0@test.fr", "0600000000", 5000)
+                                .getAccountNumber();
+        String withLimit = "steps=amount,accountExists,dailyLimit\ndaily.limit=1000\n";
+        String withoutLimit = "steps=amount,accountExists\n";
+        Path rules = directory.resolve("validation.properties");
+        Files.writeString(rules, withLimit);
+        ValidationRuleEngine engine = ValidationRuleEngine.fromFile(rules);
+
+        // Validé avec la limite, annulé après un rechargement qui la retire : 900 EUR rendus
+        ValidationContext reserved = new ValidationContext(
+            new Transaction("TXU1", "RETRAIT", 900.0, account, null), service);
+        assertTrue(engine.validate(reserved).isValid());
+        Files.writeString(rules, withoutLimit);
+        engine.reload();
+        engine.undo(reserved);
+
+        // Validé sans limite (rien de réservé), annulé après un rechargement qui la rétablit
+        ValidationContext unreserved = new ValidationContext(
+            new Transaction("TXU2", "RETRAIT", 500.0, account, null), service);
+        assertTrue(engine.validate(unreserved).isValid());
+        Files.writeString(rules, withLimit);
+        engine.reload();
+        assertTrue(engine.validate(new Transaction("TXU3", "RETRAIT", 900.0, account, null), service).isValid());
+        engine.undo(unreserved);
+        // Les 900 EUR de TXU3 restent réservés
+        assertFalse(engine.validate(new Transaction("TXU4", "RETRAIT", 200.0, account, null), service).isValid());
+    }
+
+    @Test
+    public void testCommandFailureAndUndoReleaseDailyLimit() {
+        BankingService service = new BankingService();
+        BankAccount poor = service.createAccount("COURANT", "Client 0", "c0@test.fr", "0600000000", 100);
+        BankAccount rich = service.createAccount("COURANT", "Client 1", "c1@test.fr", "0600000000", 5000);
+        Properties rules = new Properties();
+        rules.setProperty("steps", "amount,accountExists,dailyLimit");
+        rules.setProperty("daily.limit", "1000");
+        ValidationRuleEngine engine = new ValidationRuleEngine(rules);
+        TransactionExecutor executor = new TransactionExecutor();
+
+        // Retrait validé puis refusé par le découvert : la réservation est rendue
+        assertFalse(executor.execute(new WithdrawCommand(poor, Money.eur(900), engine, service)));
+        assertTrue(engine.validate(new Transaction("TXD1", "RETRAIT", 900.0, poor.getAccountNumber(), null),
+                                   service).isValid());
+
+        // Retrait annulé : la réservation est rendue, un virement du même montant passe
+        assertTrue(executor.execute(new WithdrawCommand(rich, Money.eur(900), engine, service)));
+        assertTrue(executor.undo());
+        assertTrue(executor.execute(new TransferCommand(rich, poor, Money.eur(900), engine, service)));
+        assertFalse(executor.execute(new WithdrawCommand(rich, Money.eur(200), engine, service)));
+
+        // Virement annulé puis rejoué : réservation rendue puis reprise
+        assertTrue(executor.undo());
+        assertTrue(executor.redo());
+        assertFalse(executor.execute(new WithdrawCommand(rich, Money.eur(200), engine, service)));
+        assertEquals(4100.0, rich.getBalance(), 0.001);
+    }
+
+    @Test
+    public void testTransferExecutedTwiceKeepsOneReservation() {
+        BankingService service = new BankingService();
+        BankAccount source = service.createAccount("COURANT", "Client 0", "c0@test.fr", "0600000000", 5000);
+        BankAccount destination = service.createAccount("COURANT", "Client 1", "c1@test.fr", "0600000000", 100);
+        DailyLimitLedger ledger = new DailyLimitLedger();
+        CompiledValidationPipeline pipeline = new CompiledValidationPipeline(new DailyLimitValidator(ledger));
+        TransferCommand transfer = new TransferCommand(source, destination, Money.eur(300), pipeline, service);
+        long day = LocalDate.now().toEpochDay();
+
+        assertTrue(transfer.execute());
+        assertFalse(transfer.execute());
+        assertEquals(Money.toMinor(300), ledger.used(source.getHandle(), day));
+        assertEquals(4700.0, source.getBalance(), 0.001);
+
+        assertTrue(transfer.undo());
+        assertEquals(0, ledger.used(source.getHandle(), day));
+        assertEquals(5000.0, source.getBalance(), 0.001);
+
+        WithdrawCommand withdrawal = new WithdrawCommand(source, Money.eur(200), pipeline, service);
+        assertTrue(withdrawal.execute());
+        assertFalse(withdrawal.execute());
+        assertTrue(withdrawal.undo());
+        assertEquals(0, ledger.used(source.getHandle(), day));
+        assertEquals(5000.0, source.getBalance(), 0.001);
+    }
+
+    @Test
+    public void testValidationResultCodesAndMessages() {
+        BankingService service = new BankingService();
+        service.createAccount("COURANT", "Client", "c@test.fr", "0600000000", 100);
+        CompiledValidationPipeline pipeline = ValidationChainBuilder.compileSimple();
+
+        ValidationResult accepted = pipeline.validate(new Transaction("TXC1", "RETRAIT", 50.0, "ACC1000", null), service);
+        assertSame(ValidationResult.success(), accepted);
+        assertNull(accepted.getCode());
+        assertNull(accepted.getErrorMessage());
+
+        ValidationResult negative = pipeline.validate(new Transaction("TXC2", "RETRAIT", -1.0, "ACC1000", null), service);
+        assertSame(ValidationResult.failure(FailureCode.INVALID_AMOUNT), negative);
+        assertEquals("Le montant doit être positif", negative.getErrorMessage());
+
+        // Détails bruts, message rendu à la demande à l'identique des anciens messages
+        ValidationResult tooLarge = pipeline.validate(new Transaction("TXC3", "RETRAIT", 700.0, "ACC1000", null), service);
+        assertEquals(FailureCode.INSUFFICIENT_BALANCE, tooLarge.getCode());
+        assertEquals(700.0, tooLarge.getAmount());
+        assertEquals(600.0, tooLarge.getLimit());
+        assertEquals("Solde insuffisant. Disponible: 600.0 EUR, demandé: 700.0 EUR", tooLarge.getErrorMessage());
+
+        ValidationResult unknown = pipeline.validate(new Transaction("TXC4", "RETRAIT", 10.0, "ACC9999", null), service);
+        assertEquals(FailureCode.SOURCE_NOT_FOUND, unknown.getCode());
+        assertEquals("ACC9999", unknown.getSubject());
+        assertEquals("ValidationResult[INVALID: Compte source introuvable: ACC9999]", unknown.toString());
+
+        ValidationResult free = ValidationResult.failure("Commande refusée");
+        assertEquals(FailureCode.REJECTED, free.getCode());
+        assertEquals("Commande refusée", free.getErrorMessage());
+    }
+
+    @Test
+    public void testValidationTraceLevelsAndSinks(@TempDir Path directory) throws Exception {
+        BankingService service = new BankingService();
+        service.createAccount("COURANT", "Client", "c@test.fr", "0600000000", 100);
+        CompiledValidationPipeline pipeline = ValidationChainBuilder.compileSimple();
+        Transaction accepted = new Transaction("TXT1", "RETRAIT", 50.0, "ACC1000", null);
+        Transaction refused = new Transaction("TXT2", "RETRAIT", 700.0, "ACC1000", null);
+
+        // Traces coupées par défaut : rien n'arrive sur la console
+        PrintStream originalOut = System.out;
+        ByteArrayOutputStream console = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(console, true, StandardCharsets.UTF_8));
+        try {
+            assertEquals(TraceLevel.OFF, Tracer.getLevel());
+            pipeline.validate(accepted, service);
+            assertEquals(0, console.size());
+        } finally {
+            System.setOut(originalOut);
+        }
+
+        Path file = directory.resolve("trace.log");
+        RingTraceSink ring = new RingTraceSink(2);
+        AsyncFileTraceSink fileSink = new AsyncFileTraceSink(file, 1024);
+        Tracer.configure(TraceLevel.DECISION, TraceSink.tee(ring, fileSink));
+        try {
+            for (int i = 0; i < 3; i++) {
+                pipeline.validate(accepted, service);
+            }
+            pipeline.validate(refused, service);
+        } finally {
+            Tracer.disable();
+            fileSink.close();
+        }
+
+        // Décisions seulement, les deux dernières par validateur
+        assertEquals(4, ring.count("BalanceValidator"));
+        List<TraceEntry> recent = ring.recent("BalanceValidator");
+        assertEquals(2, recent.size());
+        assertEquals("OK - Solde suffisant", recent.get(0).getMessage());
+        assertTrue(recent.get(1).getMessage().startsWith("ÉCHEC - Solde insuffisant"));
+        assertTrue(recent.stream().allMatch(entry -> entry.getLevel() == TraceLevel.DECISION));
+
+        // Toutes les décisions écrites dans le fichier à la fermeture
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(12, lines.size());
+        assertEquals(0, fileSink.getDropped());
+        assertTrue(lines.get(11).contains("DECISION [BalanceValidator] ÉCHEC - Solde insuffisant"));
+    }
 }
@@ -0,0 +1,59 @@
+package com.bank.legacy;
+
+import com.bank.legacy.applied.decorator2.FeeCalculator;
+import com.bank.legacy.applied.decorator2.TransferFeeService;
+import com.bank.legacy.applied.money.Money;
+import com.bank.legacy.old.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests du montant en virgule fixe (centimes)
+ */
+public class MoneyTest {
+
+    @Test
+    public void testArithmeticIsExact() {
+        // 0.1 + 0.2 != 0.3 en double, mais exact en centimes
+        Money total = Money.eur(0.1).plus(Money.eur(0.2));
+        assertEquals(Money.eur(0.3), total);
+        assertEquals("0.30 EUR", total.toString());
+        assertEquals("-12.05 EUR", Money.of(-1205, FeeCalculator.Currency.EUR).toString());
+    }
+
+    @Test
+    public void testDifferentCurrenciesAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+            () -> Money.eur(1).plus(Money.ofMajor(1, FeeCalculator.Currency.USD)));
+    }
+
+    @Test
+    public void testRoundingHalfUp() {
+        assertEquals(3, Money.divideHalfUp(25, 10));
+        assertEquals(-3, Money.divideHalfUp(-25, 10));
+        assertEquals(2, Money.divideHalfUp(24, 10));
+        assertEquals(250, Money.percentOf(10_000, 2.5));
+        assertEquals(1, Money.percentOf(33, 2.5)); // 0.825 centime -> 1
+    }
+
+    @Test
+    public void testTransferFeeMatchesBigDecimalComputation() {
+        TransferFeeService service = new TransferFeeService();
+        for (long cents = 1; cents < 5_000_000; cents += 997) {
+            Transaction tx = new Transaction("TX", "VIREMENT_INTERNATIONAL",
+                Money.of(cents, FeeCalculator.Currency.USD), "A", "B");
+            BigDecimal expected = new BigDecimal("2.00")
+                .add(BigDecimal.valueOf(cents, 2).multiply(new BigDecimal("0.001")))
+                .add(new BigDecimal("0.50"));
+            if (tx.weekend()) {
+                expected = expected.multiply(new BigDecimal("1.10"));
+            }
+            expected = expected.setScale(2, RoundingMode.HALF_UP);
+            assertEquals(expected.unscaledValue().longValueExact(), service.calculateFee(tx).getMinorUnits());
+        }
+    }
+}
@@ -0,0 +1,407 @@
+package com.bank.legacy;
+
+import com.bank.legacy.applied.batch.TransactionRequest;
+import com.bank.legacy.applied.journal.BalanceSnapshot;
+import com.bank.legacy.applied.journal.JournalReader;
+import com.bank.legacy.applied.journal.TransactionJournal;
+import com.bank.legacy.applied.shard.ShardedBankingService;
+import com.bank.legacy.applied.shard.TransferReservation;
+import com.bank.legacy.old.AccountType;
+import com.bank.legacy.old.BankAccount;
+import com.bank.legacy.old.BankingService;
+import com.bank.legacy.old.HeapBankAccount;
+import com.bank.legacy.old.Transaction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests du journal binaire et de la reconstruction des soldes au démarrage
+ */
+public class TransactionJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testReplayRebuildsBalances() throws Exception {
+        Path file = tempDir.resolve("transactions.journal");
+        BankingService service = new BankingService();
+        BankAccount courant;
+        BankAccount epargne;
+
+        try (TransactionJournal journal = new TransactionJournal(file, 4, false)) {
+            service.attachJournal(journal);
+            courant = service.createAccount("COURANT", "User 1", "user1@email.fr", "0600000001", 2000.0);
+            epargne = service.createAccount("EPARGNE", "User 2", "user2@email.fr", "0600000002", 3000.0);
+            service.processTransaction("DEPOT", null, courant.getAccountNumber(), 500.0);
+            service.processTransaction("RETRAIT", courant.getAccountNumber(), null, 1500.0);
+            service.processTransaction("VIREMENT", epargne.getAccountNumber(), courant.getAccountNumber(), 100.0);
+            service.processTransaction("RETRAIT", courant.getAccountNumber(), null, 99999.0); // rejeté
+            service.applyInterest();
+            assertEquals(7, journal.getNextSequence()); // 2 ouvertures, 4 transactions, 1 versement d'intérêts
+        }
+
+        BankingService restarted = new BankingService();
+        assertEquals(7, restarted.replayJournal(file));
+
+        BankAccount courantRecovered = restarted.getAccount(courant.getAccountNumber());
+        BankAccount epargneRecovered = restarted.getAccount(epargne.getAccountNumber());
+        assertEquals(courant.getBalance(), courantRecovered.getBalance());
+        assertEquals(epargne.getBalance(), epargneRecovered.getBalance());
+        assertEquals("EPARGNE", epargneRecovered.getAccountType());
+        assertEquals(500.0, courantRecovered.getOverdraftLimit());
+
+        // La numérotation reprend après les identifiants déjà utilisés
+        BankAccount next = restarted.createAccount("COURANT", "User 3", "user3@email.fr", "0600000003", 100.0);
+        assertEquals("ACC1002", next.getAccountNumber());
+    }
+
+    @Test
+    public void testReplayAfterBatch() throws Exception {
+        Path file = tempDir.resolve("batch.journal");
+        BankingService service = new BankingService();
+        BankAccount courant;
+        BankAccount pro;
+
+        try (TransactionJournal journal = new TransactionJournal(file, 16, false)) {
+            service.attachJournal(journal);
+            courant = service.createAccount("COURANT", "User 1", "user1@email.fr", "0600000001", 1000.0);
+            pro = service.createAccount("PROFESSIONNEL", "User 2", "user2@email.fr", "0600000002", 5000.0);
+            List<TransactionRequest> requests = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                requests.add(TransactionRequest.virement(pro.getAccountNumber(), courant.getAccountNumber(), 10 + i));
+                requests.add(TransactionRequest.retrait(courant.getAccountNumber(), 40.0));
+            }
+            requests.add(TransactionRequest.retrait(courant.getAccountNumber(), 99999.0)); // rejeté
+            service.processBatch(requests);
+            assertEquals(2 + requests.size(), journal.getNextSequence());
+        }
+
+        BankingService restarted = new BankingService();
+        restarted.replayJournal(file);
+        assertEquals(courant.getBalance(), restarted.getAccount(courant.getAccountNumber()).getBalance());
+        assertEquals(pro.getBalance(), restarted.getAccount(pro.getAccountNumber()).getBalance());
+    }
+
+    @Test
+    public void testShardedReplayAfterCrossShardTransfers() throws Exception {
+        ShardedBankingService sharded = new ShardedBankingService(2);
+        Path[] files = {tempDir.resolve("shard0.journal"), tempDir.resolve("shard1.journal")};
+        TransactionJournal[] journals = new TransactionJournal[2];
+        List<String> accountNumbers = new ArrayList<>();
+        try {
+            for (int i = 0; i < 2; i++) {
+                journals[i] = new TransactionJournal(files[i], 16, false);
+                sharded.getShard(i).attachJournal(journals[i]);
+            }
+            for (int i = 0; i < 6; i++) {
+                accountNumbers.add(sharded.createAccount("EPARGNE", "User " + i, "u" + i + "@email.fr",
+                    "060000000" + i, 1000.0).getAccountNumber());
+            }
+            Random random = new Random(7);
+            for (int i = 0; i < 200; i++) {
+                sharded.processTransaction("VIREMENT", accountNumbers.get(random.nextInt(6)),
+                    accountNumbers.get(random.nextInt(6)), 1 + random.nextInt(300));
+            }
+        } finally {
+            for (TransactionJournal journal : journals) {
+                journal.close();
+            }
+        }
+
+        ShardedBankingService restarted = new ShardedBankingService(2);
+        restarted.replayJournals(files);
+        for (String accountNumber : accountNumbers) {
+            assertEquals(sharded.getAccount(accountNumber).getBalanceMinor(),
+                         restarted.getAccount(accountNumber).getBalanceMinor(), accountNumber);
+        }
+        assertEquals("ACC1006", restarted.createAccount("COURANT", "User 6", "u6@email.fr",
+            "0600000006", 100.0).getAccountNumber());
+    }
+
+    @Test
+    public void testSnapshotDuringCrossShardReservation() throws Exception {
+        ShardedBankingService sharded = new ShardedBankingService(2);
+        Path[] files = {tempDir.resolve("shard0.journal"), tempDir.resolve("shard1.journal")};
+        Path[] snapshots = {tempDir.resolve("snapshots0"), tempDir.resolve("snapshots1")};
+        TransactionJournal[] journals = new TransactionJournal[2];
+        String[] accounts;
+        try {
+            for (int i = 0; i < 2; i++) {
+                journals[i] = new TransactionJournal(files[i], 16, false);
+                sharded.getShard(i).attachJournal(journals[i]);
+            }
+            accounts = openOnEachShard(sharded);
+            BankingService source = sharded.getShard(0);
+            BankingService destination = sharded.getShard(1);
+
+            // Image du shard source prise pendant que le virement est réservé
+            TransferReservation reservation = source.reserveTransfer(accounts[0], accounts[1], true, 100.0);
+            source.takeSnapshot(snapshots[0]);
+            assertTrue(destination.creditTransfer(reservation));
+            source.completeTransfer(reservation);
+        } finally {
+            for (TransactionJournal journal : journals) {
+                journal.close();
+            }
+        }
+
+        ShardedBankingService restarted = new ShardedBankingService(2);
+        restarted.recover(snapshots, files);
+        for (String accountNumber : accounts) {
+            assertEquals(sharded.getAccount(accountNumber).getBalanceMinor(),
+                         restarted.getAccount(accountNumber).getBalanceMinor(), accountNumber);
+        }
+        assertTrue(restarted.getShard(0).getOpenReservations().isEmpty());
+    }
+
+    @Test
+    public void testInterruptedCrossShardTransfersAreResolvedOnReplay() throws Exception {
+        ShardedBankingService sharded = new ShardedBankingService(2);
+        Path[] files = {tempDir.resolve("shard0.journal"), tempDir.resolve("shard1.journal")};
+        Path[] snapshots = {tempDir.resolve("snapshots0"), tempDir.resolve("snapshots1")};
+        TransactionJournal[] journals = new TransactionJournal[2];
+        String[] accounts;
+        TransferReservation uncredited;
+        try {
+            for (int i = 0; i < 2; i++) {
+                journals[i] = new TransactionJournal(files[i], 16, false);
+                sharded.getShard(i).attachJournal(journals[i]);
+            }
+            accounts = openOnEachShard(sharded);
+            BankingService source = sharded.getShard(0);
+
+            // Arrêt après le crédit (à confirmer) et avant le crédit (à annuler)
+            TransferReservation credited = source.reserveTransfer(accounts[0], accounts[1], true, 100.0);
+            assertTrue(sharded.getShard(1).creditTransfer(credited));
+            uncredited = source.reserveTransfer(accounts[0], accounts[1], true, 50.0);
+            source.takeSnapshot(snapshots[0]);
+        } finally {
+            for (TransactionJournal journal : journals) {
+                journal.close();
+            }
+        }
+
+        long refund = uncredited.getTransaction().getAmountMinor() + uncredited.getFeesMinor();
+        for (boolean fromSnapshot : new boolean[]{false, true}) {
+            ShardedBankingService restarted = new ShardedBankingService(2);
+            if (fromSnapshot) {
+                restarted.recover(snapshots, files);
+            } else {
+                restarted.replayJournals(files);
+            }
+            assertEquals(sharded.getAccount(accounts[0]).getBalanceMinor() + refund,
+                         restarted.getAccount(accounts[0]).getBalanceMinor());
+            assertEquals(sharded.getAccount(accounts[1]).getBalanceMinor(),
+                         restarted.getAccount(accounts[1]).getBalanceMinor());
+            assertTrue(restarted.getShard(0).getOpenReservations().isEmpty());
+        }
+    }
+
+    /**
+     * Ouvre des comptes jusqu'à en avoir un sur le shard 0 et un sur le shard 1
+     */
+    @Test
+    public void testSnapshotsAreNamedByJournalHead() throws Exception {
+        ShardedBankingService sharded = new ShardedBankingService(2);
+        Path[] files = {tempDir.resolve("shard0.journal"), tempDir.resolve("shard1.journal")};
+        Path snapshots = tempDir.resolve("snapshots");
+        TransactionJournal[] journals = new TransactionJournal[2];
+        try {
+            for (int i = 0; i < 2; i++) {
+                journals[i] = new TransactionJournal(files[i], 16, false);
+                sharded.getShard(i).attachJournal(journals[i]);
+            }
+            String[] accounts = openOnEachShard(sharded);
+            BankingService source = sharded.getShard(0);
+
+            // Deux images pendant la même réservation : même séquence de relecture, noms distincts
+            TransferReservation reservation = source.reserveTransfer(accounts[0], accounts[1], true, 100.0);
+            Path first = source.takeSnapshot(snapshots);
+            source.processTransaction("DEPOT", null, accounts[0], 10.0);
+            Path second = source.takeSnapshot(snapshots);
+            assertNotEquals(first, second);
+            assertEquals(second, BalanceSnapshot.latest(snapshots));
+
+            BalanceSnapshot loaded = BalanceSnapshot.load(second, account -> { });
+            assertEquals(reservation.getJournalSequence(), loaded.getJournalSequence());
+            assertEquals(journals[0].getNextSequence(), loaded.getHeadSequence());
+
+            BalanceSnapshot.prune(snapshots, 1);
+            assertEquals(second, BalanceSnapshot.latest(snapshots));
+            assertFalse(first.toFile().exists());
+        } finally {
+            for (TransactionJournal journal : journals) {
+                journal.close();
+            }
+        }
+    }
+
+    @Test
+    public void testFailedSnapshotIsNotPublished() throws Exception {
+        Path file = tempDir.resolve("failing.journal");
+        Path snapshots = tempDir.resolve("snapshots");
+        BankingService service = new BankingService();
+        TransactionJournal journal = new TransactionJournal(file, 16, false);
+        service.attachJournal(journal);
+        String accountNumber = service.createAccount("COURANT", "User", "u@email.fr", "0600000000", 1000.0)
+            .getAccountNumber();
+        Path published = service.takeSnapshot(snapshots);
+
+        // Enregistrement en attente sur un journal fermé : le flush de l'image échoue
+        journal.close();
+        service.processTransaction("DEPOT", null, accountNumber, 10.0);
+        assertThrows(UncheckedIOException.class, () -> service.takeSnapshot(snapshots));
+
+        assertEquals(published, BalanceSnapshot.latest(snapshots));
+        try (Stream<Path> files = Files.list(snapshots)) {
+            assertEquals(List.of(published), files.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void testJournalFailureLeavesStateUnchanged() throws Exception {
+        Path file = tempDir.resolve("closed.journal");
+        BankingService service = new BankingService();
+        TransactionJournal journal = new TransactionJournal(file, 1, false);
+        service.attachJournal(journal);
+        String courant = service.createAccount("COURANT", "User 1", "u1@email.fr", "0600000001", 1000.0)
+            .getAccountNumber();
+        String epargne = service.createAccount("EPARGNE", "User 2", "u2@email.fr", "0600000002", 2000.0)
+            .getAccountNumber();
+
+        // Journal fermé : l'écriture échoue avant que soldes et grand livre ne soient modifiés
+        journal.close();
+        assertThrows(UncheckedIOException.class, () -> service.processTransaction("DEPOT", null, courant, 100.0));
+        assertThrows(UncheckedIOException.class, () -> service.processTransaction("VIREMENT", courant, epargne, 100.0));
+        assertThrows(UncheckedIOException.class, () -> service.processBatch(
+            List.of(TransactionRequest.depot(courant, 50.0), TransactionRequest.retrait(epargne, 50.0))));
+        assertThrows(UncheckedIOException.class, service::applyInterest);
+        assertEquals(1000.0, service.getAccount(courant).getBalance());
+        assertEquals(2000.0, service.getAccount(epargne).getBalance());
+        assertTrue(service.getTransactions().isEmpty());
+
+        BankingService restarted = new BankingService();
+        assertEquals(2, restarted.replayJournal(file));
+        assertEquals(1000.0, restarted.getAccount(courant).getBalance());
+        assertEquals(2000.0, restarted.getAccount(epargne).getBalance());
+
+        // Lot dont un enregistrement ne tient pas : refusé en entier
+        try (TransactionJournal batchJournal = new TransactionJournal(tempDir.resolve("batch.journal"), 4, false)) {
+            Transaction[] batch = {
+                new Transaction("TX1", "DEPOT", 10.0, null, courant),
+                new Transaction("TX" + "9".repeat(TransactionJournal.MAX_TRANSACTION_ID_BYTES), "DEPOT", 10.0, null, courant)
+            };
+            assertThrows(IllegalArgumentException.class, () -> batchJournal.appendTransactions(batch, new long[2], 2));
+            assertEquals(0, batchJournal.getNextSequence());
+        }
+    }
+
+    private static String[] openOnEachShard(ShardedBankingService sharded) {
+        String[] accounts = new String[2];
+        while (accounts[0] == null || accounts[1] == null) {
+            String accountNumber = sharded.createAccount("COURANT", "User", "u@email.fr", "0600000000", 1000.0)
+                .getAccountNumber();
+            accounts[sharded.shardOf(accountNumber)] = accountNumber;
+        }
+        return accounts;
+    }
+
+    @Test
+    public void testTornTailIsIgnoredAndTruncated() throws Exception {
+        Path file = tempDir.resolve("torn.journal");
+        try (TransactionJournal journal = new TransactionJournal(file)) {
+            BankingService service = new BankingService();
+            service.attachJournal(journal);
+            BankAccount account = service.createAccount("COURANT", "User", "user@email.fr", "0600000000", 500.0);
+            service.processTransaction("DEPOT", null, account.getAccountNumber(), 100.0);
+        }
+
+        // Simule un arrêt brutal au milieu de l'écriture d'un enregistrement
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12}));
+        }
+
+        assertEquals(2, JournalReader.replay(file, 0, record -> { }));
+        try (TransactionJournal reopened = new TransactionJournal(file)) {
+            assertEquals(2, reopened.getNextSequence());
+        }
+    }
+
+    @Test
+    public void testRecoverFromSnapshotTakenUnderLoad() throws Exception {
+        Path file = tempDir.resolve("load.journal");
+        Path snapshots = tempDir.resolve("snapshots");
+        BankingService service = new BankingService();
+        List<String> accountNumbers = new ArrayList<>();
+
+        try (TransactionJournal journal = new TransactionJournal(file, 64, false)) {
+            service.attachJournal(journal);
+            for (int i = 0; i < 8; i++) {
+                accountNumbers.add(service.createAccount("COURANT", "User " + i, "u" + i + "@email.fr",
+                    "060000000" + i, 1000.0).getAccountNumber());
+            }
+
+            // Les virements continuent pendant la prise des images
+            Thread worker = new Thread(() -> {
+                Random random = new Random(42);
+                for (int i = 0; i < 5000; i++) {
+                    String source = accountNumbers.get(random.nextInt(accountNumbers.size()));
+                    String destination = accountNumbers.get(random.nextInt(accountNumbers.size()));
+                    service.processTransaction("VIREMENT", source, destination, 1 + random.nextInt(50));
+                }
+            });
+            worker.start();
+            while (worker.isAlive()) {
+                service.takeSnapshot(snapshots);
+                BalanceSnapshot.prune(snapshots, 2);
+            }
+            worker.join();
+        }
+
+        BankingService restarted = new BankingService();
+        restarted.recover(snapshots, file);
+        for (String accountNumber : accountNumbers) {
+            assertEquals(service.getAccount(accountNumber).getBalance(),
+                         restarted.getAccount(accountNumber).getBalance(), 1e-6, accountNumber);
+        }
+    }
+
+    @Test
+    public void testTooLongIdentifiersAreRejectedNotTruncated() throws Exception {
+        Path file = tempDir.resolve("long.journal");
+        String longNumber = "ACC" + "9".repeat(TransactionJournal.MAX_ACCOUNT_NUMBER_BYTES);
+        BankingService service = new BankingService();
+
+        try (TransactionJournal journal = new TransactionJournal(file, 1, false)) {
+            service.attachJournal(journal);
+            assertNull(service.createAccount(longNumber, AccountType.COURANT, "User", "u@email.fr", "0600000000", 500.0));
+            assertNull(service.getAccount(longNumber));
+            assertEquals(0, journal.getNextSequence());
+
+            // Même un appel direct ne produit pas d'enregistrement tronqué
+            BankAccount account = new HeapBankAccount(longNumber, "COURANT", "User", "u@email.fr", "0600000000",
+                                                  500.0, 0.0, 0.0);
+            assertThrows(IllegalArgumentException.class, () -> journal.appendAccountOpening(account));
+            assertEquals(0, journal.getNextSequence());
+
+            // Préfixe de service trop long : refusé avant la première transaction
+            BankingService prefixed = new BankingService("SERVICE-REGION-EUROPE-TX");
+            assertThrows(IllegalArgumentException.class, () -> prefixed.attachJournal(journal));
+        }
+    }
+}